@@ -0,0 +1,165 @@
+package AST;
+
+import java.util.Arrays;
+
+// The inline caches of one method call site: the receiver classes seen there and what the call resolved to for each.
+// Every owner that runs the call (the Interpreter) has its own Site here, so two Interpreters over one tree neither
+// evict nor see each other's entries. A Site is used by its owner's thread only; the array of them is replaced, never
+// changed, so another owner reading it while one is added sees the old array or the new one, each fully built.
+// Up to LIMIT classes are kept (one is monomorphic, more is polymorphic); a site that sees more than that is
+// megamorphic and stops caching, its calls go back to the full lookup. What a target is belongs to the owner (the
+// Interpreter keeps its dispatch table entries here). Entries only count with the same method name and argument count
+// and for the version of the TranNode they were filled from - a hot reload that replaces declarations in a class
+// calls changed() on the TranNode, and since the class is still the same ClassNode afterwards the version is what
+// tells the entries are stale.
+public final class CallSiteCache {
+    public static final int LIMIT = 4;
+    static final int OWNERS = 4; // beyond that the site forgets the owner that came first
+
+    private static final Site[] NO_SITES = new Site[0];
+
+    private volatile Site[] sites = NO_SITES;
+
+    // owner's Site here, made the first time owner asks
+    public Site site(Object owner) {
+        Site[] current = sites;
+        for (Site s : current) {
+            if (s.owner == owner) {
+                return s;
+            }
+        }
+        synchronized (this) {
+            current = sites;
+            for (Site s : current) {
+                if (s.owner == owner) {
+                    return s;
+                }
+            }
+            Site[] grown = current.length < OWNERS ? Arrays.copyOf(current, current.length + 1)
+                    : Arrays.copyOfRange(current, 1, current.length + 1);
+            Site retVal = new Site(owner);
+            grown[grown.length - 1] = retVal;
+            sites = grown;
+            return retVal;
+        }
+    }
+
+    // owner's Site here, or null if owner hasn't called through this site
+    public Site find(Object owner) {
+        for (Site s : sites) {
+            if (s.owner == owner) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    // every owner starts again with an empty Site
+    public void invalidate() {
+        sites = NO_SITES;
+    }
+
+    // One owner's cache of the call. The counters outlive a change of version, only the entries go.
+    public static final class Site {
+        private final Object owner;
+        private ClassNode[] receivers;
+        private Object[] targets;
+        private int size;
+        private int version;
+        private int symbol = SymbolTable.NONE;
+        private int arity;
+        private boolean megamorphic;
+        private long hits;
+        private long misses;
+        private long megamorphicCalls;
+
+        private Site(Object owner) {
+            this.owner = owner;
+        }
+
+        // what receiver resolved to here before, or null when the caller has to look it up (then add() what it found)
+        public Object lookup(int version, int symbol, int arity, ClassNode receiver) {
+            if (version != this.version || symbol != this.symbol || arity != this.arity) {
+                reset(version, symbol, arity);
+            }
+            if (megamorphic) {
+                megamorphicCalls++;
+                return null;
+            }
+            for (int i = 0; i < size; i++) {
+                if (receivers[i] == receiver) {
+                    hits++;
+                    return targets[i];
+                }
+            }
+            misses++;
+            return null;
+        }
+
+        public void add(int version, int symbol, int arity, ClassNode receiver, Object target) {
+            if (version != this.version || symbol != this.symbol || arity != this.arity) {
+                reset(version, symbol, arity);
+            }
+            if (megamorphic) {
+                return;
+            }
+            if (size == LIMIT) {
+                megamorphic = true;
+                receivers = null;
+                targets = null;
+                size = 0;
+                return;
+            }
+            if (receivers == null) {
+                receivers = new ClassNode[LIMIT];
+                targets = new Object[LIMIT];
+            }
+            receivers[size] = receiver;
+            targets[size] = target;
+            size++;
+        }
+
+        private void reset(int version, int symbol, int arity) {
+            this.version = version;
+            this.symbol = symbol;
+            this.arity = arity;
+            receivers = null;
+            targets = null;
+            size = 0;
+            megamorphic = false;
+        }
+
+        // how many receiver classes are cached, 0 for an empty or megamorphic site
+        public int size() {
+            return size;
+        }
+
+        public boolean isMegamorphic() {
+            return megamorphic;
+        }
+
+        public long hits() {
+            return hits;
+        }
+
+        public long misses() {
+            return misses;
+        }
+
+        // calls made after the site went megamorphic, none of them looked in the cache
+        public long megamorphicCalls() {
+            return megamorphicCalls;
+        }
+
+        public double hitRate() {
+            long calls = hits + misses + megamorphicCalls;
+            return calls == 0 ? 0 : (double) hits / calls;
+        }
+
+        @Override
+        public String toString() {
+            String state = megamorphic ? "megamorphic" : size == 0 ? "empty" : size == 1 ? "monomorphic" : "polymorphic(" + size + ")";
+            return String.format("%s, %d hits, %d misses, %d megamorphic, %.1f%% hit", state, hits, misses, megamorphicCalls, hitRate() * 100);
+        }
+    }
+}
@@ -11,6 +11,21 @@ public class ClassNode implements Node {
     public List<MethodDeclarationNode> methods = new ArrayList<>();
     public List<MemberNode> members = new ArrayList<>();
 
+    private SymbolTable.Symbol symbol; // immutable, so it needs no lock to be read from another thread
+
+    // symbol is the name's id in symbols, as the lexer found it
+    public void setName(String name, SymbolTable symbols, int symbol) {
+        this.name = name;
+        this.symbol = symbols == null || symbol == SymbolTable.NONE ? null : new SymbolTable.Symbol(symbols, name, symbol);
+    }
+
+    // the name's id in symbols, looked up again only if name has been assigned since or another table asks
+    public int symbol(SymbolTable symbols) {
+        SymbolTable.Symbol cached = symbols.symbolOf(symbol, name);
+        symbol = cached;
+        return cached.id();
+    }
+
     @Override
     public String toString() {
         var sb = new StringBuilder();
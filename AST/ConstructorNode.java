@@ -8,8 +8,38 @@ public class ConstructorNode implements Node {
     public List<VariableDeclarationNode> locals = new ArrayList<>();
     public List<StatementNode> statements = new ArrayList<>();
 
+    private volatile DeferredBody deferred; // the body, while it hasn't been parsed yet
+
+    public void deferBody(DeferredBody body) {
+        deferred = body;
+    }
+
+    public boolean isBodyParsed() {
+        return deferred == null;
+    }
+
+    // parses a deferred body into locals and statements; only once, however many threads ask at the same time.
+    // Anything that reads locals or statements of a lazily parsed tree calls this first
+    public void ensureParsed() {
+        if (deferred == null) {
+            return;
+        }
+        synchronized (this) {
+            DeferredBody body = deferred;
+            if (body != null) {
+                var parsedLocals = new ArrayList<VariableDeclarationNode>();
+                var parsedStatements = new ArrayList<StatementNode>();
+                body.parse(parsedLocals, parsedStatements);
+                locals = parsedLocals;
+                statements = parsedStatements;
+                deferred = null;
+            }
+        }
+    }
+
     @Override
     public String toString() {
+        ensureParsed();
         return "Constructor: " + Node.variableDeclarationListToString(parameters) + "\n" + Node.variableDeclarationListToString(locals) + "\n" + Node.statementListToString(statements);
     }
 }
@@ -0,0 +1,9 @@
+package AST;
+
+import java.util.List;
+
+// The body of a method or constructor that the parser skipped over (Parser's lazy mode). parse() fills in the
+// locals and statements the way the parser would have, the first time the body is needed.
+public interface DeferredBody {
+    void parse(List<VariableDeclarationNode> locals, List<StatementNode> statements);
+}
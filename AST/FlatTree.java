@@ -0,0 +1,489 @@
+package AST;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+// A TranNode packed into parallel int arrays instead of one object per node. A node is an index: kind[n] says what
+// it is, value[n] and extra[n] hold its payload (a SymbolTable id, an operator ordinal, a literal) and its children
+// are the count[n] nodes starting at first[n]. Siblings are always next to each other, so walking a block of
+// statements or a call's parameters reads one run of each array rather than following a reference per node.
+// Lists (statements, parameters, members...) are LIST nodes, an empty Optional is a NONE node and a null is a NULL
+// node, so toTranNode() gives back the same tree it was built from.
+public final class FlatTree {
+    public static final int NULL = 0, NONE = 1, LIST = 2, TRAN = 3, INTERFACE = 4, METHOD_HEADER = 5, CLASS = 6,
+            NAME = 7, MEMBER = 8, CONSTRUCTOR = 9, METHOD = 10, VARIABLE = 11, ASSIGNMENT = 12, METHOD_CALL = 13,
+            IF = 14, ELSE = 15, LOOP = 16, BOOLEAN_LITERAL = 17, BOOLEAN_OP = 18, CHAR_LITERAL = 19, COMPARE = 20,
+            MATH_OP = 21, CALL = 22, NEW = 23, NOT_OP = 24, NUMERIC_LITERAL = 25, STRING_LITERAL = 26,
+            VARIABLE_REFERENCE = 27;
+
+    // METHOD extra bits
+    public static final int SHARED = 1, PRIVATE = 2, BUILT_IN = 4;
+    // METHOD_CALL and CALL extra when the parser left objectName null rather than empty
+    private static final int NULL_OBJECT = -2;
+
+    private byte[] kind;
+    private int[] first;
+    private int[] count;
+    private int[] value;
+    private int[] extra;
+    private String[] strings; // the string literal pool, each distinct literal once
+    private SymbolTable symbols; // the table of the TranNode this was built from, the ids in value and extra are its
+    private int size;
+
+    private FlatTree() {
+    }
+
+    public static FlatTree of(TranNode tran) {
+        var builder = new Builder(tran.symbols());
+        builder.tree.reserve(1);
+        builder.fill(0, tran);
+        return builder.finish();
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    public int root() {
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int kind(int node) {
+        return kind[node];
+    }
+
+    public int childCount(int node) {
+        return count[node];
+    }
+
+    public int firstChild(int node) {
+        return first[node];
+    }
+
+    public int child(int node, int index) {
+        return first[node] + index;
+    }
+
+    // the SymbolTable id of the node's name: the class, method, variable, called method or new'd class
+    public int symbol(int node) {
+        return value[node];
+    }
+
+    public String name(int node) {
+        return value[node] == SymbolTable.NONE ? null : symbols.name(value[node]);
+    }
+
+    // VARIABLE: the type's SymbolTable id. METHOD_CALL and CALL: the object's, negative when there isn't one
+    public int secondSymbol(int node) {
+        return extra[node];
+    }
+
+    public String secondName(int node) {
+        return extra[node] < 0 ? null : symbols.name(extra[node]);
+    }
+
+    public boolean hasFlag(int node, int flag) {
+        return (extra[node] & flag) != 0;
+    }
+
+    // MATH_OP, COMPARE, BOOLEAN_OP: the operator's ordinal, -1 if the parser left it null
+    public int op(int node) {
+        return value[node];
+    }
+
+    public float number(int node) {
+        return Float.intBitsToFloat(value[node]);
+    }
+
+    public String string(int node) {
+        return value[node] < 0 ? null : strings[value[node]];
+    }
+
+    public boolean bool(int node) {
+        return value[node] != 0;
+    }
+
+    public Character character(int node) {
+        return value[node] < 0 ? null : (char) value[node];
+    }
+
+    // bytes held by the arrays and the literal pool, the way TokenBuffer.footprint() counts them
+    public long footprint() {
+        long retVal = 16L * 5 + kind.length + 4L * (first.length + count.length + value.length + extra.length);
+        retVal += 16 + 4L * strings.length;
+        for (String s : strings) {
+            retVal += 24 + 16 + s.length();
+        }
+        return retVal;
+    }
+
+    private void reserve(int nodes) {
+        if (size + nodes > first.length) {
+            int capacity = Math.max(first.length * 2, size + nodes);
+            kind = Arrays.copyOf(kind, capacity);
+            first = Arrays.copyOf(first, capacity);
+            count = Arrays.copyOf(count, capacity);
+            value = Arrays.copyOf(value, capacity);
+            extra = Arrays.copyOf(extra, capacity);
+        }
+        size += nodes;
+    }
+
+    private static final class Builder {
+        final FlatTree tree = new FlatTree();
+        final SymbolTable symbols;
+        final ArrayList<String> strings = new ArrayList<>();
+        final HashMap<String, Integer> stringIndex = new HashMap<>();
+
+        Builder(SymbolTable symbols) {
+            this.symbols = symbols;
+            tree.symbols = symbols;
+            tree.kind = new byte[1024];
+            tree.first = new int[1024];
+            tree.count = new int[1024];
+            tree.value = new int[1024];
+            tree.extra = new int[1024];
+        }
+
+        FlatTree finish() {
+            tree.kind = Arrays.copyOf(tree.kind, tree.size);
+            tree.first = Arrays.copyOf(tree.first, tree.size);
+            tree.count = Arrays.copyOf(tree.count, tree.size);
+            tree.value = Arrays.copyOf(tree.value, tree.size);
+            tree.extra = Arrays.copyOf(tree.extra, tree.size);
+            tree.strings = strings.toArray(new String[0]);
+            return tree;
+        }
+
+        void set(int node, int kind, int value, int extra) {
+            tree.kind[node] = (byte) kind;
+            tree.value[node] = value;
+            tree.extra[node] = extra;
+        }
+
+        // reserves the children as one block after everything placed so far, then fills each in turn
+        void children(int node, Object... children) {
+            int start = tree.size;
+            tree.reserve(children.length);
+            tree.first[node] = start;
+            tree.count[node] = children.length;
+            for (int i = 0; i < children.length; i++) {
+                fill(start + i, children[i]);
+            }
+        }
+
+        int literal(String s) {
+            if (s == null) {
+                return -1;
+            }
+            return stringIndex.computeIfAbsent(s, k -> {
+                strings.add(k);
+                return strings.size() - 1;
+            });
+        }
+
+        static int ordinal(Enum<?> op) {
+            return op == null ? -1 : op.ordinal();
+        }
+
+        int objectSymbol(Optional<String> objectName) {
+            if (objectName == null) {
+                return NULL_OBJECT;
+            }
+            return objectName.isEmpty() ? SymbolTable.NONE : symbols.intern(objectName.get());
+        }
+
+        void fill(int node, Object o) {
+            if (o == null) {
+                set(node, NULL, 0, 0);
+            } else if (o instanceof List<?> list) {
+                set(node, LIST, 0, 0);
+                children(node, list.toArray());
+            } else if (o instanceof Optional<?> optional) {
+                if (optional.isPresent()) {
+                    fill(node, optional.get());
+                } else {
+                    set(node, NONE, 0, 0);
+                }
+            } else if (o instanceof TranNode tran) {
+                set(node, TRAN, 0, 0);
+                children(node, tran.Interfaces, tran.Classes);
+            } else if (o instanceof InterfaceNode interfaceNode) {
+                set(node, INTERFACE, symbols.intern(interfaceNode.name), 0);
+                children(node, interfaceNode.methods);
+            } else if (o instanceof MethodHeaderNode header) {
+                set(node, METHOD_HEADER, symbols.intern(header.name), 0);
+                children(node, header.parameters, header.returns);
+            } else if (o instanceof ClassNode classNode) {
+                set(node, CLASS, classNode.symbol(symbols), 0);
+                children(node, classNode.interfaces, classNode.members, classNode.constructors, classNode.methods);
+            } else if (o instanceof String name) {
+                set(node, NAME, symbols.intern(name), 0);
+            } else if (o instanceof MemberNode member) {
+                set(node, MEMBER, 0, 0);
+                children(node, member.declaration, member.accessor, member.mutator);
+            } else if (o instanceof ConstructorNode constructor) {
+                constructor.ensureParsed();
+                set(node, CONSTRUCTOR, 0, 0);
+                children(node, constructor.parameters, constructor.locals, constructor.statements);
+            } else if (o instanceof MethodDeclarationNode method) {
+                method.ensureParsed();
+                int flags = (method.isShared ? SHARED : 0) | (method.isPrivate ? PRIVATE : 0)
+                        | (method instanceof BuiltInMethodDeclarationNode ? BUILT_IN : 0);
+                set(node, METHOD, method.symbol(symbols), flags);
+                children(node, method.parameters, method.returns, method.locals, method.statements);
+            } else if (o instanceof VariableDeclarationNode declaration) {
+                set(node, VARIABLE, symbols.intern(declaration.name), symbols.intern(declaration.type));
+            } else if (o instanceof AssignmentNode assignment) {
+                set(node, ASSIGNMENT, 0, 0);
+                children(node, assignment.target, assignment.expression);
+            } else if (o instanceof MethodCallStatementNode call) {
+                set(node, METHOD_CALL, call.methodSymbol(symbols), objectSymbol(call.objectName));
+                children(node, call.returnValues, call.parameters);
+            } else if (o instanceof IfNode ifNode) {
+                set(node, IF, 0, 0);
+                children(node, ifNode.condition, ifNode.statements, ifNode.elseStatement);
+            } else if (o instanceof ElseNode elseNode) {
+                set(node, ELSE, 0, 0);
+                children(node, elseNode.statements);
+            } else if (o instanceof LoopNode loop) {
+                set(node, LOOP, 0, 0);
+                children(node, loop.assignment, loop.expression, loop.statements);
+            } else if (o instanceof BooleanLiteralNode literal) {
+                set(node, BOOLEAN_LITERAL, literal.value ? 1 : 0, 0);
+            } else if (o instanceof BooleanOpNode booleanOp) {
+                set(node, BOOLEAN_OP, ordinal(booleanOp.op), 0);
+                children(node, booleanOp.left, booleanOp.right);
+            } else if (o instanceof CharLiteralNode literal) {
+                set(node, CHAR_LITERAL, literal.value == null ? -1 : literal.value, 0);
+            } else if (o instanceof CompareNode compare) {
+                set(node, COMPARE, ordinal(compare.op), 0);
+                children(node, compare.left, compare.right);
+            } else if (o instanceof MathOpNode math) {
+                set(node, MATH_OP, ordinal(math.op), 0);
+                children(node, math.left, math.right);
+            } else if (o instanceof MethodCallExpressionNode call) {
+                set(node, CALL, call.methodSymbol(symbols), objectSymbol(call.objectName));
+                children(node, call.parameters);
+            } else if (o instanceof NewNode newNode) {
+                set(node, NEW, symbols.intern(newNode.className), 0);
+                children(node, newNode.parameters);
+            } else if (o instanceof NotOpNode not) {
+                set(node, NOT_OP, 0, 0);
+                children(node, not.left);
+            } else if (o instanceof NumericLiteralNode literal) {
+                set(node, NUMERIC_LITERAL, Float.floatToRawIntBits(literal.value), 0);
+            } else if (o instanceof StringLiteralNode literal) {
+                set(node, STRING_LITERAL, literal(literal.value), 0);
+            } else if (o instanceof VariableReferenceNode reference) {
+                set(node, VARIABLE_REFERENCE, reference.symbol(symbols), 0);
+            } else {
+                throw new IllegalArgumentException("no flat form for " + o.getClass().getName());
+            }
+        }
+    }
+
+    // builds the object graph back, mostly so tests can compare it with the tree this came from
+    public TranNode toTranNode() {
+        var retVal = new TranNode(symbols);
+        retVal.Interfaces.addAll(list(child(0, 0)));
+        retVal.Classes.addAll(list(child(0, 1)));
+        return retVal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> list(int node) {
+        if (kind[node] == NULL) {
+            return null;
+        }
+        var retVal = new ArrayList<T>(count[node]);
+        for (int i = 0; i < count[node]; i++) {
+            retVal.add((T) object(first[node] + i));
+        }
+        return retVal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Optional<T> optional(int node) {
+        return kind[node] == NULL ? null : kind[node] == NONE ? Optional.empty() : Optional.of((T) object(node));
+    }
+
+    private static <E extends Enum<E>> E op(E[] values, int ordinal) {
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T object(int node) {
+        return (T) node(node);
+    }
+
+    private Object node(int n) {
+        switch (kind[n]) {
+            case NULL:
+                return null;
+            case LIST:
+                return list(n);
+            case INTERFACE: {
+                var retVal = new InterfaceNode();
+                retVal.name = name(n);
+                retVal.methods = list(child(n, 0));
+                return retVal;
+            }
+            case METHOD_HEADER: {
+                var retVal = new MethodHeaderNode();
+                retVal.name = name(n);
+                retVal.parameters = list(child(n, 0));
+                retVal.returns = list(child(n, 1));
+                return retVal;
+            }
+            case CLASS: {
+                var retVal = new ClassNode();
+                retVal.setName(name(n), symbols, value[n]);
+                retVal.interfaces = list(child(n, 0));
+                retVal.members = list(child(n, 1));
+                retVal.constructors = list(child(n, 2));
+                retVal.methods = list(child(n, 3));
+                return retVal;
+            }
+            case NAME:
+                return name(n);
+            case MEMBER: {
+                var retVal = new MemberNode();
+                retVal.declaration = object(child(n, 0));
+                retVal.accessor = optional(child(n, 1));
+                retVal.mutator = optional(child(n, 2));
+                return retVal;
+            }
+            case CONSTRUCTOR: {
+                var retVal = new ConstructorNode();
+                retVal.parameters = list(child(n, 0));
+                retVal.locals = list(child(n, 1));
+                retVal.statements = list(child(n, 2));
+                return retVal;
+            }
+            case METHOD: {
+                if (hasFlag(n, BUILT_IN)) {
+                    throw new IllegalStateException("built-in method " + name(n) + " can't be rebuilt");
+                }
+                var retVal = new MethodDeclarationNode();
+                retVal.setName(name(n), symbols, value[n]);
+                retVal.isShared = hasFlag(n, SHARED);
+                retVal.isPrivate = hasFlag(n, PRIVATE);
+                retVal.parameters = list(child(n, 0));
+                retVal.returns = list(child(n, 1));
+                retVal.locals = list(child(n, 2));
+                retVal.statements = list(child(n, 3));
+                return retVal;
+            }
+            case VARIABLE: {
+                var retVal = new VariableDeclarationNode();
+                retVal.name = name(n);
+                retVal.type = secondName(n);
+                return retVal;
+            }
+            case ASSIGNMENT: {
+                var retVal = new AssignmentNode();
+                retVal.target = object(child(n, 0));
+                retVal.expression = object(child(n, 1));
+                return retVal;
+            }
+            case METHOD_CALL: {
+                var retVal = new MethodCallStatementNode();
+                retVal.methodName = name(n);
+                retVal.objectName = extra[n] == NULL_OBJECT ? null : Optional.ofNullable(secondName(n));
+                retVal.returnValues = list(child(n, 0));
+                retVal.parameters = list(child(n, 1));
+                return retVal;
+            }
+            case IF: {
+                var retVal = new IfNode();
+                retVal.condition = object(child(n, 0));
+                retVal.statements = list(child(n, 1));
+                retVal.elseStatement = optional(child(n, 2));
+                return retVal;
+            }
+            case ELSE: {
+                var retVal = new ElseNode();
+                retVal.statements = list(child(n, 0));
+                return retVal;
+            }
+            case LOOP: {
+                var retVal = new LoopNode();
+                retVal.assignment = optional(child(n, 0));
+                retVal.expression = object(child(n, 1));
+                retVal.statements = list(child(n, 2));
+                return retVal;
+            }
+            case BOOLEAN_LITERAL:
+                return new BooleanLiteralNode(bool(n));
+            case BOOLEAN_OP: {
+                var retVal = new BooleanOpNode();
+                retVal.op = op(BooleanOpNode.BooleanOperations.values(), value[n]);
+                retVal.left = object(child(n, 0));
+                retVal.right = object(child(n, 1));
+                return retVal;
+            }
+            case CHAR_LITERAL: {
+                var retVal = new CharLiteralNode();
+                retVal.value = character(n);
+                return retVal;
+            }
+            case COMPARE: {
+                var retVal = new CompareNode();
+                retVal.op = op(CompareNode.CompareOperations.values(), value[n]);
+                retVal.left = object(child(n, 0));
+                retVal.right = object(child(n, 1));
+                return retVal;
+            }
+            case MATH_OP: {
+                var retVal = new MathOpNode();
+                retVal.op = op(MathOpNode.MathOperations.values(), value[n]);
+                retVal.left = object(child(n, 0));
+                retVal.right = object(child(n, 1));
+                return retVal;
+            }
+            case CALL: {
+                var retVal = new MethodCallExpressionNode();
+                retVal.methodName = name(n);
+                retVal.objectName = extra[n] == NULL_OBJECT ? null : Optional.ofNullable(secondName(n));
+                retVal.parameters = list(child(n, 0));
+                return retVal;
+            }
+            case NEW: {
+                var retVal = new NewNode();
+                retVal.className = name(n);
+                retVal.parameters = list(child(n, 0));
+                return retVal;
+            }
+            case NOT_OP: {
+                var retVal = new NotOpNode();
+                retVal.left = object(child(n, 0));
+                return retVal;
+            }
+            case NUMERIC_LITERAL: {
+                var retVal = new NumericLiteralNode();
+                retVal.value = number(n);
+                return retVal;
+            }
+            case STRING_LITERAL: {
+                var retVal = new StringLiteralNode();
+                retVal.value = string(n);
+                return retVal;
+            }
+            case VARIABLE_REFERENCE: {
+                var retVal = new VariableReferenceNode();
+                retVal.setName(name(n), symbols, value[n]);
+                return retVal;
+            }
+            default:
+                throw new IllegalStateException("node " + n + " has kind " + kind[n]);
+        }
+    }
+}
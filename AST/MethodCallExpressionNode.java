@@ -10,6 +10,16 @@ public class MethodCallExpressionNode implements ExpressionNode {
     public Optional<String> objectName;
     public String methodName;
     public List<ExpressionNode> parameters = new ArrayList<>();
+    public final CallSiteCache cache = new CallSiteCache(); // filled by the Interpreter
+
+    private SymbolTable.Symbol symbol; // immutable, so it needs no lock to be read from another thread
+
+    // the methodName's id in symbols, looked up again only if methodName has been assigned since or another table asks
+    public int methodSymbol(SymbolTable symbols) {
+        SymbolTable.Symbol cached = symbols.symbolOf(symbol, methodName);
+        symbol = cached;
+        return cached.id();
+    }
     @Override
     public String toString() {
         return (objectName.map(s -> s + ".").orElse("")) +
@@ -10,6 +10,7 @@ import java.util.Optional;
 public class MethodCallStatementNode implements StatementNode {
     public MethodCallStatementNode() {
         returnValues = new LinkedList<>();
+        cache = new CallSiteCache();
     }
 
     public MethodCallStatementNode(MethodCallExpressionNode mce) {
@@ -17,12 +18,23 @@ public class MethodCallStatementNode implements StatementNode {
         objectName = mce.objectName;
         methodName = mce.methodName;
         parameters = mce.parameters;
+        cache = mce.cache; // the same call site
     }
 
     public Optional<String> objectName;
     public String methodName;
     public List<VariableReferenceNode> returnValues = new ArrayList<>();
     public List<ExpressionNode> parameters = new ArrayList<>();
+    public final CallSiteCache cache; // filled by the Interpreter
+
+    private SymbolTable.Symbol symbol; // immutable, so it needs no lock to be read from another thread
+
+    // the methodName's id in symbols, looked up again only if methodName has been assigned since or another table asks
+    public int methodSymbol(SymbolTable symbols) {
+        SymbolTable.Symbol cached = symbols.symbolOf(symbol, methodName);
+        symbol = cached;
+        return cached.id();
+    }
     public String toString() {
         return
                 Node.variableReferenceListToString(returnValues) + (returnValues.isEmpty() ? "" : " = ") +
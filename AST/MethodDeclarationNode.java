@@ -13,8 +13,53 @@ public class MethodDeclarationNode implements Node {
     public List<VariableDeclarationNode> locals = new ArrayList<>();
     public List<StatementNode> statements = new ArrayList<>();
 
+    private volatile DeferredBody deferred; // the body, while it hasn't been parsed yet
+
+    public void deferBody(DeferredBody body) {
+        deferred = body;
+    }
+
+    public boolean isBodyParsed() {
+        return deferred == null;
+    }
+
+    // parses a deferred body into locals and statements; only once, however many threads ask at the same time.
+    // Anything that reads locals or statements of a lazily parsed tree calls this first
+    public void ensureParsed() {
+        if (deferred == null) {
+            return;
+        }
+        synchronized (this) {
+            DeferredBody body = deferred;
+            if (body != null) {
+                var parsedLocals = new ArrayList<VariableDeclarationNode>();
+                var parsedStatements = new ArrayList<StatementNode>();
+                body.parse(parsedLocals, parsedStatements);
+                locals = parsedLocals;
+                statements = parsedStatements;
+                deferred = null;
+            }
+        }
+    }
+
+    private SymbolTable.Symbol symbol; // immutable, so it needs no lock to be read from another thread
+
+    // symbol is the name's id in symbols, as the lexer found it
+    public void setName(String name, SymbolTable symbols, int symbol) {
+        this.name = name;
+        this.symbol = symbols == null || symbol == SymbolTable.NONE ? null : new SymbolTable.Symbol(symbols, name, symbol);
+    }
+
+    // the name's id in symbols, looked up again only if name has been assigned since or another table asks
+    public int symbol(SymbolTable symbols) {
+        SymbolTable.Symbol cached = symbols.symbolOf(symbol, name);
+        symbol = cached;
+        return cached.id();
+    }
+
     @Override
     public String toString() {
+        ensureParsed();
         return
                 (isShared ? "shared " : "") +
                 (isPrivate ? "private " : "") +
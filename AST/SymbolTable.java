@@ -0,0 +1,126 @@
+package AST;
+
+import java.util.Arrays;
+
+// Every identifier in a program gets one dense int id, shared by the lexer, the AST and the interpreter, so comparing
+// two names is comparing two ints. A table belongs to one program (its TranNode, see TranNode.symbols()) and goes when
+// the program does; ids are never taken back while it lives. Looking up a name that is already in the table takes no
+// lock and, for a slice of source text, makes no String, so the pieces of a ParallelLexer can share one.
+public final class SymbolTable {
+    public static final int NONE = -1;
+
+    // A node's name and its id in one table. It is immutable, so a node can cache it in a plain field and a reader on
+    // another thread sees either the whole of it or the one before, never an id paired with some other name.
+    public record Symbol(SymbolTable table, String name, int id) {
+    }
+
+    private volatile int[] slots = new int[1024]; // open addressing, holds id + 1, 0 is empty
+    private volatile String[] names = new String[512];
+    private int count = 0;
+
+    // cached if it is for this table and the same name String, otherwise name looked up here
+    public Symbol symbolOf(Symbol cached, String name) {
+        if (cached != null && cached.table == this && cached.name == name) {
+            return cached;
+        }
+        return new Symbol(this, name, intern(name));
+    }
+
+    public int intern(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        return intern(name, 0, name.length());
+    }
+
+    public int intern(CharSequence source, int start, int end) {
+        int hash = hash(source, start, end);
+        int id = find(slots, names, source, start, end, hash);
+        if (id != NONE) {
+            return id;
+        }
+        return insert(source, start, end, hash);
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    private synchronized int insert(CharSequence source, int start, int end, int hash) {
+        int id = find(slots, names, source, start, end, hash);
+        if (id != NONE) {
+            return id;
+        }
+        if ((count + 1) * 2 > slots.length) {
+            grow();
+        }
+        String[] currentNames = names;
+        if (count == currentNames.length) {
+            currentNames = Arrays.copyOf(currentNames, count * 2);
+            names = currentNames;
+        }
+        id = count++;
+        currentNames[id] = source.subSequence(start, end).toString();
+        int[] currentSlots = slots;
+        int mask = currentSlots.length - 1;
+        int i = hash & mask;
+        while (currentSlots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        currentSlots[i] = id + 1;
+        return id;
+    }
+
+    // called with the lock held; readers still probing the old arrays just miss and come in through insert()
+    private void grow() {
+        int[] bigger = new int[slots.length * 2];
+        int mask = bigger.length - 1;
+        for (int id = 0; id < count; id++) {
+            String name = names[id];
+            int i = hash(name, 0, name.length()) & mask;
+            while (bigger[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            bigger[i] = id + 1;
+        }
+        slots = bigger;
+    }
+
+    private static int find(int[] slots, String[] names, CharSequence source, int start, int end, int hash) {
+        int mask = slots.length - 1;
+        for (int i = hash & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int id = slots[i] - 1;
+            if (id < names.length) {
+                String name = names[id];
+                if (name != null && matches(name, source, start, end)) {
+                    return id;
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private static boolean matches(String name, CharSequence source, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
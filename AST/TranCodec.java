@@ -0,0 +1,611 @@
+package AST;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+// The binary form of a parsed TranNode, what goes in a .tranc file. It starts with "TRNC", the format version and
+// the SHA-256 of the source it was parsed from, then the tree depth first. Numbers are varints, a string is
+// written out the first time it is seen and by its index after that, and anything that can be null (or an
+// Optional that can be null, the parser leaves a few of those) gets a tag so it comes back exactly as it was.
+public final class TranCodec {
+    public static final int VERSION = 1; // bump whenever a node gains, loses or changes a field
+    public static final int HASH_LENGTH = 32;
+    private static final int MAGIC = 0x54524E43;
+
+    private static final int NULL = 0, ASSIGNMENT = 1, METHOD_CALL_STATEMENT = 2, IF = 3, LOOP = 4,
+            BOOLEAN_LITERAL = 5, BOOLEAN_OP = 6, CHAR_LITERAL = 7, COMPARE = 8, MATH_OP = 9,
+            METHOD_CALL_EXPRESSION = 10, NEW = 11, NOT_OP = 12, NUMERIC_LITERAL = 13, STRING_LITERAL = 14,
+            VARIABLE_REFERENCE = 15;
+    private static final int NULL_OPTIONAL = 0, EMPTY = 1, PRESENT = 2;
+
+    private TranCodec() {
+    }
+
+    public static byte[] encode(TranNode tran, byte[] sourceHash) {
+        var writer = new Writer();
+        writer.fixed(MAGIC);
+        writer.fixed(VERSION);
+        writer.out.write(sourceHash, 0, HASH_LENGTH);
+        writer.tran(tran);
+        return writer.out.toByteArray();
+    }
+
+    // empty when the data is for another format version or another source, IOException when it is damaged
+    public static Optional<TranNode> decode(ByteBuffer buffer, byte[] sourceHash) throws IOException {
+        try {
+            if (buffer.remaining() < 8 + HASH_LENGTH || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return Optional.empty();
+            }
+            byte[] hash = new byte[HASH_LENGTH];
+            buffer.get(hash);
+            if (!Arrays.equals(hash, sourceHash)) {
+                return Optional.empty();
+            }
+            TranNode retVal = new Reader(buffer).tran();
+            if (buffer.hasRemaining()) {
+                throw new IOException("trailing bytes after the tree");
+            }
+            return Optional.of(retVal);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException | ClassCastException e) {
+            throw new IOException("damaged .tranc data", e);
+        }
+    }
+
+    private static final class Writer {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+        final HashMap<String, Integer> strings = new HashMap<>();
+
+        void fixed(int value) {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+
+        void number(int value) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        void bool(boolean value) {
+            out.write(value ? 1 : 0);
+        }
+
+        void string(String value) {
+            if (value == null) {
+                number(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                number(index + 1);
+                return;
+            }
+            strings.put(value, strings.size());
+            number(strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            number(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        void optionalString(Optional<String> value) {
+            if (value == null) {
+                out.write(NULL_OPTIONAL);
+            } else if (value.isEmpty()) {
+                out.write(EMPTY);
+            } else {
+                out.write(PRESENT);
+                string(value.get());
+            }
+        }
+
+        void ordinal(Enum<?> value) {
+            number(value == null ? 0 : value.ordinal() + 1);
+        }
+
+        void tran(TranNode tran) {
+            number(tran.Interfaces.size());
+            for (InterfaceNode interfaceNode : tran.Interfaces) {
+                string(interfaceNode.name);
+                number(interfaceNode.methods.size());
+                for (MethodHeaderNode header : interfaceNode.methods) {
+                    string(header.name);
+                    declarations(header.parameters);
+                    declarations(header.returns);
+                }
+            }
+            number(tran.Classes.size());
+            for (ClassNode classNode : tran.Classes) {
+                string(classNode.name);
+                number(classNode.interfaces.size());
+                for (String name : classNode.interfaces) {
+                    string(name);
+                }
+                number(classNode.members.size());
+                for (MemberNode member : classNode.members) {
+                    declaration(member.declaration);
+                    optionalStatements(member.accessor);
+                    optionalStatements(member.mutator);
+                }
+                number(classNode.constructors.size());
+                for (ConstructorNode constructor : classNode.constructors) {
+                    constructor.ensureParsed();
+                    declarations(constructor.parameters);
+                    declarations(constructor.locals);
+                    statements(constructor.statements);
+                }
+                number(classNode.methods.size());
+                for (MethodDeclarationNode method : classNode.methods) {
+                    if (method instanceof BuiltInMethodDeclarationNode) {
+                        throw new IllegalArgumentException("built-in method " + method.name + " can't be written out");
+                    }
+                    method.ensureParsed();
+                    string(method.name);
+                    bool(method.isShared);
+                    bool(method.isPrivate);
+                    declarations(method.parameters);
+                    declarations(method.returns);
+                    declarations(method.locals);
+                    statements(method.statements);
+                }
+            }
+        }
+
+        void declaration(VariableDeclarationNode declaration) {
+            if (declaration == null) {
+                bool(false);
+                return;
+            }
+            bool(true);
+            string(declaration.type);
+            string(declaration.name);
+        }
+
+        void declarations(List<VariableDeclarationNode> declarations) {
+            number(declarations == null ? 0 : declarations.size() + 1);
+            if (declarations != null) {
+                for (VariableDeclarationNode declaration : declarations) {
+                    declaration(declaration);
+                }
+            }
+        }
+
+        void statements(List<StatementNode> statements) {
+            number(statements == null ? 0 : statements.size() + 1);
+            if (statements != null) {
+                for (StatementNode statement : statements) {
+                    node(statement);
+                }
+            }
+        }
+
+        void optionalStatements(Optional<List<StatementNode>> statements) {
+            if (statements == null) {
+                out.write(NULL_OPTIONAL);
+            } else if (statements.isEmpty()) {
+                out.write(EMPTY);
+            } else {
+                out.write(PRESENT);
+                statements(statements.get());
+            }
+        }
+
+        void expressions(List<ExpressionNode> expressions) {
+            number(expressions == null ? 0 : expressions.size() + 1);
+            if (expressions != null) {
+                for (ExpressionNode expression : expressions) {
+                    node(expression);
+                }
+            }
+        }
+
+        void node(Node node) {
+            if (node == null) {
+                out.write(NULL);
+            } else if (node instanceof AssignmentNode assignment) {
+                out.write(ASSIGNMENT);
+                node(assignment.target);
+                node(assignment.expression);
+            } else if (node instanceof MethodCallStatementNode call) {
+                out.write(METHOD_CALL_STATEMENT);
+                optionalString(call.objectName);
+                string(call.methodName);
+                expressions(call.parameters);
+                number(call.returnValues == null ? 0 : call.returnValues.size() + 1);
+                if (call.returnValues != null) {
+                    for (VariableReferenceNode returnValue : call.returnValues) {
+                        node(returnValue);
+                    }
+                }
+            } else if (node instanceof IfNode ifNode) {
+                out.write(IF);
+                node(ifNode.condition);
+                statements(ifNode.statements);
+                if (ifNode.elseStatement == null) {
+                    out.write(NULL_OPTIONAL);
+                } else if (ifNode.elseStatement.isEmpty()) {
+                    out.write(EMPTY);
+                } else {
+                    out.write(PRESENT);
+                    statements(ifNode.elseStatement.get().statements);
+                }
+            } else if (node instanceof LoopNode loop) {
+                out.write(LOOP);
+                if (loop.assignment == null) {
+                    out.write(NULL_OPTIONAL);
+                } else if (loop.assignment.isEmpty()) {
+                    out.write(EMPTY);
+                } else {
+                    out.write(PRESENT);
+                    node(loop.assignment.get());
+                }
+                node(loop.expression);
+                statements(loop.statements);
+            } else if (node instanceof BooleanLiteralNode literal) {
+                out.write(BOOLEAN_LITERAL);
+                bool(literal.value);
+            } else if (node instanceof BooleanOpNode booleanOp) {
+                out.write(BOOLEAN_OP);
+                ordinal(booleanOp.op);
+                node(booleanOp.left);
+                node(booleanOp.right);
+            } else if (node instanceof CharLiteralNode literal) {
+                out.write(CHAR_LITERAL);
+                number(literal.value == null ? 0 : literal.value + 1);
+            } else if (node instanceof CompareNode compare) {
+                out.write(COMPARE);
+                ordinal(compare.op);
+                node(compare.left);
+                node(compare.right);
+            } else if (node instanceof MathOpNode mathOp) {
+                out.write(MATH_OP);
+                ordinal(mathOp.op);
+                node(mathOp.left);
+                node(mathOp.right);
+            } else if (node instanceof MethodCallExpressionNode call) {
+                out.write(METHOD_CALL_EXPRESSION);
+                optionalString(call.objectName);
+                string(call.methodName);
+                expressions(call.parameters);
+            } else if (node instanceof NewNode newNode) {
+                out.write(NEW);
+                string(newNode.className);
+                expressions(newNode.parameters);
+            } else if (node instanceof NotOpNode notOp) {
+                out.write(NOT_OP);
+                node(notOp.left);
+            } else if (node instanceof NumericLiteralNode literal) {
+                out.write(NUMERIC_LITERAL);
+                fixed(Float.floatToRawIntBits(literal.value));
+            } else if (node instanceof StringLiteralNode literal) {
+                out.write(STRING_LITERAL);
+                string(literal.value);
+            } else if (node instanceof VariableReferenceNode reference) {
+                out.write(VARIABLE_REFERENCE);
+                string(reference.name);
+            } else {
+                throw new IllegalArgumentException("no binary form for " + node.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static final class Reader {
+        final ByteBuffer in;
+        final ArrayList<String> strings = new ArrayList<>();
+        final SymbolTable table = new SymbolTable(); // the decoded program's
+        final ArrayList<Integer> symbols = new ArrayList<>(); // each string's id in table, made when first needed
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        int number() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+                if (shift > 28) {
+                    throw new IllegalArgumentException("varint too long");
+                }
+            }
+        }
+
+        boolean bool() {
+            return in.get() != 0;
+        }
+
+        int tag() {
+            return in.get();
+        }
+
+        // index into strings, -1 for null
+        int stringIndex() {
+            int index = number() - 1;
+            if (index == strings.size()) {
+                byte[] bytes = new byte[number()];
+                in.get(bytes);
+                strings.add(new String(bytes, StandardCharsets.UTF_8));
+                symbols.add(null);
+            }
+            return index;
+        }
+
+        String string() {
+            int index = stringIndex();
+            return index < 0 ? null : strings.get(index);
+        }
+
+        // the symbol of the string at index, interned once however many names use it
+        int symbol(int index) {
+            Integer symbol = symbols.get(index);
+            if (symbol == null) {
+                symbol = table.intern(strings.get(index));
+                symbols.set(index, symbol);
+            }
+            return symbol;
+        }
+
+        Optional<String> optionalString() {
+            return switch (tag()) {
+                case NULL_OPTIONAL -> null;
+                case EMPTY -> Optional.empty();
+                case PRESENT -> Optional.ofNullable(string());
+                default -> throw new IllegalArgumentException("bad Optional tag");
+            };
+        }
+
+        <E extends Enum<E>> E ordinal(E[] values) {
+            int ordinal = number();
+            return ordinal == 0 ? null : values[ordinal - 1];
+        }
+
+        TranNode tran() {
+            TranNode tran = new TranNode(table);
+            for (int i = number(); i > 0; i--) {
+                InterfaceNode interfaceNode = new InterfaceNode();
+                interfaceNode.name = string();
+                for (int m = number(); m > 0; m--) {
+                    MethodHeaderNode header = new MethodHeaderNode();
+                    header.name = string();
+                    header.parameters = declarations();
+                    header.returns = declarations();
+                    interfaceNode.methods.add(header);
+                }
+                tran.Interfaces.add(interfaceNode);
+            }
+            for (int c = number(); c > 0; c--) {
+                ClassNode classNode = new ClassNode();
+                int name = stringIndex();
+                if (name >= 0) {
+                    classNode.setName(strings.get(name), table, symbol(name));
+                }
+                for (int i = number(); i > 0; i--) {
+                    classNode.interfaces.add(string());
+                }
+                for (int m = number(); m > 0; m--) {
+                    MemberNode member = new MemberNode();
+                    member.declaration = declaration();
+                    member.accessor = optionalStatements();
+                    member.mutator = optionalStatements();
+                    classNode.members.add(member);
+                }
+                for (int k = number(); k > 0; k--) {
+                    ConstructorNode constructor = new ConstructorNode();
+                    constructor.parameters = declarations();
+                    constructor.locals = declarations();
+                    constructor.statements = statements();
+                    classNode.constructors.add(constructor);
+                }
+                for (int m = number(); m > 0; m--) {
+                    MethodDeclarationNode method = new MethodDeclarationNode();
+                    int methodName = stringIndex();
+                    if (methodName >= 0) {
+                        method.setName(strings.get(methodName), table, symbol(methodName));
+                    }
+                    method.isShared = bool();
+                    method.isPrivate = bool();
+                    method.parameters = declarations();
+                    method.returns = declarations();
+                    method.locals = declarations();
+                    method.statements = statements();
+                    classNode.methods.add(method);
+                }
+                tran.Classes.add(classNode);
+            }
+            return tran;
+        }
+
+        VariableDeclarationNode declaration() {
+            if (!bool()) {
+                return null;
+            }
+            VariableDeclarationNode declaration = new VariableDeclarationNode();
+            declaration.type = string();
+            declaration.name = string();
+            return declaration;
+        }
+
+        List<VariableDeclarationNode> declarations() {
+            int count = number() - 1;
+            if (count < 0) {
+                return null;
+            }
+            var retVal = new ArrayList<VariableDeclarationNode>(count);
+            for (int i = 0; i < count; i++) {
+                retVal.add(declaration());
+            }
+            return retVal;
+        }
+
+        List<StatementNode> statements() {
+            int count = number() - 1;
+            if (count < 0) {
+                return null;
+            }
+            var retVal = new ArrayList<StatementNode>(count);
+            for (int i = 0; i < count; i++) {
+                retVal.add((StatementNode) node());
+            }
+            return retVal;
+        }
+
+        Optional<List<StatementNode>> optionalStatements() {
+            return switch (tag()) {
+                case NULL_OPTIONAL -> null;
+                case EMPTY -> Optional.empty();
+                case PRESENT -> Optional.ofNullable(statements());
+                default -> throw new IllegalArgumentException("bad Optional tag");
+            };
+        }
+
+        List<ExpressionNode> expressions() {
+            int count = number() - 1;
+            if (count < 0) {
+                return null;
+            }
+            var retVal = new ArrayList<ExpressionNode>(count);
+            for (int i = 0; i < count; i++) {
+                retVal.add((ExpressionNode) node());
+            }
+            return retVal;
+        }
+
+        Node node() {
+            switch (tag()) {
+                case NULL -> {
+                    return null;
+                }
+                case ASSIGNMENT -> {
+                    AssignmentNode assignment = new AssignmentNode();
+                    assignment.target = (VariableReferenceNode) node();
+                    assignment.expression = (ExpressionNode) node();
+                    return assignment;
+                }
+                case METHOD_CALL_STATEMENT -> {
+                    MethodCallStatementNode call = new MethodCallStatementNode();
+                    call.objectName = optionalString();
+                    call.methodName = string();
+                    call.parameters = expressions();
+                    int count = number() - 1;
+                    if (count < 0) {
+                        call.returnValues = null;
+                    } else {
+                        for (int i = 0; i < count; i++) {
+                            call.returnValues.add((VariableReferenceNode) node());
+                        }
+                    }
+                    return call;
+                }
+                case IF -> {
+                    IfNode ifNode = new IfNode();
+                    ifNode.condition = (ExpressionNode) node();
+                    ifNode.statements = statements();
+                    switch (tag()) {
+                        case NULL_OPTIONAL -> ifNode.elseStatement = null;
+                        case EMPTY -> ifNode.elseStatement = Optional.empty();
+                        case PRESENT -> {
+                            ElseNode elseNode = new ElseNode();
+                            elseNode.statements = statements();
+                            ifNode.elseStatement = Optional.of(elseNode);
+                        }
+                        default -> throw new IllegalArgumentException("bad Optional tag");
+                    }
+                    return ifNode;
+                }
+                case LOOP -> {
+                    LoopNode loop = new LoopNode();
+                    switch (tag()) {
+                        case NULL_OPTIONAL -> loop.assignment = null;
+                        case EMPTY -> loop.assignment = Optional.empty();
+                        case PRESENT -> loop.assignment = Optional.ofNullable((VariableReferenceNode) node());
+                        default -> throw new IllegalArgumentException("bad Optional tag");
+                    }
+                    loop.expression = (ExpressionNode) node();
+                    loop.statements = statements();
+                    return loop;
+                }
+                case BOOLEAN_LITERAL -> {
+                    return new BooleanLiteralNode(bool());
+                }
+                case BOOLEAN_OP -> {
+                    BooleanOpNode booleanOp = new BooleanOpNode();
+                    booleanOp.op = ordinal(BooleanOpNode.BooleanOperations.values());
+                    booleanOp.left = (ExpressionNode) node();
+                    booleanOp.right = (ExpressionNode) node();
+                    return booleanOp;
+                }
+                case CHAR_LITERAL -> {
+                    CharLiteralNode literal = new CharLiteralNode();
+                    int value = number();
+                    literal.value = value == 0 ? null : (char) (value - 1);
+                    return literal;
+                }
+                case COMPARE -> {
+                    CompareNode compare = new CompareNode();
+                    compare.op = ordinal(CompareNode.CompareOperations.values());
+                    compare.left = (ExpressionNode) node();
+                    compare.right = (ExpressionNode) node();
+                    return compare;
+                }
+                case MATH_OP -> {
+                    MathOpNode mathOp = new MathOpNode();
+                    mathOp.op = ordinal(MathOpNode.MathOperations.values());
+                    mathOp.left = (ExpressionNode) node();
+                    mathOp.right = (ExpressionNode) node();
+                    return mathOp;
+                }
+                case METHOD_CALL_EXPRESSION -> {
+                    MethodCallExpressionNode call = new MethodCallExpressionNode();
+                    call.objectName = optionalString();
+                    call.methodName = string();
+                    call.parameters = expressions();
+                    return call;
+                }
+                case NEW -> {
+                    NewNode newNode = new NewNode();
+                    newNode.className = string();
+                    newNode.parameters = expressions();
+                    return newNode;
+                }
+                case NOT_OP -> {
+                    NotOpNode notOp = new NotOpNode();
+                    notOp.left = (ExpressionNode) node();
+                    return notOp;
+                }
+                case NUMERIC_LITERAL -> {
+                    NumericLiteralNode literal = new NumericLiteralNode();
+                    literal.value = Float.intBitsToFloat(in.getInt());
+                    return literal;
+                }
+                case STRING_LITERAL -> {
+                    StringLiteralNode literal = new StringLiteralNode();
+                    literal.value = string();
+                    return literal;
+                }
+                case VARIABLE_REFERENCE -> {
+                    VariableReferenceNode reference = new VariableReferenceNode();
+                    int name = stringIndex();
+                    if (name >= 0) {
+                        reference.setName(strings.get(name), table, symbol(name));
+                    }
+                    return reference;
+                }
+                default -> throw new IllegalArgumentException("unknown node tag");
+            }
+        }
+    }
+}
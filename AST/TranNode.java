@@ -2,11 +2,57 @@ package AST;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TranNode {
     public List<ClassNode> Classes = new LinkedList<>();
     public List<InterfaceNode> Interfaces = new LinkedList<>();
 
+    // this program's names; one that hasn't named anything yet takes the lexer's table, see useSymbols()
+    private volatile SymbolTable symbols;
+
+    // bumped whenever declarations are swapped in place (a hot reload), so anything built from them builds again
+    private volatile int version;
+
+    // hands out the dense ids a node takes the first time something running this program asks for one, see
+    // VariableReferenceNode.id()
+    private final AtomicInteger nodeIds = new AtomicInteger();
+
+    public TranNode() {
+        this(new SymbolTable());
+    }
+
+    public TranNode(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    // the ids the tokens carry from the lexer can be kept as they are if this program has no names of its own yet
+    public void useSymbols(SymbolTable lexed) {
+        if (lexed != null && lexed != symbols && symbols.size() == 0) {
+            symbols = lexed;
+        }
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public void changed() {
+        version++;
+    }
+
+    public int newNodeId() {
+        return nodeIds.getAndIncrement();
+    }
+
+    // A node's id in one program. It is immutable, so a node can cache it in a plain field like a SymbolTable.Symbol
+    public record NodeId(TranNode program, int id) {
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
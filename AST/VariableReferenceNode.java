@@ -3,6 +3,38 @@ package AST;
 public class VariableReferenceNode implements Node,ExpressionNode {
     public String name;
 
+    private SymbolTable.Symbol symbol; // immutable, so it needs no lock to be read from another thread
+    private TranNode.NodeId id; // the same
+
+    // symbol is the name's id in symbols, as the lexer found it
+    public void setName(String name, SymbolTable symbols, int symbol) {
+        this.name = name;
+        this.symbol = symbols == null || symbol == SymbolTable.NONE ? null : new SymbolTable.Symbol(symbols, name, symbol);
+    }
+
+    // the name's id in symbols, looked up again only if name has been assigned since or another table asks
+    public int symbol(SymbolTable symbols) {
+        SymbolTable.Symbol cached = symbols.symbolOf(symbol, name);
+        symbol = cached;
+        return cached.id();
+    }
+
+    // a dense id in program, for whoever runs it to index its own arrays by; the same one every time program asks,
+    // unless another program has asked in between
+    public int id(TranNode program) {
+        TranNode.NodeId cached = id;
+        if (cached == null || cached.program() != program) {
+            synchronized (this) {
+                cached = id;
+                if (cached == null || cached.program() != program) {
+                    cached = new TranNode.NodeId(program, program.newNodeId());
+                    id = cached;
+                }
+            }
+        }
+        return cached.id();
+    }
+
     @Override
     public String toString() {
         return name;
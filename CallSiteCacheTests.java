@@ -0,0 +1,143 @@
+import AST.CallSiteCache;
+import AST.ClassNode;
+import AST.TranNode;
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class CallSiteCacheTests {
+    // start() calls go() on an object of each of the first classes classes in turn, rounds times over
+    private static String receivers(int classes, int rounds) {
+        var sb = new StringBuilder();
+        sb.append("class Receivers\n");
+        sb.append("    shared start()\n");
+        sb.append("        number n\n");
+        sb.append("        number k\n");
+        sb.append("        boolean going\n");
+        sb.append("        Kinda a\n");
+        sb.append("        n = 0\n");
+        sb.append("        k = 0\n");
+        sb.append("        going = true\n");
+        sb.append("        loop going\n");
+        for (int c = 0; c < classes; c++) {
+            sb.append("            if k == ").append(c).append("\n");
+            sb.append("                a = new Kind").append(BenchmarkPrograms.name(c)).append("()\n");
+        }
+        sb.append("            a.go()\n");
+        sb.append("            k = k + 1\n");
+        sb.append("            if k >= ").append(classes).append("\n");
+        sb.append("                k = 0\n");
+        sb.append("                n = n + 1\n");
+        sb.append("            if n >= ").append(rounds).append("\n");
+        sb.append("                going = false\n\n");
+        for (int c = 0; c < classes; c++) {
+            sb.append("class Kind").append(BenchmarkPrograms.name(c)).append("\n");
+            sb.append("    number x\n\n");
+            sb.append("    construct()\n");
+            sb.append("        x = 0\n\n");
+            sb.append("    go()\n");
+            sb.append("        console.write(\"kind ").append(BenchmarkPrograms.name(c)).append("\")\n\n");
+        }
+        return sb.toString();
+    }
+
+    private record Run(List<String> console, List<String> report) {
+    }
+
+    private static Run run(String program) throws Exception {
+        var interpreter = new Interpreter(InterpreterTests.parse(program));
+        var console = InterpreterTests.interpret(interpreter);
+        return new Run(console, interpreter.callSiteReport());
+    }
+
+    private static String site(Run run, String call) {
+        return run.report().stream().filter(line -> line.contains(call)).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void Monomorphic() throws Exception {
+        var run = run(BenchmarkPrograms.manyMethods(3, 50));
+        Assertions.assertEquals(List.of("50.0"), run.console());
+        Assertions.assertEquals("Calls.start: c.bumpc () - monomorphic, 49 hits, 1 misses, 0 megamorphic, 98.0% hit", site(run, "c.bump"));
+    }
+
+    @Test
+    public void Polymorphic() throws Exception {
+        var run = run(receivers(3, 4));
+        Assertions.assertEquals(12, run.console().size());
+        Assertions.assertEquals(List.of("kind a", "kind b", "kind c", "kind a"), run.console().subList(0, 4));
+        Assertions.assertTrue(site(run, "a.go").contains("polymorphic(3), 9 hits, 3 misses"), site(run, "a.go"));
+    }
+
+    @Test
+    public void Megamorphic() throws Exception {
+        var run = run(receivers(CallSiteCache.LIMIT + 2, 3));
+        Assertions.assertEquals(3 * (CallSiteCache.LIMIT + 2), run.console().size());
+        Assertions.assertEquals("kind f", run.console().get(5));
+        Assertions.assertEquals("kind f", run.console().get(17));
+        String site = site(run, "a.go");
+        Assertions.assertTrue(site.contains("megamorphic, 0 hits, 5 misses, 13 megamorphic"), site);
+    }
+
+    @Test
+    public void Invalidation() {
+        var cache = new CallSiteCache();
+        var owner = new Object();
+        var site = cache.site(owner);
+        var one = new ClassNode();
+        var two = new ClassNode();
+        site.add(0, 1, 0, one, "first");
+        site.add(0, 1, 0, two, "second");
+        Assertions.assertEquals("second", site.lookup(0, 1, 0, two));
+        Assertions.assertNull(site.lookup(1, 1, 0, two)); // a hot reload changed the TranNode's version
+        Assertions.assertEquals(0, site.size());
+        site.add(1, 1, 0, one, "first");
+        Assertions.assertEquals("first", site.lookup(1, 1, 0, one));
+        Assertions.assertNull(site.lookup(1, 1, 2, one)); // the same name called with another count
+        Assertions.assertEquals(0, site.size());
+    }
+
+    @Test
+    public void EachOwnerHasItsOwnEntries() {
+        var cache = new CallSiteCache();
+        var first = new Object();
+        var second = new Object();
+        var receiver = new ClassNode();
+        cache.site(first).add(0, 1, 0, receiver, "first's");
+        Assertions.assertNull(cache.find(second));
+        Assertions.assertNull(cache.site(second).lookup(0, 1, 0, receiver)); // someone else's entries
+        cache.site(second).add(0, 1, 0, receiver, "second's");
+        Assertions.assertEquals("first's", cache.site(first).lookup(0, 1, 0, receiver));
+        Assertions.assertEquals("second's", cache.site(second).lookup(0, 1, 0, receiver));
+        Assertions.assertSame(cache.site(first), cache.find(first));
+    }
+
+    @Test
+    public void TwoInterpretersOnOneTreeKeepTheirCaches() throws Exception {
+        var tran = InterpreterTests.parse(BenchmarkPrograms.manyMethods(3, 50));
+        var first = new Interpreter(tran);
+        var second = new Interpreter(tran);
+        first.start();
+        second.start();
+        first.start();
+        String site = first.callSiteReport().stream().filter(line -> line.contains("c.bump")).findFirst().orElseThrow();
+        Assertions.assertTrue(site.contains("monomorphic, 99 hits, 1 misses"), site);
+    }
+
+    @Test
+    public void HotReloadRefillsFromTheNewDeclarations() throws Exception {
+        var parser = new IncrementalParser(receivers(1, 3));
+        var tran = parser.getTranNode();
+        var interpreter = new Interpreter(tran);
+        interpreter.start();
+        var console = interpreter.console();
+        int at = parser.getText().indexOf("kind a");
+        parser.edit(at, "kind a".length(), "kind z");
+        interpreter.start();
+        Assertions.assertEquals(List.of("kind a", "kind a", "kind a", "kind z", "kind z", "kind z"), console);
+        String site = interpreter.callSiteReport().stream().filter(line -> line.contains("a.go")).findFirst().orElseThrow();
+        Assertions.assertTrue(site.contains("monomorphic, 4 hits, 2 misses"), site); // missed once more after the reload
+    }
+}
@@ -0,0 +1,63 @@
+//Finds where a run of spaces, digits or letters ends, or where the next quote is, in a char array. When the
+//jdk.incubator.vector module is there (java --add-modules jdk.incubator.vector) a whole vector of characters is
+//compared at once, otherwise, or with -Dtran.scalar=true, it is the plain loop.
+final class CharRuns {
+    static final int SPACES = 0, DIGITS = 1, LETTERS = 2; // LETTERS is ASCII only, the lexer carries on past it itself
+
+    static final boolean VECTORIZED = vectorAvailable();
+
+    private CharRuns() {
+    }
+
+    // first index from `from` that isn't in the run, or `to`
+    static int endOfRun(char[] chars, int from, int to, int kind) {
+        if (VECTORIZED) {
+            return VectorCharRuns.endOfRun(chars, from, to, kind);
+        }
+        return scalarEndOfRun(chars, from, to, kind);
+    }
+
+    // first index from `from` holding a or b, or `to`
+    static int indexOfEither(char[] chars, int from, int to, char a, char b) {
+        if (VECTORIZED) {
+            return VectorCharRuns.indexOfEither(chars, from, to, a, b);
+        }
+        return scalarIndexOfEither(chars, from, to, a, b);
+    }
+
+    static int scalarEndOfRun(char[] chars, int from, int to, int kind) {
+        int i = from;
+        while (i < to && inRun(chars[i], kind)) {
+            i++;
+        }
+        return i;
+    }
+
+    static int scalarIndexOfEither(char[] chars, int from, int to, char a, char b) {
+        int i = from;
+        while (i < to && chars[i] != a && chars[i] != b) {
+            i++;
+        }
+        return i;
+    }
+
+    static boolean inRun(char c, int kind) {
+        return switch (kind) {
+            case SPACES -> c == ' ';
+            case DIGITS -> c >= '0' && c <= '9';
+            default -> (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        };
+    }
+
+    private static boolean vectorAvailable() {
+        if (Boolean.getBoolean("tran.scalar")) {
+            return false;
+        }
+        try {
+            Class.forName("VectorCharRuns");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) { // the module wasn't added to this JVM
+            return false;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Random;
+
+public class CharRunsTests {
+    @Test
+    public void VectorMatchesScalar() {
+        Assertions.assertTrue(CharRuns.VECTORIZED, "tests are run with --add-modules jdk.incubator.vector");
+        var random = new Random(10);
+        String alphabet = " 09azAZ@[`{/:\"'\né١￿";
+        for (int i = 0; i < 2000; i++) {
+            var chars = new char[random.nextInt(200)];
+            int runLength = random.nextInt(chars.length + 1);
+            char runOf = " 5qQ".charAt(random.nextInt(4));
+            for (int k = 0; k < chars.length; k++) {
+                chars[k] = k < runLength ? runOf : alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            int from = random.nextInt(chars.length + 1);
+            int to = from + random.nextInt(chars.length - from + 1);
+            for (int kind = CharRuns.SPACES; kind <= CharRuns.LETTERS; kind++) {
+                Assertions.assertEquals(CharRuns.scalarEndOfRun(chars, from, to, kind), VectorCharRuns.endOfRun(chars, from, to, kind));
+            }
+            Assertions.assertEquals(CharRuns.scalarIndexOfEither(chars, from, to, '"', '\n'), VectorCharRuns.indexOfEither(chars, from, to, '"', '\n'));
+        }
+    }
+
+    @Test
+    public void LongRuns() throws Exception {
+        String program = "class a\n" +
+                "    start()\n" +
+                " ".repeat(8 + 4 * 40) + "x = " + "7".repeat(300) + "." + "5".repeat(70) + "\n" +
+                "        " + "identifier".repeat(30) + " = \"" + "text ".repeat(500) + "\n" + "more\"\n";
+        String expected = new Lexer(program).Lex().toString();
+        Assertions.assertEquals(expected, new Lexer(program).LexSpans().toString());
+        Assertions.assertEquals(expected, new Lexer(new ReaderTextManager(new StringReader(program), 16)).LexSpans().toString());
+    }
+}
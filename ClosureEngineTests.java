@@ -0,0 +1,143 @@
+import AST.AssignmentNode;
+import AST.IfNode;
+import AST.TranNode;
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClosureEngineTests {
+    // the console output, then the exception start() threw, if it did
+    private static List<String> run(String program, Interpreter.Engine engine) throws Exception {
+        return run(program, engine, tran -> {
+        });
+    }
+
+    private interface Edit {
+        void apply(TranNode tran);
+    }
+
+    // the same, after edit has changed the parsed tree
+    private static List<String> run(String program, Interpreter.Engine engine, Edit edit) throws Exception {
+        var tran = new TranNode();
+        new Parser(tran, new Lexer(program).Lex()).Tran();
+        edit.apply(tran);
+        var retVal = new ArrayList<String>();
+        var interpreter = new Interpreter(tran, engine);
+        try {
+            interpreter.start();
+        } catch (RuntimeException e) {
+            // only the interpreter's own errors are compared by message: once the JIT compiles a hot throw of a
+            // ClassCastException or NullPointerException it may throw a preallocated one that has none
+            retVal.add(e.getClass() == RuntimeException.class ? e.toString() : e.getClass().getName());
+        }
+        retVal.addAll(0, interpreter.console());
+        return retVal;
+    }
+
+    // both engines built on the ClosureCompiler
+    private static void same(String program) throws Exception {
+        same(program, Interpreter.Engine.CLOSURES);
+        same(program, Interpreter.Engine.SPECIALIZING);
+    }
+
+    private static void same(String program, Interpreter.Engine engine) throws Exception {
+        Assertions.assertEquals(run(program, Interpreter.Engine.TREE_WALKER), run(program, engine), engine + "\n" + program);
+    }
+
+    @Test
+    public void SameAsTheTreeWalker() throws Exception {
+        for (String program : BenchmarkPrograms.corpus().values()) {
+            same(program);
+        }
+        same(BenchmarkPrograms.deepLoops(3, 7));
+        same(BenchmarkPrograms.manyMethods(20, 30));
+    }
+
+    @Test
+    public void Arithmetic() throws Exception {
+        String program = """
+                class Arithmetic
+                    shared start()
+                        number a
+                        number b
+                        boolean big
+                        string s
+                        a = 7
+                        b = (a * 3 - 1) / 4
+                        console.write(a, " ", b)
+                        big = true
+                        if a > b and big
+                            console.write("bigger")
+                        else
+                            console.write("smaller")
+                        if not big or a <= b
+                            console.write("never")
+                        s = "abc"
+                        console.write(s)
+                """;
+        Assertions.assertEquals(List.of("7.0 5.0", "bigger", "abc"), run(program, Interpreter.Engine.CLOSURES));
+        same(program);
+    }
+
+    @Test
+    public void SameErrors() throws Exception {
+        same("""
+                class Broken
+                    shared start()
+                        number a
+                        a = 1
+                        console.write(a)
+                        missing = 2
+                        console.write(a)
+                """);
+        // SPECIALIZING joins the two as text instead
+        same("""
+                class Broken
+                    shared start()
+                        number a
+                        string s
+                        s = "x"
+                        a = s + 1
+                """, Interpreter.Engine.CLOSURES);
+        same("""
+                class Broken
+                    shared start()
+                        number a
+                        boolean b
+                        a = 1
+                        b = true
+                        if a and b
+                            console.write(a)
+                """);
+    }
+
+    @Test
+    public void MissingPartsFailWhereTheTreeWalkerFails() throws Exception {
+        String program = """
+                class Holes
+                    shared start()
+                        number a
+                        a = 1
+                        if a > 2
+                            console.write("never")
+                        console.write(a)
+                        if a < 2
+                            console.write("then")
+                        a = 3
+                """;
+        // the parser never leaves these out, a tree built some other way might
+        Edit holes = tran -> {
+            var statements = tran.Classes.get(0).methods.get(0).statements;
+            ((IfNode) statements.get(1)).statements = null; // never runs
+            ((IfNode) statements.get(3)).elseStatement = null; // never looked at
+            ((AssignmentNode) statements.get(4)).target = null;
+        };
+        var expected = List.of("1.0", "then", NullPointerException.class.getName());
+        Assertions.assertEquals(expected, run(program, Interpreter.Engine.TREE_WALKER, holes));
+        Assertions.assertEquals(expected, run(program, Interpreter.Engine.CLOSURES, holes));
+        Assertions.assertEquals(expected, run(program, Interpreter.Engine.SPECIALIZING, holes));
+    }
+}
@@ -0,0 +1,25 @@
+import java.util.List;
+import java.util.stream.Collectors;
+
+//Everything that was wrong with a Compiler run, every file's syntax error and every name that didn't resolve,
+//each with the file it was found in. The message lists them all, one per line.
+public class CompileException extends Exception {
+    public record Problem(String file, SyntaxErrorException error) {
+        @Override
+        public String toString() {
+            return file + ": " + error;
+        }
+    }
+
+    private final List<Problem> problems;
+
+    public CompileException(List<Problem> problems) {
+        super(problems.size() + (problems.size() == 1 ? " error" : " errors") + "\n"
+                + problems.stream().map(Problem::toString).collect(Collectors.joining("\n")));
+        this.problems = List.copyOf(problems);
+    }
+
+    public List<Problem> getProblems() {
+        return problems;
+    }
+}
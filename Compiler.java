@@ -0,0 +1,233 @@
+import AST.ClassNode;
+import AST.ConstructorNode;
+import AST.InterfaceNode;
+import AST.MemberNode;
+import AST.MethodDeclarationNode;
+import AST.MethodHeaderNode;
+import AST.SymbolTable;
+import AST.TranNode;
+import AST.VariableDeclarationNode;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+//Compiles many Tran files into one TranNode. Each file is read, lexed and parsed as its own task on the pool, then
+//the classes and interfaces are added in file order, so a class in one file can use one declared in another the
+//same way as if they were in one file. Once everything is parsed the names are checked across all the files:
+//a class or interface declared twice, an implements of an interface that doesn't exist or a type that isn't a
+//built in, a class or an interface. Every problem from every file comes back together in one CompileException.
+//Keep one Compiler around to compile one batch after another, there's nothing to set up again between them.
+public class Compiler {
+    public static final String EXTENSION = ".tran";
+    private static final Set<String> BUILT_IN_TYPES = Set.of("number", "string", "boolean", "character", "char");
+
+    private final ExecutorService pool;
+
+    public Compiler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public Compiler(ExecutorService pool) {
+        this.pool = pool;
+    }
+
+    // a directory is searched (with its subdirectories) for .tran files, anything else is compiled as one file
+    public TranNode compile(Path path) throws IOException, CompileException {
+        if (!Files.isDirectory(path)) {
+            return compile(List.of(path));
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return compile(files.filter(f -> f.getFileName().toString().endsWith(EXTENSION) && Files.isRegularFile(f))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    public TranNode compile(List<Path> files) throws IOException, CompileException {
+        var units = new ArrayList<Unit>();
+        for (Path file : files) {
+            units.add(new Unit(file.toString(), () -> new String(Files.readAllBytes(file), StandardCharsets.UTF_8)));
+        }
+        return run(units);
+    }
+
+    // file name to source text, in the order they should be added
+    public TranNode compileSources(Map<String, String> sources) throws CompileException {
+        var units = new ArrayList<Unit>();
+        sources.forEach((name, text) -> units.add(new Unit(name, () -> text)));
+        try {
+            return run(units);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // nothing is read
+        }
+    }
+
+    private interface Source {
+        String read() throws IOException;
+    }
+
+    private record Unit(String name, Source source) {
+    }
+
+    private record Parsed(String name, TranNode tran, Map<String, Integer> lines, SyntaxErrorException error) {
+    }
+
+    private TranNode run(List<Unit> units) throws IOException, CompileException {
+        var futures = new ArrayList<Future<Parsed>>(units.size());
+        var symbols = new SymbolTable(); //the files are one program, so their names share one table
+        for (Unit unit : units) {
+            futures.add(pool.submit((Callable<Parsed>) () -> parse(unit, symbols)));
+        }
+        var parsed = new ArrayList<Parsed>(units.size());
+        try {
+            for (var future : futures) {
+                parsed.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while compiling");
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("compiling failed", e.getCause());
+        }
+
+        var problems = new ArrayList<CompileException.Problem>();
+        var retVal = new TranNode(symbols);
+        for (Parsed p : parsed) {
+            if (p.error != null) {
+                problems.add(new CompileException.Problem(p.name, p.error));
+            } else {
+                retVal.Interfaces.addAll(p.tran.Interfaces);
+                retVal.Classes.addAll(p.tran.Classes);
+            }
+        }
+        resolve(parsed, problems);
+        if (!problems.isEmpty()) {
+            throw new CompileException(problems);
+        }
+        return retVal;
+    }
+
+    private static Parsed parse(Unit unit, SymbolTable symbols) throws IOException {
+        String text = unit.source.read();
+        TokenBuffer tokens = null;
+        try {
+            tokens = new Lexer(text, symbols).LexBuffer();
+            var tran = new TranNode(symbols);
+            new Parser(tran, tokens).Tran();
+            return new Parsed(unit.name, tran, declarationLines(tokens), null);
+        } catch (SyntaxErrorException e) {
+            return new Parsed(unit.name, null, tokens == null ? Map.of() : declarationLines(tokens), e);
+        } catch (Exception e) { //the parser can still run off the end of the tokens instead of reporting it
+            if (tokens == null || tokens.size() == 0) {
+                return new Parsed(unit.name, null, Map.of(), new SyntaxErrorException("Unexpected " + e, 0, 0));
+            }
+            int line = tokens.getLineNumber(tokens.size() - 1);
+            return new Parsed(unit.name, null, declarationLines(tokens), new SyntaxErrorException("Unexpected " + e, line, 0));
+        }
+    }
+
+    // the line each top level class or interface is declared on, for pointing at it later
+    private static Map<String, Integer> declarationLines(TokenBuffer tokens) {
+        var retVal = new HashMap<String, Integer>();
+        int depth = 0;
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            Token.TokenTypes type = tokens.getType(i);
+            if (type == Token.TokenTypes.INDENT) {
+                depth++;
+            } else if (type == Token.TokenTypes.DEDENT) {
+                depth = Math.max(0, depth - 1);
+            } else if (depth == 0 && (type == Token.TokenTypes.CLASS || type == Token.TokenTypes.INTERFACE)
+                    && tokens.getType(i + 1) == Token.TokenTypes.WORD) {
+                retVal.putIfAbsent(tokens.getValue(i + 1), tokens.getLineNumber(i));
+            }
+        }
+        return retVal;
+    }
+
+    private static void resolve(List<Parsed> parsed, List<CompileException.Problem> problems) {
+        var declaredIn = new HashMap<String, Parsed>();
+        var interfaces = new HashMap<String, InterfaceNode>();
+        for (Parsed p : parsed) {
+            if (p.tran == null) { //whatever it declares still counts, so its names don't show up as more errors
+                p.lines.keySet().forEach(name -> declaredIn.putIfAbsent(name, p));
+                continue;
+            }
+            var names = new ArrayList<String>();
+            p.tran.Interfaces.forEach(i -> {
+                names.add(i.name);
+                interfaces.putIfAbsent(i.name, i);
+            });
+            p.tran.Classes.forEach(c -> names.add(c.name));
+            for (String name : names) {
+                Parsed first = declaredIn.putIfAbsent(name, p);
+                if (first != null) {
+                    problems.add(problem(p, name, name + " is already declared in " + first.name));
+                }
+            }
+        }
+        for (Parsed p : parsed) {
+            if (p.tran == null) {
+                continue;
+            }
+            for (InterfaceNode i : p.tran.Interfaces) {
+                for (MethodHeaderNode header : i.methods) {
+                    checkTypes(p, i.name, header.parameters, declaredIn, problems);
+                    checkTypes(p, i.name, header.returns, declaredIn, problems);
+                }
+            }
+            for (ClassNode c : p.tran.Classes) {
+                for (String name : c.interfaces) {
+                    if (!interfaces.containsKey(name) && (!declaredIn.containsKey(name) || declaredIn.get(name).tran != null)) {
+                        problems.add(problem(p, c.name, c.name + " implements " + name + ", which is not an interface"));
+                    }
+                }
+                for (MemberNode member : c.members) {
+                    checkTypes(p, c.name, List.of(member.declaration), declaredIn, problems);
+                }
+                for (ConstructorNode constructor : c.constructors) {
+                    checkTypes(p, c.name, constructor.parameters, declaredIn, problems);
+                    checkTypes(p, c.name, constructor.locals, declaredIn, problems);
+                }
+                for (MethodDeclarationNode method : c.methods) {
+                    checkTypes(p, c.name, method.parameters, declaredIn, problems);
+                    checkTypes(p, c.name, method.returns, declaredIn, problems);
+                    checkTypes(p, c.name, method.locals, declaredIn, problems);
+                }
+            }
+        }
+    }
+
+    private static void checkTypes(Parsed p, String declaration, List<VariableDeclarationNode> variables,
+                                   Map<String, Parsed> declaredIn, List<CompileException.Problem> problems) {
+        for (VariableDeclarationNode variable : variables) {
+            if (variable != null && variable.type != null && !BUILT_IN_TYPES.contains(variable.type)
+                    && !declaredIn.containsKey(variable.type)) {
+                problems.add(problem(p, declaration, "Unknown type " + variable.type + " for " + variable.name + " in " + declaration));
+            }
+        }
+    }
+
+    private static CompileException.Problem problem(Parsed p, String declaration, String message) {
+        return new CompileException.Problem(p.name, new SyntaxErrorException(message, p.lines.getOrDefault(declaration, 0), 0));
+    }
+}
@@ -0,0 +1,78 @@
+import AST.TranCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class CompilerTests {
+    @Test
+    public void ClassesFromOtherFiles(@TempDir Path directory) throws Exception {
+        Files.createDirectories(directory.resolve("lib"));
+        Files.writeString(directory.resolve("main.tran"), "class main\n    shared start()\n" +
+                "        adder a\n        a = new adder()\n        a.add()\n");
+        Files.writeString(directory.resolve("lib/adder.tran"), "class adder implements addsThings\n    number x\n\n" +
+                "    construct()\n        x = 6\n\n    add()\n        number z\n        z = x + x\n        console.write(z)\n");
+        Files.writeString(directory.resolve("lib/addsThings.tran"), "interface addsThings\n    add()\n");
+        Files.writeString(directory.resolve("notes.txt"), "not Tran at all");
+        var tran = new Compiler().compile(directory);
+        Assertions.assertEquals(List.of("adder", "main"), tran.Classes.stream().map(c -> c.name).toList());
+        Assertions.assertEquals(List.of("addsThings"), tran.Interfaces.stream().map(i -> i.name).toList());
+        Assertions.assertEquals(List.of("12.0"), InterpreterTests.interpret(tran));
+    }
+
+    @Test
+    public void SameTreeAsOneFile() throws Exception {
+        var sources = new LinkedHashMap<String, String>();
+        var all = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            String program = BenchmarkPrograms.manyClasses(i + 1).substring(BenchmarkPrograms.manyClasses(i).length());
+            sources.put("generated" + i + ".tran", program);
+            all.append(program);
+        }
+        var pool = new ForkJoinPool(4);
+        try {
+            var compiler = new Compiler(pool);
+            var expected = InterpreterTests.parse(all.toString());
+            byte[] hash = new byte[TranCodec.HASH_LENGTH];
+            for (int round = 0; round < 3; round++) { //one Compiler, used again and again
+                Assertions.assertArrayEquals(TranCodec.encode(expected, hash), TranCodec.encode(compiler.compileSources(sources), hash));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void AllProblemsTogether() throws Exception {
+        var sources = new LinkedHashMap<String, String>();
+        sources.put("good.tran", "class good\n    number x\n");
+        sources.put("lexing.tran", "class lexing\n    number x\n    start()\n        x = 1 ^ 2\n");
+        sources.put("parsing.tran", "class parsing\n    add()\n        x = (1\n");
+        sources.put("again.tran", "class good implements missing\n    widget w\n    parsing p\n");
+        var e = Assertions.assertThrows(CompileException.class, () -> new Compiler().compileSources(sources));
+        var problems = e.getProblems();
+        Assertions.assertEquals(List.of("lexing.tran", "parsing.tran", "again.tran", "again.tran", "again.tran"),
+                problems.stream().map(CompileException.Problem::file).toList(), e.getMessage());
+        Assertions.assertTrue(problems.get(2).error().getMessage().contains("already declared in good.tran"));
+        Assertions.assertTrue(problems.get(3).error().getMessage().contains("missing"));
+        Assertions.assertTrue(problems.get(4).error().getMessage().contains("widget"));
+        Assertions.assertTrue(e.getMessage().startsWith("5 errors\n"));
+    }
+
+    @Test
+    public void CorpusCompilesUnchanged() throws Exception {
+        var compiler = new Compiler();
+        for (var entry : BenchmarkPrograms.corpus().entrySet()) {
+            var tran = compiler.compileSources(Map.of(entry.getKey(), entry.getValue()));
+            var expected = InterpreterTests.parse(entry.getValue());
+            byte[] hash = new byte[TranCodec.HASH_LENGTH];
+            Assertions.assertArrayEquals(TranCodec.encode(expected, hash), TranCodec.encode(tran, hash), entry.getKey());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import AST.MethodDeclarationNode;
+import AST.TranNode;
+import AST.VariableDeclarationNode;
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class DispatchTests {
+    private static List<String> interpret(String program) throws Exception {
+        var tran = new TranNode();
+        new Parser(tran, new Lexer(program).Lex()).Tran();
+        var interpreter = new Interpreter(tran);
+        interpreter.start();
+        return interpreter.console();
+    }
+
+    @Test
+    public void OverloadsPickedByParameterTypes() throws Exception {
+        String program = """
+                class Overloads
+                    construct()
+                        console.write("made")
+
+                    showNumber()
+                        console.write("a number")
+
+                    showString()
+                        console.write("a string")
+
+                    showBoth()
+                        console.write("both")
+
+                    shared start()
+                        Overloads o
+                        o = new Overloads()
+                        o.show("five")
+                        o.show(5)
+                        o.show(5, "five")
+                """;
+        var tran = new TranNode();
+        new Parser(tran, new Lexer(program).Lex()).Tran();
+        // the parser doesn't keep a method's parameters yet, so the overloads get theirs here
+        var methods = tran.Classes.get(0).methods;
+        overload(methods.get(0), "number");
+        overload(methods.get(1), "string");
+        overload(methods.get(2), "number", "string");
+        var interpreter = new Interpreter(tran);
+        interpreter.start();
+        var console = interpreter.console();
+        Assertions.assertEquals(List.of("made", "a string", "a number", "both"), console);
+    }
+
+    private static void overload(MethodDeclarationNode method, String... types) {
+        method.name = "show";
+        for (String type : types) {
+            var parameter = new VariableDeclarationNode();
+            parameter.type = type;
+            parameter.name = type.substring(0, 1);
+            method.parameters.add(parameter);
+        }
+    }
+
+    @Test
+    public void LastOfManyMethods() throws Exception {
+        for (int methods : new int[]{1, 2, 200}) {
+            Assertions.assertEquals(List.of("25.0"), interpret(BenchmarkPrograms.manyMethods(methods, 25)));
+        }
+    }
+
+    @Test
+    public void SharedCallsFindTheirClass() throws Exception {
+        String program = """
+                class First
+                    shared start()
+                        Second s
+                        s = new Second()
+                        s.hello()
+
+                class Second
+                    construct()
+                        console.write("second")
+
+                    hello()
+                        console.write("hello")
+                """;
+        Assertions.assertEquals(List.of("second", "hello"), interpret(program));
+    }
+
+    @Test
+    public void HotReloadSwapsTheMethod() throws Exception {
+        var parser = new IncrementalParser("""
+                class Reloaded
+                    number count
+
+                    construct()
+                        count = 1
+
+                    show()
+                        console.write("old")
+
+                    shared start()
+                        Reloaded r
+                        r = new Reloaded()
+                        r.show()
+                """);
+        var tran = parser.getTranNode();
+        var interpreter = new Interpreter(tran);
+        interpreter.start();
+        var console = interpreter.console();
+        int at = parser.getText().indexOf("old");
+        parser.edit(at, "old".length(), "new");
+        interpreter.start();
+        Assertions.assertEquals(List.of("old", "new"), console);
+    }
+}
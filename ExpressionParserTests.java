@@ -0,0 +1,87 @@
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ExpressionParserTests {
+    private static StatementNode firstStatement(String statement) throws Exception {
+        var tran = new TranNode();
+        new Parser(tran, new Lexer("class Tran\n" +
+                "    helloWorld()\n" +
+                "        " + statement + "\n" +
+                "            x = 1\n").Lex()).Tran();
+        return tran.Classes.get(0).methods.get(0).statements.get(0);
+    }
+
+    private static ExpressionNode assigned(String expression) throws Exception {
+        var tran = new TranNode();
+        new Parser(tran, new Lexer("class Tran\n" +
+                "    helloWorld()\n" +
+                "        a = " + expression + "\n").Lex()).Tran();
+        return ((AssignmentNode) tran.Classes.get(0).methods.get(0).statements.get(0)).expression;
+    }
+
+    @Test
+    public void Precedence() throws Exception {
+        var expression = (MathOpNode) assigned("1 + 2 * 3 - 8 / (4 - 2)");
+        Assertions.assertEquals(MathOpNode.MathOperations.subtract, expression.op);
+        var sum = (MathOpNode) expression.left;
+        Assertions.assertEquals(MathOpNode.MathOperations.add, sum.op);
+        Assertions.assertEquals(MathOpNode.MathOperations.multiply, ((MathOpNode) sum.right).op);
+        var quotient = (MathOpNode) expression.right;
+        Assertions.assertEquals(MathOpNode.MathOperations.divide, quotient.op);
+        Assertions.assertEquals(MathOpNode.MathOperations.subtract, ((MathOpNode) quotient.right).op);
+    }
+
+    @Test
+    public void Conditions() throws Exception {
+        var ifNode = (IfNode) firstStatement("if a < b and c >= d + 1 or not e");
+        var or = (BooleanOpNode) ifNode.condition;
+        Assertions.assertEquals(BooleanOpNode.BooleanOperations.or, or.op);
+        var and = (BooleanOpNode) or.left;
+        Assertions.assertEquals(BooleanOpNode.BooleanOperations.and, and.op);
+        Assertions.assertEquals(CompareNode.CompareOperations.lt, ((CompareNode) and.left).op);
+        var ge = (CompareNode) and.right;
+        Assertions.assertEquals(CompareNode.CompareOperations.ge, ge.op);
+        Assertions.assertInstanceOf(MathOpNode.class, ge.right);
+        Assertions.assertEquals("e", ((NotOpNode) or.right).left.toString());
+
+        // without an "or" on top the condition is wrapped, as If() and Loop() expect
+        var wrapped = (BooleanOpNode) ((IfNode) firstStatement("if n >= 15")).condition;
+        Assertions.assertNull(wrapped.op);
+        Assertions.assertEquals("n >= 15.0 ", wrapped.left.toString());
+    }
+
+    @Test
+    public void MissingParen() {
+        Assertions.assertThrows(SyntaxErrorException.class, () -> assigned("(1 + 2"));
+        Assertions.assertThrows(SyntaxErrorException.class, () -> assigned("((1 + 2) * 3"));
+    }
+
+    @Test
+    public void LongChain() throws Exception {
+        int terms = 100_000;
+        var source = new StringBuilder("1");
+        for (int i = 1; i < terms; i++) {
+            source.append(i % 2 == 0 ? " + " : " * ").append(i % 9 + 1);
+        }
+        ExpressionNode expression = assigned(source.toString());
+        int additions = 0;
+        while (expression instanceof MathOpNode mathOpNode && mathOpNode.op == MathOpNode.MathOperations.add) {
+            additions++;
+            expression = mathOpNode.left;
+        }
+        Assertions.assertEquals(terms / 2 - 1, additions);
+    }
+
+    @Test
+    public void DeepParentheses() throws Exception {
+        int depth = 100_000;
+        ExpressionNode expression = ((MathOpNode) assigned("0 + " + "(".repeat(depth) + "1" + " + 1)".repeat(depth))).right;
+        int nesting = 0;
+        while (expression instanceof MathOpNode mathOpNode) {
+            nesting++;
+            expression = mathOpNode.left;
+        }
+        Assertions.assertEquals(depth, nesting);
+    }
+}
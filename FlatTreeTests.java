@@ -0,0 +1,89 @@
+import AST.FlatTree;
+import AST.TranCodec;
+import AST.TranNode;
+import Interpreter.FlatInterpreter;
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class FlatTreeTests {
+    // TranCodec writes every field, nulls and empty Optionals included, and some parsed trees can't be printed
+    private static void assertSameTree(TranNode expected, TranNode actual, String message) {
+        byte[] hash = new byte[TranCodec.HASH_LENGTH];
+        Assertions.assertArrayEquals(TranCodec.encode(expected, hash), TranCodec.encode(actual, hash), message);
+    }
+
+    @Test
+    public void RoundTripGivesTheSameTree() throws Exception {
+        String features = "interface shape\n    area() : number a\n    name() : string s\n" +
+                "class square implements shape\n    number side\n    string label\n\n" +
+                "    construct(number s)\n        side = s\n        label = \"square\"\n\n" +
+                "    area() : number a\n        a = side * side - (side / 2) * 3\n\n" +
+                "    shared start()\n        boolean b\n        character c\n        square s\n" +
+                "        s = new square(4)\n        c = 'x'\n" +
+                "        loop n = b\n            if not b and side >= 1 or side != 2\n                console.write(side, c)\n" +
+                "            else\n                b = false\n";
+        for (String program : List.of(features, BenchmarkPrograms.manyClasses(20), BenchmarkPrograms.statementHeavy(3, 12))) {
+            var tran = InterpreterTests.parse(program);
+            assertSameTree(tran, FlatTree.of(tran).toTranNode(), program.substring(0, 20));
+        }
+        for (var entry : BenchmarkPrograms.corpus().entrySet()) {
+            var tran = InterpreterTests.parse(entry.getValue());
+            assertSameTree(tran, FlatTree.of(tran).toTranNode(), entry.getKey());
+        }
+    }
+
+    @Test
+    public void ChildrenAreContiguous() throws Exception {
+        var tree = FlatTree.of(InterpreterTests.parse("class adder\n    shared start()\n        number x\n        x = 1 + 2 * 3\n" +
+                "        console.write(x, \"x\", \"x\")\n"));
+        int classes = tree.child(tree.root(), 1);
+        Assertions.assertEquals(FlatTree.LIST, tree.kind(classes));
+        int adder = tree.child(classes, 0);
+        Assertions.assertEquals(FlatTree.CLASS, tree.kind(adder));
+        Assertions.assertEquals("adder", tree.name(adder));
+        int start = tree.child(tree.child(adder, 3), 0);
+        Assertions.assertEquals("start", tree.name(start));
+        Assertions.assertTrue(tree.hasFlag(start, FlatTree.SHARED));
+        Assertions.assertFalse(tree.hasFlag(start, FlatTree.PRIVATE));
+        int local = tree.child(tree.child(start, 2), 0);
+        Assertions.assertEquals("x", tree.name(local));
+        Assertions.assertEquals("number", tree.secondName(local));
+
+        int statements = tree.child(start, 3);
+        Assertions.assertEquals(2, tree.childCount(statements));
+        int assignment = tree.firstChild(statements);
+        int write = assignment + 1;
+        Assertions.assertEquals(FlatTree.ASSIGNMENT, tree.kind(assignment));
+        Assertions.assertEquals(FlatTree.METHOD_CALL, tree.kind(write));
+        Assertions.assertEquals("console", tree.secondName(write));
+        int sum = tree.child(assignment, 1);
+        Assertions.assertEquals(FlatTree.MATH_OP, tree.kind(sum));
+        Assertions.assertEquals(1f, tree.number(tree.child(sum, 0)));
+        Assertions.assertEquals(tree.child(sum, 0) + 1, tree.child(sum, 1));
+        int parameters = tree.child(write, 1);
+        Assertions.assertEquals(FlatTree.VARIABLE_REFERENCE, tree.kind(tree.child(parameters, 0)));
+        Assertions.assertEquals("x", tree.string(tree.child(parameters, 1)));
+        Assertions.assertEquals(tree.symbol(tree.child(parameters, 1)), tree.symbol(tree.child(parameters, 2))); //pooled once
+    }
+
+    @Test
+    public void FlatInterpreterMatchesInterpreter() throws Exception {
+        var corpus = BenchmarkPrograms.corpus();
+        for (String name : List.of("simpleAdd", "loop", "deepLoops")) {
+            var flat = new FlatInterpreter(FlatTree.of(InterpreterTests.parse(corpus.get(name))));
+            flat.start();
+            Assertions.assertEquals(InterpreterTests.interpret(InterpreterTests.parse(corpus.get(name))), flat.console, name);
+        }
+        var objects = new FlatInterpreter(FlatTree.of(InterpreterTests.parse(corpus.get("simpleAddInstantiate"))));
+        Assertions.assertThrows(RuntimeException.class, objects::start);
+    }
+
+    @Test
+    public void SmallerThanTheObjectGraph() throws Exception {
+        var tree = FlatTree.of(InterpreterTests.parse(BenchmarkPrograms.manyClasses(200)));
+        Assertions.assertTrue(tree.footprint() < 20L * tree.size(), tree.footprint() + " bytes for " + tree.size());
+    }
+}
@@ -0,0 +1,223 @@
+import AST.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+//Keeps the tokens of a text that is being edited. The tokens are cut into segments, about one per line, and each
+//segment starts at a token boundary where the lexer's state (offset, line, column, indent level) is saved.
+//An edit is re-lexed from the last checkpoint before it until the lexer reaches one of the old checkpoints in the
+//same state again. Everything after that point would lex the same, so those segments are kept and just moved.
+public class IncrementalLexer {
+    private static class Segment {
+        int offset;
+        int lineNumber;
+        final int characterPosition;
+        final int indentLevel;
+        // line numbers are relative to the segment, so moving a segment doesn't touch its tokens
+        final ArrayList<Token> tokens = new ArrayList<>();
+
+        Segment(int offset, int lineNumber, int characterPosition, int indentLevel) {
+            this.offset = offset;
+            this.lineNumber = lineNumber;
+            this.characterPosition = characterPosition;
+            this.indentLevel = indentLevel;
+        }
+    }
+
+    private String text;
+    private final SymbolTable symbols = new SymbolTable(); //every relex interns into the same one
+    private final ArrayList<Segment> segments = new ArrayList<>();
+    private int resyncedAt = -1; //old segment the last relex lined up with, -1 if it ran to the end
+    private int lastRelexed = 0;
+    private int resyncLine = -1; //line the old tokens start again at after the last edit, -1 if relexed to the end
+
+    public IncrementalLexer(String text) throws SyntaxErrorException {
+        this.text = text;
+        segments.addAll(relex(text, new Segment(0, 1, 0, 0), text.length(), 0, 0, 0));
+        lastRelexed = text.length();
+    }
+
+    //replaces removedLength characters at offset with inserted
+    public void edit(int offset, int removedLength, String inserted) throws SyntaxErrorException {
+        if (offset < 0 || removedLength < 0 || offset + removedLength > text.length()) {
+            throw new IndexOutOfBoundsException("edit " + offset + "+" + removedLength + " in text of length " + text.length());
+        }
+        String newText = text.substring(0, offset) + inserted + text.substring(offset + removedLength);
+        int delta = inserted.length() - removedLength;
+        int lineDelta = countLines(inserted, 0, inserted.length()) - countLines(text, offset, offset + removedLength);
+
+        int first = checkpointBefore(offset);
+        var replacement = relex(newText, segments.get(first), offset + inserted.length(), delta, lineDelta, first + 1);
+        int end = resyncedAt < 0 ? segments.size() : resyncedAt;
+        for (int i = end; i < segments.size(); i++) {
+            Segment moved = segments.get(i);
+            moved.offset += delta;
+            moved.lineNumber += lineDelta;
+        }
+        segments.subList(first, end).clear();
+        segments.addAll(first, replacement);
+        lastRelexed = (resyncedAt < 0 ? newText.length() : segments.get(first + replacement.size()).offset)
+                - replacement.get(0).offset;
+        resyncLine = resyncedAt < 0 ? -1 : segments.get(first + replacement.size()).lineNumber;
+        text = newText;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    //the same tokens new Lexer(getText()).Lex() would give
+    public List<Token> getTokens() {
+        var retVal = new ArrayList<Token>();
+        for (Segment segment : segments) {
+            for (Token token : segment.tokens) {
+                retVal.add(new Token(token.getType(), segment.lineNumber + token.getLineNumber(), token.getColumnNumber(), token.getValue()));
+            }
+        }
+        return retVal;
+    }
+
+    //how many characters the last edit (or the constructor) had to lex
+    public int lastRelexedLength() {
+        return lastRelexed;
+    }
+
+    //the line the tokens from the old text carry on at after the last edit, -1 if everything after it was relexed
+    public int lastResyncLine() {
+        return resyncLine;
+    }
+
+    //the line number of the character at offset, -1 if a comment before it on the same segment makes that unsure
+    //(the lexer doesn't count the lines inside a comment)
+    public int lineAt(int offset) {
+        Segment segment = segments.get(checkpointBefore(offset + 1));
+        if (text.substring(segment.offset, offset).indexOf('{') >= 0) {
+            return -1;
+        }
+        return segment.lineNumber + countLines(text, segment.offset, offset);
+    }
+
+    //the tokens on line and after it, in order, without building the whole list
+    public Iterator<Token> tokensFrom(int line) {
+        // the first tokens of a line can still be in the segment before it, which ends when the lexer moves on
+        int low = 0, high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).lineNumber < line) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int first = low;
+        return new Iterator<>() {
+            int segment = first;
+            int index = 0;
+            Token next = advance();
+
+            private Token advance() {
+                for (; segment < segments.size(); segment++, index = 0) {
+                    Segment current = segments.get(segment);
+                    while (index < current.tokens.size()) {
+                        Token token = current.tokens.get(index++);
+                        if (current.lineNumber + token.getLineNumber() >= line) {
+                            return new Token(token.getType(), current.lineNumber + token.getLineNumber(),
+                                    token.getColumnNumber(), token.getValue());
+                        }
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Token next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Token retVal = next;
+                next = advance();
+                return retVal;
+            }
+        };
+    }
+
+    // the last checkpoint strictly before offset: the token ending there may have peeked at the character at its
+    // own offset, so a checkpoint sitting right on the edit can't be trusted
+    private int checkpointBefore(int offset) {
+        int low = 0, high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).offset < offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private ArrayList<Segment> relex(String newText, Segment from, int editEnd, int delta, int lineDelta, int candidate)
+            throws SyntaxErrorException {
+        var textManager = new TextManager(newText, from.offset);
+        var lexer = new Lexer(textManager, symbols, from.lineNumber, from.characterPosition, from.indentLevel);
+        var produced = new TokenBuffer(newText, symbols);
+        var retVal = new ArrayList<Segment>();
+        var current = new Segment(from.offset, from.lineNumber, from.characterPosition, from.indentLevel);
+        retVal.add(current);
+        resyncedAt = -1;
+
+        while (!textManager.isAtEnd()) {
+            produced.clear();
+            lexer.lexNext(produced);
+            append(current, produced);
+            if (lexer.lineNumber == current.lineNumber) {
+                continue;
+            }
+            int position = textManager.getPosition();
+            if (position >= editEnd) {
+                int oldOffset = position - delta;
+                while (candidate < segments.size() && segments.get(candidate).offset < oldOffset) {
+                    candidate++;
+                }
+                if (candidate < segments.size()) {
+                    Segment old = segments.get(candidate);
+                    if (old.offset == oldOffset && old.lineNumber + lineDelta == lexer.lineNumber
+                            && old.characterPosition == lexer.characterPosition && old.indentLevel == lexer.currentIndentLevel) {
+                        resyncedAt = candidate;
+                        return retVal;
+                    }
+                }
+            }
+            current = new Segment(position, lexer.lineNumber, lexer.characterPosition, lexer.currentIndentLevel);
+            retVal.add(current);
+        }
+        produced.clear();
+        lexer.lexEnd(produced);
+        append(current, produced);
+        return retVal;
+    }
+
+    private static void append(Segment segment, TokenBuffer produced) {
+        for (int i = 0; i < produced.size(); i++) {
+            segment.tokens.add(new Token(produced.getType(i), produced.getLineNumber(i) - segment.lineNumber,
+                    produced.getColumnNumber(i), produced.getValue(i)));
+        }
+    }
+
+    private static int countLines(String text, int start, int end) {
+        int lines = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
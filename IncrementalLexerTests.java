@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class IncrementalLexerTests {
+    private static void assertSameAsFullLex(IncrementalLexer lexer) throws Exception {
+        Assertions.assertEquals(new Lexer(lexer.getText()).LexSpans().toString(), lexer.getTokens().toString());
+    }
+
+    @Test
+    public void SingleLineEdit() throws Exception {
+        var lexer = new IncrementalLexer(BenchmarkPrograms.manyClasses(3));
+        int at = lexer.getText().indexOf("total = 0");
+        lexer.edit(at, "total".length(), "grandTotal");
+        assertSameAsFullLex(lexer);
+        Assertions.assertTrue(lexer.lastRelexedLength() < 100, "relexed " + lexer.lastRelexedLength());
+    }
+
+    @Test
+    public void IndentationEdits() throws Exception {
+        var lexer = new IncrementalLexer("class a\n    number x\n    start()\n        x = 1\n        x = 2\n");
+        int line = lexer.getText().indexOf("        x = 2");
+        lexer.edit(line, 4, ""); // dedent a line
+        assertSameAsFullLex(lexer);
+        lexer.edit(line, 0, "    "); // and put it back
+        assertSameAsFullLex(lexer);
+        lexer.edit(lexer.getText().indexOf("    number"), 0, "\n\n"); // blank lines shift everything after
+        assertSameAsFullLex(lexer);
+        lexer.edit(0, lexer.getText().indexOf('\n') + 1, ""); // remove the first line
+        assertSameAsFullLex(lexer);
+        lexer.edit(lexer.getText().length(), 0, "class b\n    string s"); // append at the end
+        assertSameAsFullLex(lexer);
+    }
+
+    @Test
+    public void EditsAcrossTokens() throws Exception {
+        var lexer = new IncrementalLexer("class a\n    start()\n        x = y >= 1 {note}\n        s = \"two\nlines\"\n");
+        lexer.edit(lexer.getText().indexOf(">="), 2, "=="); // two character operator
+        assertSameAsFullLex(lexer);
+        lexer.edit(lexer.getText().indexOf("note}"), 4, "a\n        s = b"); // comment now covers a line
+        assertSameAsFullLex(lexer);
+        lexer.edit(lexer.getText().indexOf("\nlines"), 1, " "); // join the string onto one line
+        assertSameAsFullLex(lexer);
+    }
+
+    @Test
+    public void FailedEditKeepsTokens() throws Exception {
+        var lexer = new IncrementalLexer("class a\n    string s\n");
+        var before = lexer.getTokens().toString();
+        Assertions.assertThrows(SyntaxErrorException.class, () -> lexer.edit(lexer.getText().indexOf("s\n"), 0, "\"open "));
+        Assertions.assertEquals("class a\n    string s\n", lexer.getText());
+        Assertions.assertEquals(before, lexer.getTokens().toString());
+    }
+
+    @Test
+    public void RandomEdits() throws Exception {
+        var random = new Random(6);
+        String alphabet = "ab \n    ()=<>!.1:{}";
+        var lexer = new IncrementalLexer(BenchmarkPrograms.manyClasses(4));
+        for (int i = 0; i < 500; i++) {
+            int offset = random.nextInt(lexer.getText().length() + 1);
+            int removed = Math.min(random.nextInt(4), lexer.getText().length() - offset);
+            var inserted = new StringBuilder();
+            for (int k = random.nextInt(4); k > 0; k--) {
+                inserted.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expectedText;
+            String expected;
+            try {
+                expectedText = lexer.getText().substring(0, offset) + inserted + lexer.getText().substring(offset + removed);
+                expected = new Lexer(expectedText).LexSpans().toString();
+            } catch (SyntaxErrorException e) {
+                Assertions.assertThrows(SyntaxErrorException.class, () -> lexer.edit(offset, removed, inserted.toString()));
+                continue;
+            }
+            lexer.edit(offset, removed, inserted.toString());
+            Assertions.assertEquals(expectedText, lexer.getText());
+            Assertions.assertEquals(expected, lexer.getTokens().toString(), "after edit " + i);
+        }
+    }
+
+    @Test
+    public void LargeFileEditStaysLocal() throws Exception {
+        var lexer = new IncrementalLexer(BenchmarkPrograms.manyClasses(2500));
+        int at = lexer.getText().lastIndexOf("label = ");
+        lexer.edit(at + "label = ".length(), 0, "other + ");
+        Assertions.assertTrue(lexer.lastRelexedLength() < 100, "relexed " + lexer.lastRelexedLength());
+        assertSameAsFullLex(lexer);
+    }
+}
@@ -0,0 +1,327 @@
+import AST.ClassNode;
+import AST.TranNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+//Keeps the TranNode of a text that is being edited. Every constructor, method and member of a class is a
+//declaration that starts on a line of its own at the class's indent and parses the same whatever is around it.
+//An edit inside one declaration is relexed by the IncrementalLexer, then only that declaration's tokens are parsed
+//again (wrapped in a class of their own) and the new node replaces the old one in its ClassNode. Anything else
+//(class and interface lines, blank lines between declarations, an edit that changes where a declaration ends)
+//parses the whole text again.
+public class IncrementalParser {
+    private enum Kind { CONSTRUCTOR, METHOD, MEMBER }
+
+    private static class Declaration {
+        final ClassNode owner;
+        final Kind kind;
+        final int index; //in the owner's constructors, methods or members
+        int firstLine;
+        int lastLine; //the last line with one of its tokens, not counting the DEDENTs that close it
+        int endLine; //where the token after it is, -1 at the end of the text
+
+        Declaration(ClassNode owner, Kind kind, int index) {
+            this.owner = owner;
+            this.kind = kind;
+            this.index = index;
+        }
+    }
+
+    // the tokens of one declaration and what comes after them
+    private record Span(List<Token> tokens, int lastLine, Token next, Iterator<Token> rest) {
+    }
+
+    private final IncrementalLexer lexer;
+    private final TranNode tranNode = new TranNode();
+    private final ArrayList<Declaration> declarations = new ArrayList<>();
+    private boolean stale = false; //the last edit didn't parse, so tranNode is for an older text
+    private int lastReparsed = 0;
+
+    public IncrementalParser(String text) throws SyntaxErrorException {
+        lexer = new IncrementalLexer(text);
+        parseAll();
+    }
+
+    public TranNode getTranNode() {
+        return tranNode;
+    }
+
+    public String getText() {
+        return lexer.getText();
+    }
+
+    //how many tokens the last edit (or the constructor) had to parse
+    public int lastReparsedTokens() {
+        return lastReparsed;
+    }
+
+    //replaces removedLength characters at offset with inserted. If the new text doesn't lex nothing changes;
+    //if it doesn't parse the text is kept, the TranNode is left as it was and the next edit parses everything.
+    public void edit(int offset, int removedLength, String inserted) throws SyntaxErrorException {
+        String removed = lexer.getText().substring(offset, offset + removedLength);
+        Declaration declaration = stale ? null : enclosing(offset, offset + removedLength, inserted);
+        lexer.edit(offset, removedLength, inserted);
+        if (declaration == null || removed.indexOf('{') >= 0 || removed.indexOf('}') >= 0
+                || inserted.indexOf('{') >= 0 || inserted.indexOf('}') >= 0 || !reparse(declaration, lineDelta(removed, inserted))) {
+            parseAll();
+        }
+    }
+
+    // the declaration that holds all of the lines from start to end, null if there isn't one
+    private Declaration enclosing(int start, int end, String inserted) {
+        int firstLine = lexer.lineAt(start);
+        int lastLine = lexer.lineAt(end);
+        if (firstLine < 0 || lastLine < 0) {
+            return null;
+        }
+        int low = 0, high = declarations.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (declarations.get(mid).firstLine <= firstLine) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (declarations.isEmpty()) {
+            return null;
+        }
+        Declaration retVal = declarations.get(low);
+        if (retVal.firstLine > firstLine || retVal.lastLine < lastLine) {
+            return null;
+        }
+        String text = lexer.getText();
+        if (retVal.firstLine == firstLine && inIndentation(text, start) && (start == text.length()
+                || Character.isWhitespace(text.charAt(start)) || (!inserted.isEmpty() && Character.isWhitespace(inserted.charAt(0))))) {
+            return null; //the indentation of its first line also closes the declaration before it
+        }
+        return retVal;
+    }
+
+    private static boolean inIndentation(String text, int offset) {
+        for (int i = offset - 1; i >= 0 && text.charAt(i) != '\n'; i--) {
+            if (text.charAt(i) != ' ' && text.charAt(i) != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lineDelta(String removed, String inserted) {
+        return countLines(inserted) - countLines(removed);
+    }
+
+    private static int countLines(String text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    // false if the edit reached past the declaration, then everything has to be parsed again
+    private boolean reparse(Declaration declaration, int lineDelta) throws SyntaxErrorException {
+        Span span = span(declaration.firstLine);
+        if (span == null) {
+            return false;
+        }
+        int endLine = span.next() == null ? -1 : span.next().getLineNumber();
+        if (endLine != (declaration.endLine < 0 ? -1 : declaration.endLine + lineDelta)) {
+            return false;
+        }
+        int resyncLine = lexer.lastResyncLine();
+        if (resyncLine < 0 ? !onlyDedentsLeft(span) : endLine < 0 || resyncLine > endLine) {
+            return false; //the tokens after it changed too
+        }
+
+        var tokens = new ArrayList<Token>(span.tokens().size() + 5);
+        Token first = span.tokens().get(0);
+        tokens.add(new Token(Token.TokenTypes.CLASS, first.getLineNumber(), 0));
+        tokens.add(new Token(Token.TokenTypes.WORD, first.getLineNumber(), 0, declaration.owner.name));
+        tokens.add(new Token(Token.TokenTypes.NEWLINE, first.getLineNumber(), 0));
+        tokens.add(new Token(Token.TokenTypes.INDENT, first.getLineNumber(), 0));
+        tokens.addAll(span.tokens());
+        tokens.add(new Token(Token.TokenTypes.DEDENT, span.lastLine(), 0));
+        ClassNode parsed;
+        try {
+            parsed = new Parser(new TranNode(tranNode.symbols()), tokens).SingleClass();
+        } catch (SyntaxErrorException e) {
+            return false; //parsed again in full so the error is the one Tran() gives
+        }
+        if (parsed == null || parsed.constructors.size() + parsed.methods.size() + parsed.members.size() != 1) {
+            return false;
+        }
+        switch (declaration.kind) {
+            case CONSTRUCTOR -> {
+                if (parsed.constructors.isEmpty()) {
+                    return false;
+                }
+                declaration.owner.constructors.set(declaration.index, parsed.constructors.get(0));
+            }
+            case METHOD -> {
+                if (parsed.methods.isEmpty()) {
+                    return false;
+                }
+                declaration.owner.methods.set(declaration.index, parsed.methods.get(0));
+            }
+            case MEMBER -> {
+                if (parsed.members.isEmpty()) {
+                    return false;
+                }
+                declaration.owner.members.set(declaration.index, parsed.members.get(0));
+            }
+        }
+        tranNode.changed(); //an Interpreter already running this tree builds its dispatch table again and its call sites refill
+        declaration.lastLine = span.lastLine();
+        declaration.endLine = endLine;
+        if (lineDelta != 0) {
+            for (int i = declarations.indexOf(declaration) + 1; i < declarations.size(); i++) {
+                Declaration moved = declarations.get(i);
+                moved.firstLine += lineDelta;
+                moved.lastLine += lineDelta;
+                moved.endLine = moved.endLine < 0 ? -1 : moved.endLine + lineDelta;
+            }
+        }
+        lastReparsed = span.tokens().size();
+        return true;
+    }
+
+    // the declaration whose first token is on line. The DEDENTs before that token close the one before it (or the
+    // INDENT opens the class body), so they are skipped.
+    private Span span(int line) {
+        Iterator<Token> tokens = lexer.tokensFrom(line);
+        while (tokens.hasNext()) {
+            Token token = tokens.next();
+            Token.TokenTypes type = token.getType();
+            if (type != Token.TokenTypes.DEDENT && type != Token.TokenTypes.NEWLINE && type != Token.TokenTypes.INDENT) {
+                return token.getLineNumber() == line ? span(token, tokens) : null;
+            }
+        }
+        return null;
+    }
+
+    // from first until the indent is back at the class body and something else starts there, or the class ends
+    private static Span span(Token first, Iterator<Token> tokens) {
+        var retVal = new ArrayList<Token>();
+        retVal.add(first);
+        int lastLine = first.getLineNumber();
+        int depth = 1;
+        boolean lineStart = false;
+        while (tokens.hasNext()) {
+            Token token = tokens.next();
+            Token.TokenTypes type = token.getType();
+            if (depth == 1 && (type == Token.TokenTypes.DEDENT
+                    || (lineStart && type != Token.TokenTypes.NEWLINE && type != Token.TokenTypes.INDENT))) {
+                return new Span(retVal, lastLine, token, tokens);
+            }
+            if (type == Token.TokenTypes.INDENT) {
+                depth++;
+            } else if (type == Token.TokenTypes.DEDENT) {
+                depth--;
+            } else if (type != Token.TokenTypes.NEWLINE) { //a NEWLINE is on the line after the one it ends
+                lastLine = token.getLineNumber();
+            }
+            lineStart = type == Token.TokenTypes.NEWLINE || type == Token.TokenTypes.DEDENT;
+            retVal.add(token);
+        }
+        return new Span(retVal, lastLine, null, tokens);
+    }
+
+    private static boolean onlyDedentsLeft(Span span) {
+        if (span.next() != null && span.next().getType() != Token.TokenTypes.DEDENT) {
+            return false;
+        }
+        while (span.rest().hasNext()) {
+            if (span.rest().next().getType() != Token.TokenTypes.DEDENT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void parseAll() throws SyntaxErrorException {
+        List<Token> tokens = lexer.getTokens();
+        var parsed = new TranNode(tranNode.symbols());
+        try {
+            new Parser(parsed, tokens).Tran();
+        } catch (SyntaxErrorException e) {
+            stale = true;
+            throw e;
+        }
+        stale = false;
+        tranNode.Classes.clear();
+        tranNode.Classes.addAll(parsed.Classes);
+        tranNode.Interfaces.clear();
+        tranNode.Interfaces.addAll(parsed.Interfaces);
+        tranNode.changed();
+        index(tokens);
+        lastReparsed = tokens.size();
+    }
+
+    // finds where every declaration of every class is, in the same order Class() adds them to the ClassNode
+    private void index(List<Token> tokens) {
+        declarations.clear();
+        Iterator<Token> iterator = tokens.iterator();
+        Token token = iterator.hasNext() ? iterator.next() : null;
+        int classes = 0;
+        while (token != null) {
+            if (token.getType() != Token.TokenTypes.CLASS) {
+                token = iterator.hasNext() ? iterator.next() : null;
+                continue;
+            }
+            ClassNode owner = classes < tranNode.Classes.size() ? tranNode.Classes.get(classes) : null;
+            classes++;
+            while (token != null && token.getType() != Token.TokenTypes.INDENT) { //the class line
+                token = iterator.hasNext() ? iterator.next() : null;
+            }
+            token = iterator.hasNext() ? iterator.next() : null;
+            int[] counts = new int[Kind.values().length];
+            var found = new ArrayList<Declaration>();
+            while (true) {
+                while (token != null && token.getType() == Token.TokenTypes.NEWLINE) {
+                    token = iterator.hasNext() ? iterator.next() : null;
+                }
+                if (token == null || token.getType() == Token.TokenTypes.DEDENT) {
+                    break;
+                }
+                Span span = span(token, iterator);
+                Kind kind = kindOf(span.tokens());
+                if (kind == null) {
+                    owner = null; //Class() stops here, so this class isn't indexed
+                }
+                if (owner != null) {
+                    var declaration = new Declaration(owner, kind, counts[kind.ordinal()]++);
+                    declaration.firstLine = token.getLineNumber();
+                    declaration.lastLine = span.lastLine();
+                    declaration.endLine = span.next() == null ? -1 : span.next().getLineNumber();
+                    found.add(declaration);
+                }
+                token = span.next();
+            }
+            if (owner != null && counts[Kind.CONSTRUCTOR.ordinal()] == owner.constructors.size()
+                    && counts[Kind.METHOD.ordinal()] == owner.methods.size() && counts[Kind.MEMBER.ordinal()] == owner.members.size()) {
+                declarations.addAll(found); //otherwise it doesn't line up with what the parser made, so edits there parse everything
+            }
+        }
+    }
+
+    // the same choice Class() makes
+    private static Kind kindOf(List<Token> tokens) {
+        Token.TokenTypes type = tokens.get(0).getType();
+        Token.TokenTypes next = tokens.size() > 1 ? tokens.get(1).getType() : null;
+        if (type == Token.TokenTypes.CONSTRUCT) {
+            return Kind.CONSTRUCTOR;
+        }
+        if (type == Token.TokenTypes.SHARED || (type == Token.TokenTypes.WORD && next == Token.TokenTypes.LPAREN)) {
+            return Kind.METHOD;
+        }
+        if (type == Token.TokenTypes.WORD && next == Token.TokenTypes.WORD) {
+            return Kind.MEMBER;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,120 @@
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class IncrementalParserTests {
+    private static void assertSameAsFullParse(IncrementalParser parser) throws Exception {
+        var expected = new TranNode();
+        new Parser(expected, new Lexer(parser.getText()).Lex()).Tran();
+        Assertions.assertEquals(expected.toString(), parser.getTranNode().toString());
+    }
+
+    @Test
+    public void MethodBodyEditReplacesOnlyThatMethod() throws Exception {
+        var parser = new IncrementalParser(BenchmarkPrograms.manyClasses(3));
+        var tran = parser.getTranNode();
+        var second = tran.Classes.get(1);
+        var untouched = second.methods.get(1);
+        var constructor = second.constructors.get(0);
+        var edited = second.methods.get(0);
+        int at = parser.getText().indexOf("sum = a + b * 2 - total", parser.getText().indexOf("class Generatedb"));
+        parser.edit(at + "sum = a + b".length(), " * 2".length(), " - 5");
+        Assertions.assertSame(tran, parser.getTranNode());
+        Assertions.assertSame(second, tran.Classes.get(1));
+        Assertions.assertSame(untouched, second.methods.get(1));
+        Assertions.assertSame(constructor, second.constructors.get(0));
+        Assertions.assertNotSame(edited, second.methods.get(0));
+        Assertions.assertTrue(parser.lastReparsedTokens() < 40, "reparsed " + parser.lastReparsedTokens());
+        assertSameAsFullParse(parser);
+    }
+
+    @Test
+    public void AddedLinesMoveLaterDeclarations() throws Exception {
+        var parser = new IncrementalParser(BenchmarkPrograms.manyClasses(3));
+        int at = parser.getText().indexOf("        total = sum\n");
+        parser.edit(at, 0, "        total = a\n        total = b\n");
+        Assertions.assertTrue(parser.lastReparsedTokens() < 60, "reparsed " + parser.lastReparsedTokens());
+        assertSameAsFullParse(parser);
+        at = parser.getText().lastIndexOf("label = \"generated\"");
+        parser.edit(at, "label = \"generated\"".length(), "label = \"changed\"");
+        Assertions.assertTrue(parser.lastReparsedTokens() < 40, "reparsed " + parser.lastReparsedTokens());
+        assertSameAsFullParse(parser);
+        at = parser.getText().indexOf("        total = a\n");
+        parser.edit(at, "        total = a\n        total = b\n".length(), "");
+        assertSameAsFullParse(parser);
+        parser.edit(parser.getText().indexOf("number total"), "number".length(), "string");
+        Assertions.assertTrue(parser.lastReparsedTokens() < 10, "member reparsed " + parser.lastReparsedTokens());
+        assertSameAsFullParse(parser);
+    }
+
+    @Test
+    public void StructuralEditsParseEverything() throws Exception {
+        String program = BenchmarkPrograms.manyClasses(3);
+        var parser = new IncrementalParser(program);
+        int all = parser.lastReparsedTokens();
+        int at = parser.getText().indexOf("    shared start()");
+        parser.edit(at, 0, "    twice(number n) : number m\n        m = n * 2\n\n"); // a new method
+        Assertions.assertTrue(parser.lastReparsedTokens() > all, "reparsed " + parser.lastReparsedTokens());
+        assertSameAsFullParse(parser);
+        parser.edit(parser.getText().indexOf("class Generatedb"), "class Generatedb".length(), "class Renamed");
+        assertSameAsFullParse(parser);
+        Assertions.assertEquals("Renamed", parser.getTranNode().Classes.get(1).name);
+    }
+
+    @Test
+    public void ParseErrorThenFix() throws Exception {
+        var parser = new IncrementalParser(BenchmarkPrograms.manyClasses(2));
+        var before = parser.getTranNode().toString();
+        int at = parser.getText().indexOf("sum = a + b");
+        Assertions.assertThrows(SyntaxErrorException.class, () -> parser.edit(at + "sum = ".length(), 0, "("));
+        Assertions.assertEquals(before, parser.getTranNode().toString());
+        parser.edit(at + "sum = ".length(), 1, "");
+        assertSameAsFullParse(parser);
+    }
+
+    @Test
+    public void RandomEditsInsideMethods() throws Exception {
+        var random = new Random(15);
+        String[] inserts = {"x", " + 1", "1", " * b", "\n        total = a", "\n        if a > b\n            a = b", " ", "(a)"};
+        var parser = new IncrementalParser(BenchmarkPrograms.manyClasses(5));
+        for (int i = 0; i < 300; i++) {
+            String text = parser.getText();
+            int line = text.indexOf("        ", random.nextInt(text.length()));
+            if (line < 0) {
+                continue;
+            }
+            int end = text.indexOf('\n', line);
+            int offset = line + 8 + random.nextInt(Math.max(1, end - line - 8));
+            int removed = Math.min(random.nextInt(3), end - offset);
+            String inserted = inserts[random.nextInt(inserts.length)];
+            String expectedText = text.substring(0, offset) + inserted + text.substring(offset + removed);
+            String expected;
+            try {
+                var tran = new TranNode();
+                new Parser(tran, new Lexer(expectedText).Lex()).Tran();
+                expected = tran.toString();
+            } catch (SyntaxErrorException e) {
+                continue; // wouldn't parse, leave it out
+            } catch (RuntimeException e) {
+                continue;
+            }
+            parser.edit(offset, removed, inserted);
+            Assertions.assertEquals(expectedText, parser.getText());
+            Assertions.assertEquals(expected, parser.getTranNode().toString(), "after edit " + i);
+        }
+    }
+
+    @Test
+    public void LargeFileEditStaysLocal() throws Exception {
+        var parser = new IncrementalParser(BenchmarkPrograms.manyClasses(2500));
+        int at = parser.getText().lastIndexOf("label = ");
+        parser.edit(at + "label = ".length(), 0, "label + ");
+        Assertions.assertTrue(parser.lastReparsedTokens() < 40, "reparsed " + parser.lastReparsedTokens());
+        at = parser.getText().indexOf("sum = a + b");
+        parser.edit(at, 0, "sum = b\n        ");
+        Assertions.assertTrue(parser.lastReparsedTokens() < 60, "reparsed " + parser.lastReparsedTokens());
+        assertSameAsFullParse(parser);
+    }
+}
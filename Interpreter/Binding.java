@@ -0,0 +1,10 @@
+package Interpreter;
+
+// Where a Resolver found a VariableReferenceNode: LOCAL is slot in the frame the statement runs with, MEMBER is slot in
+// the object's members. frame and memberFrame are the layouts the slots are for, so a binding is only used with the
+// frames it was worked out for, anything else looks the name up. Each Resolver keeps its own, the AST isn't touched
+public record Binding(int scope, int slot, int frame, int memberFrame) {
+    public static final int UNRESOLVED = 0, LOCAL = 1, MEMBER = 2;
+
+    static final Binding NONE = new Binding(UNRESOLVED, -1, -1, -1);
+}
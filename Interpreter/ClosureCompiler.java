@@ -0,0 +1,391 @@
+package Interpreter;
+
+import AST.*;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// The closure engine (Interpreter.Engine.CLOSURES). Each method or constructor body is compiled once, the first time
+// it runs, into a tree of closures: what kind of node each one is, which operator, whether a loop is a times loop
+// and the slot the Resolver bound each variable to are all decided here, so running a statement is calling the
+// closure instead of going down the instanceof chains in interpretStatementBlock() and evaluate() again. Everything
+// runs exactly the way the tree walker runs it; the parts that are mostly lookups anyway (method calls, new) call
+// back into the Interpreter.
+// For the SPECIALIZING engine the operators are compiled to self-specializing nodes instead (see SpecializingNodes),
+// which also join strings with + and compare characters and booleans.
+final class ClosureCompiler {
+    interface Code {
+        void run(Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object);
+    }
+
+    interface Value {
+        InterpreterDataType eval(Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object);
+    }
+
+    private final Interpreter interpreter;
+    private final boolean specializing;
+    private final IdentityHashMap<Object, Code> bodies = new IdentityHashMap<>();
+    private final IdentityHashMap<Object, List<ExecNode.Root>> roots = new IdentityHashMap<>();
+    private List<ExecNode.Root> compiling; // the roots of the body being compiled
+
+    ClosureCompiler(Interpreter interpreter, boolean specializing) {
+        this.interpreter = interpreter;
+        this.specializing = specializing;
+    }
+
+    // body is the method or constructor the statements belong to. Compile it after the Resolver has bound it
+    Code body(Object body, List<StatementNode> statements) {
+        Code retVal = bodies.get(body);
+        if (retVal == null) {
+            compiling = new ArrayList<>();
+            retVal = statements == null ? treeWalked(null) : block(statements);
+            bodies.put(body, retVal);
+            roots.put(body, compiling);
+            compiling = null;
+        }
+        return retVal;
+    }
+
+    // the operator trees of a compiled body, as they've specialized so far; empty if it hasn't been compiled
+    List<ExecNode.Root> roots(Object body) {
+        return roots.getOrDefault(body, List.of());
+    }
+
+    // statements is never null here, statement() leaves a node with a missing block to the tree walker
+    private Code block(List<StatementNode> statements) {
+        Code[] code = new Code[statements.size()];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = statement(statements.get(i));
+        }
+        if (code.length == 1) {
+            return code[0];
+        }
+        return (locals, object) -> {
+            for (Code c : code) {
+                c.run(locals, object);
+            }
+        };
+    }
+
+    // a body or statement that is missing a part the parser always fills in runs in interpretStatementBlock(), so it
+    // fails there the way the tree walker fails on it, and only if it gets that far
+    private Code treeWalked(List<StatementNode> statements) {
+        return (locals, object) -> interpreter.interpretStatementBlock(object, statements, locals);
+    }
+
+    private Code statement(StatementNode s) {
+        if (s instanceof AssignmentNode a && a.target == null
+                || s instanceof LoopNode loop && (loop.expression == null || loop.statements == null)
+                || s instanceof IfNode i && (i.statements == null || i.elseStatement == null
+                        || i.elseStatement.isPresent() && i.elseStatement.get().statements == null)) {
+            return treeWalked(List.of(s));
+        }
+        if (s instanceof AssignmentNode a) {
+            Value target = target(a.target);
+            Value value = expression(a.expression);
+            return (locals, object) -> target.eval(locals, object).Assign(value.eval(locals, object));
+        } else if (s instanceof MethodCallStatementNode m) {
+            return (locals, object) -> interpreter.interpretMethodCallStatement(object, m, locals);
+        } else if (s instanceof LoopNode loop) {
+            return loop(loop);
+        } else if (s instanceof IfNode i) {
+            Value condition = expression(i.condition);
+            Code then = block(i.statements);
+            Code otherwise = i.elseStatement.isPresent() ? block(i.elseStatement.get().statements) : null;
+            return (locals, object) -> {
+                if (((BooleanIDT) condition.eval(locals, object)).Value) {
+                    then.run(locals, object);
+                } else if (otherwise != null) {
+                    otherwise.run(locals, object);
+                }
+            };
+        }
+        return (locals, object) -> {
+        };
+    }
+
+    // both kinds of loop, the way interpretStatementBlock() runs them: a times loop runs with its own locals that all
+    // hold the count, then (either kind) the loop runs while its expression is true if it names a local
+    private Code loop(LoopNode loop) {
+        Value expression = expression(loop.expression);
+        Code body = block(loop.statements);
+        String key = loop.expression.toString(); // the local the expression names, if it is one
+        MethodCallExpressionNode times = loop.expression instanceof MethodCallExpressionNode m
+                && m.methodSymbol(interpreter.symbols()) == interpreter.timesSymbol ? m : null;
+        return (locals, object) -> {
+            if (times != null) {
+                var iteratorLocals = new CountingLocals(locals);
+                NumberIDT counter = (NumberIDT) expression.eval(iteratorLocals, object);
+                NumberIDT limit = (NumberIDT) locals.get(times.objectName.get());
+                int x = 1;
+                while (counter.Value < limit.Value) {
+                    counter = (NumberIDT) expression.eval(iteratorLocals, object);
+                    body.run(iteratorLocals, object);
+                    x = x + 1;
+                    iteratorLocals.count(new NumberIDT(x));
+                }
+            }
+            if (locals.containsKey(key)) {
+                InterpreterDataType condition = expression.eval(locals, object);
+                if (condition instanceof BooleanIDT) {
+                    while (((BooleanIDT) condition).Value) {
+                        body.run(locals, object);
+                        condition = expression.eval(locals, object);
+                    }
+                }
+            }
+        };
+    }
+
+    // A times loop's locals: the names the locals outside the loop had when the count last moved on, each holding the
+    // count, like the HashMap the tree walker fills with them again every time round. The names are only taken again
+    // when there are more of them (nothing takes a local away, but a method the body calls can add members), so
+    // moving the count on is one store. Whatever the body puts here stays until the count moves on, and then only if
+    // the outside locals don't have the name.
+    private static final class CountingLocals extends AbstractMap<String, InterpreterDataType> {
+        private final Map<String, InterpreterDataType> outside;
+        private final HashMap<String, InterpreterDataType> put = new HashMap<>();
+        private Set<String> names;
+        private NumberIDT count = new NumberIDT(1);
+
+        CountingLocals(Map<String, InterpreterDataType> outside) {
+            this.outside = outside;
+            this.names = new HashSet<>(outside.keySet());
+        }
+
+        void count(NumberIDT count) {
+            this.count = count;
+            if (outside.size() != names.size()) {
+                names = new HashSet<>(outside.keySet());
+            }
+            if (!put.isEmpty()) {
+                put.keySet().removeAll(names);
+            }
+        }
+
+        @Override
+        public InterpreterDataType get(Object key) {
+            InterpreterDataType retVal = put.get(key);
+            if (retVal == null && names.contains(key)) {
+                retVal = count;
+            }
+            return retVal;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return put.containsKey(key) || names.contains(key);
+        }
+
+        @Override
+        public InterpreterDataType put(String key, InterpreterDataType value) {
+            InterpreterDataType old = get(key);
+            put.put(key, value);
+            return old;
+        }
+
+        @Override
+        public Set<Map.Entry<String, InterpreterDataType>> entrySet() {
+            var retVal = new LinkedHashMap<>(put);
+            for (String name : names) {
+                retVal.putIfAbsent(name, count);
+            }
+            return Collections.unmodifiableMap(retVal).entrySet();
+        }
+    }
+
+    // what an assignment assigns to, Interpreter.findVariable() with the binding taken now
+    private Value target(VariableReferenceNode v) {
+        String name = String.valueOf(v.name);
+        Binding binding = interpreter.binding(v);
+        int frame = binding.frame();
+        int slot = binding.slot();
+        if (binding.scope() == Binding.LOCAL) {
+            return (locals, object) -> {
+                if (locals instanceof Frame f && f.layout.id == frame) {
+                    InterpreterDataType value = f.slots[slot];
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return interpreter.findVariable(name, locals, object);
+            };
+        } else if (binding.scope() == Binding.MEMBER) {
+            int memberFrame = binding.memberFrame();
+            return (locals, object) -> {
+                if (locals instanceof Frame f && f.layout.id == frame && f.onlyLaidOut() && object.isPresent()
+                        && object.get().members instanceof Frame members && members.layout.id == memberFrame) {
+                    InterpreterDataType value = members.slots[slot];
+                    if (value != null) {
+                        return value;
+                    }
+                    throw new RuntimeException("Unable to find variable " + name);
+                }
+                return interpreter.findVariable(name, locals, object);
+            };
+        }
+        return (locals, object) -> interpreter.findVariable(name, locals, object);
+    }
+
+    private Value expression(ExpressionNode e) {
+        if (specializing && isOperator(e)) {
+            ExecNode.Root root = new ExecNode.Root(node(e));
+            compiling.add(root);
+            return root::execute;
+        }
+        if (e instanceof NumericLiteralNode n) {
+            float value = n.value;
+            return (locals, object) -> new NumberIDT(value);
+        } else if (e instanceof StringLiteralNode s) {
+            String value = s.value;
+            return (locals, object) -> new StringIDT(value);
+        } else if (e instanceof BooleanLiteralNode b) {
+            boolean value = b.value;
+            return (locals, object) -> new BooleanIDT(value);
+        } else if (e instanceof VariableReferenceNode v) {
+            return variable(v);
+        } else if (e instanceof MathOpNode m) {
+            return math(m);
+        } else if (e instanceof CompareNode c) {
+            return compare(c);
+        } else if (e instanceof BooleanOpNode b) {
+            return booleanOp(b);
+        } else if (e instanceof NotOpNode n) {
+            Value operand = expression(n.left);
+            return (locals, object) -> new BooleanIDT(!((BooleanIDT) operand.eval(locals, object)).Value);
+        }
+        // new, method calls, and whatever evaluate() throws for
+        return (locals, object) -> interpreter.evaluate(locals, object, e);
+    }
+
+    private static boolean isOperator(ExpressionNode e) {
+        return e instanceof MathOpNode || e instanceof CompareNode || e instanceof BooleanOpNode b && b.right != null;
+    }
+
+    private ExecNode node(ExpressionNode e) {
+        if (e instanceof MathOpNode m) {
+            return SpecializingNodes.math(m.op, node(m.left), node(m.right));
+        } else if (e instanceof CompareNode c) {
+            return SpecializingNodes.compare(c.op, node(c.left), node(c.right));
+        } else if (e instanceof BooleanOpNode b && b.right != null) {
+            return SpecializingNodes.booleanOp(b.op, node(b.left), node(b.right));
+        }
+        return new SpecializingNodes.Leaf(expression(e), String.valueOf(e).trim());
+    }
+
+    // evaluate() only looks in the locals for a variable
+    private Value variable(VariableReferenceNode v) {
+        String name = v.name;
+        Binding binding = interpreter.binding(v);
+        int frame = binding.frame();
+        int slot = binding.slot();
+        if (binding.scope() == Binding.LOCAL) {
+            return (locals, object) -> locals instanceof Frame f && f.layout.id == frame ? f.slots[slot] : locals.get(name);
+        }
+        return (locals, object) -> {
+            if (locals instanceof Frame f && f.layout.id == frame && f.onlyLaidOut()) {
+                return null;
+            }
+            return locals.get(name);
+        };
+    }
+
+    private Value math(MathOpNode m) {
+        Value left = expression(m.left);
+        Value right = expression(m.right);
+        if (m.op == null) {
+            return (locals, object) -> {
+                left.eval(locals, object);
+                right.eval(locals, object);
+                throw new IllegalArgumentException();
+            };
+        }
+        return switch (m.op) {
+            case add -> (locals, object) -> {
+                NumberIDT l = (NumberIDT) left.eval(locals, object);
+                NumberIDT r = (NumberIDT) right.eval(locals, object);
+                return new NumberIDT(l.Value + r.Value);
+            };
+            case subtract -> (locals, object) -> {
+                NumberIDT l = (NumberIDT) left.eval(locals, object);
+                NumberIDT r = (NumberIDT) right.eval(locals, object);
+                return new NumberIDT(l.Value - r.Value);
+            };
+            case multiply -> (locals, object) -> {
+                NumberIDT l = (NumberIDT) left.eval(locals, object);
+                NumberIDT r = (NumberIDT) right.eval(locals, object);
+                return new NumberIDT(l.Value * r.Value);
+            };
+            case divide -> (locals, object) -> {
+                NumberIDT l = (NumberIDT) left.eval(locals, object);
+                NumberIDT r = (NumberIDT) right.eval(locals, object);
+                return new NumberIDT(l.Value / r.Value);
+            };
+            case modulo -> (locals, object) -> {
+                NumberIDT l = (NumberIDT) left.eval(locals, object);
+                NumberIDT r = (NumberIDT) right.eval(locals, object);
+                return new NumberIDT(l.Value % r.Value);
+            };
+        };
+    }
+
+    private interface FloatTest {
+        boolean test(float l, float r);
+    }
+
+    private Value compare(CompareNode c) {
+        Value left = expression(c.left);
+        Value right = expression(c.right);
+        FloatTest test = c.op == null ? null : switch (c.op) {
+            case eq -> (l, r) -> l == r;
+            case ne -> (l, r) -> l != r;
+            case lt -> (l, r) -> l < r;
+            case le -> (l, r) -> l <= r;
+            case gt -> (l, r) -> l > r;
+            case ge -> (l, r) -> l >= r;
+        };
+        return (locals, object) -> {
+            InterpreterDataType l = left.eval(locals, object);
+            InterpreterDataType r = right.eval(locals, object);
+            if (test != null && l instanceof NumberIDT ln && r instanceof NumberIDT rn) {
+                return new BooleanIDT(test.test(ln.Value, rn.Value));
+            }
+            throw new IllegalArgumentException();
+        };
+    }
+
+    private Value booleanOp(BooleanOpNode b) {
+        Value left = expression(b.left);
+        if (b.right == null) {
+            return (locals, object) -> new BooleanIDT(((BooleanIDT) left.eval(locals, object)).Value);
+        }
+        Value right = expression(b.right);
+        if (b.op == BooleanOpNode.BooleanOperations.and) {
+            return (locals, object) -> {
+                BooleanIDT l = (BooleanIDT) left.eval(locals, object);
+                BooleanIDT r = (BooleanIDT) right.eval(locals, object); // both sides always run
+                return new BooleanIDT(l.Value && r.Value);
+            };
+        } else if (b.op == BooleanOpNode.BooleanOperations.or) {
+            return (locals, object) -> {
+                BooleanIDT l = (BooleanIDT) left.eval(locals, object);
+                BooleanIDT r = (BooleanIDT) right.eval(locals, object); // both sides always run
+                return new BooleanIDT(l.Value || r.Value);
+            };
+        }
+        return (locals, object) -> {
+            left.eval(locals, object);
+            right.eval(locals, object);
+            throw new IllegalArgumentException();
+        };
+    }
+}
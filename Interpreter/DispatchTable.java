@@ -0,0 +1,211 @@
+package Interpreter;
+
+import AST.BuiltInMethodDeclarationNode;
+import AST.ClassNode;
+import AST.MethodDeclarationNode;
+import AST.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Made once per program by the Interpreter, so a call site finds its class and method without scanning for them.
+// Classes are indexed by their id in the program's SymbolTable, both the way getClassByName() finds them (the first class with that name
+// or with a method of that name) and by their own name only. Each class's methods are grouped by name and argument
+// count, in the order they were declared, and each one knows the IDT classes its parameters need, so matching a call
+// is one probe for the name and count and then comparing classes instead of instantiating every declared parameter type.
+final class DispatchTable {
+    static final int ANY_ARITY = -1; // every method with the name, whatever it takes
+    private static final int VARIADIC = -2; // only the variadic built-ins with the name, for counts nothing else takes
+    private static final Candidate[] NONE = new Candidate[0];
+    private static final ClassNode[] NO_CLASSES = new ClassNode[0];
+
+    private final ClassNode[] byName;
+    private final ClassNode[][] named;
+    private final IdentityHashMap<ClassNode, Methods> methods = new IdentityHashMap<>();
+
+    DispatchTable(List<ClassNode> classes, SymbolTable symbols) {
+        var ordered = new ArrayList<>(classes); // top.Classes is a LinkedList, don't get(i) it
+        int size = 0; // only as big as the class and method names need, the SymbolTable holds every local's too
+        for (ClassNode c : ordered) {
+            size = Math.max(size, c.symbol(symbols) + 1);
+            for (MethodDeclarationNode m : c.methods) {
+                size = Math.max(size, m.symbol(symbols) + 1);
+            }
+        }
+        byName = new ClassNode[size];
+        named = new ClassNode[size][];
+        for (ClassNode c : ordered) {
+            int symbol = c.symbol(symbols);
+            if (symbol >= 0) {
+                if (byName[symbol] == null) {
+                    byName[symbol] = c;
+                }
+                ClassNode[] same = named[symbol] == null ? NO_CLASSES : named[symbol];
+                named[symbol] = append(same, c);
+            }
+            for (MethodDeclarationNode m : c.methods) {
+                int method = m.symbol(symbols);
+                if (method >= 0 && byName[method] == null) {
+                    byName[method] = c;
+                }
+            }
+            methods.put(c, new Methods(c.methods, symbols));
+        }
+    }
+
+    private static ClassNode[] append(ClassNode[] classes, ClassNode c) {
+        var retVal = Arrays.copyOf(classes, classes.length + 1);
+        retVal[classes.length] = c;
+        return retVal;
+    }
+
+    // what getClassByName() finds for this name, or null
+    ClassNode classByName(int symbol) {
+        return symbol >= 0 && symbol < byName.length ? byName[symbol] : null;
+    }
+
+    // every class with exactly this name, in order
+    ClassNode[] classesNamed(int symbol) {
+        return symbol >= 0 && symbol < named.length && named[symbol] != null ? named[symbol] : NO_CLASSES;
+    }
+
+    // c's methods with this name that can take arity arguments (or all of them for ANY_ARITY), in the order they were
+    // declared; a class the table wasn't made with has none
+    Candidate[] methods(ClassNode c, int symbol, int arity) {
+        Methods m = methods.get(c);
+        return m == null ? NONE : m.get(symbol, arity);
+    }
+
+    // one method and the IDT classes its parameters take, null for a variadic built-in that takes anything
+    static final class Candidate {
+        final MethodDeclarationNode method;
+        private final Class<?>[] parameters;
+
+        Candidate(MethodDeclarationNode method) {
+            this.method = method;
+            if (method instanceof BuiltInMethodDeclarationNode b && b.isVariadic) {
+                parameters = null;
+            } else {
+                parameters = new Class<?>[method.parameters.size()];
+                for (int i = 0; i < parameters.length; i++) {
+                    parameters[i] = idtClass(method.parameters.get(i).type);
+                }
+            }
+        }
+
+        // the type checks of Interpreter.doesMatch(), once methods() has matched the name and the argument count
+        boolean matches(List<InterpreterDataType> values) {
+            if (parameters == null) {
+                return true;
+            }
+            for (int i = 0; i < parameters.length; i++) {
+                if (values.get(i).getClass() != parameters[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // for a list from methods(c, symbol, ANY_ARITY), which hasn't matched the count
+        boolean takes(int count) {
+            return parameters == null || parameters.length == count;
+        }
+
+        private int arity() {
+            return parameters == null ? VARIADIC : parameters.length;
+        }
+    }
+
+    // the class Interpreter.instantiate() makes for a type name
+    static Class<?> idtClass(String type) {
+        switch (type.toLowerCase()) {
+            case "string":
+                return StringIDT.class;
+            case "number":
+                return NumberIDT.class;
+            case "boolean":
+                return BooleanIDT.class;
+            case "character":
+                return CharIDT.class;
+            default:
+                return ReferenceIDT.class;
+        }
+    }
+
+    // (symbol id, argument count) to the methods with that name taking that many, variadic built-ins included, open
+    // addressing over both. A count only variadics take finds them under VARIADIC, a second probe.
+    private static final class Methods {
+        private static final long EMPTY = -1;
+
+        private final long[] keys;
+        private final Candidate[][] values;
+
+        Methods(List<MethodDeclarationNode> declared, SymbolTable symbols) {
+            var byName = new LinkedHashMap<Integer, List<Candidate>>();
+            for (MethodDeclarationNode m : declared) {
+                int symbol = m.symbol(symbols);
+                if (symbol >= 0) {
+                    byName.computeIfAbsent(symbol, s -> new ArrayList<>()).add(new Candidate(m));
+                }
+            }
+            var arities = new LinkedHashMap<Integer, Set<Integer>>();
+            int size = 0;
+            for (var named : byName.entrySet()) {
+                var counts = new LinkedHashSet<Integer>();
+                counts.add(ANY_ARITY);
+                for (Candidate c : named.getValue()) {
+                    counts.add(c.arity());
+                }
+                arities.put(named.getKey(), counts);
+                size += counts.size();
+            }
+            int capacity = Integer.highestOneBit(Math.max(1, size) * 2) * 2;
+            keys = new long[capacity];
+            values = new Candidate[capacity][];
+            Arrays.fill(keys, EMPTY);
+            for (var named : arities.entrySet()) {
+                for (int arity : named.getValue()) {
+                    var same = new ArrayList<Candidate>();
+                    for (Candidate c : byName.get(named.getKey())) {
+                        if (arity == ANY_ARITY || c.arity() == arity || c.arity() == VARIADIC) {
+                            same.add(c);
+                        }
+                    }
+                    long key = key(named.getKey(), arity);
+                    int i = slot(key);
+                    keys[i] = key;
+                    values[i] = same.toArray(NONE);
+                }
+            }
+        }
+
+        private static long key(int symbol, int arity) {
+            return (long) symbol << 32 | (arity & 0xFFFFFFFFL);
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int i = ((int) (key ^ key >>> 32) * 0x9E3779B9) >>> 7 & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        Candidate[] get(int symbol, int arity) {
+            if (symbol < 0) {
+                return NONE;
+            }
+            Candidate[] retVal = values[slot(key(symbol, arity))];
+            if (retVal == null && arity >= 0) {
+                retVal = values[slot(key(symbol, VARIADIC))];
+            }
+            return retVal == null ? NONE : retVal;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Interpreter;
+
+import java.util.Map;
+import java.util.Optional;
+
+// An executable node of the SPECIALIZING engine. A node can replace itself in its parent with a node that does the
+// same thing for the types it has seen (see SpecializingNodes), so the tree a hot loop runs settles on type
+// specific nodes without anything knowing the types up front.
+abstract class ExecNode {
+    ExecNode parent;
+
+    abstract InterpreterDataType execute(Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object);
+
+    // puts with where child was
+    void replaceChild(ExecNode child, ExecNode with) {
+        throw new IllegalStateException(getClass().getSimpleName() + " has no children");
+    }
+
+    final <T extends ExecNode> T replace(T with) {
+        with.parent = parent;
+        parent.replaceChild(this, with);
+        return with;
+    }
+
+    // The top of an expression's tree, which is what the closure engine holds on to
+    static final class Root extends ExecNode {
+        private ExecNode child;
+
+        Root(ExecNode child) {
+            this.child = child;
+            child.parent = this;
+        }
+
+        @Override
+        InterpreterDataType execute(Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object) {
+            return child.execute(locals, object);
+        }
+
+        @Override
+        void replaceChild(ExecNode old, ExecNode with) {
+            if (child == old) {
+                child = with;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return child.toString();
+        }
+    }
+}
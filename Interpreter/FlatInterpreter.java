@@ -0,0 +1,198 @@
+package Interpreter;
+
+import AST.BooleanOpNode.BooleanOperations;
+import AST.CompareNode.CompareOperations;
+import AST.FlatTree;
+import AST.MathOpNode.MathOperations;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+
+import static AST.FlatTree.*;
+
+/**
+ * Runs a shared start() method straight off a FlatTree, for comparing the flat layout against the object graph.
+ * It does what Interpreter does for locals, assignments, if/else, boolean loops, console.write and expressions on
+ * numbers and booleans, with the same HashMap of locals, so the only difference between the two is how the tree is
+ * stored. Objects, constructors and calls to other methods aren't supported and throw.
+ */
+public class FlatInterpreter {
+    private final FlatTree tree;
+    private final HashMap<String, InterpreterDataType> variables = new HashMap<>();
+    public final LinkedList<String> console = new LinkedList<>();
+
+    // names this looks for itself, as ids in the tree's SymbolTable
+    private final int startSymbol;
+    private final int writeSymbol;
+    private final int consoleSymbol;
+
+    public FlatInterpreter(FlatTree tree) {
+        this.tree = tree;
+        startSymbol = tree.symbols().intern("start");
+        writeSymbol = tree.symbols().intern("write");
+        consoleSymbol = tree.symbols().intern("console");
+    }
+
+    /**
+     * Find the shared, non private start() with no parameters, make its locals and run its statements.
+     * Throw if there isn't one.
+     */
+    public void start() {
+        int classes = tree.child(tree.root(), 1);
+        for (int c = 0; c < tree.childCount(classes); c++) {
+            int methods = tree.child(tree.child(classes, c), 3);
+            for (int m = 0; m < tree.childCount(methods); m++) {
+                int method = tree.child(methods, m);
+                if (tree.symbol(method) == startSymbol && tree.hasFlag(method, SHARED) && !tree.hasFlag(method, PRIVATE)
+                        && tree.childCount(tree.child(method, 0)) == 0) {
+                    int locals = tree.child(method, 2);
+                    for (int l = 0; l < tree.childCount(locals); l++) {
+                        int local = tree.child(locals, l);
+                        variables.put(tree.name(local), instantiate(tree.secondName(local)));
+                    }
+                    interpretStatementBlock(tree.child(method, 3), variables);
+                    return;
+                }
+            }
+        }
+        throw new RuntimeException("No valid 'start' method found in the AST.");
+    }
+
+    /**
+     * Run each statement of a LIST node, the same way Interpreter.interpretStatementBlock() does.
+     * @param block - the LIST of statements
+     * @param locals - the local variables
+     */
+    private void interpretStatementBlock(int block, HashMap<String, InterpreterDataType> locals) {
+        int end = tree.firstChild(block) + tree.childCount(block);
+        for (int s = tree.firstChild(block); s < end; s++) {
+            switch (tree.kind(s)) {
+                case ASSIGNMENT -> findVariable(tree.name(tree.child(s, 0)), locals).Assign(evaluate(locals, tree.child(s, 1)));
+                case METHOD_CALL -> {
+                    if (tree.symbol(s) != writeSymbol || tree.secondSymbol(s) != consoleSymbol) {
+                        throw new RuntimeException("The flat interpreter can only call console.write, not " + tree.name(s));
+                    }
+                    int parameters = tree.child(s, 1);
+                    StringBuilder sb = new StringBuilder();
+                    for (int p = 0; p < tree.childCount(parameters); p++) {
+                        String text = evaluate(locals, tree.child(parameters, p)).toString();
+                        sb.append(text);
+                        System.out.print(text);
+                    }
+                    System.out.println();
+                    console.add(sb.toString());
+                }
+                case LOOP -> {
+                    // like Interpreter, only a loop over a local boolean variable runs, anything else is skipped
+                    int condition = tree.child(s, 1);
+                    if (tree.kind(condition) == CALL) {
+                        throw new RuntimeException("The flat interpreter can't run loops over " + tree.name(condition));
+                    }
+                    if (tree.kind(condition) == VARIABLE_REFERENCE && locals.containsKey(tree.name(condition))
+                            && evaluate(locals, condition) instanceof BooleanIDT) {
+                        while (((BooleanIDT) evaluate(locals, condition)).Value) {
+                            interpretStatementBlock(tree.child(s, 2), locals);
+                        }
+                    }
+                }
+                case IF -> {
+                    if (((BooleanIDT) evaluate(locals, tree.child(s, 0))).Value) {
+                        interpretStatementBlock(tree.child(s, 1), locals);
+                    } else if (tree.kind(tree.child(s, 2)) == ELSE) {
+                        interpretStatementBlock(tree.child(tree.child(s, 2), 0), locals);
+                    }
+                }
+                default -> throw new RuntimeException("The flat interpreter can't run node kind " + tree.kind(s));
+            }
+        }
+    }
+
+    /**
+     * Work out the value of an expression node, the same way Interpreter.evaluate() does.
+     * @param locals the local variables
+     * @param n - the expression node
+     * @return a value
+     */
+    private InterpreterDataType evaluate(HashMap<String, InterpreterDataType> locals, int n) {
+        switch (tree.kind(n)) {
+            case NUMERIC_LITERAL:
+                return new NumberIDT(tree.number(n));
+            case STRING_LITERAL:
+                return new StringIDT(tree.string(n));
+            case BOOLEAN_LITERAL:
+                return new BooleanIDT(tree.bool(n));
+            case VARIABLE_REFERENCE:
+                return locals.get(tree.name(n));
+            case NOT_OP:
+                return new BooleanIDT(!((BooleanIDT) evaluate(locals, tree.child(n, 0))).Value);
+            case BOOLEAN_OP: {
+                BooleanIDT left = (BooleanIDT) evaluate(locals, tree.child(n, 0));
+                if (tree.kind(tree.child(n, 1)) == NULL) {
+                    return new BooleanIDT(left.Value);
+                }
+                BooleanIDT right = (BooleanIDT) evaluate(locals, tree.child(n, 1));
+                if (tree.op(n) == BooleanOperations.and.ordinal()) {
+                    return new BooleanIDT(left.Value && right.Value);
+                } else if (tree.op(n) == BooleanOperations.or.ordinal()) {
+                    return new BooleanIDT(left.Value || right.Value);
+                }
+                break;
+            }
+            case COMPARE: {
+                InterpreterDataType left = evaluate(locals, tree.child(n, 0));
+                InterpreterDataType right = evaluate(locals, tree.child(n, 1));
+                if (left instanceof NumberIDT l && right instanceof NumberIDT r && tree.op(n) >= 0) {
+                    switch (CompareOperations.values()[tree.op(n)]) {
+                        case eq: return new BooleanIDT(l.Value == r.Value);
+                        case ne: return new BooleanIDT(l.Value != r.Value);
+                        case lt: return new BooleanIDT(l.Value < r.Value);
+                        case le: return new BooleanIDT(l.Value <= r.Value);
+                        case gt: return new BooleanIDT(l.Value > r.Value);
+                        case ge: return new BooleanIDT(l.Value >= r.Value);
+                    }
+                }
+                break;
+            }
+            case MATH_OP: {
+                NumberIDT l = (NumberIDT) evaluate(locals, tree.child(n, 0));
+                NumberIDT r = (NumberIDT) evaluate(locals, tree.child(n, 1));
+                if (tree.op(n) >= 0) {
+                    switch (MathOperations.values()[tree.op(n)]) {
+                        case add: return new NumberIDT(l.Value + r.Value);
+                        case subtract: return new NumberIDT(l.Value - r.Value);
+                        case multiply: return new NumberIDT(l.Value * r.Value);
+                        case divide: return new NumberIDT(l.Value / r.Value);
+                        case modulo: return new NumberIDT(l.Value % r.Value);
+                    }
+                }
+                break;
+            }
+            case CALL:
+            case NEW:
+                throw new RuntimeException("The flat interpreter can't run " + tree.name(n) + ", only start() itself");
+        }
+        throw new IllegalArgumentException();
+    }
+
+    private InterpreterDataType findVariable(String name, HashMap<String, InterpreterDataType> locals) {
+        if (locals.containsKey(name)) {
+            return locals.get(name);
+        }
+        throw new RuntimeException("Unable to find variable " + name);
+    }
+
+    private static InterpreterDataType instantiate(String type) {
+        switch (type.toLowerCase()) {
+            case "string":
+                return new StringIDT("");
+            case "number":
+                return new NumberIDT(0);
+            case "boolean":
+                return new BooleanIDT(false);
+            case "character":
+                return new CharIDT(' ');
+            default:
+                return new ReferenceIDT();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package Interpreter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A scope's variables, kept in an array with one slot per name in the layout, so a VariableReferenceNode the Resolver
+// bound to a slot is read with one array load, and a lookup by name hashes the name once, in the layout. A name the
+// layout doesn't have (the interpreter puts returned values under their printed form) goes in a HashMap of its own.
+// It is still a Map by name for everything that looks things up that way. It holds no nulls: putting null takes the
+// name out. Iterating goes in the order the names were first put.
+final class Frame extends AbstractMap<String, InterpreterDataType> {
+    final Layout layout;
+    final InterpreterDataType[] slots;
+    private HashMap<String, InterpreterDataType> unlaid; // something was put under a name the layout doesn't have
+    private String[] order = new String[8]; // the names that are here, in the order they were put
+    private int size;
+
+    Frame(Layout layout) {
+        this.layout = layout;
+        this.slots = new InterpreterDataType[layout.size()];
+    }
+
+    // nothing outside the layout has been put here, so a name that isn't in it isn't here either
+    boolean onlyLaidOut() {
+        return unlaid == null;
+    }
+
+    @Override
+    public InterpreterDataType get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        int slot = layout.slotOf(name);
+        if (slot >= 0) {
+            return slots[slot];
+        }
+        return unlaid == null ? null : unlaid.get(name);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public InterpreterDataType put(String key, InterpreterDataType value) {
+        if (value == null) {
+            return remove(key);
+        }
+        int slot = layout.slotOf(key);
+        InterpreterDataType old;
+        if (slot >= 0) {
+            old = slots[slot];
+            slots[slot] = value;
+        } else {
+            if (unlaid == null) {
+                unlaid = new HashMap<>();
+            }
+            old = unlaid.put(key, value);
+        }
+        if (old == null) {
+            if (size == order.length) {
+                order = Arrays.copyOf(order, size * 2);
+            }
+            order[size++] = key;
+        }
+        return old;
+    }
+
+    @Override
+    public InterpreterDataType remove(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        int slot = layout.slotOf(name);
+        InterpreterDataType old;
+        if (slot >= 0) {
+            old = slots[slot];
+            slots[slot] = null;
+        } else {
+            old = unlaid == null ? null : unlaid.remove(name);
+        }
+        if (old != null) {
+            int at = 0;
+            while (!order[at].equals(name)) {
+                at++;
+            }
+            System.arraycopy(order, at + 1, order, at, size - at - 1);
+            order[--size] = null;
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, null);
+        Arrays.fill(order, 0, size, null);
+        unlaid = null;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<String, InterpreterDataType>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, InterpreterDataType>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+                    private String last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Map.Entry<String, InterpreterDataType> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        last = order[next++];
+                        return new SimpleEntry<>(last, get(last)) {
+                            @Override
+                            public InterpreterDataType setValue(InterpreterDataType value) {
+                                super.setValue(Objects.requireNonNull(value));
+                                return put(getKey(), value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        Frame.this.remove(last);
+                        last = null;
+                        next--;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // names to slots for one kind of frame: a class's members, a constructor's parameters, start()'s locals.
+    // Fixed once made, every Layout gets its own id
+    static final class Layout {
+        private static final AtomicInteger ids = new AtomicInteger();
+
+        final int id = ids.incrementAndGet();
+        private final HashMap<String, Integer> slots = new HashMap<>();
+
+        Layout(Iterable<String> names) {
+            for (String name : names) {
+                if (name != null) {
+                    slots.putIfAbsent(name, slots.size());
+                }
+            }
+        }
+
+        int slotOf(String name) {
+            Integer slot = slots.get(name);
+            return slot == null ? -1 : slot;
+        }
+
+        int size() {
+            return slots.size();
+        }
+    }
+}
@@ -3,23 +3,59 @@ package Interpreter;
 import AST.*;
 import AST.MathOpNode.MathOperations;
 
-import java.lang.reflect.Executable;
 import java.util.*;
 
-import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariables;
-
 public class Interpreter {
     private TranNode top;
-    private HashMap<String, InterpreterDataType> variables;
+    private Map<String, InterpreterDataType> variables;
+    private final Resolver resolver;
+    private DispatchTable dispatch;
+    private int dispatchVersion; // the TranNode version the table was built from
+    private final ClosureCompiler compiler;
+
+    /**
+     * How method and constructor bodies are run. TREE_WALKER goes over the AST every time a statement runs;
+     * CLOSURES compiles each body the first time it runs into closures (see ClosureCompiler) and runs those.
+     * Both give the same results.
+     * SPECIALIZING is CLOSURES with the operators as nodes that specialize themselves on the types they see (see
+     * SpecializingNodes). It also does what the other two fail on: + with a string on either side joins them, and
+     * characters and booleans can be compared.
+     */
+    public enum Engine { TREE_WALKER, CLOSURES, SPECIALIZING }
+
+    // the program's names, and the ones the interpreter looks for itself as ids in it
+    private final SymbolTable symbols;
+    private final int startSymbol;
+    private final int writeSymbol;
+    final int timesSymbol;
+    private final int consoleSymbol;
 
     /** Constructor - get the interpreter ready to run. Set members from parameters and "prepare" the class.
      *
      * Store the tran node.
      * Add any built-in methods to the AST
+     * Build the dispatch table for the classes (with the built-ins), so calls don't scan for their class or method.
+     * It is built again whenever the TranNode says its declarations were swapped (see dispatch())
      * @param top - the head of the AST
      */
     public Interpreter(TranNode top) {
+        this(top, Engine.TREE_WALKER);
+    }
+
+    /** Constructor - the same, running the bodies with the given engine.
+     *
+     * @param top - the head of the AST
+     * @param engine - how to run method and constructor bodies
+     */
+    public Interpreter(TranNode top, Engine engine) {
         this.top = top;
+        this.resolver = new Resolver(top);
+        this.symbols = top.symbols();
+        startSymbol = symbols.intern("start");
+        writeSymbol = symbols.intern("write");
+        timesSymbol = symbols.intern("times");
+        consoleSymbol = symbols.intern("console");
+        this.compiler = engine == Engine.TREE_WALKER ? null : new ClosureCompiler(this, engine == Engine.SPECIALIZING);
         ClassNode classNode = new ClassNode();
         variables = new HashMap<String, InterpreterDataType>();
 
@@ -31,7 +67,30 @@ public class Interpreter {
         classNode.name = "console";
         classNode.methods.add(consoleWrite);
         top.Classes.add(classNode);
+        dispatch = new DispatchTable(top.Classes, symbols);
+        dispatchVersion = top.version();
+    }
+
+    /**
+     * The dispatch table for the declarations the TranNode has now. A hot reload replaces methods and constructors
+     * inside the same ClassNodes, so a table built before it would still hand out the old ones.
+     * @return the current table
+     */
+    private DispatchTable dispatch() {
+        int version = top.version();
+        if (version != dispatchVersion) {
+            dispatch = new DispatchTable(top.Classes, symbols);
+            dispatchVersion = version;
+        }
+        return dispatch;
+    }
 
+    /**
+     * The program's SymbolTable, the one every name id the interpreter compares is from.
+     * @return the TranNode's table
+     */
+    SymbolTable symbols() {
+        return symbols;
     }
 
     /**
@@ -47,7 +106,7 @@ public class Interpreter {
         for(int i=0; i < top.Classes.size(); i++){
             classNode = top.Classes.get(i);
             for(int j = 0; j < classNode.methods.size(); j++){
-                if(classNode.methods.get(j).name.equals("start") && !classNode.methods.get(j).isPrivate &&
+                if(classNode.methods.get(j).symbol(symbols) == startSymbol && !classNode.methods.get(j).isPrivate &&
                         classNode.methods.get(j).isShared && classNode.methods.get(j).parameters.isEmpty()){
 
                     interpretMethodCall(Optional.empty(), classNode.methods.get(j), new LinkedList<>());
@@ -78,47 +137,45 @@ public class Interpreter {
      * @param mc - the method call
      * @return - the return values
      */
-    private List<InterpreterDataType> findMethodForMethodCallAndRunIt(Optional<ObjectIDT> object, HashMap<String, InterpreterDataType> locals, MethodCallStatementNode mc) {
+    private List<InterpreterDataType> findMethodForMethodCallAndRunIt(Optional<ObjectIDT> object, Map<String, InterpreterDataType> locals, MethodCallStatementNode mc) {
         List<InterpreterDataType> result = null;
         List<InterpreterDataType> parameters = getParameters(object, locals, mc);
 
         String objectName = mc.objectName.get();
         String methodName = mc.methodName;
+        int methodSymbol = mc.methodSymbol(symbols);
         if (objectName.isEmpty()) {
-            for(int i=0; i < object.get().astNode.methods.size(); i++){
-                MethodDeclarationNode methodNode = object.get().astNode.methods.get(i);
-                if(doesMatch(methodNode, mc, parameters)){
-                    return interpretMethodCall(object, methodNode, parameters);
+            for (DispatchTable.Candidate candidate : methodsAt(mc.cache, object.get().astNode, methodSymbol, parameters.size())) {
+                if (candidate.matches(parameters)) {
+                    return interpretMethodCall(object, candidate.method, parameters);
                 }
             }
 
         } else {
-            if(mc.methodName.equals("write")){
-                for(int i=0; i < top.Classes.size(); i++){
-                    if(top.Classes.get(i).name.equals(objectName)){
-                        ClassNode nameOfClass = top.Classes.get(i);
-                        for(int t = 0; t < nameOfClass.methods.size(); t++){
-                            MethodDeclarationNode methodNode = nameOfClass.methods.get(t);
-                            if(doesMatch(methodNode, mc, parameters) && methodNode.isShared){
-                                return interpretMethodCall(object, methodNode, parameters);
-                            }
+            if(methodSymbol == writeSymbol){
+                int objectSymbol = symbols.intern(objectName);
+                DispatchTable table = dispatch();
+                for (ClassNode nameOfClass : table.classesNamed(objectSymbol)) {
+                    for (DispatchTable.Candidate candidate : table.methods(nameOfClass, methodSymbol, parameters.size())) {
+                        if (candidate.matches(parameters) && candidate.method.isShared) {
+                            return interpretMethodCall(object, candidate.method, parameters);
                         }
                     }
                 }
             }else if(object != null && methodName != null){
-                for(int i=0; i < object.get().astNode.methods.size(); i++){
-                    if(object.get().astNode.methods.get(i).name.equals(methodName)){
-                        MethodDeclarationNode methodNode = object.get().astNode.methods.get(i);
-                        if(methodNode.locals.size() != 0){
-                            for(int k = 0; k < methodNode.locals.size(); k++){
-                                instantiate(methodNode.locals.get(k).type);
-                                object.get().members.put(methodNode.locals.get(k).name, instantiate(methodNode.locals.get(k).type));
-                            }
-                        }
-                        if(doesMatch(methodNode, mc, parameters)){
-                            return interpretMethodCall(object, methodNode, parameters);
+                // every method with the name puts its locals in the object until one matches, so this one takes them all
+                for (DispatchTable.Candidate candidate : methodsAt(mc.cache, object.get().astNode, methodSymbol, DispatchTable.ANY_ARITY)) {
+                    MethodDeclarationNode methodNode = candidate.method;
+                    methodNode.ensureParsed();
+                    if(methodNode.locals.size() != 0){
+                        for(int k = 0; k < methodNode.locals.size(); k++){
+                            instantiate(methodNode.locals.get(k).type);
+                            object.get().members.put(methodNode.locals.get(k).name, instantiate(methodNode.locals.get(k).type));
                         }
                     }
+                    if(candidate.takes(parameters.size()) && candidate.matches(parameters)){
+                        return interpretMethodCall(object, methodNode, parameters);
+                    }
                 }
             }else {
                 ObjectIDT obj = object.orElseGet(null);
@@ -134,11 +191,156 @@ public class Interpreter {
         return result;
     }
 
+    /**
+     * The methods named symbol on the receiver's class, through the call site's inline cache: a class the site has
+     * seen before is one comparison, anything else (or any class, once the site is megamorphic) goes to the dispatch table.
+     * @param cache - the caches of the call being made, this Interpreter's is the one used
+     * @param receiver - the class of the object the method is called on
+     * @param symbol - the method name's id in the program's SymbolTable
+     * @param arity - how many arguments the call passes, or DispatchTable.ANY_ARITY for every method with the name
+     * @return the candidates, in the order they were declared
+     */
+    private DispatchTable.Candidate[] methodsAt(CallSiteCache cache, ClassNode receiver, int symbol, int arity) {
+        DispatchTable table = dispatch();
+        CallSiteCache.Site site = cache.site(this);
+        Object cached = site.lookup(dispatchVersion, symbol, arity, receiver);
+        if (cached != null) {
+            return (DispatchTable.Candidate[]) cached;
+        }
+        DispatchTable.Candidate[] retVal = table.methods(receiver, symbol, arity);
+        site.add(dispatchVersion, symbol, arity, receiver, retVal);
+        return retVal;
+    }
+
+    /**
+     * What console.write has printed, one line per call, like the VM's console. console.write goes to the first
+     * console class in the tree, which is this Interpreter's own unless an earlier Interpreter on the tree added one.
+     * @return the lines written so far
+     */
+    public List<String> console() {
+        for (ClassNode c : dispatch().classesNamed(consoleSymbol)) {
+            for (MethodDeclarationNode m : c.methods) {
+                if (m instanceof ConsoleWrite write) {
+                    return write.console;
+                }
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Where this Interpreter's Resolver found a variable reference, once the body it is in has run.
+     * @param v - a variable reference in one of the bodies
+     * @return its binding, or one with scope UNRESOLVED if it hasn't been bound
+     */
+    public Binding binding(VariableReferenceNode v) {
+        return resolver.binding(v);
+    }
+
+    /**
+     * Every call site in the parsed bodies this Interpreter has called, with its inline cache's state and counters, one per
+     * line as "class.method: call - cache". For finding the megamorphic ones.
+     * @return a line for each call site that has been used
+     */
+    public List<String> callSiteReport() {
+        var retVal = new ArrayList<String>();
+        for (ClassNode c : top.Classes) {
+            for (ConstructorNode constructor : c.constructors) {
+                if (constructor.isBodyParsed()) {
+                    reportCallSites(c.name + ".construct", constructor.statements, retVal);
+                }
+            }
+            for (MethodDeclarationNode m : c.methods) {
+                if (m.isBodyParsed()) {
+                    reportCallSites(c.name + "." + m.name, m.statements, retVal);
+                }
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * With the SPECIALIZING engine, every operator expression in the bodies that have run, as the nodes it has turned
+     * into so far, one per line as "class.method: nodes" - NumberAdd(x, y) is an add that has only seen numbers.
+     * @return a line for each operator expression, none for the other engines
+     */
+    public List<String> specializationReport() {
+        var retVal = new ArrayList<String>();
+        if (compiler == null) {
+            return retVal;
+        }
+        for (ClassNode c : top.Classes) {
+            for (ConstructorNode constructor : c.constructors) {
+                for (ExecNode.Root root : compiler.roots(constructor)) {
+                    retVal.add(c.name + ".construct: " + root);
+                }
+            }
+            for (MethodDeclarationNode m : c.methods) {
+                for (ExecNode.Root root : compiler.roots(m)) {
+                    retVal.add(c.name + "." + m.name + ": " + root);
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private void reportCallSites(String where, List<StatementNode> statements, List<String> report) {
+        if (statements == null) {
+            return;
+        }
+        for (StatementNode s : statements) {
+            if (s instanceof MethodCallStatementNode mc) {
+                reportCallSite(where, mc.toString(), mc.cache, report);
+                mc.parameters.forEach(p -> reportCallSites(where, p, report));
+            } else if (s instanceof AssignmentNode a) {
+                reportCallSites(where, a.expression, report);
+            } else if (s instanceof LoopNode loop) {
+                reportCallSites(where, loop.expression, report);
+                reportCallSites(where, loop.statements, report);
+            } else if (s instanceof IfNode i) {
+                reportCallSites(where, i.condition, report);
+                reportCallSites(where, i.statements, report);
+                if (i.elseStatement != null && i.elseStatement.isPresent()) {
+                    reportCallSites(where, i.elseStatement.get().statements, report);
+                }
+            }
+        }
+    }
+
+    private void reportCallSites(String where, ExpressionNode e, List<String> report) {
+        if (e instanceof MethodCallExpressionNode mc) {
+            reportCallSite(where, mc.toString(), mc.cache, report);
+            mc.parameters.forEach(p -> reportCallSites(where, p, report));
+        } else if (e instanceof MathOpNode m) {
+            reportCallSites(where, m.left, report);
+            reportCallSites(where, m.right, report);
+        } else if (e instanceof CompareNode c) {
+            reportCallSites(where, c.left, report);
+            reportCallSites(where, c.right, report);
+        } else if (e instanceof BooleanOpNode b) {
+            reportCallSites(where, b.left, report);
+            reportCallSites(where, b.right, report);
+        } else if (e instanceof NotOpNode n) {
+            reportCallSites(where, n.left, report);
+        } else if (e instanceof NewNode n) {
+            n.parameters.forEach(p -> reportCallSites(where, p, report));
+        }
+    }
+
+    private void reportCallSite(String where, String call, CallSiteCache cache, List<String> report) {
+        CallSiteCache.Site site = cache.find(this);
+        if (site != null && site.hits() + site.misses() + site.megamorphicCalls() > 0) {
+            report.add(where + ": " + call.trim() + " - " + site);
+        }
+    }
+
     /**
      * Run a "prepared" method (found, parameters evaluated)
      * This is split from findMethodForMethodCallAndRunIt() because there are a few cases where we don't need to do the finding:
      * in start() and dealing with loops with iterator objects, for example.
      *
+     * Parse m's body first if the parser left it for later (ensureParsed() does nothing otherwise)
+     * The first time a body runs, the Resolver binds its variable references to slots in the frame it runs with
      * Check to see if "m" is a built-in. If so, call Execute() on it and return
      * Make local variables, per "m"
      * If the number of passed in values doesn't match m's "expectations", throw
@@ -152,15 +354,20 @@ public class Interpreter {
      */
     private List<InterpreterDataType> interpretMethodCall(Optional<ObjectIDT> object, MethodDeclarationNode m, List<InterpreterDataType> values) {
         var retVal = new LinkedList<InterpreterDataType>();
+        m.ensureParsed();
 
-        if(m.name.equals("start")){
+        if(m.symbol(symbols) == startSymbol){
             BuiltInMethodDeclarationNode startMethod = new BuiltInMethodDeclarationNode() {
                 @Override
                 public List<InterpreterDataType> Execute(List<InterpreterDataType> params) {
+                    if (!(variables instanceof Frame)) {
+                        variables = new Frame(resolver.locals(m));
+                    }
                     for(AST.VariableDeclarationNode v: m.locals) {
                         variables.put(v.name, instantiate(v.type));
                     }
-                    interpretStatementBlock(object, m.statements, variables);
+                    resolver.bind(m, m.statements, variables, object);
+                    runBody(m, object, m.statements, variables);
 
                     return List.of();
                 }
@@ -174,7 +381,7 @@ public class Interpreter {
             throw new RuntimeException("Parameter count mismatch for method: " + m.name);
         }
 
-        HashMap<String, InterpreterDataType> returnVariables = new HashMap<>();
+        Map<String, InterpreterDataType> returnVariables = new HashMap<>();
         if (m.returns.size() != 0) {
             for(int g = 0; g < m.returns.size(); g++){
                 returnVariables.put(m.returns.get(g).name, instantiate(m.returns.get(g).type));
@@ -191,7 +398,8 @@ public class Interpreter {
             }
         }
 
-        interpretStatementBlock(object, m.statements, object.get().members);
+        resolver.bind(m, m.statements, object.get().members, object);
+        runBody(m, object, m.statements, object.get().members);
 
         if (m.returns.size() != 0) {
             for(int g = 0; g < m.returns.size(); g++){
@@ -219,7 +427,7 @@ public class Interpreter {
      * @param mc  - the method call for this construction
      * @param newOne - the object that we just created that we are calling the constructor for
      */
-    private void findConstructorAndRunIt(Optional<ObjectIDT> callerObj, HashMap<String, InterpreterDataType> locals, MethodCallStatementNode mc, ObjectIDT newOne) {
+    private void findConstructorAndRunIt(Optional<ObjectIDT> callerObj, Map<String, InterpreterDataType> locals, MethodCallStatementNode mc, ObjectIDT newOne) {
         List<InterpreterDataType> parameters = getParameters(callerObj, locals, mc); //populate of IDT
         String className = mc.methodName; // Assuming objectName holds the class name
         Optional<ClassNode> classNodeOpt = getClassByName(className); //find class for constructor
@@ -238,7 +446,7 @@ public class Interpreter {
         if (matchingConstructor == null) {
             throw new RuntimeException("No matching constructor found for: " + mc.methodName);
         }
-        HashMap<String, InterpreterDataType> localVariables = new HashMap<>();
+        Map<String, InterpreterDataType> localVariables = new HashMap<>();
         for(int i = 0; i < matchingConstructor.parameters.size(); i++){
             InterpreterDataType type = instantiate(matchingConstructor.parameters.get(i).type);
             if(type instanceof StringIDT){
@@ -260,6 +468,7 @@ public class Interpreter {
     /**
      * Similar to interpretMethodCall, but "just different enough" - for example, constructors don't return anything.
      *
+     * Parses the constructor's body first if the parser left it for later, and binds it the first time it runs
      * Creates local variables (as defined by the ConstructorNode), calls Instantiate() to do the creation
      * Checks to ensure that the right number of parameters were passed in, if not throw.
      * Adds the parameters (with the names from the ConstructorNode) to the locals.
@@ -269,12 +478,13 @@ public class Interpreter {
      * @param values - the parameter values being passed to the constructor
      */
     private void interpretConstructorCall(ObjectIDT object, ConstructorNode c, List<InterpreterDataType> values) {
+        c.ensureParsed();
         if (c.parameters.size() != values.size()) { //check number of parameters match
             throw new RuntimeException("Constructor " + c.toString() + " expects " + c.parameters.size()
                     + " parameters, but " + values.size() + " were provided.");
         }
 
-        HashMap<String, InterpreterDataType> constructorLocals = new HashMap<>();
+        Map<String, InterpreterDataType> constructorLocals = new Frame(resolver.parameters(c));
 
         for (int i = 0; i < c.parameters.size(); i++) {
             String paramName = c.parameters.get(i).name;  // Get the parameter name from the constructor
@@ -290,7 +500,23 @@ public class Interpreter {
             }
         }
 
-        interpretStatementBlock(Optional.ofNullable(object), c.statements, constructorLocals);
+        resolver.bind(c, c.statements, constructorLocals, Optional.ofNullable(object));
+        runBody(c, Optional.ofNullable(object), c.statements, constructorLocals);
+    }
+
+    /**
+     * Runs the statements of a method or constructor with the engine this interpreter was made with.
+     * @param body - the method or constructor the statements belong to
+     * @param object - the object that this body belongs to
+     * @param statements - the body
+     * @param locals - the local variables
+     */
+    private void runBody(Object body, Optional<ObjectIDT> object, List<StatementNode> statements, Map<String, InterpreterDataType> locals) {
+        if (compiler != null) {
+            compiler.body(body, statements).run(locals, object);
+        } else {
+            interpretStatementBlock(object, statements, locals);
+        }
     }
 
     //              Running Instructions
@@ -318,34 +544,15 @@ public class Interpreter {
      * @param statements - the statements to run
      * @param locals - the local variables
      */
-    private void interpretStatementBlock(Optional<ObjectIDT> object, List<StatementNode> statements, HashMap<String, InterpreterDataType> locals) {
+    void interpretStatementBlock(Optional<ObjectIDT> object, List<StatementNode> statements, Map<String, InterpreterDataType> locals) {
         for(StatementNode s : statements){
             if(s instanceof AssignmentNode) {
                 AssignmentNode a = (AssignmentNode) s;
-                InterpreterDataType target = findVariable(String.valueOf(a.target.name), locals, object);
+                InterpreterDataType target = findVariable(a.target, locals, object);
                 target.Assign(evaluate(locals, object, a.expression));
 
             }else if(s instanceof MethodCallStatementNode) {
-                MethodCallStatementNode m = (MethodCallStatementNode) s;
-
-                Optional<ClassNode> cn = getClassByName(m.objectName.orElse(null));
-                if(!cn.isPresent()) {
-                    cn = getClassByName(m.methodName);
-                }
-                ReferenceIDT ref = ((ReferenceIDT) locals.get(m.objectName.orElseGet(null)));
-                Optional<ObjectIDT> obj = null;
-                if(ref != null){
-                    obj = ref.refersTo;
-                }else{
-                    obj = object;
-                }
-                List<InterpreterDataType> retVals = new ArrayList<>();
-
-                retVals = findMethodForMethodCallAndRunIt(obj, locals, m);
-
-                for(InterpreterDataType p : retVals){
-                    locals.put(p.toString(), p);
-                }
+                interpretMethodCallStatement(object, (MethodCallStatementNode) s, locals);
             } else if(s instanceof LoopNode) {
                 LoopNode loop = (LoopNode) s;
                 String value = ((LoopNode) s).expression.toString();
@@ -353,9 +560,9 @@ public class Interpreter {
                 ExpressionNode name = loop.expression;
                 if(name instanceof MethodCallExpressionNode){
                     MethodCallExpressionNode m = (MethodCallExpressionNode) name;
-                    if(m.methodName.equals("times")){
+                    if(m.methodSymbol(symbols) == timesSymbol){
                         NumberIDT numberIDT = new NumberIDT(1);
-                        HashMap<String, InterpreterDataType> localVariablsIterator = new HashMap<>();
+                        Map<String, InterpreterDataType> localVariablsIterator = new HashMap<>();
                         for(String local: locals.keySet()){
                             localVariablsIterator.put(local, numberIDT);
                         }
@@ -400,6 +607,34 @@ public class Interpreter {
 
     }
 
+    /**
+     * A method call on its own as a statement: find the object it is called on (a local reference, or the current
+     * object), run it, then copy the returned values into the locals.
+     * @param object - the object that this statement belongs to
+     * @param m - the method call
+     * @param locals - the local variables
+     */
+    void interpretMethodCallStatement(Optional<ObjectIDT> object, MethodCallStatementNode m, Map<String, InterpreterDataType> locals) {
+        Optional<ClassNode> cn = getClassByName(m.objectName.orElse(null));
+        if(!cn.isPresent()) {
+            cn = getClassByName(m.methodName);
+        }
+        ReferenceIDT ref = ((ReferenceIDT) locals.get(m.objectName.orElseGet(null)));
+        Optional<ObjectIDT> obj = null;
+        if(ref != null){
+            obj = ref.refersTo;
+        }else{
+            obj = object;
+        }
+        List<InterpreterDataType> retVals = new ArrayList<>();
+
+        retVals = findMethodForMethodCallAndRunIt(obj, locals, m);
+
+        for(InterpreterDataType p : retVals){
+            locals.put(p.toString(), p);
+        }
+    }
+
     /**
      *  evaluate() processes everything that is an expression - math, variables, boolean expressions.
      *  There is a good bit of recursion in here, since math and comparisons have left and right sides that need to be evaluated.
@@ -409,6 +644,7 @@ public class Interpreter {
      * BooleanLiteralNode - create a new BooleanLiteralNode with the same value
      *      - Same for all of the basic data types
      * BooleanOpNode - Evaluate() left and right, then perform either and/or on the results.
+     * NotOpNode - Evaluate() the one side and flip it
      * CompareNode - Evaluate() both sides. Do good comparison for each data type
      * MathOpNode - Evaluate() both sides. If they are both numbers, do the math using the built-in operators. Also handle String + String as concatenation (like Java)
      * MethodCallExpression - call doMethodCall() and return the first value
@@ -418,7 +654,7 @@ public class Interpreter {
      * @param expression - some expression to evaluate
      * @return a value
      */
-    private InterpreterDataType evaluate(HashMap<String, InterpreterDataType> locals, Optional<ObjectIDT> object, ExpressionNode expression) {
+    InterpreterDataType evaluate(Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object, ExpressionNode expression) {
         if(expression instanceof NumericLiteralNode) {
             NumericLiteralNode n = (NumericLiteralNode) expression;
             return new NumberIDT(n.value);
@@ -427,6 +663,14 @@ public class Interpreter {
             return new StringIDT(s.value);
         } else if (expression instanceof VariableReferenceNode) {
             VariableReferenceNode v = (VariableReferenceNode) expression;
+            Binding b = resolver.binding(v);
+            if (locals instanceof Frame f && f.layout.id == b.frame()) {
+                if (b.scope() == Binding.LOCAL) {
+                    return f.slots[b.slot()];
+                } else if (f.onlyLaidOut()) {
+                    return null; // not a local, and only locals are looked at here
+                }
+            }
             return locals.get(v.name);
         } else if(expression instanceof BooleanOpNode){
             BooleanOpNode m = (BooleanOpNode) expression;
@@ -441,6 +685,9 @@ public class Interpreter {
             } else{
                 return new BooleanIDT(left.Value);
             }
+        }else if(expression instanceof NotOpNode){
+            BooleanIDT operand = (BooleanIDT) evaluate(locals, object, ((NotOpNode) expression).left);
+            return new BooleanIDT(!operand.Value);
         }else if(expression instanceof CompareNode){
             CompareNode c = (CompareNode) expression;
             InterpreterDataType typeUnknownLeft = evaluate(locals, object, c.left);
@@ -482,7 +729,8 @@ public class Interpreter {
             methodCallStatementNode.methodName = ((NewNode) expression).className;
             methodCallStatementNode.parameters = ((NewNode) expression).parameters;
             Optional<ClassNode> cn = getClassByName(methodCallStatementNode.methodName);
-            ObjectIDT obj = new ObjectIDT(cn.orElseGet(null));
+            ClassNode classNode = cn.orElseGet(null);
+            ObjectIDT obj = new ObjectIDT(classNode, resolver.members(classNode));
             for(int i = 0; i < cn.get().members.size(); i++){
                 obj.members.put(cn.get().members.get(i).declaration.name.toString(), instantiate(cn.get().members.get(i).declaration.type.toString()));
             }
@@ -495,11 +743,11 @@ public class Interpreter {
             return new BooleanIDT(b.value);
         } else if (expression instanceof MethodCallExpressionNode){
             MethodCallExpressionNode m = (MethodCallExpressionNode) expression;
-            if(m.methodName.equals("times")){//means this is an iterator
+            if(m.methodSymbol(symbols) == timesSymbol){//means this is an iterator
                 NumberIDT interpretVal = (NumberIDT) locals.get(m.objectName.get());
 
                 for(int i = 0; i < top.Classes.size(); i++){
-                    if(top.Classes.get(i).name.equals("console")){
+                    if(top.Classes.get(i).symbol(symbols) == consoleSymbol){
                         MethodDeclarationNode md = top.Classes.get(i).methods.get(0);
                         ArrayList<InterpreterDataType> retVals = new ArrayList<InterpreterDataType>();
                         for(int retVal = 0; retVal < md.returns.size(); retVal++){
@@ -512,16 +760,16 @@ public class Interpreter {
 
 
 
-            for(int i = 0; i < object.orElseGet(null).astNode.methods.size(); i++){
-                if(object.orElseGet(null).astNode.methods.get(i).name.equals(m.methodName)){
-                    MethodDeclarationNode md = object.orElseGet(null).astNode.methods.get(i);
-                    ArrayList<InterpreterDataType> retVals = new ArrayList<InterpreterDataType>();
-                    for(int retVal = 0; retVal < md.returns.size(); retVal++){
-                        retVals.add(instantiate(md.returns.get(retVal).type.toString()));
-                    }
-                    InterpreterDataType typeFromMethodCall = interpretMethodCall(object, md, retVals).get(0);
-                    return typeFromMethodCall;
+            int methodSymbol = m.methodSymbol(symbols);
+            DispatchTable.Candidate[] candidates = methodsAt(m.cache, object.orElseGet(null).astNode, methodSymbol, DispatchTable.ANY_ARITY);
+            if (candidates.length > 0) {
+                MethodDeclarationNode md = candidates[0].method;
+                ArrayList<InterpreterDataType> retVals = new ArrayList<InterpreterDataType>();
+                for(int retVal = 0; retVal < md.returns.size(); retVal++){
+                    retVals.add(instantiate(md.returns.get(retVal).type.toString()));
                 }
+                InterpreterDataType typeFromMethodCall = interpretMethodCall(object, md, retVals).get(0);
+                return typeFromMethodCall;
             }
             return null;
         }
@@ -545,7 +793,7 @@ public class Interpreter {
      * @return does this method match the method call?
      */
     private boolean doesMatch(MethodDeclarationNode m, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
-        if (!m.name.equals(mc.methodName)) {
+        if (m.symbol(symbols) != mc.methodSymbol(symbols)) {
             return false;
         }
 
@@ -593,7 +841,7 @@ public class Interpreter {
      * @param mc - a method call
      * @return the list of method values
      */
-    private List<InterpreterDataType> getParameters(Optional<ObjectIDT> object, HashMap<String,InterpreterDataType> locals, MethodCallStatementNode mc) {
+    private List<InterpreterDataType> getParameters(Optional<ObjectIDT> object, Map<String, InterpreterDataType> locals, MethodCallStatementNode mc) {
         List<InterpreterDataType> parameters = new ArrayList<>();
         for (ExpressionNode paramExpr : mc.parameters) {
             InterpreterDataType paramValue = evaluate(locals, object, paramExpr);
@@ -656,41 +904,56 @@ public class Interpreter {
     private MethodDeclarationNode getMethodFromObject(ObjectIDT object, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
         ClassNode classNode = object.astNode;  // Assuming getClassNode() returns the class for the object
 
-        List<MethodDeclarationNode> methods = classNode.methods;
-
-        for (MethodDeclarationNode method : methods) {
-            if (method.name.equals(mc.methodName)) {
-                if (doesMatch(method, mc, parameters)) {
-                    return method;
-                }
+        for (DispatchTable.Candidate candidate : dispatch().methods(classNode, mc.methodSymbol(symbols), parameters.size())) {
+            if (candidate.matches(parameters)) {
+                return candidate.method;
             }
         }
         throw new RuntimeException("Unable to resolve method call " + mc);
     }
 
     /**
-     * Find a class, given the name. Just loops over the TranNode's classes member, matching by name.
+     * Find a class, given the name: the first class with that name, or failing that with a method of that name.
      *
-     * Loop over each class in the top node, comparing names to find a match.
+     * Looked up in the dispatch table, which indexed the classes this way once.
      * @param name Name of the class to find
      * @return either a class node or empty if that class doesn't exist
      */
     private Optional<ClassNode> getClassByName(String name) {
-        List<ClassNode> classes = top.Classes;// Get the list of classes from the TranNode
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(dispatch().classByName(symbols.intern(name)));
+    }
 
-        for (int i = 0; i < classes.size(); i++) {
-            ClassNode classNode = classes.get(i);
-            if (classNode.name.equals(name)) {
-                return Optional.of(classNode);
-            } else{
-                for(int j = 0; j < classNode.methods.size(); j++) {
-                    if(classNode.methods.get(j).name.equals(name)) {
-                        return Optional.of(classNode);
-                    }
+    /**
+     * Same as findVariable() by name, but reads the slot the Resolver bound the reference to when the frames are the
+     * ones it was bound against. Anything else (an unbound reference, a loop's own locals, a slot that is empty) falls
+     * back to the lookup by name.
+     *
+     * @param v  - the variable reference that we are looking for
+     * @param locals - the current method's local variables
+     * @param object - the current object (so we can find members)
+     * @return the IDT that we are looking for or throw an exception
+     */
+    private InterpreterDataType findVariable(VariableReferenceNode v, Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object) {
+        Binding b = resolver.binding(v);
+        if (locals instanceof Frame f && f.layout.id == b.frame()) {
+            if (b.scope() == Binding.LOCAL) {
+                InterpreterDataType value = f.slots[b.slot()];
+                if (value != null) {
+                    return value;
                 }
+            } else if (b.scope() == Binding.MEMBER && f.onlyLaidOut() && object.isPresent()
+                    && object.get().members instanceof Frame members && members.layout.id == b.memberFrame()) {
+                InterpreterDataType value = members.slots[b.slot()];
+                if (value != null) {
+                    return value;
+                }
+                throw new RuntimeException("Unable to find variable " + v.name);
             }
         }
-        return Optional.empty();
+        return findVariable(String.valueOf(v.name), locals, object);
     }
 
     /**
@@ -701,27 +964,16 @@ public class Interpreter {
      * @param object - the current object (so we can find members)
      * @return the IDT that we are looking for or throw an exception
      */
-    private InterpreterDataType findVariable(String name, HashMap<String,InterpreterDataType> locals, Optional<ObjectIDT> object) {
+    InterpreterDataType findVariable(String name, Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object) {
         if (locals.containsKey(name)) {
             return locals.get(name);
         }
 
         if (object.isPresent()) {
-            ObjectIDT currentObject = object.get();
-
-            List<String> hashMapKeyValues = new ArrayList<>();
-            hashMapKeyValues.addAll(object.get().members.keySet());
-
-
-            for(int i = 0; i < currentObject.members.size(); i++) { //SOMETHING IS NOT WORKING HERE UNABLE TO FIND VARIABLES DECLARED IN CLASS
-                if(hashMapKeyValues.contains(name)){
-                    InterpreterDataType memberValue = (InterpreterDataType) currentObject.members.get(name);
-                    if (memberValue != null) {
-                        return memberValue;
-                    }
-                }
+            InterpreterDataType memberValue = object.get().members.get(name);
+            if (memberValue != null) {
+                return memberValue;
             }
-
         }
         throw new RuntimeException("Unable to find variable " + name);
     }
@@ -3,13 +3,21 @@ package Interpreter;
 import AST.ClassNode;
 
 import java.util.HashMap;
+import java.util.Map;
 
 public class ObjectIDT implements InterpreterDataType {
-    public final HashMap<String,InterpreterDataType> members = new HashMap<>();
+    public final Map<String,InterpreterDataType> members;
     public final ClassNode astNode;
 
     public ObjectIDT(ClassNode astNode) {
         this.astNode = astNode;
+        this.members = new HashMap<>();
+    }
+
+    // members laid out in slots, for the Interpreter's resolved references
+    ObjectIDT(ClassNode astNode, Frame.Layout layout) {
+        this.astNode = astNode;
+        this.members = new Frame(layout);
     }
 
     @Override
@@ -20,7 +28,10 @@ public class ObjectIDT implements InterpreterDataType {
     @Override
     public String toString() {
         StringBuilder out = new StringBuilder();
-        for (var m : members.entrySet())
+        // a HashMap's order, put the way the members were, whatever map holds them
+        var inOrder = new HashMap<String, InterpreterDataType>();
+        members.forEach(inOrder::put);
+        for (var m : inOrder.entrySet())
             out.append(m.getKey()).append(" : ").append(m.getValue().toString()).append("\n");
         return out.toString();
     }
@@ -0,0 +1,155 @@
+package Interpreter;
+
+import AST.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Works out where each variable lives before a body runs, so the Interpreter reads and assigns through slots.
+// Each class gets a member layout (members, then every method's returns and locals, since the methods run with
+// the object's members as their locals), each constructor a layout of its parameters and start() one of its locals.
+// A body is bound the first time it runs, against the frames it runs with: every VariableReferenceNode in it that
+// names something in the locals layout becomes LOCAL, one that only names a member becomes MEMBER, anything else
+// stays UNRESOLVED and is looked up by name like before. The bindings are kept here rather than on the nodes, in an
+// array indexed by each reference's node id in the program, so two Interpreters on the same TranNode each use their
+// own. Everything here is dropped when the TranNode's version changes, like the Interpreter's dispatch table: a hot
+// reload can change a class's members or a method's locals without the ClassNode or the body being another object.
+final class Resolver {
+    private final TranNode program;
+    private int version;
+    private Binding[] bindings = new Binding[64];
+    private final Map<ClassNode, Frame.Layout> members = new IdentityHashMap<>();
+    private final Map<Object, Frame.Layout> locals = new IdentityHashMap<>();
+    private final Set<Object> bound = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    Resolver(TranNode program) {
+        this.program = program;
+        this.version = program.version();
+    }
+
+    // what was laid out and bound for an older version of the program is gone
+    private void current() {
+        int now = program.version();
+        if (now != version) {
+            version = now;
+            Arrays.fill(bindings, null);
+            members.clear();
+            locals.clear();
+            bound.clear();
+        }
+    }
+
+    // a body the parser left for later and that hasn't run yet has no locals to lay out, those are looked up by name
+    Frame.Layout members(ClassNode c) {
+        current();
+        return members.computeIfAbsent(c, k -> {
+            var names = new ArrayList<String>();
+            for (MemberNode member : c.members) {
+                names.add(member.declaration.name);
+            }
+            for (MethodDeclarationNode method : c.methods) {
+                method.returns.forEach(r -> names.add(r.name));
+                if (method.isBodyParsed()) {
+                    method.locals.forEach(l -> names.add(l.name));
+                }
+            }
+            return new Frame.Layout(names);
+        });
+    }
+
+    Frame.Layout parameters(ConstructorNode c) {
+        current();
+        return locals.computeIfAbsent(c, k -> new Frame.Layout(c.parameters.stream().map(p -> p.name).toList()));
+    }
+
+    Frame.Layout locals(MethodDeclarationNode m) {
+        current();
+        return locals.computeIfAbsent(m, k -> new Frame.Layout(m.locals.stream().map(l -> l.name).toList()));
+    }
+
+    // how v was bound, NONE if it hasn't been (or was bound for an older version of the program)
+    Binding binding(VariableReferenceNode v) {
+        int id = v.id(program);
+        Binding retVal = id < bindings.length ? bindings[id] : null;
+        return retVal == null || version != program.version() ? Binding.NONE : retVal;
+    }
+
+    // body is the method or constructor the statements belong to, only its first run binds anything
+    void bind(Object body, List<StatementNode> statements, Map<String, InterpreterDataType> frame, Optional<ObjectIDT> object) {
+        current();
+        if (!(frame instanceof Frame f) || !bound.add(body)) {
+            return;
+        }
+        Frame.Layout memberLayout = object != null && object.isPresent() && object.get().members instanceof Frame m ? m.layout : null;
+        bindStatements(statements, f.layout, memberLayout);
+    }
+
+    private void bindStatements(List<StatementNode> statements, Frame.Layout frame, Frame.Layout members) {
+        if (statements == null) {
+            return;
+        }
+        for (StatementNode s : statements) {
+            if (s instanceof AssignmentNode a) {
+                bindReference(a.target, frame, members);
+                bindExpression(a.expression, frame, members);
+            } else if (s instanceof MethodCallStatementNode mc) {
+                mc.parameters.forEach(p -> bindExpression(p, frame, members));
+            } else if (s instanceof LoopNode loop) {
+                bindExpression(loop.expression, frame, members);
+                bindStatements(loop.statements, frame, members);
+            } else if (s instanceof IfNode i) {
+                bindExpression(i.condition, frame, members);
+                bindStatements(i.statements, frame, members);
+                if (i.elseStatement != null && i.elseStatement.isPresent()) {
+                    bindStatements(i.elseStatement.get().statements, frame, members);
+                }
+            }
+        }
+    }
+
+    private void bindExpression(ExpressionNode e, Frame.Layout frame, Frame.Layout members) {
+        if (e instanceof VariableReferenceNode v) {
+            bindReference(v, frame, members);
+        } else if (e instanceof MathOpNode m) {
+            bindExpression(m.left, frame, members);
+            bindExpression(m.right, frame, members);
+        } else if (e instanceof CompareNode c) {
+            bindExpression(c.left, frame, members);
+            bindExpression(c.right, frame, members);
+        } else if (e instanceof BooleanOpNode b) {
+            bindExpression(b.left, frame, members);
+            bindExpression(b.right, frame, members);
+        } else if (e instanceof NotOpNode n) {
+            bindExpression(n.left, frame, members);
+        } else if (e instanceof MethodCallExpressionNode mc) {
+            mc.parameters.forEach(p -> bindExpression(p, frame, members));
+        } else if (e instanceof NewNode n) {
+            n.parameters.forEach(p -> bindExpression(p, frame, members));
+        }
+    }
+
+    private void bindReference(VariableReferenceNode v, Frame.Layout frame, Frame.Layout members) {
+        if (v == null) {
+            return;
+        }
+        int memberFrame = members == null ? -1 : members.id;
+        int id = v.id(program);
+        if (id >= bindings.length) {
+            bindings = Arrays.copyOf(bindings, Math.max(id + 1, bindings.length * 2));
+        }
+        int slot = frame.slotOf(v.name);
+        if (slot >= 0) {
+            bindings[id] = new Binding(Binding.LOCAL, slot, frame.id, memberFrame);
+        } else if (members != null && (slot = members.slotOf(v.name)) >= 0) {
+            bindings[id] = new Binding(Binding.MEMBER, slot, frame.id, memberFrame);
+        } else {
+            bindings[id] = new Binding(Binding.UNRESOLVED, -1, frame.id, memberFrame);
+        }
+    }
+}
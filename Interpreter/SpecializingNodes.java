@@ -0,0 +1,390 @@
+package Interpreter;
+
+import AST.BooleanOpNode.BooleanOperations;
+import AST.CompareNode.CompareOperations;
+import AST.MathOpNode.MathOperations;
+
+import java.util.Map;
+import java.util.Optional;
+
+// The operator nodes of the SPECIALIZING engine. Each operator starts out uninitialized; the first time it runs it
+// looks at the values it got and replaces itself with the node for those types (number + number, string + string,
+// comparing numbers, characters or booleans, and/or of booleans). A specialized node that then gets other types
+// replaces itself with the generic node for its operator, which handles everything and doesn't change again.
+// Where the generic nodes go beyond what evaluate() does: + with a string on either side joins the two as text, and
+// characters compare like numbers and booleans with == and !=. Anything else fails the way evaluate() fails.
+final class SpecializingNodes {
+    private SpecializingNodes() {
+    }
+
+    static ExecNode math(MathOperations op, ExecNode left, ExecNode right) {
+        if (op == MathOperations.add) {
+            return new UninitializedAdd(left, right);
+        }
+        return op == null ? new GenericMath(null, left, right) : new UninitializedMath(op, left, right);
+    }
+
+    static ExecNode compare(CompareOperations op, ExecNode left, ExecNode right) {
+        return op == null ? new GenericCompare(null, left, right) : new UninitializedCompare(op, left, right);
+    }
+
+    static ExecNode booleanOp(BooleanOperations op, ExecNode left, ExecNode right) {
+        return op == null ? new GenericBoolean(null, left, right) : new UninitializedBoolean(op, left, right);
+    }
+
+    // anything that isn't an operator, run by the closure engine
+    static final class Leaf extends ExecNode {
+        private final ClosureCompiler.Value value;
+        private final String text;
+
+        Leaf(ClosureCompiler.Value value, String text) {
+            this.value = value;
+            this.text = text;
+        }
+
+        @Override
+        InterpreterDataType execute(Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object) {
+            return value.eval(locals, object);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    // Both sides always run, left first, then apply() gets their values
+    abstract static class Binary extends ExecNode {
+        ExecNode left;
+        ExecNode right;
+
+        Binary(ExecNode left, ExecNode right) {
+            this.left = left;
+            this.right = right;
+            left.parent = this;
+            right.parent = this;
+        }
+
+        @Override
+        final InterpreterDataType execute(Map<String, InterpreterDataType> locals, Optional<ObjectIDT> object) {
+            InterpreterDataType l = left.execute(locals, object);
+            InterpreterDataType r = right.execute(locals, object);
+            return apply(l, r);
+        }
+
+        abstract InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r);
+
+        @Override
+        void replaceChild(ExecNode child, ExecNode with) {
+            if (left == child) {
+                left = with;
+            } else if (right == child) {
+                right = with;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(" + left + ", " + right + ")";
+        }
+    }
+
+    static final class UninitializedAdd extends Binary {
+        UninitializedAdd(ExecNode left, ExecNode right) {
+            super(left, right);
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof NumberIDT && r instanceof NumberIDT) {
+                return replace(new NumberAdd(left, right)).apply(l, r);
+            } else if (l instanceof StringIDT && r instanceof StringIDT) {
+                return replace(new StringAdd(left, right)).apply(l, r);
+            }
+            return replace(new GenericAdd(left, right)).apply(l, r);
+        }
+    }
+
+    static final class NumberAdd extends Binary {
+        NumberAdd(ExecNode left, ExecNode right) {
+            super(left, right);
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof NumberIDT a && r instanceof NumberIDT b) {
+                return new NumberIDT(a.Value + b.Value);
+            }
+            return replace(new GenericAdd(left, right)).apply(l, r);
+        }
+    }
+
+    static final class StringAdd extends Binary {
+        StringAdd(ExecNode left, ExecNode right) {
+            super(left, right);
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof StringIDT a && r instanceof StringIDT b) {
+                return new StringIDT(a.Value + b.Value);
+            }
+            return replace(new GenericAdd(left, right)).apply(l, r);
+        }
+    }
+
+    static final class GenericAdd extends Binary {
+        GenericAdd(ExecNode left, ExecNode right) {
+            super(left, right);
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if ((l instanceof StringIDT && r != null) || (r instanceof StringIDT && l != null)) {
+                return new StringIDT(l.toString() + r.toString());
+            }
+            return new NumberIDT(((NumberIDT) l).Value + ((NumberIDT) r).Value);
+        }
+    }
+
+    private static float math(MathOperations op, float l, float r) {
+        return switch (op) {
+            case add -> l + r;
+            case subtract -> l - r;
+            case multiply -> l * r;
+            case divide -> l / r;
+            case modulo -> l % r;
+        };
+    }
+
+    // -, *, / and %, which are only for numbers
+    static final class UninitializedMath extends Binary {
+        private final MathOperations op;
+
+        UninitializedMath(MathOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof NumberIDT && r instanceof NumberIDT) {
+                return replace(new NumberMath(op, left, right)).apply(l, r);
+            }
+            return replace(new GenericMath(op, left, right)).apply(l, r);
+        }
+    }
+
+    static final class NumberMath extends Binary {
+        private final MathOperations op;
+
+        NumberMath(MathOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof NumberIDT a && r instanceof NumberIDT b) {
+                return new NumberIDT(math(op, a.Value, b.Value));
+            }
+            return replace(new GenericMath(op, left, right)).apply(l, r);
+        }
+    }
+
+    static final class GenericMath extends Binary {
+        private final MathOperations op;
+
+        GenericMath(MathOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (op == null) {
+                throw new IllegalArgumentException();
+            }
+            return new NumberIDT(math(op, ((NumberIDT) l).Value, ((NumberIDT) r).Value));
+        }
+    }
+
+    private static boolean compare(CompareOperations op, float l, float r) {
+        return switch (op) {
+            case eq -> l == r;
+            case ne -> l != r;
+            case lt -> l < r;
+            case le -> l <= r;
+            case gt -> l > r;
+            case ge -> l >= r;
+        };
+    }
+
+    private static boolean equality(CompareOperations op) {
+        return op == CompareOperations.eq || op == CompareOperations.ne;
+    }
+
+    static final class UninitializedCompare extends Binary {
+        private final CompareOperations op;
+
+        UninitializedCompare(CompareOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof NumberIDT && r instanceof NumberIDT) {
+                return replace(new NumberCompare(op, left, right)).apply(l, r);
+            } else if (l instanceof CharIDT && r instanceof CharIDT) {
+                return replace(new CharCompare(op, left, right)).apply(l, r);
+            } else if (l instanceof BooleanIDT && r instanceof BooleanIDT && equality(op)) {
+                return replace(new BooleanCompare(op, left, right)).apply(l, r);
+            }
+            return replace(new GenericCompare(op, left, right)).apply(l, r);
+        }
+    }
+
+    static final class NumberCompare extends Binary {
+        private final CompareOperations op;
+
+        NumberCompare(CompareOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof NumberIDT a && r instanceof NumberIDT b) {
+                return new BooleanIDT(compare(op, a.Value, b.Value));
+            }
+            return replace(new GenericCompare(op, left, right)).apply(l, r);
+        }
+    }
+
+    static final class CharCompare extends Binary {
+        private final CompareOperations op;
+
+        CharCompare(CompareOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof CharIDT a && r instanceof CharIDT b) {
+                return new BooleanIDT(compare(op, a.Value, b.Value));
+            }
+            return replace(new GenericCompare(op, left, right)).apply(l, r);
+        }
+    }
+
+    // == and != only
+    static final class BooleanCompare extends Binary {
+        private final CompareOperations op;
+
+        BooleanCompare(CompareOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof BooleanIDT a && r instanceof BooleanIDT b) {
+                return new BooleanIDT((a.Value == b.Value) == (op == CompareOperations.eq));
+            }
+            return replace(new GenericCompare(op, left, right)).apply(l, r);
+        }
+    }
+
+    // numbers and characters every way, booleans and strings with == and !=
+    static final class GenericCompare extends Binary {
+        private final CompareOperations op;
+
+        GenericCompare(CompareOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (op != null) {
+                if (l instanceof NumberIDT a && r instanceof NumberIDT b) {
+                    return new BooleanIDT(compare(op, a.Value, b.Value));
+                } else if (l instanceof CharIDT a && r instanceof CharIDT b) {
+                    return new BooleanIDT(compare(op, a.Value, b.Value));
+                } else if (l instanceof BooleanIDT a && r instanceof BooleanIDT b && equality(op)) {
+                    return new BooleanIDT((a.Value == b.Value) == (op == CompareOperations.eq));
+                } else if (l instanceof StringIDT a && r instanceof StringIDT b && equality(op)) {
+                    return new BooleanIDT(a.Value.equals(b.Value) == (op == CompareOperations.eq));
+                }
+            }
+            throw new IllegalArgumentException();
+        }
+    }
+
+    static final class UninitializedBoolean extends Binary {
+        private final BooleanOperations op;
+
+        UninitializedBoolean(BooleanOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof BooleanIDT && r instanceof BooleanIDT) {
+                return replace(op == BooleanOperations.and ? new BooleanAnd(left, right) : new BooleanOr(left, right)).apply(l, r);
+            }
+            return replace(new GenericBoolean(op, left, right)).apply(l, r);
+        }
+    }
+
+    static final class BooleanAnd extends Binary {
+        BooleanAnd(ExecNode left, ExecNode right) {
+            super(left, right);
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof BooleanIDT a && r instanceof BooleanIDT b) {
+                return new BooleanIDT(a.Value && b.Value);
+            }
+            return replace(new GenericBoolean(BooleanOperations.and, left, right)).apply(l, r);
+        }
+    }
+
+    static final class BooleanOr extends Binary {
+        BooleanOr(ExecNode left, ExecNode right) {
+            super(left, right);
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (l instanceof BooleanIDT a && r instanceof BooleanIDT b) {
+                return new BooleanIDT(a.Value || b.Value);
+            }
+            return replace(new GenericBoolean(BooleanOperations.or, left, right)).apply(l, r);
+        }
+    }
+
+    // fails the way the closure engine's and/or fail when a side isn't a boolean
+    static final class GenericBoolean extends Binary {
+        private final BooleanOperations op;
+
+        GenericBoolean(BooleanOperations op, ExecNode left, ExecNode right) {
+            super(left, right);
+            this.op = op;
+        }
+
+        @Override
+        InterpreterDataType apply(InterpreterDataType l, InterpreterDataType r) {
+            if (op == null) {
+                throw new IllegalArgumentException();
+            }
+            boolean a = ((BooleanIDT) l).Value;
+            boolean b = ((BooleanIDT) r).Value;
+            return new BooleanIDT(op == BooleanOperations.and ? a && b : a || b);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 import AST.TranNode;
 import Interpreter.Interpreter;
 import Interpreter.ConsoleWrite;
+import VM.BytecodeCompiler;
+import VM.VirtualMachine;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -166,10 +168,36 @@ public class InterpreterTests {
             System.out.println(tran.toString());
             var i = new Interpreter(tran);
             i.start();
+            // the same program on the bytecode VM has to write the same lines
+            var vm = new VirtualMachine(BytecodeCompiler.compile(tran));
+            vm.start();
+            Assertions.assertEquals(getConsole(tran), vm.console);
             return tran;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    // the fixture of the tests that also run programs some other way: a program parsed into a TranNode of its own
+    static TranNode parse(String program) throws Exception {
+        return parse(program, false);
+    }
+
+    // the same, leaving method and constructor bodies to be parsed when they first run if lazy
+    static TranNode parse(String program, boolean lazy) throws Exception {
+        var tran = new TranNode();
+        new Parser(tran, new Lexer(program).Lex(), lazy).Tran();
+        return tran;
+    }
+
+    // what start() writes when a new tree-walking Interpreter runs tran
+    static List<String> interpret(TranNode tran) {
+        return interpret(new Interpreter(tran));
+    }
+
+    // what start() writes when interpreter runs, along with whatever it wrote before
+    static List<String> interpret(Interpreter interpreter) {
+        interpreter.start();
+        return interpreter.console();
+    }
 }
@@ -0,0 +1,100 @@
+import VM.BytecodeCompiler;
+import VM.JvmBackend;
+import VM.VirtualMachine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class JvmBackendTests {
+    private static List<String> run(String program) throws Exception {
+        var backend = new JvmBackend(InterpreterTests.parse(program));
+        Assertions.assertEquals("", backend.fallback().orElse(""), program);
+        backend.start();
+        return backend.console();
+    }
+
+    private static void same(String program) throws Exception {
+        var vm = new VirtualMachine(BytecodeCompiler.compile(InterpreterTests.parse(program)));
+        vm.start();
+        Assertions.assertEquals(vm.console, run(program), program);
+    }
+
+    @Test
+    public void SameAsTheVM() throws Exception {
+        same(BenchmarkPrograms.deepLoops(3, 7));
+        same(BenchmarkPrograms.objectAllocation(50));
+        same(BenchmarkPrograms.manyMethods(20, 30));
+        same("""
+                interface shape
+                    area() : number a
+                class square implements shape
+                    number side
+                    construct(number s)
+                        side = s
+                    area() : number a
+                        a = side * side
+                class circle implements shape
+                    shared two() : number a, string b
+                        a = 3
+                        b = "four"
+                    area() : number a
+                        a = 3
+                    shared start()
+                        shape s
+                        number x
+                        string t
+                        number i
+                        boolean big
+                        s = new square(4)
+                        x = s.area()
+                        console.write(x)
+                        s = new circle()
+                        x = s.area()
+                        console.write(x)
+                        x, t = two()
+                        console.write(x, " ", t)
+                        loop i = x.times()
+                            t = t + i
+                        big = true
+                        if t == "four1.02.03.0" and big
+                            console.write(t, " ", big)
+                        else
+                            console.write("no")
+                """);
+    }
+
+    @Test
+    public void Errors() throws Exception {
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run("""
+                class holder
+                    other o
+                    poke()
+                        o.poke()
+                    shared start()
+                        holder h
+                        h = new holder()
+                        h.poke()
+                class other
+                    poke()
+                        console.write("never")
+                """));
+        Assertions.assertEquals("Calling poke/0 on a null reference", e.getMessage());
+    }
+
+    @Test
+    public void FallsBackToTheInterpreter() throws Exception {
+        String program = """
+                class later
+                    shared start()
+                        number x
+                        x = 5
+                        console.write(x)
+                        x = 1 + z
+                """;
+        var backend = new JvmBackend(InterpreterTests.parse(program));
+        Assertions.assertEquals("Interpreter: Unable to find variable z in later.start", backend.fallback().orElseThrow());
+        Assertions.assertThrows(NullPointerException.class, backend::start); // the Interpreter finds z missing when it gets there
+        Assertions.assertEquals(List.of("5.0"), backend.console());
+    }
+}
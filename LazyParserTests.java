@@ -0,0 +1,93 @@
+import AST.MethodDeclarationNode;
+import AST.TranCodec;
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LazyParserTests {
+    @Test
+    public void BodiesParseToTheSameTree() throws Exception {
+        var programs = new ArrayList<>(BenchmarkPrograms.corpus().values());
+        programs.add(BenchmarkPrograms.statementHeavy(4, 20));
+        byte[] hash = new byte[TranCodec.HASH_LENGTH];
+        for (String program : programs) {
+            var lazy = InterpreterTests.parse(program, true);
+            Assertions.assertFalse(lazy.Classes.get(0).methods.stream().allMatch(MethodDeclarationNode::isBodyParsed));
+            Assertions.assertArrayEquals(TranCodec.encode(InterpreterTests.parse(program, false), hash), TranCodec.encode(lazy, hash));
+            Assertions.assertTrue(lazy.Classes.get(0).methods.stream().allMatch(MethodDeclarationNode::isBodyParsed));
+        }
+    }
+
+    @Test
+    public void OnlyWhatRunsIsParsed() throws Exception {
+        for (var entry : BenchmarkPrograms.corpus().entrySet()) {
+            if (entry.getKey().equals("manyClasses")) {
+                continue; //every class has a start(), only the first one runs
+            }
+            var lazy = InterpreterTests.parse(entry.getValue(), true);
+            Assertions.assertEquals(InterpreterTests.interpret(InterpreterTests.parse(entry.getValue(), false)), InterpreterTests.interpret(lazy), entry.getKey());
+        }
+        var library = InterpreterTests.parse(BenchmarkPrograms.manyClasses(50), true);
+        new Interpreter(library).start();
+        var methods = library.Classes.stream().flatMap(c -> c.methods.stream()).toList();
+        Assertions.assertTrue(methods.get(1).isBodyParsed()); // the first start()
+        Assertions.assertEquals(1, methods.stream().filter(m -> m.isBodyParsed() && !m.statements.isEmpty()).count());
+        Assertions.assertTrue(library.Classes.get(1).constructors.stream().noneMatch(c -> c.isBodyParsed()));
+    }
+
+    @Test
+    public void BodyErrorsWaitUntilTheBodyIsNeeded() throws Exception {
+        String program = "class broken\n    number x\n\n" +
+                "    never()\n        x = (1 +\n        x = 2\n\n" +
+                "    shared start()\n        number y\n        y = 3\n        console.write(y)\n";
+        Assertions.assertThrows(SyntaxErrorException.class, () -> InterpreterTests.parse(program, false));
+        var lazy = InterpreterTests.parse(program, true);
+        Assertions.assertEquals(List.of("3.0"), InterpreterTests.interpret(lazy));
+        var never = lazy.Classes.get(0).methods.get(0);
+        var e = Assertions.assertThrows(Parser.BodySyntaxException.class, never::ensureParsed);
+        Assertions.assertTrue(e.getCause().toString().startsWith("Error at line 6"), e.getCause().toString());
+        Assertions.assertFalse(never.isBodyParsed());
+        Assertions.assertThrows(Parser.BodySyntaxException.class, never::ensureParsed); //still broken the second time
+    }
+
+    @Test
+    public void ParsedOnceAcrossThreads() throws Exception {
+        var lazy = InterpreterTests.parse(BenchmarkPrograms.manyClasses(20), true);
+        var methods = lazy.Classes.stream().flatMap(c -> c.methods.stream()).toList();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            var ready = new CountDownLatch(8);
+            var seen = new ArrayList<Future<List<Object>>>();
+            for (int t = 0; t < 8; t++) {
+                seen.add(pool.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    var statements = new ArrayList<Object>();
+                    for (var m : methods) {
+                        m.ensureParsed();
+                        statements.add(m.statements);
+                    }
+                    return statements;
+                }));
+            }
+            var first = seen.get(0).get();
+            for (var future : seen) {
+                var statements = future.get();
+                for (int i = 0; i < statements.size(); i++) {
+                    Assertions.assertSame(first.get(i), statements.get(i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        byte[] hash = new byte[TranCodec.HASH_LENGTH];
+        Assertions.assertArrayEquals(TranCodec.encode(InterpreterTests.parse(BenchmarkPrograms.manyClasses(20), false), hash), TranCodec.encode(lazy, hash));
+    }
+}
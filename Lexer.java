@@ -1,53 +1,54 @@
+import AST.SymbolTable;
+
+import java.io.Reader;
 import java.util.*;
 
 
 public class Lexer {
     private TextManager textManager;
-    public HashMap<String, Token.TokenTypes> Hashmap = new HashMap<>();
+    private final SymbolTable symbols; //identifiers are interned here, see TranNode.useSymbols()
+    //shared by every Lexer, the span scanner doesn't use it (see ScannerTables)
+    public static final Map<String, Token.TokenTypes> Hashmap = Collections.unmodifiableMap(new HashMap<>(ScannerTables.SPELLINGS));
     int lineNumber = 1;
     int characterPosition = 0;
     int currentIndentLevel = 0;
+    private TokenBuffer produced; //only made when nextToken() is used
+    private ArrayDeque<Token> pending;
+    private boolean finished = false;
 
 
     public Lexer(String textEntered) {
-        textManager = new TextManager(textEntered);
-        Hashmap.put("accessor:", Token.TokenTypes.ACCESSOR);
-        Hashmap.put("class", Token.TokenTypes.CLASS);
-        Hashmap.put("mutator:", Token.TokenTypes.MUTATOR);
-        Hashmap.put("implements", Token.TokenTypes.IMPLEMENTS);
-        Hashmap.put("interface", Token.TokenTypes.INTERFACE);
-        Hashmap.put("loop", Token.TokenTypes.LOOP);
-        Hashmap.put("if", Token.TokenTypes.IF);
-        Hashmap.put("shared", Token.TokenTypes.SHARED);
-        Hashmap.put("construct", Token.TokenTypes.CONSTRUCT);
-        Hashmap.put("new", Token.TokenTypes.NEW);
-        Hashmap.put("private", Token.TokenTypes.PRIVATE);
-        Hashmap.put("true", Token.TokenTypes.TRUE);
-        Hashmap.put("false", Token.TokenTypes.FALSE);
-        Hashmap.put("&&", Token.TokenTypes.AND);
-        Hashmap.put("||", Token.TokenTypes.OR);
-        Hashmap.put("!", Token.TokenTypes.NOT);
-        Hashmap.put("not", Token.TokenTypes.NOT);
-        Hashmap.put("and", Token.TokenTypes.AND);
-        Hashmap.put("or", Token.TokenTypes.OR);
-        Hashmap.put("else", Token.TokenTypes.ELSE);
-        Hashmap.put(".", Token.TokenTypes.DOT);
-        Hashmap.put(":", Token.TokenTypes.COLON);
-        Hashmap.put(",", Token.TokenTypes.COMMA);
-        Hashmap.put("(", Token.TokenTypes.LPAREN);
-        Hashmap.put(")", Token.TokenTypes.RPAREN);
-        Hashmap.put("+", Token.TokenTypes.PLUS);
-        Hashmap.put("-", Token.TokenTypes.MINUS);
-        Hashmap.put("*", Token.TokenTypes.TIMES);
-        Hashmap.put("/", Token.TokenTypes.DIVIDE);
-        Hashmap.put("!=", Token.TokenTypes.NOTEQUAL);
-        Hashmap.put(">=", Token.TokenTypes.GREATERTHANEQUAL);
-        Hashmap.put(">", Token.TokenTypes.GREATERTHAN);
-        Hashmap.put("<=", Token.TokenTypes.LESSTHANEQUAL);
-        Hashmap.put("<", Token.TokenTypes.LESSTHAN);
-        Hashmap.put("=", Token.TokenTypes.ASSIGN);
-        Hashmap.put("==", Token.TokenTypes.EQUAL);
-        Hashmap.put("%", Token.TokenTypes.MODULO);
+        this(new TextManager(textEntered));
+    }
+
+    //identifiers get their ids from symbols, so a program made of several texts can share one table
+    public Lexer(String textEntered, SymbolTable symbols) {
+        this(new TextManager(textEntered), symbols);
+    }
+
+    public Lexer(Reader reader) {
+        this(new ReaderTextManager(reader));
+    }
+
+    public Lexer(TextManager textManager) {
+        this(textManager, new SymbolTable());
+    }
+
+    public Lexer(TextManager textManager, SymbolTable symbols) {
+        this.textManager = textManager;
+        this.symbols = symbols;
+    }
+
+    //picks up part way through a text from state saved at a token boundary (see IncrementalLexer)
+    Lexer(TextManager textManager, SymbolTable symbols, int lineNumber, int characterPosition, int currentIndentLevel) {
+        this(textManager, symbols);
+        this.lineNumber = lineNumber;
+        this.characterPosition = characterPosition;
+        this.currentIndentLevel = currentIndentLevel;
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
     }
 
     public List<Token> Lex() throws Exception {
@@ -91,6 +92,259 @@ public class Lexer {
         }
         return retVal;
     }
+
+    //Span mode: same tokens as Lex(), but words, numbers and strings are remembered as start/end offsets
+    //into the TextManager buffer and only turned into a String when getValue() is called.
+    public List<Token> LexSpans() throws Exception {
+        return new ArrayList<>(LexBuffer());
+    }
+
+    //Span mode writing straight into a TokenBuffer, so no Token objects are made until the parser asks for one.
+    public TokenBuffer LexBuffer() throws Exception {
+        var retVal = new TokenBuffer(textManager.getSource(), symbols);
+
+        while(!textManager.isAtEnd()){
+            lexNext(retVal);
+        }
+        lexEnd(retVal);
+        retVal.trimToSize();
+        return retVal;
+    }
+
+    //Pull one token at a time instead of lexing everything up front. Text that has been turned into tokens is
+    //released from the TextManager, so a ReaderTextManager only holds the part of the file being worked on.
+    public Optional<Token> nextToken() throws SyntaxErrorException {
+        if(produced == null){
+            produced = new TokenBuffer(textManager.getSource(), symbols, 8);
+            pending = new ArrayDeque<>();
+        }
+        while(pending.isEmpty() && !finished){
+            produced.clear();
+            if(textManager.isAtEnd()){
+                lexEnd(produced);
+                finished = true;
+            } else{
+                lexNext(produced);
+            }
+            for(Token token : produced){
+                token.getValue(); //cut the value out now, the text is about to be released
+                pending.add(token);
+            }
+            textManager.release();
+        }
+        return Optional.ofNullable(pending.poll());
+    }
+
+    void lexNext(TokenBuffer retVal) throws SyntaxErrorException {
+        char c = textManager.peekCharacter();
+        switch(ScannerTables.classOf(c)){
+            case ScannerTables.LETTER, ScannerTables.NEWLINE -> spanWord(retVal);
+            case ScannerTables.DIGIT, ScannerTables.DOT -> spanNumber(retVal);
+            case ScannerTables.SPACE -> {
+                textManager.getCharacter();
+                characterPosition++;
+            }
+            case ScannerTables.DOUBLEQUOTE -> {
+                textManager.getCharacter();
+                characterPosition++;
+                spanQuoted(retVal, '\"', Token.TokenTypes.QUOTEDSTRING);
+            }
+            case ScannerTables.SINGLEQUOTE -> {
+                textManager.getCharacter();
+                characterPosition++;
+                spanQuoted(retVal, '\'', Token.TokenTypes.QUOTEDCHARACTER);
+            }
+            default -> spanPunctuation(retVal);
+        }
+    }
+
+    void lexEnd(TokenBuffer retVal) {
+        while(currentIndentLevel > 0){
+            emit(retVal, Token.TokenTypes.DEDENT, 0, 0);
+            currentIndentLevel--;
+        }
+    }
+
+    private void emit(TokenBuffer retVal, Token.TokenTypes type, int start, int end) {
+        retVal.add(type, lineNumber, characterPosition, start, end);
+    }
+
+    //identifiers are interned here, once, and carried as their SymbolTable id from then on
+    private void emitWord(TokenBuffer retVal, int start, int end) {
+        retVal.addSymbol(Token.TokenTypes.WORD, lineNumber, characterPosition, symbols.intern(textManager.getSource(), start, end));
+    }
+
+    //the keyword DFA is stepped along with the letters, so a word is classified once its last letter is read
+    private void spanWord(TokenBuffer retVal) {
+        int start = textManager.getPosition();
+        int state = 0;
+
+        while (!textManager.isAtEnd()) {
+            char c = textManager.peekCharacter();
+            byte characterClass = ScannerTables.classOf(c);
+            if (characterClass == ScannerTables.LETTER) {
+                int letters = state == ScannerTables.DEAD ? textManager.skipRun(CharRuns.LETTERS) : 0; //can't be a keyword any more
+                if (letters == 0) {
+                    state = ScannerTables.keywordStep(state, c);
+                    textManager.getCharacter();
+                    letters = 1;
+                }
+                characterPosition += letters;
+            } else if (characterClass == ScannerTables.NEWLINE) {
+                int end = textManager.getPosition();
+                if (end > start) {
+                    Token.TokenTypes type = ScannerTables.keywordAt(state);
+                    if(type == null){
+                        emitWord(retVal, start, end);
+                    } else{
+                        emit(retVal, type, start, end);
+                    }
+                }
+                textManager.getCharacter();
+                lineNumber++;
+                characterPosition = 0;
+                emit(retVal, Token.TokenTypes.NEWLINE, 0, 0);
+                while(!textManager.isAtEnd() && textManager.peekCharacter() == '\n'){
+                    lineNumber++;
+                    characterPosition = 0;
+                    emit(retVal, Token.TokenTypes.NEWLINE, 0, 0);
+                    textManager.getCharacter();
+                }
+                parseIndentation(retVal);
+                start = textManager.getPosition();
+                state = 0;
+            } else if (c == ':') {
+                int next = ScannerTables.keywordStep(state, c);
+                if(ScannerTables.keywordAt(next) != null){ //accessor: and mutator:
+                    textManager.getCharacter();
+                    characterPosition++;
+                    state = next;
+                }
+                break;
+            } else {
+                break;
+            }
+        }
+        int end = textManager.getPosition();
+        if (end > start) {
+            Token.TokenTypes type = ScannerTables.keywordAt(state);
+            if(type == null){
+                emitWord(retVal, start, end);
+            } else{
+                emit(retVal, type, 0, 0);
+                if(type == Token.TokenTypes.ACCESSOR || type == Token.TokenTypes.MUTATOR){
+                    emit(retVal, Token.TokenTypes.COLON, end - 1, end);
+                }
+            }
+        }
+    }
+
+    private void spanNumber(TokenBuffer retVal) {
+        int start = textManager.getPosition();
+        boolean pointSeen = false;
+
+        while (!textManager.isAtEnd()) {
+            char c = textManager.peekCharacter();
+            if (ScannerTables.classOf(c) == ScannerTables.DIGIT) {
+                int digits = textManager.skipRun(CharRuns.DIGITS);
+                if (digits == 0) { //a digit from outside ASCII
+                    textManager.getCharacter();
+                    digits = 1;
+                }
+                characterPosition += digits;
+            } else if (c == '.' && pointSeen) {
+                emit(retVal, Token.TokenTypes.NUMBER, start, textManager.getPosition());
+                start = textManager.getPosition();
+                textManager.getCharacter();
+                characterPosition++;
+            } else if (c == '.') {
+                pointSeen = true;
+                textManager.getCharacter();
+                characterPosition++;
+            } else {
+                if (textManager.matches(start, textManager.getPosition(), ".")) {
+                    emit(retVal, Token.TokenTypes.DOT, 0, 0);
+                    start = textManager.getPosition();
+                }
+                break;
+            }
+        }
+        if (textManager.getPosition() > start) {
+            emit(retVal, Token.TokenTypes.NUMBER, start, textManager.getPosition());
+        }
+    }
+
+    private void spanQuoted(TokenBuffer retVal, char quote, Token.TokenTypes type) throws SyntaxErrorException {
+        int start = textManager.getPosition();
+
+        while(!textManager.isAtEnd()){
+            characterPosition += textManager.skipUntil(quote, '\n');
+            if(textManager.isAtEnd()){
+                break;
+            }
+            char c = textManager.getCharacter();
+            characterPosition++;
+            if(c == '\n'){
+                lineNumber++;
+                characterPosition = 0;
+            } else if(c == quote){
+                int length = textManager.getPosition() - 1 - start;
+                if(type == Token.TokenTypes.QUOTEDCHARACTER && length > 1){
+                    throw new SyntaxErrorException("Can only have one letter in character", lineNumber, characterPosition);
+                }
+                if(type == Token.TokenTypes.QUOTEDSTRING || length == 1){
+                    emit(retVal, type, start, start + length);
+                }
+                return;
+            }
+        }
+        throw new SyntaxErrorException("Syntax Error", lineNumber, characterPosition);
+    }
+
+    private void spanPunctuation(TokenBuffer retVal) throws SyntaxErrorException {
+        int start = textManager.getPosition();
+        char c = textManager.getCharacter();
+        characterPosition++;
+        if(c == '{'){
+            int numBrackets = 1;
+            while(!textManager.isAtEnd() && numBrackets != 0){
+                c = textManager.getCharacter();
+                characterPosition++;
+                if(c == '}'){
+                    numBrackets--;
+                } else if(c == '{'){
+                    numBrackets++;
+                }
+            }
+            if(numBrackets != 0){
+                throw new SyntaxErrorException("Syntax Error", lineNumber, characterPosition);
+            }
+            return;
+        }
+        int state = ScannerTables.operatorStep(0, c);
+        if(state == ScannerTables.DEAD){
+            throw new SyntaxErrorException("Syntax Error", lineNumber, characterPosition);
+        }
+        while(!textManager.isAtEnd()){
+            int next = ScannerTables.operatorStep(state, textManager.peekCharacter());
+            if(next == ScannerTables.DEAD){
+                break;
+            }
+            textManager.getCharacter();
+            characterPosition++;
+            state = next;
+        }
+        Token.TokenTypes type = ScannerTables.operatorAt(state);
+        if(type == null){
+            throw new SyntaxErrorException(c == '&' ? "Need another & for and" : "Need another | and", textManager.getCharacter(), textManager.getPosition());
+        }
+        if(type == Token.TokenTypes.MINUS){
+            emit(retVal, type, 0, 0);
+        } else{
+            emit(retVal, type, start, textManager.getPosition());
+        }
+    }
+
     public List<Token> parseQuotedChar() throws Exception{
         String currentWord = "";
         var retVal = new LinkedList<Token>();
@@ -293,7 +547,7 @@ public class Lexer {
         return retVal;
     }
 
-    public void parseIndentation(LinkedList<Token> retVal) throws Exception{
+    public void parseIndentation(List<Token> retVal) {
         String currentWord = "";
         int numWhiteSpaces = 0;
         int numTabs = 0;
@@ -318,10 +572,10 @@ public class Lexer {
                 }
                 break;
             }
-            while(c == ' '){
-                c = textManager.getCharacter();
-                characterPosition++;
-                numWhiteSpaces++;
+            if(c == ' '){ //the whole indentation in one go
+                int spaces = textManager.skipRun(CharRuns.SPACES);
+                characterPosition += spaces;
+                numWhiteSpaces += spaces;
                 c = textManager.peekCharacter();
             }
             while(c == '\t'){ //ADDED
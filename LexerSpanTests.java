@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LexerSpanTests {
+    private static void assertSameAsLex(String program) {
+        try {
+            var expected = new Lexer(program).Lex();
+            var res = new Lexer(program).LexSpans();
+            Assertions.assertEquals(expected.toString(), res.toString());
+        }
+        catch (Exception e) {
+            Assertions.fail("exception occurred: " +  e.getMessage());
+        }
+    }
+
+    @Test
+    public void SimpleSpanTest() {
+        assertSameAsLex("ab cd ef gh\nasdjkdsajkl\ndsajkdsa asdjksald dsajhkl \n");
+    }
+
+    @Test
+    public void KeyWordSpanTest() {
+        assertSameAsLex("class interface something accessor: mutator: if else loop");
+    }
+
+    @Test
+    public void NumbersAndPunctuationSpanTest() {
+        assertSameAsLex("1.2.3 .5 x = (a + b) * c / d - 1 >= <= == != < > ! && || , : .");
+    }
+
+    @Test
+    public void QuotedSpanTest() {
+        assertSameAsLex("test \"hello there\" 'c' \"\" {comment {nested}} 1.2");
+    }
+
+    @Test
+    public void ProgramSpanTest() {
+        assertSameAsLex("class LoopOne\n" +
+                "    number x\n" +
+                "        accessor:\n" +
+                "            value = x\n" +
+                "    shared start()\n" +
+                "        boolean keepGoing\n" +
+                "        n = 0\n" +
+                "        loop keepGoing\n" +
+                "        \t  if n >= 15\n" +
+                "                keepGoing = false\n" +
+                "            else\n" +
+                "                n = n + 1\n" +
+                "                console.write(n, \"done\")\n");
+    }
+
+    @Test
+    public void LongWordSpanTest() {
+        var sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append('a');
+        }
+        var l = new Lexer(sb + " \"" + sb + "\"");
+        try {
+            var res = l.LexSpans();
+            Assertions.assertEquals(2, res.size());
+            Assertions.assertEquals(Token.TokenTypes.WORD, res.get(0).getType());
+            Assertions.assertEquals(100000, res.get(0).getValue().length());
+            Assertions.assertEquals(Token.TokenTypes.QUOTEDSTRING, res.get(1).getType());
+            Assertions.assertEquals(sb.toString(), res.get(1).getValue());
+        }
+        catch (Exception e) {
+            Assertions.fail("exception occurred: " +  e.getMessage());
+        }
+    }
+
+    @Test
+    public void SpanSyntaxErrorTest() {
+        Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer("abc \"not closed").LexSpans());
+        Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer("'ab'").LexSpans());
+        Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer("{ never closed").LexSpans());
+    }
+
+    @Test
+    public void ScannerTablesTest() throws Exception {
+        for (var entry : ScannerTables.SPELLINGS.entrySet()) {
+            if (entry.getKey().equals("%")) {
+                continue;
+            }
+            var res = new Lexer(entry.getKey() + " ").LexSpans();
+            Assertions.assertEquals(entry.getValue(), res.get(0).getType(), entry.getKey());
+        }
+        assertSameAsLex("Class classes classx: accessorx: accessor mutator : ifelse IF an andor");
+        Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer("a % b").LexSpans());
+    }
+}
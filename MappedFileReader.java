@@ -0,0 +1,47 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Reads a UTF-8 file through a memory mapping, decoding only as many characters as each read() asks for.
+//Use it with new Lexer(new MappedFileReader(path)) to lex a file without loading it into a String first.
+public class MappedFileReader extends Reader {
+    private final FileChannel channel;
+    private final MappedByteBuffer bytes;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    public MappedFileReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("File is too large to map: " + path);
+        }
+        bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        CharBuffer out = CharBuffer.wrap(chars, offset, length);
+        if (bytes.hasRemaining()) {
+            decoder.decode(bytes, out, true);
+        }
+        if (!bytes.hasRemaining()) {
+            decoder.flush(out);
+        }
+        int read = out.position() - offset;
+        return read == 0 && !bytes.hasRemaining() ? -1 : read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
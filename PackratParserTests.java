@@ -0,0 +1,45 @@
+import AST.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PackratParserTests {
+    private static TranNode parse(String program) throws Exception {
+        var tran = new TranNode();
+        new Parser(tran, new Lexer(program).Lex()).Tran();
+        return tran;
+    }
+
+    @Test
+    public void StatementHeavyMethods() throws Exception {
+        var tran = parse(BenchmarkPrograms.statementHeavy(3, 8));
+        var methods = tran.Classes.get(0).methods;
+        Assertions.assertEquals(6, methods.size());
+        var statements = methods.get(2).statements;
+        Assertions.assertEquals(9, statements.size());
+        for (int i = 1; i < statements.size(); i += 4) {
+            var pair = (MethodCallStatementNode) statements.get(i);
+            Assertions.assertEquals("pair", pair.methodName);
+            Assertions.assertEquals(2, pair.returnValues.size());
+            var add = (MethodCallStatementNode) statements.get(i + 1);
+            Assertions.assertEquals("add", add.methodName);
+            Assertions.assertEquals("total", add.returnValues.get(0).name);
+            Assertions.assertInstanceOf(MathOpNode.class, ((AssignmentNode) statements.get(i + 2)).expression);
+            Assertions.assertEquals("b", ((AssignmentNode) statements.get(i + 3)).target.name);
+        }
+    }
+
+    @Test
+    public void BacktrackedRulesGiveTheSameTree() throws Exception {
+        // "loop keepGoing" tries "keepGoing =" first, then goes back and reads keepGoing again as the condition
+        var tran = parse("class Tran\n" +
+                "    start()\n" +
+                "        x = y + 1\n" +
+                "        loop keepGoing\n" +
+                "            x = x - 1\n");
+        var statements = tran.Classes.get(0).methods.get(0).statements;
+        Assertions.assertEquals("y + 1.0 ", ((AssignmentNode) statements.get(0)).expression.toString());
+        var loop = (LoopNode) statements.get(1);
+        Assertions.assertTrue(loop.assignment.isEmpty());
+        Assertions.assertEquals("keepGoing", ((VariableReferenceNode) loop.expression).name);
+    }
+}
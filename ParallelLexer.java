@@ -0,0 +1,150 @@
+import AST.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//Lexes a large source on a ForkJoinPool. A line starting with class or interface at column 0 is a point where the
+//lexer is always in the same state (indent level 0, column 0, a known line number), so the text is cut there and
+//the pieces are lexed on their own. Each piece ends with the DEDENTs the whole-file lex would have made on the
+//class line, so gluing the pieces together gives exactly the tokens of Lexer.LexBuffer().
+public class ParallelLexer {
+    //pieces smaller than this are joined with the next one, there's no point forking for a few classes
+    private static final int MIN_CHUNK = 32 * 1024;
+
+    public static TokenBuffer lex(String text) throws SyntaxErrorException {
+        return lex(text, ForkJoinPool.commonPool(), MIN_CHUNK);
+    }
+
+    public static TokenBuffer lex(String text, ForkJoinPool pool) throws SyntaxErrorException {
+        return lex(text, pool, MIN_CHUNK);
+    }
+
+    static TokenBuffer lex(String text, ForkJoinPool pool, int minChunk) throws SyntaxErrorException {
+        var pieces = new ArrayList<Piece>();
+        var symbols = new SymbolTable(); //one for every piece, interning takes no lock for a name that's already in it
+        for (int[] chunk : chunks(text, minChunk)) {
+            var piece = new Piece(text, symbols, chunk[0], chunk[1], chunk[2]);
+            pool.execute(piece);
+            pieces.add(piece);
+        }
+        int size = 0;
+        for (var piece : pieces) {
+            piece.join(); //in order, so the first error in the file is the one thrown
+            if (piece.error != null) {
+                pieces.forEach(p -> p.cancel(false));
+                throw piece.error;
+            }
+            size += piece.tokens.size();
+        }
+        var retVal = new TokenBuffer(text, symbols, size);
+        for (var piece : pieces) {
+            retVal.append(piece.tokens);
+        }
+        return retVal;
+    }
+
+    private static class Piece extends RecursiveAction {
+        private final String text;
+        private final SymbolTable symbols;
+        private final int start, end, lineNumber;
+        TokenBuffer tokens;
+        SyntaxErrorException error;
+
+        Piece(String text, SymbolTable symbols, int start, int end, int lineNumber) {
+            this.text = text;
+            this.symbols = symbols;
+            this.start = start;
+            this.end = end;
+            this.lineNumber = lineNumber;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                tokens = lexChunk(text, symbols, start, end, lineNumber);
+            } catch (SyntaxErrorException e) {
+                error = e;
+            }
+        }
+    }
+
+    private static TokenBuffer lexChunk(String text, SymbolTable symbols, int start, int end, int lineNumber)
+            throws SyntaxErrorException {
+        var textManager = new TextManager(text, start, end);
+        var lexer = new Lexer(textManager, symbols, lineNumber, 0, 0);
+        var retVal = new TokenBuffer(text, symbols, Math.max(16, (end - start) / 4));
+        while (!textManager.isAtEnd()) {
+            lexer.lexNext(retVal);
+        }
+        lexer.lexEnd(retVal);
+        return retVal;
+    }
+
+    // {start, end, line} for each piece. The scan follows strings, characters and comments the way the lexer does,
+    // so a "class" at the start of a line inside a string or comment isn't taken as a split point
+    // and the line numbers come out the same as the lexer's.
+    static List<int[]> chunks(String text, int minChunk) {
+        var retVal = new ArrayList<int[]>();
+        int chunkStart = 0;
+        int chunkLine = 1;
+        int line = 1;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+                if (i - chunkStart >= minChunk && startsDeclaration(text, i)) {
+                    retVal.add(new int[]{chunkStart, i, chunkLine});
+                    chunkStart = i;
+                    chunkLine = line;
+                }
+            } else if (c == '"' || c == '\'') {
+                int close = text.indexOf(c, i + 1);
+                if (close < 0) {
+                    break; // the lexer will report it
+                }
+                line += countLines(text, i + 1, close);
+                i = close + 1;
+            } else if (c == '{') {
+                int depth = 1;
+                i++;
+                while (i < length && depth != 0) {
+                    char inside = text.charAt(i++);
+                    if (inside == '{') {
+                        depth++;
+                    } else if (inside == '}') {
+                        depth--;
+                    }
+                    // the lexer doesn't count lines inside a comment, so neither does this
+                }
+            } else {
+                i++;
+            }
+        }
+        retVal.add(new int[]{chunkStart, length, chunkLine});
+        return retVal;
+    }
+
+    private static boolean startsDeclaration(String text, int i) {
+        return startsWord(text, i, "class") || startsWord(text, i, "interface");
+    }
+
+    private static boolean startsWord(String text, int i, String word) {
+        int after = i + word.length();
+        return text.startsWith(word, i) && (after == text.length() || !Character.isLetter(text.charAt(after)));
+    }
+
+    private static int countLines(String text, int start, int end) {
+        int lines = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,59 @@
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelLexerTests {
+    private static void assertSameAsLex(String program, int minChunk) throws Exception {
+        var pool = new ForkJoinPool(4);
+        try {
+            var expected = new Lexer(program).LexBuffer();
+            var res = ParallelLexer.lex(program, pool, minChunk);
+            Assertions.assertEquals(expected.toString(), res.toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void ManyClassesParallel() throws Exception {
+        String program = BenchmarkPrograms.manyClasses(300);
+        Assertions.assertEquals(300, ParallelLexer.chunks(program, 1).size());
+        assertSameAsLex(program, 1);
+        assertSameAsLex(program, 4096);
+        assertSameAsLex(program, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void SplitPointsInsideStringsAndComments() throws Exception {
+        String program = "interface shape\n    area() : number a\n\n\n" +
+                "class square implements shape\n    string s\n    construct()\n        s = \"two\nclass lines\"\n" +
+                "    {a comment\nclass inside {nested\ninterface}\n}\n" +
+                "    area() : number a\n        a = 'x'\n" +
+                "class classy\n    number n\n" +
+                "classroom\n" +
+                "class last\n";
+        Assertions.assertEquals(4, ParallelLexer.chunks(program, 1).size());
+        assertSameAsLex(program, 1);
+    }
+
+    @Test
+    public void ParsesLikeSequential() throws Exception {
+        String program = BenchmarkPrograms.manyClasses(50);
+        var expected = new TranNode();
+        new Parser(expected, new Lexer(program).LexBuffer()).Tran();
+        var parallel = new TranNode();
+        new Parser(parallel, ParallelLexer.lex(program, ForkJoinPool.commonPool(), 1)).Tran();
+        Assertions.assertEquals(expected.toString(), parallel.toString());
+    }
+
+    @Test
+    public void FirstErrorIsReported() {
+        String program = BenchmarkPrograms.manyClasses(5) + "class broken\n    \"never closed\n" + BenchmarkPrograms.manyClasses(5);
+        var expected = Assertions.assertThrows(SyntaxErrorException.class, () -> new Lexer(program).LexBuffer());
+        var res = Assertions.assertThrows(SyntaxErrorException.class,
+                () -> ParallelLexer.lex(program, ForkJoinPool.commonPool(), 1));
+        Assertions.assertEquals(expected.getMessage(), res.getMessage());
+    }
+}
@@ -0,0 +1,96 @@
+import AST.TranNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//Parses the top level classes and interfaces on a ForkJoinPool. A CLASS or INTERFACE token outside of any INDENT
+//starts a declaration that doesn't depend on anything before it, so the tokens are cut there and each piece is
+//parsed into its own TranNode. The pieces are added to the TranNode in source order, the same as Parser.Tran().
+//If any piece fails the whole token list is parsed again in order, so the error is the one Tran() would throw.
+public class ParallelParser {
+    //pieces smaller than this are joined with the next one, there's no point forking for a few classes
+    private static final int MIN_TOKENS = 4096;
+
+    public static void parse(TranNode tranNode, List<Token> tokens) throws SyntaxErrorException {
+        parse(tranNode, tokens, ForkJoinPool.commonPool(), MIN_TOKENS);
+    }
+
+    public static void parse(TranNode tranNode, List<Token> tokens, ForkJoinPool pool) throws SyntaxErrorException {
+        parse(tranNode, tokens, pool, MIN_TOKENS);
+    }
+
+    static void parse(TranNode tranNode, List<Token> tokens, ForkJoinPool pool, int minTokens) throws SyntaxErrorException {
+        if (tokens instanceof TokenBuffer buffer) {
+            tranNode.useSymbols(buffer.symbols());
+        }
+        var pieces = new ArrayList<Piece>();
+        for (int[] chunk : chunks(tokens, minTokens)) {
+            var piece = new Piece(tokens, new TranNode(tranNode.symbols()), chunk[0], chunk[1]);
+            pool.execute(piece);
+            pieces.add(piece);
+        }
+        for (var piece : pieces) {
+            piece.join();
+            if (piece.failed) {
+                pieces.forEach(p -> p.cancel(false));
+                new Parser(tranNode, tokens).Tran();
+                return;
+            }
+        }
+        for (var piece : pieces) {
+            tranNode.Interfaces.addAll(piece.tranNode.Interfaces);
+            tranNode.Classes.addAll(piece.tranNode.Classes);
+        }
+    }
+
+    private static class Piece extends RecursiveAction {
+        private final List<Token> tokens;
+        private final int start, end;
+        final TranNode tranNode;
+        boolean failed;
+
+        Piece(List<Token> tokens, TranNode tranNode, int start, int end) {
+            this.tokens = tokens;
+            this.tranNode = tranNode;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                new Parser(tranNode, tokens, start, end).Tran();
+            } catch (SyntaxErrorException | RuntimeException e) {
+                failed = true;
+            }
+        }
+    }
+
+    // {start, end} token indexes for each piece, cut before a CLASS or INTERFACE at indent level 0
+    static List<int[]> chunks(List<Token> tokens, int minTokens) {
+        var retVal = new ArrayList<int[]>();
+        TokenBuffer buffer = tokens instanceof TokenBuffer b ? b : null; //types without making a Token for each
+        int chunkStart = 0;
+        int depth = 0;
+        boolean declared = false;
+        int size = tokens.size();
+        for (int i = 0; i < size; i++) {
+            Token.TokenTypes type = buffer != null ? buffer.getType(i) : tokens.get(i).getType();
+            if (type == Token.TokenTypes.INDENT) {
+                depth++;
+            } else if (type == Token.TokenTypes.DEDENT) {
+                depth = Math.max(0, depth - 1);
+            } else if (depth == 0 && (type == Token.TokenTypes.CLASS || type == Token.TokenTypes.INTERFACE)) {
+                if (declared && i - chunkStart >= minTokens) { //blank lines before the first one stay with it
+                    retVal.add(new int[]{chunkStart, i});
+                    chunkStart = i;
+                }
+                declared = true;
+            }
+        }
+        retVal.add(new int[]{chunkStart, size});
+        return retVal;
+    }
+}
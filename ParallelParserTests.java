@@ -0,0 +1,62 @@
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelParserTests {
+    private static void assertSameAsTran(List<Token> tokens, int minTokens) throws Exception {
+        var pool = new ForkJoinPool(4);
+        try {
+            var expected = new TranNode();
+            new Parser(expected, tokens).Tran();
+            var parallel = new TranNode();
+            ParallelParser.parse(parallel, tokens, pool, minTokens);
+            Assertions.assertEquals(expected.toString(), parallel.toString());
+            Assertions.assertEquals(expected.Classes.size(), parallel.Classes.size());
+            Assertions.assertEquals(expected.Interfaces.size(), parallel.Interfaces.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void ManyClassesParallel() throws Exception {
+        var tokens = new Lexer(BenchmarkPrograms.manyClasses(500)).LexBuffer();
+        Assertions.assertEquals(500, ParallelParser.chunks(tokens, 1).size());
+        assertSameAsTran(tokens, 1);
+        assertSameAsTran(tokens, 4096);
+        assertSameAsTran(tokens, Integer.MAX_VALUE);
+        assertSameAsTran(new Lexer(BenchmarkPrograms.manyClasses(20)).Lex(), 1);
+    }
+
+    @Test
+    public void InterfacesAndClassesKeepSourceOrder() throws Exception {
+        String program = "\n\ninterface shape\n    area() : number a\n" +
+                "class square implements shape\n    number side\n    area() : number a\n        a = side * side\n" +
+                "interface named\n    name() : string s\n" +
+                "class circle implements shape, named\n    number radius\n" +
+                "    area() : number a\n        if radius > 0\n            a = radius * radius * 3\n" +
+                "class dot\n    number x\n";
+        var tokens = new Lexer(program).LexBuffer();
+        Assertions.assertEquals(5, ParallelParser.chunks(tokens, 1).size());
+        assertSameAsTran(tokens, 1);
+        var tran = new TranNode();
+        ParallelParser.parse(tran, tokens, ForkJoinPool.commonPool(), 1);
+        Assertions.assertEquals(List.of("square", "circle", "dot"), tran.Classes.stream().map(c -> c.name).toList());
+        Assertions.assertEquals(List.of("shape", "named"), tran.Interfaces.stream().map(i -> i.name).toList());
+    }
+
+    @Test
+    public void ErrorIsTheSequentialOne() throws Exception {
+        String program = BenchmarkPrograms.manyClasses(3) + "class broken\n    add()\n        x = (1\n"
+                + BenchmarkPrograms.manyClasses(3) + "class alsoBroken\n    add(number a : number b\n";
+        var tokens = new Lexer(program).LexBuffer();
+        var expected = Assertions.assertThrows(SyntaxErrorException.class, () -> new Parser(new TranNode(), tokens).Tran());
+        var parallel = Assertions.assertThrows(SyntaxErrorException.class,
+                () -> ParallelParser.parse(new TranNode(), tokens, ForkJoinPool.commonPool(), 1));
+        Assertions.assertEquals(expected.toString(), parallel.toString());
+        Assertions.assertTrue(expected.getMessage().contains("need RParen"), expected.getMessage()); //reported on the next class's token
+    }
+}
@@ -5,17 +5,79 @@ import javax.swing.text.html.Option;
 import java.beans.Expression;
 import java.beans.Statement;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 
 //Grammar, dealing with class or interface,
 public class Parser {
+    //how tightly each infix operator binds, "not" sits between and and the comparisons
+    private static final int OR_LEVEL = 1, AND_LEVEL = 2, NOT_LEVEL = 3, COMPARE_LEVEL = 4, ADDITIVE_LEVEL = 5, MULTIPLICATIVE_LEVEL = 6;
+    private static final EnumMap<Token.TokenTypes, Integer> PRECEDENCE = new EnumMap<>(Token.TokenTypes.class);
+    private static final EnumMap<Token.TokenTypes, MathOpNode.MathOperations> MATH_OPERATIONS = new EnumMap<>(Token.TokenTypes.class);
+    private static final EnumMap<Token.TokenTypes, CompareNode.CompareOperations> COMPARE_OPERATIONS = new EnumMap<>(Token.TokenTypes.class);
+
+    static {
+        PRECEDENCE.put(Token.TokenTypes.OR, OR_LEVEL);
+        PRECEDENCE.put(Token.TokenTypes.AND, AND_LEVEL);
+        for(var type : List.of(Token.TokenTypes.EQUAL, Token.TokenTypes.NOTEQUAL, Token.TokenTypes.LESSTHAN,
+                Token.TokenTypes.LESSTHANEQUAL, Token.TokenTypes.GREATERTHAN, Token.TokenTypes.GREATERTHANEQUAL)){
+            PRECEDENCE.put(type, COMPARE_LEVEL);
+        }
+        PRECEDENCE.put(Token.TokenTypes.PLUS, ADDITIVE_LEVEL);
+        PRECEDENCE.put(Token.TokenTypes.MINUS, ADDITIVE_LEVEL);
+        PRECEDENCE.put(Token.TokenTypes.TIMES, MULTIPLICATIVE_LEVEL);
+        PRECEDENCE.put(Token.TokenTypes.DIVIDE, MULTIPLICATIVE_LEVEL);
+        PRECEDENCE.put(Token.TokenTypes.MODULO, MULTIPLICATIVE_LEVEL);
+
+        MATH_OPERATIONS.put(Token.TokenTypes.PLUS, MathOpNode.MathOperations.add);
+        MATH_OPERATIONS.put(Token.TokenTypes.MINUS, MathOpNode.MathOperations.subtract);
+        MATH_OPERATIONS.put(Token.TokenTypes.TIMES, MathOpNode.MathOperations.multiply);
+        MATH_OPERATIONS.put(Token.TokenTypes.DIVIDE, MathOpNode.MathOperations.divide);
+        MATH_OPERATIONS.put(Token.TokenTypes.MODULO, MathOpNode.MathOperations.modulo);
+
+        COMPARE_OPERATIONS.put(Token.TokenTypes.EQUAL, CompareNode.CompareOperations.eq);
+        COMPARE_OPERATIONS.put(Token.TokenTypes.NOTEQUAL, CompareNode.CompareOperations.ne);
+        COMPARE_OPERATIONS.put(Token.TokenTypes.LESSTHAN, CompareNode.CompareOperations.lt);
+        COMPARE_OPERATIONS.put(Token.TokenTypes.LESSTHANEQUAL, CompareNode.CompareOperations.le);
+        COMPARE_OPERATIONS.put(Token.TokenTypes.GREATERTHAN, CompareNode.CompareOperations.gt);
+        COMPARE_OPERATIONS.put(Token.TokenTypes.GREATERTHANEQUAL, CompareNode.CompareOperations.ge);
+    }
+
     private TokenManager tokenManager;
     private TranNode tranNode;
+    private List<Token> lazyTokens; //set in lazy mode: method and constructor bodies are parsed from these when first used
 
     public Parser(TranNode tranNode, List<Token> tokens) {
         this.tranNode = tranNode;
         this.tokenManager = new TokenManager(tokens);
+        tranNode.useSymbols(tokenManager.symbols());
+    }
+
+    //with lazyBodies, methods and constructors get their headers parsed and their bodies are only skipped over.
+    //Each body is parsed the first time something calls ensureParsed() on its node (the Interpreter does, before
+    //running it), so a syntax error inside a body shows up then, as a BodySyntaxException, instead of from Tran()
+    public Parser(TranNode tranNode, List<Token> tokens, boolean lazyBodies) {
+        this.tranNode = tranNode;
+        List<Token> randomAccess = tokens instanceof RandomAccess ? tokens : new ArrayList<>(tokens);
+        this.tokenManager = new TokenManager(randomAccess);
+        tranNode.useSymbols(tokenManager.symbols());
+        this.lazyTokens = lazyBodies ? randomAccess : null;
+    }
+
+    //parses only tokens start to end - 1, one top level class or interface or a run of them
+    Parser(TranNode tranNode, List<Token> tokens, int start, int end) {
+        this.tranNode = tranNode;
+        this.tokenManager = new TokenManager(tokens, start, end);
+        tranNode.useSymbols(tokenManager.symbols());
+    }
+
+    //tokens are pulled from the lexer while parsing instead of being lexed up front
+    public Parser(TranNode tranNode, Lexer lexer) {
+        this.tranNode = tranNode;
+        this.tokenManager = new TokenManager(lexer);
+        tranNode.useSymbols(tokenManager.symbols());
     }
 
     public void RequireNewLine() throws SyntaxErrorException {
@@ -31,7 +93,16 @@ public class Parser {
     //{} means 1 or more
 //[] means 0 or 1
     public void Tran() throws SyntaxErrorException{
+        try {
+            parseTopLevel();
+        } catch (TokenManager.LexerException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void parseTopLevel() throws SyntaxErrorException{
         while(!tokenManager.done()){
+            tokenManager.discardConsumed(); //nothing before a top level class/interface is needed again
             if(tokenManager.matchAndRemove(Token.TokenTypes.INTERFACE).isPresent()){
                 InterfaceNode interfaceName = Interface();
                 if(interfaceName != null){
@@ -42,10 +113,20 @@ public class Parser {
                 if(className != null){
                     tranNode.Classes.add(className);
                 }
-            }else if(tokenManager.matchAndRemove(Token.TokenTypes.NEWLINE).isPresent()){
+            }else if(tokenManager.matchAndRemove(Token.TokenTypes.NEWLINE).isEmpty()){
+                tokenManager.matchAndRemove(Token.TokenTypes.DEDENT); //ADDED
+            }
+        }
+    }
 
-            }else if(tokenManager.matchAndRemove(Token.TokenTypes.DEDENT).isPresent()); //ADDED
+    //the tokens are one class and nothing else, for IncrementalParser; null if they aren't
+    ClassNode SingleClass() throws SyntaxErrorException {
+        if(tokenManager.matchAndRemove(Token.TokenTypes.CLASS).isEmpty()){
+            return null;
         }
+        ClassNode retVal = Class();
+        tokenManager.matchAndRemove(Token.TokenTypes.DEDENT);
+        return tokenManager.done() ? retVal : null;
     }
 
     private InterfaceNode Interface() throws SyntaxErrorException {
@@ -148,7 +229,7 @@ public class Parser {
         if (className.isEmpty()) {
             throw new SyntaxErrorException("Class must be named", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
         }
-        classNode.name = className.get().getValue();
+        classNode.setName(className.get().getValue(), tokenManager.symbols(), className.get().getSymbol());
 
         if(tokenManager.matchAndRemove(Token.TokenTypes.IMPLEMENTS).isPresent()){
             Optional<Token> interfaceImplented = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
@@ -240,15 +321,51 @@ public class Parser {
 
         RequireNewLine();
 
+        int dedent = skippableBody();
+        if (dedent >= 0) {
+            constructorNode.deferBody(deferred(tokenManager.mark(), dedent + 1, true));
+            tokenManager.reset(dedent + 1);
+            return constructorNode;
+        }
+        ConstructorBody(constructorNode.statements);
+
+        return constructorNode; // Return the populated constructor node
+    }
+
+    private void ConstructorBody(List<StatementNode> statements) throws SyntaxErrorException {
         if (!tokenManager.matchAndRemove(Token.TokenTypes.INDENT).isPresent()) {
             throw new SyntaxErrorException("Expected indent for constructor body", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
         }
 
         while(!tokenManager.matchAndRemove(Token.TokenTypes.DEDENT).isPresent()){
-            constructorNode.statements.add(Statement());
+            statements.add(Statement());
         }
+    }
 
-        return constructorNode; // Return the populated constructor node
+    //in lazy mode, the DEDENT that ends the body starting at the cursor, or -1 to parse the body now
+    private int skippableBody() {
+        if (lazyTokens == null) {
+            return -1;
+        }
+        return tokenManager.matchingDedent();
+    }
+
+    //parses tokens start to end - 1 (the body's INDENT to its DEDENT) with a parser of its own, when it's first needed
+    private DeferredBody deferred(int start, int end, boolean constructor) {
+        List<Token> tokens = lazyTokens;
+        TranNode owner = tranNode;
+        return (locals, statements) -> {
+            var parser = new Parser(owner, tokens, start, end);
+            try {
+                if (constructor) {
+                    parser.ConstructorBody(statements);
+                } else {
+                    parser.MethodBody(locals, statements);
+                }
+            } catch (SyntaxErrorException e) {
+                throw new BodySyntaxException(e);
+            }
+        };
     }
 
     private MethodDeclarationNode MethodDeclaration() throws SyntaxErrorException {
@@ -270,6 +387,17 @@ public class Parser {
         methodNode.returns = methodHeader.returns;
         RequireNewLine();
 
+        int dedent = skippableBody();
+        if (dedent >= 0) {
+            methodNode.deferBody(deferred(tokenManager.mark(), dedent + 1, false));
+            tokenManager.reset(dedent); //the DEDENT is left for Class(), as below
+            return methodNode;
+        }
+        MethodBody(methodNode.locals, methodNode.statements);
+        return methodNode;
+    }
+
+    private void MethodBody(List<VariableDeclarationNode> locals, List<StatementNode> statements) throws SyntaxErrorException {
         if(tokenManager.matchAndRemove(Token.TokenTypes.INDENT).isPresent()){
             boolean searchDedent = false;
 
@@ -278,7 +406,7 @@ public class Parser {
                     Optional<Token> searchNewline;
                     do {
                         VariableDeclarationNode variableDeclaration = VariableDeclaration();
-                        methodNode.locals.add(variableDeclaration);
+                        locals.add(variableDeclaration);
                         RequireNewLine();
                         //searchNewline = tokenManager.matchAndRemove(Token.TokenTypes.NEWLINE);
                     } while (tokenManager.nextTwoTokensMatch(Token.TokenTypes.WORD, Token.TokenTypes.WORD));// && searchNewline.isPresent());
@@ -291,14 +419,13 @@ public class Parser {
                     }
                     Optional<StatementNode> statement = Optional.ofNullable(Statement());
                     if(statement.isPresent()){
-                        methodNode.statements.add(statement.get());
+                        statements.add(statement.get());
                     } else{
                         break;
                     }
                 }
             }
         }
-        return methodNode;
     }
 
     private MemberNode Member() throws SyntaxErrorException {
@@ -389,22 +516,19 @@ public class Parser {
             return Optional.empty();
         }
 
-        if(tokenManager.peek(0).get().getType() == Token.TokenTypes.ASSIGN){
-            if(tokenManager.peek(1).get().getType() == Token.TokenTypes.WORD) {
-                if(tokenManager.peek(2).get().getType() == Token.TokenTypes.LPAREN){
-                    tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN);
-                    methodCallExpressionNode = MethodCallExpression();
-                    if(methodCallExpressionNode.isPresent()){
-                        MethodCallStatementNode methodCallStatement = new MethodCallStatementNode();
-                        methodCallStatement.methodName = methodCallExpressionNode.get().methodName;
-                        if(variableReferenceNode.isPresent()){
-                            methodCallStatement.returnValues.add(variableReferenceNode.get());
-                        }
-                        return Optional.of(methodCallStatement);
-                    }
+        int beforeAssign = tokenManager.mark(); //try "x = name(", go back if it isn't
+        if(tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN).isPresent() && tokenManager.nextTwoTokensMatch(Token.TokenTypes.WORD, Token.TokenTypes.LPAREN)){
+            methodCallExpressionNode = MethodCallExpression();
+            if(methodCallExpressionNode.isPresent()){
+                MethodCallStatementNode methodCallStatement = new MethodCallStatementNode();
+                methodCallStatement.methodName = methodCallExpressionNode.get().methodName;
+                if(variableReferenceNode.isPresent()){
+                    methodCallStatement.returnValues.add(variableReferenceNode.get());
                 }
+                return Optional.of(methodCallStatement);
             }
         }
+        tokenManager.reset(beforeAssign);
 
 
 
@@ -431,85 +555,18 @@ public class Parser {
         return Optional.empty();
     }
 
-    //{} means 1 or more
-    //[] means 0 or 1
+    //A condition without an "or" at the top is wrapped in a BooleanOpNode with no op, which is the shape If() and
+    //Loop() look for.
     private BooleanOpNode BoolExpTerm() throws SyntaxErrorException {
-        BooleanOpNode booleanOpNode = new BooleanOpNode();
-        if(tokenManager.matchAndRemove(Token.TokenTypes.NOT).isPresent()){
-            BoolExpTerm();
-        }
-
-        booleanOpNode.left = BoolExpFactor();
-
-        if(tokenManager.matchAndRemove(Token.TokenTypes.AND).isPresent()){
-            BooleanOpNode andNode = new BooleanOpNode();
-            andNode.left = booleanOpNode.left;
-            andNode.op = BooleanOpNode.BooleanOperations.and;
-            andNode.right = BoolExpFactor();
-            booleanOpNode.left = andNode;
-        }
-
-
-        while(true){
-            Optional<Token> searchAnd = tokenManager.matchAndRemove(Token.TokenTypes.AND);
-            Optional<Token> searchOr = tokenManager.matchAndRemove(Token.TokenTypes.OR);
-
-            if (searchAnd.isPresent()) {
-                booleanOpNode.op = BooleanOpNode.BooleanOperations.and;
-                booleanOpNode.right = BoolExpTerm();
-            } else if (searchOr.isPresent()) {
-                booleanOpNode.op = BooleanOpNode.BooleanOperations.or;
-                booleanOpNode.right = BoolExpFactor();
-            }else {
-                break; // No more "and" or "or" found, exit the loop
-            }
+        ExpressionNode expression = Operators(OR_LEVEL);
+        if(expression instanceof BooleanOpNode booleanOpNode && booleanOpNode.op == BooleanOpNode.BooleanOperations.or){
+            return booleanOpNode;
         }
+        BooleanOpNode booleanOpNode = new BooleanOpNode();
+        booleanOpNode.left = expression;
         return booleanOpNode;
     }
 
-    private ExpressionNode BoolExpFactor() throws SyntaxErrorException {
-        CompareNode compareNode = new CompareNode();
-
-        Optional<MethodCallExpressionNode> methodCallExpression = MethodCallExpression();
-        if(methodCallExpression.isPresent()){
-            return methodCallExpression.get();
-        }
-
-        Optional<VariableReferenceNode> variableReference = Optional.of(VariableReference());
-        if(variableReference.isPresent()){
-
-            if(tokenManager.matchAndRemove(Token.TokenTypes.EQUAL).isPresent()) {
-                compareNode.left = variableReference.get();
-                compareNode.op = CompareNode.CompareOperations.eq;
-                compareNode.right = Expression();
-            } else if(tokenManager.matchAndRemove(Token.TokenTypes.LESSTHAN).isPresent()) {
-                compareNode.left = variableReference.get();
-                compareNode.op = CompareNode.CompareOperations.lt;
-                compareNode.right = Expression();
-            } else if(tokenManager.matchAndRemove(Token.TokenTypes.LESSTHANEQUAL).isPresent()) {
-                compareNode.left = variableReference.get();
-                compareNode.op = CompareNode.CompareOperations.le;
-                compareNode.right = Expression();
-            } else if(tokenManager.matchAndRemove(Token.TokenTypes.GREATERTHAN).isPresent()) {
-                compareNode.left = variableReference.get();
-                compareNode.op = CompareNode.CompareOperations.gt;
-                compareNode.right = Expression();
-            }else if(tokenManager.matchAndRemove(Token.TokenTypes.GREATERTHANEQUAL).isPresent()) {
-                compareNode.left = variableReference.get();
-                compareNode.op = CompareNode.CompareOperations.ge;
-                compareNode.right = Expression();
-            }else if(tokenManager.matchAndRemove(Token.TokenTypes.NOTEQUAL).isPresent()) {
-                compareNode.left = variableReference.get();
-                compareNode.op = CompareNode.CompareOperations.ne;
-                compareNode.right = Expression();
-            } else{
-                return variableReference.get();
-            }
-        }
-
-        return compareNode;
-    }
-
 
     private VariableReferenceNode VariableReference() throws SyntaxErrorException {
         VariableReferenceNode variableReferenceNode = new VariableReferenceNode();
@@ -521,7 +578,7 @@ public class Parser {
             throw new SyntaxErrorException("Expected variable reference", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
         }
         if(variableName.isPresent()){
-            variableReferenceNode.name = variableName.get().getValue();
+            variableReferenceNode.setName(variableName.get().getValue(), tokenManager.symbols(), variableName.get().getSymbol());
         } else if(variableName2.isPresent()){
             variableReferenceNode.name = variableName2.get().getValue();
         } else if(variableName3.isPresent()){
@@ -540,130 +597,160 @@ public class Parser {
 
 
 
+    //just the math: a comparison or and/or ends the expression
     private ExpressionNode Expression() throws SyntaxErrorException {
-        AssignmentNode assignmentNode = new AssignmentNode();
-        assignmentNode.expression = Term();
-
-        Optional<Token> searchPlus = tokenManager.matchAndRemove(Token.TokenTypes.PLUS);
-        Optional<Token> searchMinus = tokenManager.matchAndRemove(Token.TokenTypes.MINUS);
+        return Operators(ADDITIVE_LEVEL);
+    }
 
-        while(searchPlus.isPresent() || searchMinus.isPresent()){ //finish implementing this
-            MathOpNode mathOpNode = new MathOpNode();
-            mathOpNode.left = assignmentNode.expression;
-            if(searchPlus.isPresent()){
-                mathOpNode.op = MathOpNode.MathOperations.add;
-            } else if(searchMinus.isPresent()){
-                mathOpNode.op = MathOpNode.MathOperations.subtract;
+    //Precedence climbing over the PRECEDENCE table, taking operators that bind at least as tightly as lowest.
+    //Operands and waiting operators are kept on two lists instead of on the Java stack, so a long chain of terms
+    //or parentheses nested thousands deep don't recurse. Parentheses and "not" are read where an operand can start.
+    private ExpressionNode Operators(int lowest) throws SyntaxErrorException {
+        var operands = new ArrayList<ExpressionNode>();
+        var operators = new ArrayList<Token.TokenTypes>();
+        int openParens = 0;
+        while(true){
+            Token.TokenTypes type = tokenManager.peekType();
+            if(type == Token.TokenTypes.LPAREN || (type == Token.TokenTypes.NOT && lowest <= NOT_LEVEL)){
+                tokenManager.matchAndRemove(type);
+                operators.add(type);
+                if(type == Token.TokenTypes.LPAREN){
+                    openParens++;
+                }
+                continue;
             }
-
-            mathOpNode.right = Term();
-
-            assignmentNode.expression = mathOpNode;
-            searchPlus = tokenManager.matchAndRemove(Token.TokenTypes.PLUS);
-            searchMinus = tokenManager.matchAndRemove(Token.TokenTypes.MINUS);
+            operands.add(Factor());
+
+            type = tokenManager.peekType();
+            while(type == Token.TokenTypes.RPAREN && openParens > 0){
+                tokenManager.matchAndRemove(type);
+                reduce(operands, operators, 0);
+                operators.remove(operators.size() - 1); //the LPAREN
+                openParens--;
+                type = tokenManager.peekType();
+            }
+            Integer level = type == null ? null : PRECEDENCE.get(type);
+            if(level == null || level < lowest){
+                if(openParens > 0){
+                    throw new SyntaxErrorException("need RParen", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+                }
+                reduce(operands, operators, 0);
+                return operands.get(0);
+            }
+            tokenManager.matchAndRemove(type);
+            reduce(operands, operators, level); //everything left is associative to the left
+            operators.add(type);
         }
-        return assignmentNode.expression;
     }
 
-
-    private ExpressionNode Term() throws SyntaxErrorException {
-        AssignmentNode assignmentNode = new AssignmentNode();
-        assignmentNode.expression = Factor();
-        Optional<Token> searchTimes = tokenManager.matchAndRemove(Token.TokenTypes.TIMES);
-        Optional<Token> searchModulo = tokenManager.matchAndRemove(Token.TokenTypes.MODULO);
-        Optional<Token> searchDivide = tokenManager.matchAndRemove(Token.TokenTypes.DIVIDE);
-        while(searchDivide.isPresent() || searchModulo.isPresent() || searchTimes.isPresent()){
-            MathOpNode mathOpNode = new MathOpNode();
-            mathOpNode.left = assignmentNode.expression;
-            if(searchTimes.isPresent()){
-                mathOpNode.op = MathOpNode.MathOperations.multiply;
-            }else if(searchModulo.isPresent()){
-                mathOpNode.op = MathOpNode.MathOperations.modulo;
-            }else if(searchDivide.isPresent()){
-                mathOpNode.op = MathOpNode.MathOperations.divide;
-            }
-            mathOpNode.right = Factor();
-            assignmentNode.expression = mathOpNode;
-
-            searchTimes = tokenManager.matchAndRemove(Token.TokenTypes.TIMES);
-            searchModulo = tokenManager.matchAndRemove(Token.TokenTypes.MODULO);
-            searchDivide = tokenManager.matchAndRemove(Token.TokenTypes.DIVIDE);
-        }
-        return assignmentNode.expression;
+    //builds nodes for the waiting operators that bind at least as tightly as level, stopping at an open paren
+    private static void reduce(List<ExpressionNode> operands, List<Token.TokenTypes> operators, int level) {
+        while(!operators.isEmpty()){
+            Token.TokenTypes type = operators.get(operators.size() - 1);
+            if(type == Token.TokenTypes.LPAREN || levelOf(type) < level){
+                return;
+            }
+            operators.remove(operators.size() - 1);
+            ExpressionNode right = operands.remove(operands.size() - 1);
+            if(type == Token.TokenTypes.NOT){
+                NotOpNode notOpNode = new NotOpNode();
+                notOpNode.left = right;
+                operands.add(notOpNode);
+            } else{
+                operands.add(binary(type, operands.remove(operands.size() - 1), right));
+            }
+        }
     }
 
-    private ExpressionNode Factor() throws SyntaxErrorException {
-
-        Optional<Token> searchTrue= tokenManager.matchAndRemove(Token.TokenTypes.TRUE);
-        if(searchTrue.isPresent()){
-            BooleanLiteralNode booleanLiteralNode = new BooleanLiteralNode(true);
-            booleanLiteralNode.value = Boolean.parseBoolean(searchTrue.get().getValue());
-            return booleanLiteralNode;
-        }
+    private static int levelOf(Token.TokenTypes type) {
+        return type == Token.TokenTypes.NOT ? NOT_LEVEL : PRECEDENCE.get(type);
+    }
 
-        Optional<Token> searchFalse= tokenManager.matchAndRemove(Token.TokenTypes.FALSE);
-        if(searchFalse.isPresent()){
-            BooleanLiteralNode booleanLiteralNode = new BooleanLiteralNode(false);
-            booleanLiteralNode.value = Boolean.parseBoolean(searchFalse.get().getValue());
-            return booleanLiteralNode;
+    private static ExpressionNode binary(Token.TokenTypes type, ExpressionNode left, ExpressionNode right) {
+        switch(type){
+            case AND, OR -> {
+                BooleanOpNode booleanOpNode = new BooleanOpNode();
+                booleanOpNode.left = left;
+                booleanOpNode.op = type == Token.TokenTypes.AND ? BooleanOpNode.BooleanOperations.and : BooleanOpNode.BooleanOperations.or;
+                booleanOpNode.right = right;
+                return booleanOpNode;
+            }
+            case PLUS, MINUS, TIMES, DIVIDE, MODULO -> {
+                MathOpNode mathOpNode = new MathOpNode();
+                mathOpNode.left = left;
+                mathOpNode.op = MATH_OPERATIONS.get(type);
+                mathOpNode.right = right;
+                return mathOpNode;
+            }
+            default -> {
+                CompareNode compareNode = new CompareNode();
+                compareNode.left = left;
+                compareNode.op = COMPARE_OPERATIONS.get(type);
+                compareNode.right = right;
+                return compareNode;
+            }
         }
+    }
 
-        Optional<Token> searchNew = tokenManager.matchAndRemove(Token.TokenTypes.NEW); //finish implementing
-        if(searchNew.isPresent()){
-            NewNode newNode = new NewNode();
-            newNode.className = tokenManager.matchAndRemove(Token.TokenTypes.WORD).get().getValue();
-            if(!tokenManager.matchAndRemove(Token.TokenTypes.LPAREN).isPresent()){
-                throw new SyntaxErrorException("Expected paren", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+    //anything that can start an operand except "(" and "not", which Operators() deals with itself
+    private ExpressionNode Factor() throws SyntaxErrorException {
+        Token.TokenTypes type = tokenManager.peekType();
+        if(type == null){
+            return MethodCallOrVariable();
+        }
+        switch(type){
+            case TRUE, FALSE -> {
+                Token literal = tokenManager.matchAndRemove(type).get();
+                BooleanLiteralNode booleanLiteralNode = new BooleanLiteralNode(type == Token.TokenTypes.TRUE);
+                booleanLiteralNode.value = Boolean.parseBoolean(literal.getValue());
+                return booleanLiteralNode;
             }
+            case NEW -> {
+                tokenManager.matchAndRemove(Token.TokenTypes.NEW);
+                NewNode newNode = new NewNode();
+                newNode.className = tokenManager.matchAndRemove(Token.TokenTypes.WORD).get().getValue();
+                if(!tokenManager.matchAndRemove(Token.TokenTypes.LPAREN).isPresent()){
+                    throw new SyntaxErrorException("Expected paren", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+                }
 
-            while(!tokenManager.matchAndRemove(Token.TokenTypes.RPAREN).isPresent()){
-                newNode.parameters.add(VariableReference());
-                Optional<Token> searchCommanReturns = tokenManager.matchAndRemove(Token.TokenTypes.COMMA);
-                while(!searchCommanReturns.isEmpty()){
+                while(!tokenManager.matchAndRemove(Token.TokenTypes.RPAREN).isPresent()){
                     newNode.parameters.add(VariableReference());
-                    searchCommanReturns = tokenManager.matchAndRemove(Token.TokenTypes.COMMA);
+                    Optional<Token> searchCommanReturns = tokenManager.matchAndRemove(Token.TokenTypes.COMMA);
+                    while(!searchCommanReturns.isEmpty()){
+                        newNode.parameters.add(VariableReference());
+                        searchCommanReturns = tokenManager.matchAndRemove(Token.TokenTypes.COMMA);
+                    }
                 }
+                return newNode;
+            }
+            case NUMBER -> {
+                NumericLiteralNode numericLiteralNode = new NumericLiteralNode();
+                numericLiteralNode.value = Integer.parseInt(tokenManager.matchAndRemove(type).get().getValue());
+                return numericLiteralNode;
+            }
+            case QUOTEDSTRING -> {
+                StringLiteralNode stringLiteralNode = new StringLiteralNode();
+                stringLiteralNode.value = tokenManager.matchAndRemove(type).get().getValue();
+                return stringLiteralNode;
+            }
+            case QUOTEDCHARACTER -> {
+                CharLiteralNode charLiteralNode = new CharLiteralNode();
+                String value = tokenManager.matchAndRemove(type).get().getValue(); // Get the string value
+                charLiteralNode.value = value.charAt(0);
+                return charLiteralNode;
+            }
+            default -> {
+                return MethodCallOrVariable();
             }
-            return newNode;
-        }
-        Optional<Token> Lparen = tokenManager.matchAndRemove(Token.TokenTypes.LPAREN);
-        if(Lparen.isPresent()){
-           ExpressionNode expressionNode = Expression();
-           if(!tokenManager.matchAndRemove(Token.TokenTypes.RPAREN).isPresent()){
-               throw new SyntaxErrorException("need RParen", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
-           }
-           return expressionNode;
-        }
-        Optional<Token> searchNumber = tokenManager.matchAndRemove(Token.TokenTypes.NUMBER);
-        if (searchNumber.isPresent()){
-            NumericLiteralNode numericLiteralNode = new NumericLiteralNode();
-            numericLiteralNode.value = Integer.parseInt(searchNumber.get().getValue());
-            return numericLiteralNode;
-        }
-        Optional<Token> searchQuoted = tokenManager.matchAndRemove(Token.TokenTypes.QUOTEDSTRING);
-        if(searchQuoted.isPresent()){
-            StringLiteralNode stringLiteralNode = new StringLiteralNode();
-            stringLiteralNode.value = searchQuoted.get().getValue();
-            return stringLiteralNode;
-        }
-        Optional<Token> searchQuotedChar = tokenManager.matchAndRemove(Token.TokenTypes.QUOTEDCHARACTER);
-        if(searchQuotedChar.isPresent()){
-            CharLiteralNode charLiteralNode = new CharLiteralNode();
-            String value = searchQuotedChar.get().getValue(); // Get the string value
-            charLiteralNode.value = value.charAt(0);
-            return charLiteralNode;
         }
+    }
 
+    private ExpressionNode MethodCallOrVariable() throws SyntaxErrorException {
         Optional<MethodCallExpressionNode> methodCallExpression = MethodCallExpression();
         if(methodCallExpression.isPresent()){
             return methodCallExpression.get();
         }
-
-        Optional<VariableReferenceNode> variableReference = Optional.of(VariableReference());
-        if(variableReference.isPresent()){
-            return variableReference.get();
-        }
-        return null;
+        return VariableReference();
     }
 
 
@@ -769,10 +856,12 @@ public class Parser {
     private LoopNode Loop() throws SyntaxErrorException {
         LoopNode loopNode = new LoopNode();
         if(tokenManager.peek(0).get().getType() == Token.TokenTypes.WORD || tokenManager.peek(0).get().getType() == Token.TokenTypes.NUMBER){
-            if(tokenManager.peek(1).get().getType() == Token.TokenTypes.ASSIGN){
-                loopNode.assignment = Optional.of(VariableReference());
-                tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN);
+            int beforeVariable = tokenManager.mark(); //try "x =", go back if it isn't
+            VariableReferenceNode variable = VariableReference();
+            if(tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN).isPresent()){
+                loopNode.assignment = Optional.of(variable);
             } else{
+                tokenManager.reset(beforeVariable);
                 loopNode.assignment = Optional.empty();
             }
         }
@@ -814,4 +903,16 @@ public class Parser {
 
         return loopNode;
     }
-}
\ No newline at end of file
+
+    //thrown from a lazily parsed body when it is first needed and turns out not to parse
+    public static class BodySyntaxException extends RuntimeException {
+        public BodySyntaxException(SyntaxErrorException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SyntaxErrorException getCause() {
+            return (SyntaxErrorException) super.getCause();
+        }
+    }
+}
@@ -125,6 +125,26 @@ public class Parser1Tests {
 
     }
 
+    @Test
+    public void testMarkAndReset() {
+        Token token1 = createToken(Token.TokenTypes.WORD, 1, 1, "hello");
+        Token token2 = createToken(Token.TokenTypes.ASSIGN, 1, 2, "=");
+        Token token3 = createToken(Token.TokenTypes.NUMBER, 1, 3, "123");
+        List<Token> tokens = new LinkedList<>(Arrays.asList(token1, token2, token3));
+        TokenManager tokenManager = new TokenManager(tokens);
+
+        int mark = tokenManager.mark();
+        assertTrue(tokenManager.matchAndRemove(Token.TokenTypes.WORD).isPresent());
+        assertTrue(tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN).isPresent());
+        assertEquals(token3, tokenManager.peek(0).get(), "Peek should be relative to the cursor");
+        assertFalse(tokenManager.peek(1).isPresent(), "Peeking past the end should be empty");
+
+        tokenManager.reset(mark);
+        assertEquals(token1, tokenManager.peek(0).get(), "Reset should go back to the marked token");
+        assertTrue(tokenManager.nextTwoTokensMatch(Token.TokenTypes.WORD, Token.TokenTypes.ASSIGN));
+        assertEquals(3, tokens.size(), "The token list itself should not be changed");
+    }
+
     @Test
     public void testGetCurrentLine() {
         Token token1 = createToken(Token.TokenTypes.WORD, 1, 1, "hello");
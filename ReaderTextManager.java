@@ -0,0 +1,162 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+//TextManager that reads its text from a Reader a chunk at a time instead of needing the whole program as a String.
+//Positions are still counted from the start of the input; release() throws away everything before the current position.
+public class ReaderTextManager extends TextManager {
+    private final Reader reader;
+    private char[] buffer;
+    private int bufferStart = 0; //position of buffer[0] in the whole input
+    private int count = 0;
+    private int position = 0;
+    private boolean endOfInput = false;
+
+    private final CharSequence source = new CharSequence() {
+        @Override
+        public int length() {
+            return bufferStart + count;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return buffer[index - bufferStart];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, 0, count);
+        }
+    };
+
+    public ReaderTextManager(Reader reader) {
+        this(reader, 8192);
+    }
+
+    public ReaderTextManager(Reader reader, int chunkSize) {
+        this.reader = reader;
+        this.buffer = new char[Math.max(2, chunkSize)];
+    }
+
+    //make sure the character at index has been read, returns false if the input ends before it
+    private boolean fill(int index) {
+        while (index >= bufferStart + count && !endOfInput) {
+            if (buffer.length - count < 2) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            try {
+                int read = reader.read(buffer, count, buffer.length - count);
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    count += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return index < bufferStart + count;
+    }
+
+    @Override
+    public char getCharacter() {
+        char c = peekCharacter(position);
+        position++;
+        return c;
+    }
+
+    @Override
+    public boolean isAtEnd() {
+        return !fill(position);
+    }
+
+    @Override
+    public char peekCharacter() {
+        return peekCharacter(position);
+    }
+
+    @Override
+    public char peekCharacter(int distance) {
+        if (distance < bufferStart || !fill(distance)) {
+            throw new StringIndexOutOfBoundsException(distance);
+        }
+        return buffer[distance - bufferStart];
+    }
+
+    @Override
+    public int skipRun(int kind) {
+        int start = position;
+        while (fill(position)) {
+            position = CharRuns.endOfRun(buffer, position - bufferStart, count, kind) + bufferStart;
+            if (position < bufferStart + count) {
+                break;
+            }
+        }
+        return position - start;
+    }
+
+    @Override
+    public int skipUntil(char a, char b) {
+        int start = position;
+        while (fill(position)) {
+            position = CharRuns.indexOfEither(buffer, position - bufferStart, count, a, b) + bufferStart;
+            if (position < bufferStart + count) {
+                break;
+            }
+        }
+        return position - start;
+    }
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public CharSequence getSource() {
+        return source;
+    }
+
+    @Override
+    public String substring(int start, int end) {
+        if (start == end) {
+            return "";
+        }
+        if (start < bufferStart || end > bufferStart + count) {
+            throw new StringIndexOutOfBoundsException("text " + start + "-" + end + " has already been released");
+        }
+        return new String(buffer, start - bufferStart, end - start);
+    }
+
+    @Override
+    public boolean matches(int start, int end, String word) {
+        if (end - start != word.length() || start < bufferStart || end > bufferStart + count) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (buffer[start - bufferStart + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void release() {
+        int drop = position - bufferStart;
+        System.arraycopy(buffer, drop, buffer, 0, count - drop);
+        count -= drop;
+        bufferStart = position;
+    }
+
+    //how many characters are being held right now, used to check memory stays bounded
+    public int bufferedCharacters() {
+        return count;
+    }
+}
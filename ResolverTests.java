@@ -0,0 +1,120 @@
+import AST.AssignmentNode;
+import AST.MathOpNode;
+import AST.VariableReferenceNode;
+import Interpreter.Binding;
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ResolverTests {
+    private static final String PROGRAM = """
+            class SimpleAdd
+                number x
+                number y
+
+                construct(number start)
+                    x = start
+                    y = 6
+
+                add()
+                    number z
+                    z = x + y
+                    console.write(z)
+
+                shared start()
+                    SimpleAdd t
+                    t = new SimpleAdd(6)
+                    t.add()
+            """;
+
+    private static AssignmentNode assignment(Object statement) {
+        return (AssignmentNode) statement;
+    }
+
+    @Test
+    public void ReferencesAreBoundToSlots() throws Exception {
+        var tran = InterpreterTests.parse(PROGRAM);
+        var interpreter = new Interpreter(tran);
+        Assertions.assertEquals(List.of("12.0"), InterpreterTests.interpret(interpreter));
+        var simpleAdd = tran.Classes.get(0);
+
+        var constructor = simpleAdd.constructors.get(0).statements;
+        VariableReferenceNode x = assignment(constructor.get(0)).target;
+        VariableReferenceNode start = (VariableReferenceNode) assignment(constructor.get(0)).expression;
+        Assertions.assertEquals(Binding.MEMBER, interpreter.binding(x).scope());
+        Assertions.assertEquals(Binding.LOCAL, interpreter.binding(start).scope());
+        Assertions.assertEquals(0, interpreter.binding(start).slot());
+
+        // methods run with the object's members as their locals, so members and locals are both LOCAL there
+        var add = assignment(simpleAdd.methods.get(0).statements.get(0));
+        var sum = (MathOpNode) add.expression;
+        Assertions.assertEquals(Binding.LOCAL, interpreter.binding(add.target).scope());
+        Assertions.assertEquals(Binding.LOCAL, interpreter.binding((VariableReferenceNode) sum.left).scope());
+        Assertions.assertEquals(interpreter.binding(x).slot(), interpreter.binding((VariableReferenceNode) sum.left).slot());
+        Assertions.assertNotEquals(interpreter.binding(x).slot(), interpreter.binding((VariableReferenceNode) sum.right).slot());
+
+        Assertions.assertEquals(Binding.LOCAL, interpreter.binding(assignment(simpleAdd.methods.get(1).statements.get(0)).target).scope());
+    }
+
+    @Test
+    public void UnknownNamesStayUnresolved() throws Exception {
+        var tran = InterpreterTests.parse("""
+                class Unknown
+                    shared start()
+                        number x
+                        x = 1
+                        y = 2
+                """);
+        var interpreter = new Interpreter(tran);
+        var e = Assertions.assertThrows(RuntimeException.class, () -> InterpreterTests.interpret(interpreter));
+        Assertions.assertEquals("Unable to find variable y", e.getMessage());
+        Assertions.assertEquals(Binding.UNRESOLVED, interpreter.binding(assignment(tran.Classes.get(0).methods.get(0).statements.get(1)).target).scope());
+    }
+
+    @Test
+    public void EachInterpreterKeepsItsOwnBindings() throws Exception {
+        var tran = InterpreterTests.parse(PROGRAM);
+        var first = new Interpreter(tran);
+        var console = InterpreterTests.interpret(first);
+        VariableReferenceNode x = assignment(tran.Classes.get(0).constructors.get(0).statements.get(0)).target;
+        Binding before = first.binding(x);
+        var second = new Interpreter(tran);
+        InterpreterTests.interpret(second);
+        Assertions.assertEquals(before, first.binding(x));
+        Assertions.assertNotEquals(before.frame(), second.binding(x).frame());
+        InterpreterTests.interpret(first);
+        Assertions.assertEquals(List.of("12.0", "12.0", "12.0"), console);
+    }
+
+    @Test
+    public void AHotReloadDropsTheBindings() throws Exception {
+        var parser = new IncrementalParser(PROGRAM);
+        var tran = parser.getTranNode();
+        var interpreter = new Interpreter(tran);
+        var console = InterpreterTests.interpret(interpreter);
+        VariableReferenceNode x = assignment(tran.Classes.get(0).constructors.get(0).statements.get(0)).target;
+        Assertions.assertEquals(Binding.MEMBER, interpreter.binding(x).scope());
+        int at = parser.getText().indexOf("x + y");
+        parser.edit(at, "x + y".length(), "x * y");
+        Assertions.assertEquals(Binding.UNRESOLVED, interpreter.binding(x).scope()); // bound for the version before
+        InterpreterTests.interpret(interpreter);
+        Assertions.assertEquals(Binding.MEMBER, interpreter.binding(x).scope());
+        Assertions.assertEquals(List.of("12.0", "36.0"), console);
+    }
+
+    @Test
+    public void SameOutputAsBefore() throws Exception {
+        for (var entry : BenchmarkPrograms.corpus().entrySet()) {
+            var tran = InterpreterTests.parse(entry.getValue());
+            var console = InterpreterTests.interpret(tran);
+            var first = List.copyOf(console);
+            // a second Interpreter lays the frames out again, the first one's bindings must not be used with them.
+            // console.write still finds the first console class, so it writes on after the first run's output
+            new Interpreter(tran).start();
+            Assertions.assertEquals(first, console.subList(first.size(), console.size()), entry.getKey());
+        }
+        Assertions.assertEquals(List.of("12.0"), InterpreterTests.interpret(InterpreterTests.parse(PROGRAM)));
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+//Lookup tables for the span scanner. They are built once, when the class is loaded, from the keyword and
+//operator spellings, so a new Lexer has nothing to set up and classifying a token never hashes a String.
+final class ScannerTables {
+    static final int DEAD = -1;
+
+    // character classes, only ASCII is in the table; anything above goes through Character.isLetter/isDigit
+    static final byte OTHER = 0, LETTER = 1, DIGIT = 2, DOT = 3, SPACE = 4, NEWLINE = 5, DOUBLEQUOTE = 6, SINGLEQUOTE = 7;
+
+    static final LinkedHashMap<String, Token.TokenTypes> SPELLINGS = new LinkedHashMap<>();
+
+    private static final byte[] CLASSES = new byte[128];
+
+    // keyword DFA: a trie over 'a'..'z' plus ':' (for accessor: and mutator:), one row of columns per state
+    private static final int KEYWORD_COLUMNS = 27;
+    private static int[] keywordNext = new int[0];
+    private static Token.TokenTypes[] keywordAccept = new Token.TokenTypes[0];
+    private static int keywordStates = 0;
+
+    // operator DFA: a trie over ASCII punctuation, longest match wins
+    private static final int OPERATOR_COLUMNS = 128;
+    private static int[] operatorNext = new int[0];
+    private static Token.TokenTypes[] operatorAccept = new Token.TokenTypes[0];
+    private static int operatorStates = 0;
+
+    static {
+        SPELLINGS.put("accessor:", Token.TokenTypes.ACCESSOR);
+        SPELLINGS.put("class", Token.TokenTypes.CLASS);
+        SPELLINGS.put("mutator:", Token.TokenTypes.MUTATOR);
+        SPELLINGS.put("implements", Token.TokenTypes.IMPLEMENTS);
+        SPELLINGS.put("interface", Token.TokenTypes.INTERFACE);
+        SPELLINGS.put("loop", Token.TokenTypes.LOOP);
+        SPELLINGS.put("if", Token.TokenTypes.IF);
+        SPELLINGS.put("shared", Token.TokenTypes.SHARED);
+        SPELLINGS.put("construct", Token.TokenTypes.CONSTRUCT);
+        SPELLINGS.put("new", Token.TokenTypes.NEW);
+        SPELLINGS.put("private", Token.TokenTypes.PRIVATE);
+        SPELLINGS.put("true", Token.TokenTypes.TRUE);
+        SPELLINGS.put("false", Token.TokenTypes.FALSE);
+        SPELLINGS.put("&&", Token.TokenTypes.AND);
+        SPELLINGS.put("||", Token.TokenTypes.OR);
+        SPELLINGS.put("!", Token.TokenTypes.NOT);
+        SPELLINGS.put("not", Token.TokenTypes.NOT);
+        SPELLINGS.put("and", Token.TokenTypes.AND);
+        SPELLINGS.put("or", Token.TokenTypes.OR);
+        SPELLINGS.put("else", Token.TokenTypes.ELSE);
+        SPELLINGS.put(".", Token.TokenTypes.DOT);
+        SPELLINGS.put(":", Token.TokenTypes.COLON);
+        SPELLINGS.put(",", Token.TokenTypes.COMMA);
+        SPELLINGS.put("(", Token.TokenTypes.LPAREN);
+        SPELLINGS.put(")", Token.TokenTypes.RPAREN);
+        SPELLINGS.put("+", Token.TokenTypes.PLUS);
+        SPELLINGS.put("-", Token.TokenTypes.MINUS);
+        SPELLINGS.put("*", Token.TokenTypes.TIMES);
+        SPELLINGS.put("/", Token.TokenTypes.DIVIDE);
+        SPELLINGS.put("!=", Token.TokenTypes.NOTEQUAL);
+        SPELLINGS.put(">=", Token.TokenTypes.GREATERTHANEQUAL);
+        SPELLINGS.put(">", Token.TokenTypes.GREATERTHAN);
+        SPELLINGS.put("<=", Token.TokenTypes.LESSTHANEQUAL);
+        SPELLINGS.put("<", Token.TokenTypes.LESSTHAN);
+        SPELLINGS.put("=", Token.TokenTypes.ASSIGN);
+        SPELLINGS.put("==", Token.TokenTypes.EQUAL);
+        SPELLINGS.put("%", Token.TokenTypes.MODULO);
+
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = LETTER;
+            CLASSES[Character.toUpperCase(c)] = LETTER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CLASSES[c] = DIGIT;
+        }
+        CLASSES['.'] = DOT;
+        CLASSES[' '] = SPACE;
+        CLASSES['\r'] = SPACE;
+        CLASSES['\n'] = NEWLINE;
+        CLASSES['"'] = DOUBLEQUOTE;
+        CLASSES['\''] = SINGLEQUOTE;
+
+        newKeywordState();
+        newOperatorState();
+        for (var entry : SPELLINGS.entrySet()) {
+            String spelling = entry.getKey();
+            if (Character.isLetter(spelling.charAt(0))) {
+                addKeyword(spelling, entry.getValue());
+            } else if (!spelling.equals("%")) { // '%' is in the set but the lexer has never accepted it
+                addOperator(spelling, entry.getValue());
+            }
+        }
+        keywordNext = Arrays.copyOf(keywordNext, keywordStates * KEYWORD_COLUMNS);
+        keywordAccept = Arrays.copyOf(keywordAccept, keywordStates);
+        operatorNext = Arrays.copyOf(operatorNext, operatorStates * OPERATOR_COLUMNS);
+        operatorAccept = Arrays.copyOf(operatorAccept, operatorStates);
+    }
+
+    private ScannerTables() {
+    }
+
+    static byte classOf(char c) {
+        if (c < 128) {
+            return CLASSES[c];
+        }
+        if (Character.isLetter(c)) {
+            return LETTER;
+        }
+        return Character.isDigit(c) ? DIGIT : OTHER;
+    }
+
+    // state after reading c, DEAD once the word can no longer be a keyword
+    static int keywordStep(int state, char c) {
+        int column;
+        if (c >= 'a' && c <= 'z') {
+            column = c - 'a';
+        } else if (c == ':') {
+            column = 26;
+        } else {
+            return DEAD;
+        }
+        return state == DEAD ? DEAD : keywordNext[state * KEYWORD_COLUMNS + column];
+    }
+
+    // the keyword ending in this state, or null for a plain word
+    static Token.TokenTypes keywordAt(int state) {
+        return state == DEAD ? null : keywordAccept[state];
+    }
+
+    static int operatorStep(int state, char c) {
+        if (c >= OPERATOR_COLUMNS || state == DEAD) {
+            return DEAD;
+        }
+        return operatorNext[state * OPERATOR_COLUMNS + c];
+    }
+
+    // the operator ending in this state, or null when more characters are needed (a lone '&' or '|')
+    static Token.TokenTypes operatorAt(int state) {
+        return state == DEAD ? null : operatorAccept[state];
+    }
+
+    private static void addKeyword(String spelling, Token.TokenTypes type) {
+        int state = 0;
+        for (int i = 0; i < spelling.length(); i++) {
+            char c = spelling.charAt(i);
+            int cell = state * KEYWORD_COLUMNS + (c == ':' ? 26 : c - 'a');
+            if (keywordNext[cell] == DEAD) {
+                int next = newKeywordState(); // may grow the table, so don't store into it until after
+                keywordNext[cell] = next;
+            }
+            state = keywordNext[cell];
+        }
+        keywordAccept[state] = type;
+    }
+
+    private static void addOperator(String spelling, Token.TokenTypes type) {
+        int state = 0;
+        for (int i = 0; i < spelling.length(); i++) {
+            int cell = state * OPERATOR_COLUMNS + spelling.charAt(i);
+            if (operatorNext[cell] == DEAD) {
+                int next = newOperatorState(); // may grow the table, so don't store into it until after
+                operatorNext[cell] = next;
+            }
+            state = operatorNext[cell];
+        }
+        operatorAccept[state] = type;
+    }
+
+    private static int newKeywordState() {
+        if ((keywordStates + 1) * KEYWORD_COLUMNS > keywordNext.length) {
+            int old = keywordNext.length;
+            keywordNext = Arrays.copyOf(keywordNext, Math.max(64 * KEYWORD_COLUMNS, old * 2));
+            Arrays.fill(keywordNext, old, keywordNext.length, DEAD);
+            keywordAccept = Arrays.copyOf(keywordAccept, keywordNext.length / KEYWORD_COLUMNS);
+        }
+        return keywordStates++;
+    }
+
+    private static int newOperatorState() {
+        if ((operatorStates + 1) * OPERATOR_COLUMNS > operatorNext.length) {
+            int old = operatorNext.length;
+            operatorNext = Arrays.copyOf(operatorNext, Math.max(16 * OPERATOR_COLUMNS, old * 2));
+            Arrays.fill(operatorNext, old, operatorNext.length, DEAD);
+            operatorAccept = Arrays.copyOf(operatorAccept, operatorNext.length / OPERATOR_COLUMNS);
+        }
+        return operatorStates++;
+    }
+}
@@ -0,0 +1,72 @@
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class SpecializingNodesTests {
+    @Test
+    public void StringsAndBooleans() throws Exception {
+        String program = """
+                class words
+                    shared start()
+                        string a
+                        string b
+                        string s
+                        number n
+                        boolean big
+                        boolean small
+                        a = "hello"
+                        b = "world"
+                        n = 3
+                        s = a + b
+                        console.write(s)
+                        s = s + n
+                        console.write(s)
+                        big = true
+                        small = false
+                        if big != small
+                            console.write("differ")
+                        if s == "helloworld3.0"
+                            console.write("same")
+                """;
+        var interpreter = new Interpreter(InterpreterTests.parse(program), Interpreter.Engine.SPECIALIZING);
+        interpreter.start();
+        Assertions.assertEquals(List.of("helloworld", "helloworld3.0", "differ", "same"), interpreter.console());
+        // the tree walker only adds numbers
+        Assertions.assertThrows(ClassCastException.class, () -> new Interpreter(InterpreterTests.parse(program)).start());
+    }
+
+    @Test
+    public void Report() throws Exception {
+        var tran = InterpreterTests.parse("""
+                class counter
+                    shared start()
+                        number i
+                        number total
+                        string s
+                        string t
+                        s = "a"
+                        t = "b"
+                        total = 0
+                        loop i = total.times()
+                            total = total + i
+                        s = s + t
+                        t = s + total
+                        if total > 2
+                            console.write(t)
+                        if total == 5
+                            console.write("never")
+                """);
+        var interpreter = new Interpreter(tran, Interpreter.Engine.SPECIALIZING);
+        interpreter.start();
+        // the loop runs no times, so its + never specializes
+        Assertions.assertEquals(List.of(
+                "counter.start: UninitializedAdd(total, i)",
+                "counter.start: StringAdd(s, t)",
+                "counter.start: GenericAdd(s, total)",
+                "counter.start: NumberCompare(total, 2.0)",
+                "counter.start: NumberCompare(total, 5.0)"), interpreter.specializationReport());
+        Assertions.assertTrue(new Interpreter(tran).specializationReport().isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamingLexerTests {
+    private static final String PROGRAM = "class LoopOne\n" +
+            "    number x\n" +
+            "        accessor:\n" +
+            "            value = x\n" +
+            "    shared start()\n" +
+            "        boolean keepGoing\n" +
+            "        n = 0\n" +
+            "        loop keepGoing\n" +
+            "            if n >= 15\n" +
+            "                keepGoing = false\n" +
+            "            else\n" +
+            "                n = n + 1\n" +
+            "                console.write(n, \"done\")\n";
+
+    private static List<Token> pullAll(Lexer lexer) throws Exception {
+        var tokens = new ArrayList<Token>();
+        for (var t = lexer.nextToken(); t.isPresent(); t = lexer.nextToken()) {
+            tokens.add(t.get());
+        }
+        return tokens;
+    }
+
+    @Test
+    public void NextTokenMatchesLex() throws Exception {
+        var expected = new Lexer(PROGRAM).Lex();
+        Assertions.assertEquals(expected.toString(), pullAll(new Lexer(new StringReader(PROGRAM))).toString());
+        // a tiny buffer makes words, strings and lookahead cross refills
+        var small = new Lexer(new ReaderTextManager(new StringReader(PROGRAM), 3));
+        Assertions.assertEquals(expected.toString(), pullAll(small).toString());
+    }
+
+    @Test
+    public void StreamingParseMatchesListParse() throws Exception {
+        String program = BenchmarkPrograms.manyClasses(5);
+        var expected = new TranNode();
+        new Parser(expected, new Lexer(program).Lex()).Tran();
+        var streamed = new TranNode();
+        new Parser(streamed, new Lexer(new StringReader(program))).Tran();
+        Assertions.assertEquals(expected.toString(), streamed.toString());
+    }
+
+    @Test
+    public void StreamingSyntaxError() {
+        Assertions.assertThrows(SyntaxErrorException.class,
+                () -> new Parser(new TranNode(), new Lexer(new StringReader("class a\n    \"not closed"))).Tran());
+    }
+
+    @Test
+    public void MappedFileMatchesLex() throws Exception {
+        String program = PROGRAM + "    {comment é}\n    string s\n";
+        var file = Files.createTempFile("tran", ".tran");
+        try {
+            Files.writeString(file, program, StandardCharsets.UTF_8);
+            try (var reader = new MappedFileReader(file)) {
+                Assertions.assertEquals(new Lexer(program).Lex().toString(), pullAll(new Lexer(reader)).toString());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void BufferStaysSmall() throws Exception {
+        String program = BenchmarkPrograms.manyClasses(200);
+        var text = new ReaderTextManager(new StringReader(program), 64);
+        var lexer = new Lexer(text);
+        int most = 0;
+        while (lexer.nextToken().isPresent()) {
+            most = Math.max(most, text.bufferedCharacters());
+        }
+        Assertions.assertTrue(most < 1024, "buffered " + most + " characters of " + program.length());
+    }
+}
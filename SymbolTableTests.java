@@ -0,0 +1,93 @@
+import AST.SymbolTable;
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SymbolTableTests {
+    @Test
+    public void InternIsStable() {
+        var symbols = new SymbolTable();
+        int id = symbols.intern("someName");
+        Assertions.assertEquals(id, symbols.intern("xsomeNamex", 1, 9));
+        Assertions.assertEquals(id, symbols.intern(new StringBuilder("someName"), 0, 8));
+        Assertions.assertEquals("someName", symbols.name(id));
+        Assertions.assertNotEquals(id, symbols.intern("someNames"));
+        Assertions.assertEquals(SymbolTable.NONE, symbols.intern(null));
+    }
+
+    @Test
+    public void TokensCarrySymbols() throws Exception {
+        var tokens = new Lexer("class abc\n    number abc\n    start()\n").LexBuffer();
+        int abc = tokens.symbols().intern("abc");
+        Assertions.assertEquals(abc, tokens.getSymbol(1));
+        Assertions.assertEquals(abc, tokens.get(5).getSymbol());
+        Assertions.assertSame(tokens.getValue(1), tokens.get(5).getValue(), "identifiers share one String");
+        Assertions.assertEquals(SymbolTable.NONE, tokens.get(0).getSymbol());
+        // a token made without an id has none, its value is looked up in whichever table needs it
+        Assertions.assertEquals(SymbolTable.NONE, new Token(Token.TokenTypes.WORD, 1, 1, "abc").getSymbol());
+    }
+
+    @Test
+    public void AstNodesCarrySymbols() throws Exception {
+        var tran = new TranNode();
+        var tokens = new Lexer(BenchmarkPrograms.manyClasses(2)).LexBuffer();
+        new Parser(tran, tokens).Tran();
+        Assertions.assertSame(tokens.symbols(), tran.symbols(), "a new TranNode keeps the lexer's ids");
+        var symbols = tran.symbols();
+        var clazz = tran.Classes.getFirst();
+        Assertions.assertEquals(symbols.intern(clazz.name), clazz.symbol(symbols));
+        Assertions.assertEquals(symbols.intern("start"), clazz.methods.getLast().symbol(symbols));
+        clazz.name = "renamed";
+        Assertions.assertEquals(symbols.intern("renamed"), clazz.symbol(symbols), "assigning name is picked up");
+    }
+
+    @Test
+    public void EachProgramHasItsOwnTable() throws Exception {
+        var first = new TranNode();
+        new Parser(first, new Lexer("class first\n    number common\n").LexBuffer()).Tran();
+        var second = new TranNode();
+        new Parser(second, new Lexer("class second\n    number other\n    number common\n").LexBuffer()).Tran();
+        Assertions.assertNotSame(first.symbols(), second.symbols());
+        Assertions.assertEquals(0, first.Classes.getFirst().symbol(first.symbols()));
+        Assertions.assertEquals(0, second.Classes.getFirst().symbol(second.symbols()));
+        Assertions.assertEquals(first.symbols().size() + 1, second.symbols().size(), "nothing leaks from one to the other");
+
+        // a node asked about by another program's table gets that table's id, not the one it has cached
+        var clazz = first.Classes.getFirst();
+        Assertions.assertEquals(second.symbols().intern("first"), clazz.symbol(second.symbols()));
+        Assertions.assertEquals(0, clazz.symbol(first.symbols()));
+    }
+
+    @Test
+    public void ConcurrentInterning() throws Exception {
+        var symbols = new SymbolTable();
+        var ids = new ConcurrentHashMap<String, Integer>();
+        var pool = new ForkJoinPool(4);
+        var workers = new ArrayList<Future<?>>();
+        for (int t = 0; t < 4; t++) {
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    String name = "concurrent" + i;
+                    int id = symbols.intern(name);
+                    Integer previous = ids.putIfAbsent(name, id);
+                    Assertions.assertTrue(previous == null || previous == id);
+                }
+            }));
+        }
+        for (var worker : workers) {
+            worker.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        Assertions.assertEquals(20000, new HashSet<>(ids.values()).size());
+        for (var entry : new ArrayList<>(ids.entrySet())) {
+            Assertions.assertEquals(entry.getKey(), symbols.name(entry.getValue()));
+        }
+    }
+}
@@ -1,9 +1,27 @@
 public class TextManager {
     private String text;
     private int position = 0;
+    private int end;
+    private char[] window; //CharRuns works on arrays, so the text is copied over a piece at a time
+    private int windowStart = 0;
+    private int windowEnd = 0;
 
     public TextManager(String text) {
+        this(text, 0, text.length());
+    }
+
+    public TextManager(String text, int position) {
+        this(text, position, text.length());
+    }
+
+    //only the characters from position up to end are looked at, offsets stay those of the whole text
+    public TextManager(String text, int position, int end) {
         this.text = text;
+        this.position = position;
+        this.end = end;
+    }
+
+    protected TextManager() {
     }
 
     public char getCharacter(){
@@ -11,13 +29,16 @@ public class TextManager {
     }
 
     public boolean isAtEnd() {
-        if (position == text.length()) {
+        if (position == end) {
             return true;
         }
         return false;
     }
 
     public char peekCharacter() {
+        if (position >= end) {
+            throw new StringIndexOutOfBoundsException(position);
+        }
         return text.charAt(position);
     }
 
@@ -25,11 +46,73 @@ public class TextManager {
         return text.charAt(distance);
     }
 
+    //moves past the run of CharRuns.SPACES, DIGITS or LETTERS starting here and returns how long it was
+    public int skipRun(int kind) {
+        int start = position;
+        if (!CharRuns.VECTORIZED) {
+            while (position < end && CharRuns.inRun(text.charAt(position), kind)) {
+                position++;
+            }
+            return position - start;
+        }
+        while (position < end) {
+            fillWindow();
+            position = CharRuns.endOfRun(window, position - windowStart, windowEnd - windowStart, kind) + windowStart;
+            if (position < windowEnd) {
+                break;
+            }
+        }
+        return position - start;
+    }
+
+    //moves up to the next a or b (or the end) and returns how many characters were passed
+    public int skipUntil(char a, char b) {
+        int start = position;
+        if (!CharRuns.VECTORIZED) {
+            while (position < end && text.charAt(position) != a && text.charAt(position) != b) {
+                position++;
+            }
+            return position - start;
+        }
+        while (position < end) {
+            fillWindow();
+            position = CharRuns.indexOfEither(window, position - windowStart, windowEnd - windowStart, a, b) + windowStart;
+            if (position < windowEnd) {
+                break;
+            }
+        }
+        return position - start;
+    }
+
+    private void fillWindow() {
+        if (position >= windowStart && position < windowEnd) {
+            return;
+        }
+        if (window == null) {
+            window = new char[4096];
+        }
+        windowStart = position;
+        windowEnd = Math.min(end, position + window.length);
+        text.getChars(windowStart, windowEnd, window, 0);
+    }
+
     public int getPosition() {
         return position;
     }
 
+    public CharSequence getSource() {
+        return text;
+    }
 
+    public String substring(int start, int end) {
+        return text.substring(start, end);
+    }
 
-}
+    public boolean matches(int start, int end, String word) {
+        return end - start == word.length() && text.regionMatches(start, word, 0, word.length());
+    }
 
+    //Text before the current position won't be looked at again. Nothing to do when the whole text is a String.
+    public void release() {
+    }
+}
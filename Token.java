@@ -1,3 +1,5 @@
+import AST.SymbolTable;
+
 import java.util.Optional;
 
 public class Token {
@@ -16,6 +18,13 @@ public class Token {
 
     private Optional<String> value;
 
+    // for tokens lexed in span mode the value is only cut out of the source when someone asks for it
+    private CharSequence source;
+    private int start, end;
+
+    // id of a WORD's value in the lexer's SymbolTable (see TokenBuffer.symbols()), NONE if it wasn't made with one
+    private int symbol = SymbolTable.NONE;
+
     private final TokenTypes type;
 
     private final int columnNumber;
@@ -42,15 +51,36 @@ public class Token {
         this.value = Optional.of(value);
     }
 
+    public Token(TokenTypes type, int lineNumber, int columnNumber, String value, int symbol){
+        this(type, lineNumber, columnNumber, value);
+        this.symbol = symbol;
+    }
+
+    public Token(TokenTypes type, int lineNumber, int columnNumber, CharSequence source, int start, int end){
+        this(type, lineNumber, columnNumber);
+        this.value = null;
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
     public TokenTypes getType() { return type; }
 
     public String getValue() {
+        if (value == null) {
+            value = Optional.of(source.subSequence(start, end).toString());
+            source = null;
+        }
         return value.orElse("");
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     @Override
     public String toString() {
-        return type + " " + (value.orElse("")) + "@" + lineNumber + "," + columnNumber;
+        return type + " " + getValue() + "@" + lineNumber + "," + columnNumber;
     }
 }
 
@@ -0,0 +1,182 @@
+import AST.SymbolTable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+//Compact token storage: one entry per token spread over parallel arrays instead of one Token object each.
+//Values are not stored, they are cut out of the source text (start/end offsets) when a Token is asked for.
+public class TokenBuffer extends AbstractList<Token> implements RandomAccess {
+    private static final Token.TokenTypes[] TYPES = Token.TokenTypes.values();
+
+    private final CharSequence source;
+    private final SymbolTable symbols;
+    private byte[] types;
+    private int[] lines;
+    private int[] columns;
+    private int[] starts;
+    private int[] ends;
+    private int size = 0;
+    // values that are not a slice of the source (only from add(Token)), referenced by start = -1 - index
+    // identifiers are stored as their id in symbols in start with end = SYMBOL
+    private static final int SYMBOL = -1;
+    private ArrayList<String> literals = new ArrayList<>();
+
+    public TokenBuffer(CharSequence source) {
+        this(source, new SymbolTable());
+    }
+
+    public TokenBuffer(CharSequence source, SymbolTable symbols) {
+        this(source, symbols, 16);
+    }
+
+    public TokenBuffer(CharSequence source, SymbolTable symbols, int capacity) {
+        this.source = source;
+        this.symbols = symbols;
+        types = new byte[capacity];
+        lines = new int[capacity];
+        columns = new int[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+    }
+
+    public void add(Token.TokenTypes type, int lineNumber, int columnNumber, int start, int end) {
+        if (size == types.length) {
+            int capacity = Math.max(16, size * 2);
+            types = Arrays.copyOf(types, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        lines[size] = lineNumber;
+        columns[size] = columnNumber;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    public void addSymbol(Token.TokenTypes type, int lineNumber, int columnNumber, int symbol) {
+        add(type, lineNumber, columnNumber, symbol, SYMBOL);
+    }
+
+    //adds every token of other, which must be over the same source and have the same SymbolTable
+    public void append(TokenBuffer other) {
+        if (other.symbols != symbols) {
+            throw new IllegalArgumentException("the tokens appended have ids from another SymbolTable");
+        }
+        int capacity = size + other.size;
+        if (capacity > types.length) {
+            types = Arrays.copyOf(types, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.lines, 0, lines, size, other.size);
+        System.arraycopy(other.columns, 0, columns, size, other.size);
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.ends, 0, ends, size, other.size);
+        if (!other.literals.isEmpty()) {
+            for (int i = size; i < capacity; i++) {
+                if (starts[i] < 0) {
+                    starts[i] -= literals.size();
+                }
+            }
+            literals.addAll(other.literals);
+        }
+        size = capacity;
+    }
+
+    public void trimToSize() {
+        types = Arrays.copyOf(types, size);
+        lines = Arrays.copyOf(lines, size);
+        columns = Arrays.copyOf(columns, size);
+        starts = Arrays.copyOf(starts, size);
+        ends = Arrays.copyOf(ends, size);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        literals.clear();
+    }
+
+    @Override
+    public boolean add(Token token) {
+        String value = token.getValue();
+        if (value.isEmpty()) {
+            add(token.getType(), token.getLineNumber(), token.getColumnNumber(), 0, 0);
+        } else {
+            literals.add(value);
+            add(token.getType(), token.getLineNumber(), token.getColumnNumber(), -literals.size(), 0);
+        }
+        return true;
+    }
+
+    @Override
+    public Token get(int i) {
+        int index = checkIndex(i);
+        int start = starts[index];
+        if (start < 0) {
+            return new Token(TYPES[types[index]], lines[index], columns[index], literals.get(-1 - start));
+        }
+        if (ends[index] == SYMBOL) {
+            return new Token(TYPES[types[index]], lines[index], columns[index], symbols.name(start), start);
+        }
+        return new Token(TYPES[types[index]], lines[index], columns[index], source, start, ends[index]);
+    }
+
+    public Token.TokenTypes getType(int i) {
+        return TYPES[types[checkIndex(i)]];
+    }
+
+    public int getLineNumber(int i) {
+        return lines[checkIndex(i)];
+    }
+
+    public int getColumnNumber(int i) {
+        return columns[checkIndex(i)];
+    }
+
+    public String getValue(int i) {
+        int index = checkIndex(i);
+        if (ends[index] == SYMBOL) {
+            return symbols.name(starts[index]);
+        }
+        return get(i).getValue();
+    }
+
+    public int getSymbol(int i) {
+        int index = checkIndex(i);
+        if (ends[index] == SYMBOL) {
+            return starts[index];
+        }
+        return getType(i) == Token.TokenTypes.WORD ? symbols.intern(getValue(i)) : SymbolTable.NONE;
+    }
+
+    //the table the identifiers' ids are from
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // bytes held by the arrays themselves, used by the benchmark to report memory per token
+    public long footprint() {
+        return (long) types.length * (Byte.BYTES + 4 * Integer.BYTES);
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,46 @@
+import AST.TranNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TokenBufferTests {
+    @Test
+    public void LexBufferMatchesLex() throws Exception {
+        String program = BenchmarkPrograms.manyClasses(3);
+        var expected = new Lexer(program).Lex();
+        var buffer = new Lexer(program).LexBuffer();
+        Assertions.assertEquals(expected.size(), buffer.size());
+        Assertions.assertEquals(expected.toString(), buffer.toString());
+        for (int i = 0; i < buffer.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getType(), buffer.getType(i));
+            Assertions.assertEquals(expected.get(i).getLineNumber(), buffer.getLineNumber(i));
+            Assertions.assertEquals(expected.get(i).getColumnNumber(), buffer.getColumnNumber(i));
+            Assertions.assertEquals(expected.get(i).getValue(), buffer.getValue(i));
+        }
+    }
+
+    @Test
+    public void ParserConsumesBuffer() throws Exception {
+        String program = BenchmarkPrograms.manyClasses(3);
+        var expected = new TranNode();
+        new Parser(expected, new Lexer(program).Lex()).Tran();
+        var tran = new TranNode();
+        new Parser(tran, new Lexer(program).LexBuffer()).Tran();
+        Assertions.assertEquals(3, tran.Classes.size());
+        Assertions.assertEquals(expected.toString(), tran.toString());
+    }
+
+    @Test
+    public void ReadOnlyAndLiterals() {
+        var buffer = new TokenBuffer("abc");
+        buffer.add(Token.TokenTypes.WORD, 1, 3, 0, 3);
+        buffer.add(new Token(Token.TokenTypes.COLON, 1, 4, ":"));
+        buffer.add(new Token(Token.TokenTypes.NEWLINE, 2, 0));
+        Assertions.assertEquals(3, buffer.size());
+        Assertions.assertEquals("abc", buffer.get(0).getValue());
+        Assertions.assertEquals(":", buffer.get(1).getValue());
+        Assertions.assertEquals(Token.TokenTypes.NEWLINE, buffer.getType(2));
+        Assertions.assertEquals("", buffer.getValue(2));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> buffer.remove(0));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(3));
+    }
+}
@@ -1,36 +1,110 @@
+import AST.SymbolTable;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 
+//A cursor over the token list. Tokens are never removed, matchAndRemove just moves currentIndexofToken forward,
+//so the parser can mark() a position, try something, and reset() back to it.
+//When built from a Lexer, tokens are pulled with nextToken() only as far as the parser looks ahead.
 public class TokenManager {
     private List<Token> tokens;
     public int currentIndexofToken = 0;
+    private Lexer lexer;
+    private final boolean streaming;
+    private final SymbolTable symbols;
+    private int discarded = 0; //tokens dropped from the front of the list, only when pulling from a lexer
+    private int end = Integer.MAX_VALUE; //tokens from here on are left for someone else, see ParallelParser
 
     public TokenManager(List<Token> tokens) {
-        this.tokens = tokens;
+        this.tokens = tokens instanceof RandomAccess ? tokens : new ArrayList<>(tokens);
+        this.streaming = false;
+        this.symbols = tokens instanceof TokenBuffer buffer ? buffer.symbols() : null;
+    }
+
+    //only tokens start to end - 1 of the list, as if they were all there is
+    public TokenManager(List<Token> tokens, int start, int end) {
+        this(tokens);
+        this.currentIndexofToken = start;
+        this.end = end;
+    }
+
+    public TokenManager(Lexer lexer) {
+        this.tokens = new ArrayList<>();
+        this.lexer = lexer;
+        this.streaming = true;
+        this.symbols = lexer.symbols();
+    }
+
+    //the table the tokens' symbol ids are from, null if they don't carry any
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    //make sure token number index has been pulled from the lexer, returns false if there is no such token
+    private boolean available(int index) {
+        while(lexer != null && index - discarded >= tokens.size()){
+            try {
+                Optional<Token> next = lexer.nextToken();
+                if(next.isEmpty()){
+                    lexer = null;
+                } else{
+                    tokens.add(next.get());
+                }
+            } catch (SyntaxErrorException e) {
+                throw new LexerException(e);
+            }
+        }
+        return index < end && index - discarded < tokens.size();
+    }
+
+    private Token get(int index) {
+        if(!available(index)){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (discarded + tokens.size()));
+        }
+        return tokens.get(index - discarded);
     }
 
     public boolean done() {
-        return currentIndexofToken >= tokens.size();
+        return !available(currentIndexofToken);
     }
 
     public Optional<Token> matchAndRemove(Token.TokenTypes t) {
-        Optional<Token> nextToken = peek(currentIndexofToken);
-        if(nextToken.isPresent() && nextToken.get().getType() == t) {
-            tokens.remove(0);
-            return nextToken;
+        if(done()){
+            return Optional.empty();
+        }
+        if(tokens instanceof TokenBuffer buffer && buffer.getType(currentIndexofToken) != t){ //no Token made for a miss
+            return Optional.empty();
+        }
+        Token nextToken = get(currentIndexofToken);
+        if(nextToken.getType() == t) {
+            currentIndexofToken++;
+            return Optional.of(nextToken);
         }
         return Optional.empty();
     }
 
+    //the type of the token at the cursor, without making a Token for it; null if there are no more
+    public Token.TokenTypes peekType() {
+        if(done()){
+            return null;
+        }
+        if(tokens instanceof TokenBuffer buffer){
+            return buffer.getType(currentIndexofToken - discarded);
+        }
+        return get(currentIndexofToken).getType();
+    }
+
     public Optional<Token> peek(int i) {
-        if(currentIndexofToken < tokens.size()) {
-            return Optional.of(tokens.get(i));
+        if(available(currentIndexofToken + i)) {
+            return Optional.of(get(currentIndexofToken + i));
         }
         return Optional.empty();
     }
 
     public boolean nextTwoTokensMatch(Token.TokenTypes first, Token.TokenTypes second){
-        if(tokens.size() < 2){
+        if(!available(currentIndexofToken + 1)){
             return false;
         }
         Optional<Token> firstToken = peek(0);
@@ -43,11 +117,58 @@ public class TokenManager {
         return false;
     }
 
+    //the index of the DEDENT that closes the INDENT at the cursor, -1 if the cursor isn't on an INDENT or the tokens end first
+    public int matchingDedent() {
+        int depth = 0;
+        for(int i = currentIndexofToken; available(i); i++){
+            Token.TokenTypes type = tokens instanceof TokenBuffer buffer ? buffer.getType(i - discarded) : tokens.get(i - discarded).getType();
+            if(type == Token.TokenTypes.INDENT){
+                depth++;
+            } else if(depth == 0){
+                return -1;
+            } else if(type == Token.TokenTypes.DEDENT && --depth == 0){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int mark() {
+        return currentIndexofToken;
+    }
+
+    public void reset(int mark) {
+        if(mark < discarded){
+            throw new IllegalStateException("Can't go back to token " + mark + ", it has already been discarded");
+        }
+        currentIndexofToken = mark;
+    }
+
+    //Forget the tokens before the cursor so a streaming parse doesn't keep the whole file. Marks before this are gone.
+    public void discardConsumed() {
+        if(streaming){
+            tokens.subList(0, currentIndexofToken - discarded).clear();
+            discarded = currentIndexofToken;
+        }
+    }
+
     public int getCurrentLine(){
-        return tokens.get(currentIndexofToken).getLineNumber();
+        return get(currentIndexofToken).getLineNumber();
     }
 
     public int getCurrentColumnNumber(){
-        return tokens.get(currentIndexofToken).getColumnNumber();
+        return get(currentIndexofToken).getColumnNumber();
+    }
+
+    //thrown when the lexer finds a syntax error while the parser is pulling tokens
+    public static class LexerException extends RuntimeException {
+        public LexerException(SyntaxErrorException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SyntaxErrorException getCause() {
+            return (SyntaxErrorException) super.getCause();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+import AST.TranCodec;
+import AST.TranNode;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+//Loads a Tran source through the .tranc file next to it (program.tran -> program.tran.tranc). The cache holds the
+//parsed TranNode and the SHA-256 of the source it came from, so as long as the source hasn't changed it is mapped
+//and read back without running the Lexer or the Parser. A missing, stale or damaged cache is parsed again and rewritten.
+public class TranCache {
+    public static final String EXTENSION = ".tranc";
+
+    public static TranNode load(Path source) throws IOException, SyntaxErrorException {
+        byte[] bytes = Files.readAllBytes(source);
+        byte[] hash = hash(bytes);
+        Path cache = cachePath(source);
+        Optional<TranNode> cached = read(cache, hash);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        var tran = new TranNode();
+        new Parser(tran, new Lexer(new String(bytes, StandardCharsets.UTF_8))).Tran();
+        write(cache, tran, hash);
+        return tran;
+    }
+
+    public static Path cachePath(Path source) {
+        return source.resolveSibling(source.getFileName() + EXTENSION);
+    }
+
+    // empty when there is no usable cache for this content
+    public static Optional<TranNode> read(Path cache, byte[] sourceHash) {
+        if (!Files.isRegularFile(cache)) {
+            return Optional.empty();
+        }
+        try (var channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return TranCodec.decode(buffer, sourceHash);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    // written to a temporary file first, so a reader never maps half a cache
+    public static void write(Path cache, TranNode tran, byte[] sourceHash) throws IOException {
+        Path directory = cache.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, cache.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, TranCodec.encode(tran, sourceHash));
+            Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+import AST.*;
+import Interpreter.ConsoleWrite;
+import Interpreter.Interpreter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class TranCacheTests {
+    private static final String FEATURES = """
+            interface shape
+                area() : number a
+                rename(string s, character c)
+            class square implements shape
+                number side
+                string label
+
+                construct(number s)
+                    side = s
+                    label = "sq"
+
+                area() : number a
+                    a = side * side
+
+                helper(number n) : number m, boolean b
+                    number i
+                    character c
+                    m = 0
+                    loop i = n
+                        m = m + i * 3
+                    if not b and m < 4 or m != 9
+                        m = m / 2
+                    else
+                        m = 0 - m
+                    loop b
+                        b = false
+                    c = 'z'
+
+                shared start()
+                    square q
+                    number x
+                    q = new square(3)
+                    x = q.area()
+                    console.write(x, 'c', "done")
+            """;
+
+    private static TranNode parse(String program) throws Exception {
+        var tran = new TranNode();
+        new Parser(tran, new Lexer(program)).Tran();
+        return tran;
+    }
+
+    private static TranNode roundTrip(TranNode tran) throws IOException {
+        byte[] hash = new byte[TranCodec.HASH_LENGTH];
+        return TranCodec.decode(ByteBuffer.wrap(TranCodec.encode(tran, hash)), hash).orElseThrow();
+    }
+
+    private static List<String> run(TranNode tran) {
+        new Interpreter(tran).start();
+        for (var c : tran.Classes) {
+            if (c.name.equals("console")) {
+                for (var m : c.methods) {
+                    if (m.name.equals("write")) {
+                        return ((ConsoleWrite) m).console;
+                    }
+                }
+            }
+        }
+        throw new RuntimeException("Unable to find console");
+    }
+
+    @Test
+    public void RoundTripKeepsTree() throws Exception {
+        var tran = parse(FEATURES);
+        var loaded = roundTrip(tran);
+        Assertions.assertEquals(tran.toString(), loaded.toString());
+        var helper = loaded.Classes.get(0).methods.get(1);
+        Assertions.assertEquals(loaded.symbols().intern("helper"), helper.symbol(loaded.symbols()));
+        var loop = (LoopNode) helper.statements.get(1);
+        Assertions.assertEquals(loaded.symbols().intern("i"), loop.assignment.orElseThrow().symbol(loaded.symbols()));
+        Assertions.assertEquals(Character.valueOf('z'), ((CharLiteralNode) ((AssignmentNode) helper.statements.get(4)).expression).value);
+    }
+
+    @Test
+    public void RoundTripKeepsNullsAndOptionals() throws Exception {
+        var tran = new TranNode();
+        var classNode = new ClassNode();
+        classNode.setName("holder", tran.symbols(), tran.symbols().intern("holder"));
+        var member = new MemberNode();
+        member.declaration = new VariableDeclarationNode();
+        member.declaration.type = "number";
+        member.declaration.name = "value";
+        var read = new AssignmentNode();
+        read.target = new VariableReferenceNode();
+        read.target.setName("value", tran.symbols(), tran.symbols().intern("value"));
+        read.expression = new NumericLiteralNode();
+        member.accessor = Optional.of(List.of(read));
+        member.mutator = null;
+        classNode.members.add(member);
+        var method = new MethodDeclarationNode();
+        method.setName("check", tran.symbols(), tran.symbols().intern("check"));
+        var ifNode = new IfNode();
+        ifNode.condition = new BooleanOpNode(); // op, left and right left null, the way the parser leaves a lone term
+        ifNode.elseStatement = null;
+        method.statements.add(ifNode);
+        classNode.methods.add(method);
+        tran.Classes.add(classNode);
+
+        var loaded = roundTrip(tran);
+        var loadedMember = loaded.Classes.get(0).members.get(0);
+        Assertions.assertEquals("value", loadedMember.declaration.name);
+        Assertions.assertEquals(read.toString(), loadedMember.accessor.orElseThrow().get(0).toString());
+        Assertions.assertNull(loadedMember.mutator);
+        var loadedIf = (IfNode) loaded.Classes.get(0).methods.get(0).statements.get(0);
+        Assertions.assertNull(loadedIf.statements);
+        Assertions.assertNull(loadedIf.elseStatement);
+        var condition = (BooleanOpNode) loadedIf.condition;
+        Assertions.assertNull(condition.op);
+        Assertions.assertNull(condition.left);
+    }
+
+    @Test
+    public void LoadedCorpusRunsTheSame() throws Exception {
+        for (Map.Entry<String, String> program : BenchmarkPrograms.corpus().entrySet()) {
+            var expected = run(parse(program.getValue()));
+            var loaded = roundTrip(parse(program.getValue()));
+            Assertions.assertEquals(expected, run(loaded), program.getKey());
+        }
+    }
+
+    @Test
+    public void CacheFileIsUsedUntilSourceChanges(@TempDir Path directory) throws Exception {
+        Path source = directory.resolve("square.tran");
+        Files.writeString(source, FEATURES);
+        Path cache = TranCache.cachePath(source);
+        Assertions.assertEquals(directory.resolve("square.tran.tranc"), cache);
+
+        var first = TranCache.load(source);
+        Assertions.assertTrue(Files.exists(cache));
+        Assertions.assertEquals(parse(FEATURES).toString(), first.toString());
+        byte[] hash = TranCache.hash(Files.readAllBytes(source));
+        Assertions.assertTrue(TranCache.read(cache, hash).isPresent());
+
+        String edited = FEATURES.replace("x = q.area()", "x = q.area() + 1");
+        Files.writeString(source, edited);
+        Assertions.assertTrue(TranCache.read(cache, TranCache.hash(Files.readAllBytes(source))).isEmpty(), "stale cache");
+        Assertions.assertEquals(parse(edited).toString(), TranCache.load(source).toString());
+        Assertions.assertTrue(TranCache.read(cache, TranCache.hash(Files.readAllBytes(source))).isPresent(), "rewritten");
+    }
+
+    @Test
+    public void DamagedCacheIsParsedAgain(@TempDir Path directory) throws Exception {
+        Path source = directory.resolve("square.tran");
+        Files.writeString(source, FEATURES);
+        TranCache.load(source);
+        Path cache = TranCache.cachePath(source);
+        byte[] bytes = Files.readAllBytes(cache);
+        Files.write(cache, Arrays.copyOf(bytes, bytes.length / 2));
+
+        byte[] hash = TranCache.hash(Files.readAllBytes(source));
+        Assertions.assertThrows(IOException.class, () -> TranCodec.decode(ByteBuffer.wrap(Files.readAllBytes(cache)), hash));
+        Assertions.assertEquals(parse(FEATURES).toString(), TranCache.load(source).toString());
+        Assertions.assertArrayEquals(bytes, Files.readAllBytes(cache));
+    }
+}
@@ -0,0 +1,706 @@
+package VM;
+
+import AST.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+// Compiles a TranNode to register bytecode for the VirtualMachine. Every variable has a static type from its
+// declaration, so each operation is compiled to the opcode for its types (float arithmetic, string concatenation,
+// compares that branch) and type errors are found here instead of when the code runs. Each local, parameter and
+// return value gets its own register for the whole method; expressions work in temporary registers above them.
+// A class whose methods are all built in (the console an Interpreter adds) is left out: console.write compiles to
+// the WRITE instruction.
+public final class BytecodeCompiler {
+    private final List<CompiledClass> classes = new ArrayList<>();
+    private final HashMap<String, CompiledClass> classByName = new HashMap<>();
+    private final HashMap<String, InterfaceNode> interfaces = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final HashMap<String, Integer> stringIndex = new HashMap<>();
+    private final List<Program.CallSite> sites = new ArrayList<>();
+    private final List<Body> bodies = new ArrayList<>();
+
+    // what one CompiledMethod is compiled from. Method and constructor bodies are read when they're compiled, a lazily
+    // parsed tree parses them then
+    private static final class Body {
+        final CompiledMethod method;
+        final List<VariableDeclarationNode> parameters;
+        final List<VariableDeclarationNode> returns;
+        final Node source;
+        final List<StatementNode> statements;
+        final String accessorOf; // the member an accessor starts value out as
+
+        Body(CompiledMethod method, List<VariableDeclarationNode> parameters, List<VariableDeclarationNode> returns,
+             Node source, List<StatementNode> statements, String accessorOf) {
+            this.method = method;
+            this.parameters = parameters;
+            this.returns = returns;
+            this.source = source;
+            this.statements = statements;
+            this.accessorOf = accessorOf;
+        }
+
+        List<VariableDeclarationNode> locals() {
+            if (source instanceof MethodDeclarationNode m) {
+                m.ensureParsed();
+                return m.locals;
+            } else if (source instanceof ConstructorNode c) {
+                c.ensureParsed();
+                return c.locals;
+            }
+            return List.of();
+        }
+
+        List<StatementNode> statements() {
+            if (source instanceof MethodDeclarationNode m) {
+                m.ensureParsed();
+                return m.statements;
+            } else if (source instanceof ConstructorNode c) {
+                c.ensureParsed();
+                return c.statements;
+            }
+            return statements;
+        }
+    }
+
+    // a register, or with member set the slot of a member of this
+    private record Reg(Type type, String className, int index, boolean member) {
+        int encoded() {
+            return type.isReference() ? ~index : index;
+        }
+    }
+
+    private BytecodeCompiler() {
+    }
+
+    public static Program compile(TranNode tran) {
+        var compiler = new BytecodeCompiler();
+        for (InterfaceNode i : tran.Interfaces) {
+            compiler.interfaces.put(i.name, i);
+        }
+        for (ClassNode c : tran.Classes) {
+            if (!c.methods.isEmpty() && c.methods.stream().allMatch(m -> m instanceof BuiltInMethodDeclarationNode)) {
+                continue;
+            }
+            compiler.declare(c);
+        }
+        for (Body body : compiler.bodies) {
+            compiler.new MethodCompiler(body).compile();
+        }
+        return new Program(List.copyOf(compiler.classes), compiler.strings.toArray(new String[0]),
+                compiler.sites.toArray(new Program.CallSite[0]));
+    }
+
+    private void declare(ClassNode c) {
+        if (classByName.containsKey(c.name)) {
+            throw new RuntimeException("Class " + c.name + " declared twice");
+        }
+        var compiled = new CompiledClass(c.name, classes.size());
+        classes.add(compiled);
+        classByName.put(c.name, compiled);
+        int references = 0;
+        var initial = new ArrayList<>();
+        var initialNumbers = new ArrayList<Float>();
+        for (MemberNode m : c.members) {
+            Type type = Type.of(m.declaration.type);
+            if (compiled.member(m.declaration.name) >= 0) {
+                throw new RuntimeException("Member " + m.declaration.name + " declared twice in class " + c.name);
+            }
+            compiled.memberNames.add(m.declaration.name);
+            compiled.memberTypes.add(type);
+            compiled.memberClasses.add(m.declaration.type);
+            if (type.isReference()) {
+                compiled.memberSlots.add(references++);
+                initial.add(type == Type.STRING ? "" : null);
+            } else {
+                compiled.memberSlots.add(initialNumbers.size());
+                initialNumbers.add(type == Type.CHARACTER ? ' ' : 0f);
+            }
+        }
+        compiled.numbers = new float[initialNumbers.size()];
+        for (int i = 0; i < compiled.numbers.length; i++) {
+            compiled.numbers[i] = initialNumbers.get(i);
+        }
+        compiled.references = initial.toArray();
+        for (MethodDeclarationNode m : c.methods) {
+            var method = new CompiledMethod(compiled, m.name, m.isShared, types(m.parameters), types(m.returns));
+            compiled.methods.add(method);
+            compiled.byKey.putIfAbsent(method.key(), method);
+            bodies.add(new Body(method, m.parameters, m.returns, m, null, null));
+        }
+        for (ConstructorNode k : c.constructors) {
+            var constructor = new CompiledMethod(compiled, "construct", false, types(k.parameters), List.of());
+            compiled.constructors.add(constructor);
+            bodies.add(new Body(constructor, k.parameters, List.of(), k, null, null));
+        }
+        for (MemberNode m : c.members) {
+            var value = new VariableDeclarationNode();
+            value.type = m.declaration.type;
+            value.name = "value";
+            if (m.accessor != null && m.accessor.isPresent()) {
+                var accessor = new CompiledMethod(compiled, m.declaration.name, false, List.of(), List.of(Type.of(value.type)));
+                compiled.methods.add(accessor);
+                compiled.byKey.putIfAbsent(accessor.key(), accessor);
+                bodies.add(new Body(accessor, List.of(), List.of(value), null, m.accessor.get(), m.declaration.name));
+            }
+            if (m.mutator != null && m.mutator.isPresent()) {
+                var mutator = new CompiledMethod(compiled, m.declaration.name, false, List.of(Type.of(value.type)), List.of());
+                compiled.methods.add(mutator);
+                compiled.byKey.putIfAbsent(mutator.key(), mutator);
+                bodies.add(new Body(mutator, List.of(value), List.of(), null, m.mutator.get(), null));
+            }
+        }
+    }
+
+    private static List<Type> types(List<VariableDeclarationNode> declarations) {
+        return declarations.stream().map(d -> Type.of(d.type)).toList();
+    }
+
+    private int string(String s) {
+        return stringIndex.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    private final class MethodCompiler {
+        private final Body body;
+        private final CompiledMethod method;
+        private final CompiledClass owner;
+        private final HashMap<String, Reg> variables = new HashMap<>();
+        private final List<Integer> strings = new ArrayList<>(); // r registers of string variables
+        private final List<Integer> characters = new ArrayList<>(); // n registers of character variables
+        private int[] code = new int[64];
+        private int pc;
+        private int numbers;
+        private int references;
+        private int maxNumbers;
+        private int maxReferences;
+
+        MethodCompiler(Body body) {
+            this.body = body;
+            this.method = body.method;
+            this.owner = method.owner;
+        }
+
+        void compile() {
+            method.parameters = declare(body.parameters);
+            method.returns = declare(body.returns);
+            declare(body.locals());
+            if (body.accessorOf != null) {
+                store(body.returns.get(0).name, load(member(body.accessorOf)));
+            }
+            block(body.statements());
+            emit(Op.RET);
+            emitList(method.returns);
+            method.code = Arrays.copyOf(code, pc);
+            method.numbers = new float[maxNumbers];
+            for (int n : characters) {
+                method.numbers[n] = ' '; // what Interpreter.instantiate() gives a character
+            }
+            method.references = new Object[maxReferences];
+            for (int r : strings) {
+                method.references[r] = "";
+            }
+        }
+
+        private int[] declare(List<VariableDeclarationNode> declarations) {
+            if (declarations == null) {
+                return new int[0];
+            }
+            int[] registers = new int[declarations.size()];
+            for (int i = 0; i < registers.length; i++) {
+                VariableDeclarationNode d = declarations.get(i);
+                if (variables.containsKey(d.name)) {
+                    throw new RuntimeException("Variable " + d.name + " declared twice in " + method);
+                }
+                Reg reg = temp(Type.of(d.type), d.type);
+                if (reg.type == Type.STRING) {
+                    strings.add(reg.index);
+                } else if (reg.type == Type.CHARACTER) {
+                    characters.add(reg.index);
+                }
+                variables.put(d.name, reg);
+                registers[i] = reg.encoded();
+            }
+            return registers;
+        }
+
+        private Reg temp(Type type, String className) {
+            Reg reg;
+            if (type.isReference()) {
+                reg = new Reg(type, className, references++, false);
+                maxReferences = Math.max(maxReferences, references);
+            } else {
+                reg = new Reg(type, className, numbers++, false);
+                maxNumbers = Math.max(maxNumbers, numbers);
+            }
+            return reg;
+        }
+
+        private void emit(int... values) {
+            for (int v : values) {
+                if (pc == code.length) {
+                    code = Arrays.copyOf(code, code.length * 2);
+                }
+                code[pc++] = v;
+            }
+        }
+
+        private void emitList(int[] registers) {
+            emit(registers.length);
+            emit(registers);
+        }
+
+        // emits a jump target to fill in later, returns where it is
+        private int hole() {
+            emit(-1);
+            return pc - 1;
+        }
+
+        private void patch(List<Integer> holes) {
+            for (int h : holes) {
+                code[h] = pc;
+            }
+        }
+
+        private void block(List<StatementNode> statements) {
+            if (statements == null) {
+                return;
+            }
+            for (StatementNode s : statements) {
+                int n = numbers;
+                int r = references;
+                statement(s);
+                numbers = n;
+                references = r;
+            }
+        }
+
+        private void statement(StatementNode s) {
+            if (s instanceof AssignmentNode a) {
+                store(a.target.name, expression(a.expression));
+            } else if (s instanceof MethodCallStatementNode m) {
+                List<Reg> values = call(m.objectName, m.methodName, m.parameters, m.returnValues.size());
+                for (int i = 0; i < values.size(); i++) {
+                    store(m.returnValues.get(i).name, values.get(i));
+                }
+            } else if (s instanceof IfNode i) {
+                var otherwise = new ArrayList<Integer>();
+                jump(i.condition, false, otherwise);
+                block(i.statements);
+                if (i.elseStatement != null && i.elseStatement.isPresent()) {
+                    emit(Op.JMP);
+                    int end = hole();
+                    patch(otherwise);
+                    block(i.elseStatement.get().statements);
+                    patch(List.of(end));
+                } else {
+                    patch(otherwise);
+                }
+            } else if (s instanceof LoopNode loop) {
+                loop(loop);
+            } else {
+                throw new RuntimeException("Unable to compile " + s);
+            }
+        }
+
+        // n.times() counts 1 to n (the count is taken once, before the first time round), anything else is a
+        // boolean the loop runs while; an assigned loop variable gets the count or the condition each time round
+        private void loop(LoopNode loop) {
+            Optional<VariableReferenceNode> assignment = loop.assignment == null ? Optional.empty() : loop.assignment;
+            var exits = new ArrayList<Integer>();
+            if (loop.expression instanceof MethodCallExpressionNode m && m.methodName.equals("times")
+                    && m.objectName.isPresent() && m.parameters.isEmpty()) {
+                Reg limit = temp(Type.NUMBER, "number");
+                Reg count = temp(Type.NUMBER, "number");
+                Reg one = temp(Type.NUMBER, "number");
+                Reg n = load(variable(m.objectName.get()));
+                if (n.type != Type.NUMBER) {
+                    throw new RuntimeException("times() needs a number, " + m.objectName.get() + " is " + n.className);
+                }
+                emit(Op.NMOV, limit.index, n.index);
+                emit(Op.NCONST, count.index, Float.floatToIntBits(1));
+                emit(Op.NCONST, one.index, Float.floatToIntBits(1));
+                int top = pc;
+                emit(Op.JGT, count.index, limit.index);
+                exits.add(hole());
+                assignment.ifPresent(v -> store(v.name, count));
+                block(loop.statements);
+                emit(Op.ADD, count.index, count.index, one.index);
+                emit(Op.JMP, top);
+            } else {
+                int top = pc;
+                if (assignment.isPresent()) {
+                    int n = numbers;
+                    int r = references;
+                    Reg condition = expression(loop.expression);
+                    store(assignment.get().name, condition);
+                    emit(Op.JF, condition.index);
+                    exits.add(hole());
+                    numbers = n;
+                    references = r;
+                } else {
+                    jump(loop.expression, false, exits);
+                }
+                block(loop.statements);
+                emit(Op.JMP, top);
+            }
+            patch(exits);
+        }
+
+        // a local or parameter, else a member of the class
+        private Reg variable(String name) {
+            Reg reg = variables.get(name);
+            if (reg != null) {
+                return reg;
+            }
+            return member(name);
+        }
+
+        private Reg member(String name) {
+            int i = owner.member(name);
+            if (i < 0) {
+                throw new RuntimeException("Unable to find variable " + name + " in " + method);
+            }
+            if (method.shared) {
+                throw new RuntimeException("Member " + name + " used in shared method " + method);
+            }
+            return new Reg(owner.memberTypes.get(i), owner.memberClasses.get(i), owner.memberSlots.get(i), true);
+        }
+
+        // a member read into a temporary register, anything else as it is
+        private Reg load(Reg reg) {
+            if (!reg.member) {
+                return reg;
+            }
+            Reg value = temp(reg.type, reg.className);
+            emit(reg.type.isReference() ? Op.GETR : Op.GETN, value.index, reg.index);
+            return value;
+        }
+
+        private void store(String name, Reg value) {
+            Reg target = variable(name);
+            if (target.type != value.type) {
+                throw new RuntimeException("Unable to assign " + value.className + " to " + name + " of type " + target.className);
+            }
+            if (target.member) {
+                emit(target.type.isReference() ? Op.PUTR : Op.PUTN, target.index, value.index);
+            } else if (target.index != value.index) {
+                emit(target.type.isReference() ? Op.RMOV : Op.NMOV, target.index, value.index);
+            }
+        }
+
+        private Reg expression(ExpressionNode e) {
+            if (e instanceof NumericLiteralNode n) {
+                Reg reg = temp(Type.NUMBER, "number");
+                emit(Op.NCONST, reg.index, Float.floatToIntBits(n.value));
+                return reg;
+            } else if (e instanceof BooleanLiteralNode b) {
+                Reg reg = temp(Type.BOOLEAN, "boolean");
+                emit(Op.NCONST, reg.index, Float.floatToIntBits(b.value ? 1 : 0));
+                return reg;
+            } else if (e instanceof CharLiteralNode c) {
+                Reg reg = temp(Type.CHARACTER, "character");
+                emit(Op.NCONST, reg.index, Float.floatToIntBits(c.value));
+                return reg;
+            } else if (e instanceof StringLiteralNode s) {
+                Reg reg = temp(Type.STRING, "string");
+                emit(Op.SCONST, reg.index, string(s.value));
+                return reg;
+            } else if (e instanceof VariableReferenceNode v) {
+                return load(variable(v.name));
+            } else if (e instanceof MathOpNode m) {
+                return math(m);
+            } else if (e instanceof CompareNode || e instanceof BooleanOpNode b && b.right == null) {
+                Reg reg = temp(Type.BOOLEAN, "boolean");
+                emit(Op.NCONST, reg.index, Float.floatToIntBits(1));
+                var isTrue = new ArrayList<Integer>();
+                jump(e, true, isTrue);
+                emit(Op.NCONST, reg.index, Float.floatToIntBits(0));
+                patch(isTrue);
+                return reg;
+            } else if (e instanceof BooleanOpNode b) {
+                Reg left = booleanValue(b.left);
+                Reg right = booleanValue(b.right);
+                Reg reg = temp(Type.BOOLEAN, "boolean");
+                emit(b.op == BooleanOpNode.BooleanOperations.and ? Op.AND : Op.OR, reg.index, left.index, right.index);
+                return reg;
+            } else if (e instanceof NotOpNode n) {
+                Reg operand = booleanValue(n.left);
+                Reg reg = temp(Type.BOOLEAN, "boolean");
+                emit(Op.NOT, reg.index, operand.index);
+                return reg;
+            } else if (e instanceof MethodCallExpressionNode m) {
+                List<Reg> values = call(m.objectName, m.methodName, m.parameters, 1);
+                return values.get(0);
+            } else if (e instanceof NewNode n) {
+                return newObject(n);
+            }
+            throw new RuntimeException("Unable to compile " + e);
+        }
+
+        private Reg booleanValue(ExpressionNode e) {
+            Reg reg = expression(e);
+            if (reg.type != Type.BOOLEAN) {
+                throw new RuntimeException("Expected a boolean, " + e + " is " + reg.className);
+            }
+            return reg;
+        }
+
+        private Reg math(MathOpNode m) {
+            Reg left = expression(m.left);
+            Reg right = expression(m.right);
+            if (m.op == MathOpNode.MathOperations.add && (left.type == Type.STRING || right.type == Type.STRING)) {
+                Reg reg = temp(Type.STRING, "string");
+                emit(Op.CONCAT, reg.index, text(left).index, text(right).index);
+                return reg;
+            }
+            if (left.type != Type.NUMBER || right.type != Type.NUMBER) {
+                throw new RuntimeException("Unable to do math on " + left.className + " and " + right.className + " in " + m);
+            }
+            Reg reg = temp(Type.NUMBER, "number");
+            int op = switch (m.op) {
+                case add -> Op.ADD;
+                case subtract -> Op.SUB;
+                case multiply -> Op.MUL;
+                case divide -> Op.DIV;
+                case modulo -> Op.MOD;
+            };
+            emit(op, reg.index, left.index, right.index);
+            return reg;
+        }
+
+        // the value as a string, the way console.write shows it
+        private Reg text(Reg value) {
+            if (value.type == Type.STRING) {
+                return value;
+            }
+            Reg reg = temp(Type.STRING, "string");
+            int op = switch (value.type) {
+                case NUMBER -> Op.NSTR;
+                case BOOLEAN -> Op.BSTR;
+                case CHARACTER -> Op.CSTR;
+                default -> Op.RSTR;
+            };
+            emit(op, reg.index, value.index);
+            return reg;
+        }
+
+        // jumps to a hole added to holes when condition is when, falls through otherwise
+        private void jump(ExpressionNode condition, boolean when, List<Integer> holes) {
+            int n = numbers;
+            int r = references;
+            if (condition instanceof CompareNode c) {
+                Reg left = expression(c.left);
+                Reg right = expression(c.right);
+                int op = compare(c, left, right);
+                emit(when ? op : Op.negate(op), left.index, right.index);
+            } else if (condition instanceof BooleanOpNode b && b.right == null) {
+                jump(b.left, when, holes);
+                return;
+            } else {
+                Reg value = booleanValue(condition);
+                emit(when ? Op.JT : Op.JF, value.index);
+            }
+            holes.add(hole());
+            numbers = n;
+            references = r;
+        }
+
+        private int compare(CompareNode c, Reg left, Reg right) {
+            if (left.type != right.type) {
+                throw new RuntimeException("Unable to compare " + left.className + " and " + right.className + " in " + c);
+            }
+            boolean equality = c.op == CompareNode.CompareOperations.eq || c.op == CompareNode.CompareOperations.ne;
+            if (left.type == Type.STRING || left.type == Type.OBJECT || left.type == Type.BOOLEAN) {
+                if (!equality) {
+                    throw new RuntimeException("Only == and != compare " + left.className + " values, in " + c);
+                }
+                boolean eq = c.op == CompareNode.CompareOperations.eq;
+                return switch (left.type) {
+                    case STRING -> eq ? Op.JSEQ : Op.JSNE;
+                    case OBJECT -> eq ? Op.JREQ : Op.JRNE;
+                    default -> eq ? Op.JEQ : Op.JNE;
+                };
+            }
+            return switch (c.op) {
+                case lt -> Op.JLT;
+                case le -> Op.JLE;
+                case gt -> Op.JGT;
+                case ge -> Op.JGE;
+                case eq -> Op.JEQ;
+                case ne -> Op.JNE;
+            };
+        }
+
+        private List<Reg> arguments(List<ExpressionNode> parameters, List<Type> expected, String what) {
+            if (parameters.size() != expected.size()) {
+                throw new RuntimeException(what + " takes " + expected.size() + " parameters, not " + parameters.size());
+            }
+            var values = new ArrayList<Reg>();
+            for (int i = 0; i < parameters.size(); i++) {
+                Reg value = argument(parameters.get(i), expected.get(i));
+                if (value.type != expected.get(i)) {
+                    throw new RuntimeException("Parameter " + (i + 1) + " of " + what + " is " + value.className);
+                }
+                values.add(value);
+            }
+            return values;
+        }
+
+        // new's parameters are parsed as variable references whatever the token was, the way the Interpreter's
+        // constructor call reads them: a name that isn't a variable is a literal of the parameter's type
+        private Reg argument(ExpressionNode e, Type expected) {
+            if (!(e instanceof VariableReferenceNode v) || variables.containsKey(v.name) || owner.member(v.name) >= 0) {
+                return expression(e);
+            }
+            Reg reg = temp(expected, expected.name().toLowerCase());
+            switch (expected) {
+                case STRING -> emit(Op.SCONST, reg.index, string(v.name));
+                case NUMBER -> {
+                    try {
+                        emit(Op.NCONST, reg.index, Float.floatToIntBits(Float.parseFloat(v.name)));
+                    } catch (NumberFormatException ex) {
+                        throw new RuntimeException("Unable to find variable " + v.name + " in " + method);
+                    }
+                }
+                case CHARACTER -> emit(Op.NCONST, reg.index, Float.floatToIntBits(v.name.charAt(0)));
+                default -> throw new RuntimeException("Unable to find variable " + v.name + " in " + method);
+            }
+            return reg;
+        }
+
+        private void emitRegisters(List<Reg> registers) {
+            emit(registers.size());
+            for (Reg reg : registers) {
+                emit(reg.encoded());
+            }
+        }
+
+        private Reg newObject(NewNode n) {
+            CompiledClass c = classByName.get(n.className);
+            if (c == null) {
+                throw new RuntimeException("Unable to find class " + n.className);
+            }
+            int constructor = -1;
+            List<Type> parameters = List.of();
+            for (int i = 0; i < c.constructors.size(); i++) {
+                if (c.constructors.get(i).parameterTypes.size() == n.parameters.size()) {
+                    constructor = i;
+                    parameters = c.constructors.get(i).parameterTypes;
+                    break;
+                }
+            }
+            if (constructor < 0 && !(c.constructors.isEmpty() && n.parameters.isEmpty())) {
+                throw new RuntimeException("Unable to find a constructor for " + n);
+            }
+            List<Reg> values = arguments(n.parameters, parameters, n.toString());
+            Reg reg = temp(Type.OBJECT, n.className);
+            emit(Op.NEW, reg.index, c.index, constructor);
+            emitRegisters(values);
+            return reg;
+        }
+
+        // the first wanted return values of the call, in temporary registers
+        private List<Reg> call(Optional<String> objectName, String name, List<ExpressionNode> parameters, int wanted) {
+            String object = objectName == null ? null : objectName.orElse(null);
+            String key = CompiledMethod.key(name, parameters.size());
+            if ("console".equals(object) && name.equals("write") && !variables.containsKey(object) && owner.member(object) < 0) {
+                if (wanted > 0) {
+                    throw new RuntimeException("console.write has no return values");
+                }
+                var values = new ArrayList<Reg>();
+                for (ExpressionNode p : parameters) {
+                    values.add(expression(p));
+                }
+                emit(Op.WRITE, values.size());
+                for (Reg value : values) {
+                    emit(value.type.ordinal(), value.index);
+                }
+                return List.of();
+            }
+            CompiledMethod target = null;
+            List<Type> parameterTypes;
+            List<Type> returnTypes;
+            List<String> returnClasses;
+            Reg receiver = null;
+            if (object != null && (variables.containsKey(object) || owner.member(object) >= 0)) {
+                receiver = load(variable(object));
+                if (receiver.type != Type.OBJECT) {
+                    throw new RuntimeException("Unable to call " + name + " on " + object + ", a " + receiver.className);
+                }
+                CompiledClass c = classByName.get(receiver.className);
+                if (c != null) {
+                    target = c.byKey.get(key);
+                    if (target == null) {
+                        throw new RuntimeException("Unable to find method " + name + " in class " + c.name);
+                    }
+                    parameterTypes = target.parameterTypes;
+                    returnTypes = target.returnTypes;
+                    returnClasses = returnClasses(target);
+                } else {
+                    InterfaceNode i = interfaces.get(receiver.className);
+                    if (i == null) {
+                        throw new RuntimeException("Unable to find class " + receiver.className);
+                    }
+                    MethodHeaderNode header = i.methods.stream()
+                            .filter(h -> h.name.equals(name) && h.parameters.size() == parameters.size())
+                            .findFirst()
+                            .orElseThrow(() -> new RuntimeException("Unable to find method " + name + " in interface " + i.name));
+                    parameterTypes = types(header.parameters);
+                    returnTypes = types(header.returns);
+                    returnClasses = header.returns.stream().map(d -> d.type).toList();
+                }
+            } else {
+                CompiledClass c = object == null ? owner : classByName.get(object);
+                if (c == null) {
+                    throw new RuntimeException("Unable to find " + object);
+                }
+                target = c.byKey.get(key);
+                if (target == null) {
+                    throw new RuntimeException("Unable to find method " + name + " in class " + c.name);
+                }
+                if (!target.shared && (object != null || method.shared)) {
+                    throw new RuntimeException("Method " + target + " needs an object to call it on");
+                }
+                parameterTypes = target.parameterTypes;
+                returnTypes = target.returnTypes;
+                returnClasses = returnClasses(target);
+            }
+            if (wanted > returnTypes.size()) {
+                throw new RuntimeException(name + " returns " + returnTypes.size() + " values, not " + wanted);
+            }
+            List<Reg> values = arguments(parameters, parameterTypes, name);
+            var results = new ArrayList<Reg>();
+            for (int i = 0; i < wanted; i++) {
+                results.add(temp(returnTypes.get(i), returnClasses.get(i)));
+            }
+            if (target != null && target.shared) {
+                emit(Op.INVOKES, target.owner.index, target.owner.methods.indexOf(target));
+            } else {
+                emit(Op.INVOKE, receiver == null ? -1 : receiver.index, site(key));
+            }
+            emitRegisters(values);
+            emitRegisters(results);
+            return results;
+        }
+
+        private List<String> returnClasses(CompiledMethod target) {
+            for (Body b : bodies) {
+                if (b.method == target) {
+                    return b.returns.stream().map(d -> d.type).toList();
+                }
+            }
+            return target.returnTypes.stream().map(t -> t.name().toLowerCase()).toList();
+        }
+
+        private int site(String key) {
+            sites.add(new Program.CallSite(key));
+            return sites.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package VM;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+// Just enough of the JVM class file format for JvmBackend: a constant pool, static fields and static methods with a
+// Code attribute. The class files are version 49 (Java 5), which the JVM still checks with the type inferring
+// verifier, so the code needs no StackMapTable frames.
+final class ClassFileWriter {
+    static final int PUBLIC = 0x0001;
+    static final int STATIC = 0x0008;
+    static final int FINAL = 0x0010;
+    static final int SUPER = 0x0020;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final HashMap<String, Integer> constants = new HashMap<>();
+    private int constantCount = 1;
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<byte[]> methods = new ArrayList<>();
+    private final int thisClass;
+    private final int superClass;
+
+    ClassFileWriter(String name) {
+        thisClass = classRef(name);
+        superClass = classRef("java/lang/Object");
+    }
+
+    private int constant(String key, int tag, Writer body) {
+        Integer retVal = constants.get(key);
+        if (retVal != null) {
+            return retVal;
+        }
+        try {
+            poolOut.writeByte(tag);
+            body.write(poolOut);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        constants.put(key, constantCount);
+        return constantCount++;
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    int utf8(String s) {
+        return constant("U" + s, 1, out -> out.writeUTF(s));
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("C" + internalName, 7, out -> out.writeShort(name));
+    }
+
+    int string(String s) {
+        int value = utf8(s);
+        return constant("S" + s, 8, out -> out.writeShort(value));
+    }
+
+    int floatConstant(float f) {
+        return constant("F" + Float.floatToRawIntBits(f), 4, out -> out.writeFloat(f));
+    }
+
+    int intConstant(int i) {
+        return constant("I" + i, 3, out -> out.writeInt(i));
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int n = utf8(name);
+        int d = utf8(descriptor);
+        return constant("N" + name + ":" + descriptor, 12, out -> {
+            out.writeShort(n);
+            out.writeShort(d);
+        });
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        int c = classRef(owner);
+        int nt = nameAndType(name, descriptor);
+        return constant("f" + owner + "." + name + ":" + descriptor, 9, out -> {
+            out.writeShort(c);
+            out.writeShort(nt);
+        });
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        int c = classRef(owner);
+        int nt = nameAndType(name, descriptor);
+        return constant("m" + owner + "." + name + descriptor, 10, out -> {
+            out.writeShort(c);
+            out.writeShort(nt);
+        });
+    }
+
+    void field(int access, String name, String descriptor) {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        fields.add(bytes.toByteArray());
+    }
+
+    void method(int access, String name, String descriptor, Code code) {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            byte[] instructions = code.bytes();
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + instructions.length);
+            out.writeShort(code.maxStack);
+            out.writeShort(code.maxLocals);
+            out.writeInt(instructions.length);
+            out.write(instructions);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        methods.add(bytes.toByteArray());
+    }
+
+    byte[] toByteArray() {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(constantCount);
+            out.write(pool.toByteArray());
+            out.writeShort(PUBLIC | FINAL | SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(fields.size());
+            for (byte[] f : fields) {
+                out.write(f);
+            }
+            out.writeShort(methods.size());
+            for (byte[] m : methods) {
+                out.write(m);
+            }
+            out.writeShort(0); // attributes
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // The instructions of one method. Branches are to labels, made with label() and placed with place(); the
+    // offsets are filled in by bytes(). The caller says how deep the operand stack gets and how many locals it uses
+    static final class Code {
+        private byte[] code = new byte[256];
+        private int length;
+        private final List<Integer> labels = new ArrayList<>();
+        private final List<int[]> branches = new ArrayList<>(); // {instruction start, offset position, label, width}
+        int maxStack;
+        int maxLocals;
+
+        int length() {
+            return length;
+        }
+
+        void u1(int b) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            code[length++] = (byte) b;
+        }
+
+        void u2(int s) {
+            u1(s >> 8);
+            u1(s);
+        }
+
+        void u4(int i) {
+            u2(i >> 16);
+            u2(i);
+        }
+
+        void op(int opcode, int operand) {
+            u1(opcode);
+            u2(operand);
+        }
+
+        // a local variable instruction (xLOAD or xSTORE), wide when the slot needs it
+        void local(int opcode, int slot) {
+            if (slot > 255) {
+                u1(0xC4); // wide
+                u1(opcode);
+                u2(slot);
+            } else {
+                u1(opcode);
+                u1(slot);
+            }
+        }
+
+        void pushInt(int i) {
+            if (i >= -1 && i <= 5) {
+                u1(0x03 + i); // iconst_<i>
+            } else if (i >= Byte.MIN_VALUE && i <= Byte.MAX_VALUE) {
+                u1(0x10);
+                u1(i);
+            } else if (i >= Short.MIN_VALUE && i <= Short.MAX_VALUE) {
+                u1(0x11);
+                u2(i);
+            } else {
+                throw new IllegalArgumentException("constant too big: " + i);
+            }
+        }
+
+        int label() {
+            labels.add(-1);
+            return labels.size() - 1;
+        }
+
+        void place(int label) {
+            labels.set(label, length);
+        }
+
+        void branch(int opcode, int label) {
+            branches.add(new int[]{length, length + 1, label, 2});
+            u1(opcode);
+            u2(0);
+        }
+
+        // lookupswitch over keys, going to the matching label or to otherwise
+        void lookupSwitch(int[] keys, int[] targets, int otherwise) {
+            int start = length;
+            u1(0xAB);
+            while (length % 4 != 0) {
+                u1(0);
+            }
+            branches.add(new int[]{start, length, otherwise, 4});
+            u4(0);
+            u4(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                u4(keys[i]);
+                branches.add(new int[]{start, length, targets[i], 4});
+                u4(0);
+            }
+        }
+
+        byte[] bytes() {
+            for (int[] b : branches) {
+                int target = labels.get(b[2]);
+                if (target < 0) {
+                    throw new IllegalStateException("label " + b[2] + " never placed");
+                }
+                int offset = target - b[0];
+                if (b[3] == 2) {
+                    if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                        throw new IllegalStateException("branch too far");
+                    }
+                    code[b[1]] = (byte) (offset >> 8);
+                    code[b[1] + 1] = (byte) offset;
+                } else {
+                    code[b[1]] = (byte) (offset >> 24);
+                    code[b[1] + 1] = (byte) (offset >> 16);
+                    code[b[1] + 2] = (byte) (offset >> 8);
+                    code[b[1] + 3] = (byte) offset;
+                }
+            }
+            if (length > 65535) {
+                throw new IllegalStateException("method too big");
+            }
+            return Arrays.copyOf(code, length);
+        }
+    }
+}
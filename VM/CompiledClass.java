@@ -0,0 +1,54 @@
+package VM;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+// A class after BytecodeCompiler: where each member lives in an object (a slot in the n or r bank), and its methods.
+// Methods are found by name and parameter count; an accessor compiles to a method named after its member with no
+// parameters, a mutator to one with the new value as its parameter.
+public final class CompiledClass {
+    public final String name;
+    final int index;
+    final List<String> memberNames = new ArrayList<>();
+    final List<Type> memberTypes = new ArrayList<>();
+    final List<Integer> memberSlots = new ArrayList<>();
+    final List<String> memberClasses = new ArrayList<>();
+    final List<CompiledMethod> methods = new ArrayList<>();
+    final List<CompiledMethod> constructors = new ArrayList<>();
+    final HashMap<String, CompiledMethod> byKey = new HashMap<>();
+    float[] numbers; // what a new object's n members start out as, ' ' for characters
+    Object[] references; // what a new object's r members start out as
+
+    CompiledClass(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    public List<CompiledMethod> methods() {
+        return List.copyOf(methods);
+    }
+
+    public List<CompiledMethod> constructors() {
+        return List.copyOf(constructors);
+    }
+
+    int member(String name) {
+        return memberNames.indexOf(name);
+    }
+
+    // the name of the member in slot of the given bank, for the disassembler
+    String memberAt(int slot, boolean reference) {
+        for (int i = 0; i < memberNames.size(); i++) {
+            if (memberTypes.get(i).isReference() == reference && memberSlots.get(i) == slot) {
+                return memberNames.get(i);
+            }
+        }
+        return "?";
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,45 @@
+package VM;
+
+import java.util.List;
+
+// A method, constructor, accessor or mutator after BytecodeCompiler. Parameters come in first, in the registers
+// listed in parameters; the caller copies the results out of the registers listed in returns once the method has
+// run. Registers are encoded the way an 'a' operand is (n registers as themselves, r registers as ~index).
+public final class CompiledMethod {
+    public final CompiledClass owner;
+    public final String name;
+    public final boolean shared;
+    public final List<Type> parameterTypes;
+    public final List<Type> returnTypes;
+    int[] parameters;
+    int[] returns;
+    int[] code;
+    float[] numbers; // what a new frame's n registers start out as, ' ' for characters
+    Object[] references; // what a new frame's r registers start out as, "" for strings
+
+    CompiledMethod(CompiledClass owner, String name, boolean shared, List<Type> parameterTypes, List<Type> returnTypes) {
+        this.owner = owner;
+        this.name = name;
+        this.shared = shared;
+        this.parameterTypes = parameterTypes;
+        this.returnTypes = returnTypes;
+    }
+
+    // what call sites look a method up by
+    String key() {
+        return key(name, parameterTypes.size());
+    }
+
+    static String key(String name, int parameters) {
+        return name + "/" + parameters;
+    }
+
+    public int[] code() {
+        return code.clone();
+    }
+
+    @Override
+    public String toString() {
+        return owner.name + "." + name;
+    }
+}
@@ -0,0 +1,85 @@
+package VM;
+
+// Prints compiled code one instruction a line, with the pc it starts at:
+//    12  ADD      n3, n1, n2
+// n and r registers are shown with their bank, members of this by name, jumps as -> pc and constants as themselves.
+public final class Disassembler {
+    private Disassembler() {
+    }
+
+    public static String disassemble(Program program) {
+        StringBuilder sb = new StringBuilder();
+        for (CompiledClass c : program.classes) {
+            for (CompiledMethod m : c.constructors) {
+                sb.append(disassemble(program, m));
+            }
+            for (CompiledMethod m : c.methods) {
+                sb.append(disassemble(program, m));
+            }
+        }
+        return sb.toString();
+    }
+
+    public static String disassemble(Program program, CompiledMethod method) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(method.shared ? "shared " : "").append(method).append(" (").append(registers(method.parameters))
+                .append(") : (").append(registers(method.returns)).append(") ")
+                .append(method.numbers.length).append(" n, ").append(method.references.length).append(" r\n");
+        int[] code = method.code;
+        int pc = 0;
+        while (pc < code.length) {
+            int op = code[pc];
+            sb.append(String.format("%6d  %-8s ", pc, Op.NAMES[op]));
+            int at = pc + 1;
+            String format = Op.FORMATS[op];
+            for (int i = 0; i < format.length(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                int operand = code[at];
+                switch (format.charAt(i)) {
+                    case 'n' -> sb.append('n').append(operand);
+                    case 'r' -> sb.append('r').append(operand);
+                    case 'f' -> sb.append(Float.intBitsToFloat(operand));
+                    case 's' -> sb.append('"').append(program.strings[operand]).append('"');
+                    case 'j' -> sb.append("-> ").append(operand);
+                    case 'm' -> sb.append("this.").append(method.owner.memberAt(operand, op == Op.GETR || op == Op.PUTR));
+                    case 'c' -> sb.append(program.classes.get(operand).name);
+                    case 'k' -> sb.append(operand < 0 ? "no constructor" : "constructor " + operand);
+                    case 'M' -> sb.append(program.classes.get(code[at - 1]).methods.get(operand).name);
+                    case 't' -> sb.append(program.sites[operand].key);
+                    case 'x' -> sb.append(operand < 0 ? "this" : "r" + operand);
+                    case 'a' -> {
+                        int[] list = new int[operand];
+                        System.arraycopy(code, at + 1, list, 0, operand);
+                        sb.append('(').append(registers(list)).append(')');
+                        at += operand;
+                    }
+                    case 'w' -> {
+                        sb.append('(');
+                        for (int w = 0; w < operand; w++) {
+                            sb.append(w > 0 ? ", " : "").append(Type.values()[code[at + 1 + 2 * w]].name().toLowerCase())
+                                    .append(' ').append(Type.values()[code[at + 1 + 2 * w]].isReference() ? 'r' : 'n')
+                                    .append(code[at + 2 + 2 * w]);
+                        }
+                        sb.append(')');
+                        at += 2 * operand;
+                    }
+                    default -> throw new IllegalStateException(format);
+                }
+                at++;
+            }
+            sb.append('\n');
+            pc = at;
+        }
+        return sb.toString();
+    }
+
+    private static String registers(int[] encoded) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < encoded.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(encoded[i] >= 0 ? "n" + encoded[i] : "r" + ~encoded[i]);
+        }
+        return sb.toString();
+    }
+}
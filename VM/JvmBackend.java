@@ -0,0 +1,643 @@
+package VM;
+
+import AST.ClassNode;
+import AST.TranNode;
+import Interpreter.ConsoleWrite;
+import Interpreter.Interpreter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+
+// Runs a Tran program as JVM bytecode, so HotSpot compiles the Tran code itself. The program goes through
+// BytecodeCompiler first; each compiled method then becomes a static method of one hidden class, its n registers
+// float locals and its r registers Object locals, and console.write a call to a ConsoleWrite. Objects are VMObjects,
+// calls on an object go through a generated dispatch method per method name and parameter count that switches on
+// the receiver's class.
+// What the backend doesn't cover falls back: a program BytecodeCompiler can't compile runs on the Interpreter, one
+// whose code can't be turned into a class runs on the VirtualMachine. fallback() says which, and why.
+public final class JvmBackend {
+    private static final String NAME = "VM/TranProgram";
+    private static final String OBJECT = "Ljava/lang/Object;";
+    private static final String VMOBJECT = "LVM/VMObject;";
+    private static final String RUNTIME = "VM/JvmRuntime";
+
+    private final TranNode tran;
+    private ConsoleWrite console = new ConsoleWrite();
+    private Program program;
+    private MethodHandle start;
+    private String fallback;
+    private VirtualMachine vm;
+
+    public JvmBackend(TranNode tran) {
+        this.tran = tran;
+        try {
+            program = BytecodeCompiler.compile(tran);
+        } catch (RuntimeException e) {
+            fallback = "Interpreter: " + e.getMessage();
+            return;
+        }
+        try {
+            start = generate();
+        } catch (ReflectiveOperationException | LinkageError | IllegalStateException | IllegalArgumentException e) {
+            fallback = "VirtualMachine: " + e;
+        }
+    }
+
+    public void start() {
+        if (program == null) {
+            var interpreter = new Interpreter(tran); // adds its console class to the end
+            ClassNode consoleClass = tran.Classes.get(tran.Classes.size() - 1);
+            console = (ConsoleWrite) consoleClass.methods.get(0);
+            interpreter.start();
+        } else if (start == null) {
+            vm = new VirtualMachine(program);
+            vm.start();
+        } else {
+            try {
+                start.invokeExact((VMObject) null);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+    }
+
+    // what console.write wrote, whichever way the program ran
+    public List<String> console() {
+        return vm != null ? vm.console : console.console;
+    }
+
+    // empty when the program runs as JVM bytecode, otherwise what it runs on instead and why
+    public Optional<String> fallback() {
+        return Optional.ofNullable(fallback);
+    }
+
+    // the JVM shape of a compiled method: which bank each parameter is in, and its returns
+    private record Shape(boolean[] floatParameters, boolean[] floatReturns) {
+        String descriptor() {
+            StringBuilder sb = new StringBuilder("(").append(VMOBJECT);
+            for (boolean f : floatParameters) {
+                sb.append(f ? "F" : OBJECT);
+            }
+            sb.append(')');
+            if (floatReturns.length == 0) {
+                sb.append('V');
+            } else if (floatReturns.length == 1) {
+                sb.append(floatReturns[0] ? "F" : OBJECT);
+            } else {
+                sb.append("[").append(OBJECT);
+            }
+            return sb.toString();
+        }
+
+        static Shape of(CompiledMethod m) {
+            boolean[] parameters = new boolean[m.parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = m.parameters[i] >= 0;
+            }
+            boolean[] returns = new boolean[m.returns.length];
+            for (int i = 0; i < returns.length; i++) {
+                returns[i] = m.returns[i] >= 0;
+            }
+            return new Shape(parameters, returns);
+        }
+
+        boolean same(Shape other) {
+            return Arrays.equals(floatParameters, other.floatParameters)
+                    && Arrays.equals(floatReturns, other.floatReturns);
+        }
+    }
+
+    private final HashMap<CompiledMethod, String> names = new HashMap<>();
+    private final LinkedHashMap<String, String> dispatchers = new LinkedHashMap<>(); // call site key -> method name
+    private final HashMap<String, Shape> dispatchShapes = new HashMap<>();
+
+    private MethodHandle generate() throws ReflectiveOperationException {
+        CompiledMethod startMethod = null;
+        for (CompiledClass c : program.classes) {
+            for (int i = 0; i < c.methods.size(); i++) {
+                CompiledMethod m = c.methods.get(i);
+                names.put(m, "m" + c.index + "_" + i);
+                if (startMethod == null && m.shared && m.name.equals("start") && m.parameterTypes.isEmpty()) {
+                    startMethod = m;
+                }
+            }
+            for (int i = 0; i < c.constructors.size(); i++) {
+                names.put(c.constructors.get(i), "k" + c.index + "_" + i);
+            }
+        }
+        if (startMethod == null) {
+            throw new IllegalStateException("No shared start() method");
+        }
+        for (Program.CallSite site : program.sites) {
+            if (!dispatchers.containsKey(site.key)) {
+                dispatchers.put(site.key, "d" + dispatchers.size());
+            }
+        }
+        var writer = new ClassFileWriter(NAME);
+        writer.field(ClassFileWriter.STATIC, "classes", "[" + OBJECT);
+        writer.field(ClassFileWriter.STATIC, "console", OBJECT);
+        for (CompiledClass c : program.classes) {
+            for (CompiledMethod m : c.constructors) {
+                writer.method(ClassFileWriter.STATIC, names.get(m), Shape.of(m).descriptor(), new MethodTranslator(writer, m).translate());
+            }
+            for (CompiledMethod m : c.methods) {
+                writer.method(ClassFileWriter.STATIC, names.get(m), Shape.of(m).descriptor(), new MethodTranslator(writer, m).translate());
+            }
+        }
+        for (var entry : dispatchers.entrySet()) {
+            dispatcher(writer, entry.getKey(), entry.getValue());
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(writer.toByteArray(), true);
+        Class<?> hidden = lookup.lookupClass();
+        lookup.findStaticVarHandle(hidden, "classes", Object[].class).set(program.classes.toArray());
+        lookup.findStaticVarHandle(hidden, "console", Object.class).set(console);
+        return lookup.findStatic(hidden, names.get(startMethod), MethodType.methodType(void.class, VMObject.class));
+    }
+
+    // the methods a call site with this key can end up in, which all have to have the same shape
+    private Shape dispatchShape(String key) {
+        Shape retVal = dispatchShapes.get(key);
+        if (retVal != null) {
+            return retVal;
+        }
+        for (CompiledClass c : program.classes) {
+            CompiledMethod m = c.byKey.get(key);
+            if (m == null) {
+                continue;
+            }
+            if (retVal == null) {
+                retVal = Shape.of(m);
+            } else if (!retVal.same(Shape.of(m))) {
+                throw new IllegalStateException("methods " + key + " take or return different types");
+            }
+        }
+        if (retVal == null) {
+            throw new IllegalStateException("no class has a method " + key);
+        }
+        dispatchShapes.put(key, retVal);
+        return retVal;
+    }
+
+    private void dispatcher(ClassFileWriter writer, String key, String name) {
+        Shape shape = dispatchShape(key);
+        var code = new ClassFileWriter.Code();
+        var keys = new ArrayList<Integer>();
+        var targets = new ArrayList<CompiledMethod>();
+        for (CompiledClass c : program.classes) {
+            CompiledMethod m = c.byKey.get(key);
+            if (m != null) {
+                keys.add(c.index);
+                targets.add(m);
+            }
+        }
+        int notNull = code.label();
+        code.local(0x19, 0);
+        code.branch(0xC7, notNull); // ifnonnull
+        code.op(0x13, writer.string(key));
+        code.op(0xB8, writer.methodRef(RUNTIME, "nullReceiver", "(Ljava/lang/String;)Ljava/lang/RuntimeException;"));
+        code.u1(0xBF);
+        code.place(notNull);
+        code.local(0x19, 0);
+        code.op(0xB4, writer.fieldRef("VM/VMObject", "type", "LVM/CompiledClass;"));
+        code.op(0xB4, writer.fieldRef("VM/CompiledClass", "index", "I"));
+        int[] labels = new int[keys.size()];
+        int[] keyArray = new int[keys.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = code.label();
+            keyArray[i] = keys.get(i);
+        }
+        int otherwise = code.label();
+        code.lookupSwitch(keyArray, labels, otherwise);
+        String descriptor = shape.descriptor();
+        for (int i = 0; i < labels.length; i++) {
+            code.place(labels[i]);
+            code.local(0x19, 0);
+            for (int p = 0; p < shape.floatParameters.length; p++) {
+                code.local(shape.floatParameters[p] ? 0x17 : 0x19, 1 + p);
+            }
+            code.op(0xB8, writer.methodRef(NAME, names.get(targets.get(i)), descriptor));
+            returnInstruction(code, shape);
+        }
+        code.place(otherwise);
+        code.local(0x19, 0);
+        code.op(0x13, writer.string(key));
+        code.op(0xB8, writer.methodRef(RUNTIME, "noMethod", "(" + VMOBJECT + "Ljava/lang/String;)Ljava/lang/RuntimeException;"));
+        code.u1(0xBF);
+        code.maxStack = 2 + shape.floatParameters.length;
+        code.maxLocals = 1 + shape.floatParameters.length;
+        writer.method(ClassFileWriter.STATIC, name, descriptor, code);
+    }
+
+    private static void returnInstruction(ClassFileWriter.Code code, Shape shape) {
+        if (shape.floatReturns.length == 0) {
+            code.u1(0xB1); // return
+        } else if (shape.floatReturns.length == 1 && shape.floatReturns[0]) {
+            code.u1(0xAE); // freturn
+        } else {
+            code.u1(0xB0); // areturn
+        }
+    }
+
+    // one CompiledMethod's code as JVM code: slot 0 is this (a VMObject, null in a shared method), the parameters
+    // come next, then the rest of the registers
+    private final class MethodTranslator {
+        private final ClassFileWriter writer;
+        private final CompiledMethod method;
+        private final ClassFileWriter.Code code = new ClassFileWriter.Code();
+        private final int[] numberSlots;
+        private final int[] referenceSlots;
+        private final int[] labels; // the JVM label of each VM pc
+
+        MethodTranslator(ClassFileWriter writer, CompiledMethod method) {
+            this.writer = writer;
+            this.method = method;
+            numberSlots = new int[method.numbers.length];
+            referenceSlots = new int[method.references.length];
+            Arrays.fill(numberSlots, -1);
+            Arrays.fill(referenceSlots, -1);
+            int slot = 1;
+            for (int p : method.parameters) {
+                if (p >= 0) {
+                    numberSlots[p] = slot++;
+                } else {
+                    referenceSlots[~p] = slot++;
+                }
+            }
+            for (int i = 0; i < numberSlots.length; i++) {
+                if (numberSlots[i] < 0) {
+                    numberSlots[i] = slot++;
+                }
+            }
+            for (int i = 0; i < referenceSlots.length; i++) {
+                if (referenceSlots[i] < 0) {
+                    referenceSlots[i] = slot++;
+                }
+            }
+            code.maxLocals = slot;
+            labels = new int[method.code.length + 1];
+        }
+
+        ClassFileWriter.Code translate() {
+            int[] vm = method.code;
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = code.label();
+            }
+            // every register starts out the way VirtualMachine starts it
+            var parameters = new HashSet<Integer>();
+            for (int p : method.parameters) {
+                parameters.add(p);
+            }
+            for (int i = 0; i < numberSlots.length; i++) {
+                if (!parameters.contains(i)) {
+                    if (method.numbers[i] == 0) {
+                        code.u1(0x0B); // fconst_0
+                    } else {
+                        code.pushInt((int) method.numbers[i]); // a character
+                        code.u1(0x86); // i2f
+                    }
+                    code.local(0x38, numberSlots[i]);
+                }
+            }
+            for (int i = 0; i < referenceSlots.length; i++) {
+                if (!parameters.contains(~i)) {
+                    if (method.references[i] == null) {
+                        code.u1(0x01);
+                    } else {
+                        code.op(0x13, writer.string((String) method.references[i]));
+                    }
+                    code.local(0x3A, referenceSlots[i]);
+                }
+            }
+            int maxStack = 6;
+            int pc = 0;
+            while (pc < vm.length) {
+                code.place(labels[pc]);
+                int op = vm[pc];
+                int next = pc + 1 + operands(vm, pc);
+                switch (op) {
+                    case Op.NCONST -> {
+                        pushFloat(Float.intBitsToFloat(vm[pc + 2]));
+                        storeN(vm[pc + 1]);
+                    }
+                    case Op.SCONST -> {
+                        code.op(0x13, writer.string(program.strings[vm[pc + 2]]));
+                        storeR(vm[pc + 1]);
+                    }
+                    case Op.NULL -> {
+                        code.u1(0x01);
+                        storeR(vm[pc + 1]);
+                    }
+                    case Op.NMOV -> {
+                        loadN(vm[pc + 2]);
+                        storeN(vm[pc + 1]);
+                    }
+                    case Op.RMOV -> {
+                        loadR(vm[pc + 2]);
+                        storeR(vm[pc + 1]);
+                    }
+                    case Op.ADD, Op.SUB, Op.MUL, Op.DIV, Op.MOD -> {
+                        loadN(vm[pc + 2]);
+                        loadN(vm[pc + 3]);
+                        code.u1(switch (op) {
+                            case Op.ADD -> 0x62;
+                            case Op.SUB -> 0x66;
+                            case Op.MUL -> 0x6A;
+                            case Op.DIV -> 0x6E;
+                            default -> 0x72; // frem
+                        });
+                        storeN(vm[pc + 1]);
+                    }
+                    case Op.CONCAT -> {
+                        loadR(vm[pc + 2]);
+                        loadR(vm[pc + 3]);
+                        runtime("concat", "(" + OBJECT + OBJECT + ")Ljava/lang/String;");
+                        storeR(vm[pc + 1]);
+                    }
+                    case Op.NSTR, Op.BSTR, Op.CSTR -> {
+                        loadN(vm[pc + 2]);
+                        runtime(op == Op.NSTR ? "number" : op == Op.BSTR ? "bool" : "character", "(F)Ljava/lang/String;");
+                        storeR(vm[pc + 1]);
+                    }
+                    case Op.RSTR -> {
+                        loadR(vm[pc + 2]);
+                        runtime("text", "(" + OBJECT + ")Ljava/lang/String;");
+                        storeR(vm[pc + 1]);
+                    }
+                    case Op.NOT -> {
+                        loadN(vm[pc + 2]);
+                        runtime("not", "(F)F");
+                        storeN(vm[pc + 1]);
+                    }
+                    case Op.AND, Op.OR -> {
+                        loadN(vm[pc + 2]);
+                        loadN(vm[pc + 3]);
+                        runtime(op == Op.AND ? "and" : "or", "(FF)F");
+                        storeN(vm[pc + 1]);
+                    }
+                    case Op.JMP -> code.branch(0xA7, labels[vm[pc + 1]]);
+                    case Op.JT, Op.JF -> {
+                        loadN(vm[pc + 1]);
+                        code.u1(0x0B);
+                        code.u1(0x95); // fcmpl
+                        code.branch(op == Op.JT ? 0x9A : 0x99, labels[vm[pc + 2]]);
+                    }
+                    case Op.JLT, Op.JLE, Op.JGT, Op.JGE, Op.JEQ, Op.JNE -> {
+                        loadN(vm[pc + 1]);
+                        loadN(vm[pc + 2]);
+                        // fcmpg for < and <= and fcmpl for the rest, so a NaN makes every one but != false
+                        code.u1(op == Op.JLT || op == Op.JLE ? 0x96 : 0x95);
+                        code.branch(switch (op) {
+                            case Op.JLT -> 0x9B;
+                            case Op.JLE -> 0x9E;
+                            case Op.JGT -> 0x9D;
+                            case Op.JGE -> 0x9C;
+                            case Op.JEQ -> 0x99;
+                            default -> 0x9A;
+                        }, labels[vm[pc + 3]]);
+                    }
+                    case Op.JSEQ, Op.JSNE -> {
+                        loadR(vm[pc + 1]);
+                        loadR(vm[pc + 2]);
+                        code.op(0xB8, writer.methodRef("java/util/Objects", "equals", "(" + OBJECT + OBJECT + ")Z"));
+                        code.branch(op == Op.JSEQ ? 0x9A : 0x99, labels[vm[pc + 3]]);
+                    }
+                    case Op.JREQ, Op.JRNE -> {
+                        loadR(vm[pc + 1]);
+                        loadR(vm[pc + 2]);
+                        code.branch(op == Op.JREQ ? 0xA5 : 0xA6, labels[vm[pc + 3]]);
+                    }
+                    case Op.GETN, Op.GETR -> {
+                        members(op == Op.GETR);
+                        code.pushInt(vm[pc + 2]);
+                        if (op == Op.GETN) {
+                            code.u1(0x30); // faload
+                            storeN(vm[pc + 1]);
+                        } else {
+                            code.u1(0x32); // aaload
+                            storeR(vm[pc + 1]);
+                        }
+                    }
+                    case Op.PUTN, Op.PUTR -> {
+                        members(op == Op.PUTR);
+                        code.pushInt(vm[pc + 1]);
+                        if (op == Op.PUTN) {
+                            loadN(vm[pc + 2]);
+                            code.u1(0x51); // fastore
+                        } else {
+                            loadR(vm[pc + 2]);
+                            code.u1(0x53); // aastore
+                        }
+                    }
+                    case Op.NEW -> {
+                        code.op(0xB2, writer.fieldRef(NAME, "classes", "[" + OBJECT));
+                        code.pushInt(vm[pc + 2]);
+                        runtime("create", "([" + OBJECT + "I)" + VMOBJECT);
+                        storeR(vm[pc + 1]);
+                        int constructor = vm[pc + 3];
+                        if (constructor >= 0) {
+                            CompiledMethod target = program.classes.get(vm[pc + 2]).constructors.get(constructor);
+                            loadR(vm[pc + 1]);
+                            code.op(0xC0, writer.classRef("VM/VMObject"));
+                            arguments(vm, pc + 4, Shape.of(target));
+                            code.op(0xB8, writer.methodRef(NAME, names.get(target), Shape.of(target).descriptor()));
+                        }
+                        maxStack = Math.max(maxStack, 2 + vm[pc + 4]);
+                    }
+                    case Op.INVOKE -> {
+                        String key = program.sites[vm[pc + 2]].key;
+                        Shape shape = dispatchShape(key);
+                        if (vm[pc + 1] < 0) {
+                            code.local(0x19, 0);
+                        } else {
+                            loadR(vm[pc + 1]);
+                            code.op(0xC0, writer.classRef("VM/VMObject"));
+                        }
+                        int at = arguments(vm, pc + 3, shape);
+                        code.op(0xB8, writer.methodRef(NAME, dispatchers.get(key), shape.descriptor()));
+                        results(vm, at, shape);
+                        maxStack = Math.max(maxStack, 4 + vm[pc + 3]);
+                    }
+                    case Op.INVOKES -> {
+                        CompiledMethod target = program.classes.get(vm[pc + 1]).methods.get(vm[pc + 2]);
+                        Shape shape = Shape.of(target);
+                        code.u1(0x01); // no this
+                        int at = arguments(vm, pc + 3, shape);
+                        code.op(0xB8, writer.methodRef(NAME, names.get(target), shape.descriptor()));
+                        results(vm, at, shape);
+                        maxStack = Math.max(maxStack, 4 + vm[pc + 3]);
+                    }
+                    case Op.WRITE -> {
+                        code.op(0xB2, writer.fieldRef(NAME, "console", OBJECT));
+                        code.op(0xBB, writer.classRef("java/lang/StringBuilder"));
+                        code.u1(0x59); // dup
+                        code.op(0xB7, writer.methodRef("java/lang/StringBuilder", "<init>", "()V"));
+                        for (int i = 0; i < vm[pc + 1]; i++) {
+                            Type type = Type.values()[vm[pc + 2 + 2 * i]];
+                            int reg = vm[pc + 3 + 2 * i];
+                            if (type.isReference()) {
+                                loadR(reg);
+                                runtime("text", "(" + OBJECT + ")Ljava/lang/String;");
+                            } else {
+                                loadN(reg);
+                                runtime(type == Type.NUMBER ? "number" : type == Type.BOOLEAN ? "bool" : "character", "(F)Ljava/lang/String;");
+                            }
+                            code.op(0xB6, writer.methodRef("java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;"));
+                        }
+                        code.op(0xB6, writer.methodRef("java/lang/StringBuilder", "toString", "()Ljava/lang/String;"));
+                        runtime("write", "(" + OBJECT + "Ljava/lang/String;)V");
+                    }
+                    case Op.RET -> {
+                        int count = vm[pc + 1];
+                        if (count == 1) {
+                            load(vm[pc + 2]);
+                        } else if (count > 1) {
+                            code.pushInt(count);
+                            code.op(0xBD, writer.classRef("java/lang/Object")); // anewarray
+                            for (int i = 0; i < count; i++) {
+                                code.u1(0x59);
+                                code.pushInt(i);
+                                load(vm[pc + 2 + i]);
+                                if (vm[pc + 2 + i] >= 0) {
+                                    code.op(0xB8, writer.methodRef("java/lang/Float", "valueOf", "(F)Ljava/lang/Float;"));
+                                }
+                                code.u1(0x53);
+                            }
+                        }
+                        returnInstruction(code, Shape.of(method));
+                    }
+                    default -> throw new IllegalStateException("no JVM code for " + Op.NAMES[op]);
+                }
+                pc = next;
+            }
+            code.place(labels[vm.length]);
+            code.maxStack = maxStack;
+            return code;
+        }
+
+        private int operands(int[] vm, int pc) {
+            int at = pc + 1;
+            for (char kind : Op.FORMATS[vm[pc]].toCharArray()) {
+                if (kind == 'a') {
+                    at += vm[at];
+                } else if (kind == 'w') {
+                    at += 2 * vm[at];
+                }
+                at++;
+            }
+            return at - pc - 1;
+        }
+
+        // pushes the arguments listed at vm[at] (checking they're in the banks the callee takes), returns where the
+        // list ends
+        private int arguments(int[] vm, int at, Shape shape) {
+            int count = vm[at];
+            if (count != shape.floatParameters.length) {
+                throw new IllegalStateException("wrong number of parameters");
+            }
+            for (int i = 0; i < count; i++) {
+                int reg = vm[at + 1 + i];
+                if ((reg >= 0) != shape.floatParameters[i]) {
+                    throw new IllegalStateException("parameter " + (i + 1) + " is the wrong type");
+                }
+                load(reg);
+            }
+            return at + 1 + count;
+        }
+
+        // stores what the call left on the stack into the registers listed at vm[at]
+        private void results(int[] vm, int at, Shape shape) {
+            int count = vm[at];
+            int returns = shape.floatReturns.length;
+            if (count > returns) {
+                throw new IllegalStateException("not enough return values");
+            }
+            for (int i = 0; i < count; i++) {
+                if ((vm[at + 1 + i] >= 0) != shape.floatReturns[i]) {
+                    throw new IllegalStateException("return value " + (i + 1) + " is the wrong type");
+                }
+            }
+            if (returns == 1) {
+                if (count == 1) {
+                    store(vm[at + 1]);
+                } else {
+                    code.u1(0x57); // pop
+                }
+            } else if (returns > 1) {
+                for (int i = 0; i < count; i++) {
+                    code.u1(0x59);
+                    code.pushInt(i);
+                    code.u1(0x32);
+                    if (vm[at + 1 + i] >= 0) {
+                        code.op(0xC0, writer.classRef("java/lang/Float"));
+                        code.op(0xB6, writer.methodRef("java/lang/Float", "floatValue", "()F"));
+                    }
+                    store(vm[at + 1 + i]);
+                }
+                code.u1(0x57);
+            }
+        }
+
+        private void members(boolean references) {
+            code.local(0x19, 0);
+            code.op(0xB4, writer.fieldRef("VM/VMObject", references ? "references" : "numbers", references ? "[" + OBJECT : "[F"));
+        }
+
+        private void runtime(String name, String descriptor) {
+            code.op(0xB8, writer.methodRef(RUNTIME, name, descriptor));
+        }
+
+        private void pushFloat(float f) {
+            if (Float.floatToRawIntBits(f) == 0) {
+                code.u1(0x0B);
+            } else if (f == 1) {
+                code.u1(0x0C);
+            } else if (f == 2) {
+                code.u1(0x0D);
+            } else {
+                code.op(0x13, writer.floatConstant(f));
+            }
+        }
+
+        private void load(int encoded) {
+            if (encoded >= 0) {
+                loadN(encoded);
+            } else {
+                loadR(~encoded);
+            }
+        }
+
+        private void store(int encoded) {
+            if (encoded >= 0) {
+                storeN(encoded);
+            } else {
+                storeR(~encoded);
+            }
+        }
+
+        private void loadN(int reg) {
+            code.local(0x17, numberSlots[reg]);
+        }
+
+        private void storeN(int reg) {
+            code.local(0x38, numberSlots[reg]);
+        }
+
+        private void loadR(int reg) {
+            code.local(0x19, referenceSlots[reg]);
+        }
+
+        private void storeR(int reg) {
+            code.local(0x3A, referenceSlots[reg]);
+        }
+    }
+}
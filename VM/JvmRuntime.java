@@ -0,0 +1,62 @@
+package VM;
+
+import Interpreter.ConsoleWrite;
+import Interpreter.StringIDT;
+
+import java.util.List;
+
+// What the classes JvmBackend generates call for the parts of an instruction that aren't worth spelling out in JVM
+// bytecode. All small and static, so HotSpot inlines them
+final class JvmRuntime {
+    private JvmRuntime() {
+    }
+
+    static String concat(Object left, Object right) {
+        return (String) left + right;
+    }
+
+    static String number(float value) {
+        return VirtualMachine.format(Type.NUMBER, value);
+    }
+
+    static String bool(float value) {
+        return VirtualMachine.format(Type.BOOLEAN, value);
+    }
+
+    static String character(float value) {
+        return VirtualMachine.format(Type.CHARACTER, value);
+    }
+
+    static String text(Object value) {
+        return String.valueOf(value);
+    }
+
+    static float not(float value) {
+        return value != 0 ? 0 : 1;
+    }
+
+    static float and(float left, float right) {
+        return left != 0 && right != 0 ? 1 : 0;
+    }
+
+    static float or(float left, float right) {
+        return left != 0 || right != 0 ? 1 : 0;
+    }
+
+    static VMObject create(Object[] classes, int index) {
+        return new VMObject((CompiledClass) classes[index]);
+    }
+
+    // console.write, one line that's already put together
+    static void write(Object console, String line) {
+        ((ConsoleWrite) console).Execute(List.of(new StringIDT(line)));
+    }
+
+    static RuntimeException nullReceiver(String key) {
+        return new RuntimeException("Calling " + key + " on a null reference");
+    }
+
+    static RuntimeException noMethod(VMObject self, String key) {
+        return new RuntimeException("Unable to find method " + key + " in class " + self.type.name);
+    }
+}
@@ -0,0 +1,90 @@
+package VM;
+
+// The instruction set of the register VM. An instruction is its opcode followed by its operands, all ints in the
+// method's code array. A method has two banks of registers: n registers hold numbers, booleans (0 or 1) and
+// characters as floats, r registers hold strings and objects. Operand kinds, as FORMATS spells them:
+//   n  number register        r  reference register    f  float constant (Float.floatToIntBits)
+//   s  string pool index      j  jump target (pc)      m  member slot of this, in the bank the opcode names
+//   c  class index            k  constructor index (-1 for none)
+//   M  method index in a class                         t  call site index
+//   x  receiver r register, -1 for this
+//   a  a count then that many registers, n registers as themselves and r registers as ~index
+//   w  a count then that many (Type ordinal, register) pairs
+public final class Op {
+    private Op() {
+    }
+
+    public static final int NCONST = 0;
+    public static final int SCONST = 1;
+    public static final int NULL = 2;
+    public static final int NMOV = 3;
+    public static final int RMOV = 4;
+    public static final int ADD = 5;
+    public static final int SUB = 6;
+    public static final int MUL = 7;
+    public static final int DIV = 8;
+    public static final int MOD = 9;
+    public static final int CONCAT = 10;
+    public static final int NSTR = 11;
+    public static final int BSTR = 12;
+    public static final int CSTR = 13;
+    public static final int RSTR = 14;
+    public static final int NOT = 15;
+    public static final int AND = 16;
+    public static final int OR = 17;
+    public static final int JMP = 18;
+    public static final int JT = 19;
+    public static final int JF = 20;
+    public static final int JLT = 21;
+    public static final int JLE = 22;
+    public static final int JGT = 23;
+    public static final int JGE = 24;
+    public static final int JEQ = 25;
+    public static final int JNE = 26;
+    public static final int JSEQ = 27;
+    public static final int JSNE = 28;
+    public static final int JREQ = 29;
+    public static final int JRNE = 30;
+    public static final int GETN = 31;
+    public static final int PUTN = 32;
+    public static final int GETR = 33;
+    public static final int PUTR = 34;
+    public static final int NEW = 35;
+    public static final int INVOKE = 36;
+    public static final int INVOKES = 37;
+    public static final int WRITE = 38;
+    public static final int RET = 39;
+
+    public static final String[] NAMES = {
+            "NCONST", "SCONST", "NULL", "NMOV", "RMOV", "ADD", "SUB", "MUL", "DIV", "MOD",
+            "CONCAT", "NSTR", "BSTR", "CSTR", "RSTR", "NOT", "AND", "OR", "JMP", "JT",
+            "JF", "JLT", "JLE", "JGT", "JGE", "JEQ", "JNE", "JSEQ", "JSNE", "JREQ",
+            "JRNE", "GETN", "PUTN", "GETR", "PUTR", "NEW", "INVOKE", "INVOKES", "WRITE", "RET"
+    };
+
+    public static final String[] FORMATS = {
+            "nf", "rs", "r", "nn", "rr", "nnn", "nnn", "nnn", "nnn", "nnn",
+            "rrr", "rn", "rn", "rn", "rr", "nn", "nnn", "nnn", "j", "nj",
+            "nj", "nnj", "nnj", "nnj", "nnj", "nnj", "nnj", "rrj", "rrj", "rrj",
+            "rrj", "nm", "mn", "rm", "mr", "rcka", "xtaa", "cMaa", "w", "a"
+    };
+
+    // the compare-and-branch that jumps when op's comparison is false
+    static int negate(int op) {
+        return switch (op) {
+            case JLT -> JGE;
+            case JLE -> JGT;
+            case JGT -> JLE;
+            case JGE -> JLT;
+            case JEQ -> JNE;
+            case JNE -> JEQ;
+            case JSEQ -> JSNE;
+            case JSNE -> JSEQ;
+            case JREQ -> JRNE;
+            case JRNE -> JREQ;
+            case JT -> JF;
+            case JF -> JT;
+            default -> throw new IllegalArgumentException(NAMES[op]);
+        };
+    }
+}
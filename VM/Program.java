@@ -0,0 +1,51 @@
+package VM;
+
+import java.util.List;
+
+// Everything BytecodeCompiler makes from a TranNode: the classes, the string constants and the call sites the code
+// refers to by index.
+public final class Program {
+    public final List<CompiledClass> classes;
+    final String[] strings;
+    final CallSite[] sites;
+
+    Program(List<CompiledClass> classes, String[] strings, CallSite[] sites) {
+        this.classes = classes;
+        this.strings = strings;
+        this.sites = sites;
+    }
+
+    public CompiledClass find(String name) {
+        for (CompiledClass c : classes) {
+            if (c.name.equals(name)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    // A virtual call: the method is found in the receiver's class by name and parameter count. The site remembers
+    // the last receiver class and what it found there
+    static final class CallSite {
+        final String key;
+        private CompiledClass cachedClass;
+        private CompiledMethod cachedMethod;
+
+        CallSite(String key) {
+            this.key = key;
+        }
+
+        CompiledMethod lookup(CompiledClass receiver) {
+            if (receiver == cachedClass) {
+                return cachedMethod;
+            }
+            CompiledMethod method = receiver.byKey.get(key);
+            if (method == null) {
+                throw new RuntimeException("Unable to find method " + key + " in class " + receiver.name);
+            }
+            cachedClass = receiver;
+            cachedMethod = method;
+            return method;
+        }
+    }
+}
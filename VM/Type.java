@@ -0,0 +1,20 @@
+package VM;
+
+// The static type of a register. The first three live in the n bank, the rest in the r bank
+public enum Type {
+    NUMBER, BOOLEAN, CHARACTER, STRING, OBJECT;
+
+    public boolean isReference() {
+        return this == STRING || this == OBJECT;
+    }
+
+    static Type of(String declared) {
+        return switch (declared) {
+            case "number" -> NUMBER;
+            case "boolean" -> BOOLEAN;
+            case "character", "char" -> CHARACTER;
+            case "string" -> STRING;
+            default -> OBJECT;
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package VM;
+
+// An instance on the VM: its class and its members, laid out the way the class says
+public final class VMObject {
+    final CompiledClass type;
+    final float[] numbers;
+    final Object[] references;
+
+    VMObject(CompiledClass type) {
+        this.type = type;
+        this.numbers = type.numbers.clone();
+        this.references = type.references.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < type.memberNames.size(); i++) {
+            int slot = type.memberSlots.get(i);
+            Type t = type.memberTypes.get(i);
+            sb.append(type.memberNames.get(i)).append(" : ");
+            sb.append(t.isReference() ? references[slot] : VirtualMachine.format(t, numbers[slot]));
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,229 @@
+package VM;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Runs a Program. Each call gets a fresh frame: a float[] for its n registers and an Object[] for its r registers;
+// the caller copies the arguments into the callee's parameter registers, runs it and copies the results out of its
+// return registers. console.write prints to System.out and keeps what it wrote in console, the way ConsoleWrite does.
+public final class VirtualMachine {
+    public final List<String> console = new ArrayList<>();
+    private final Program program;
+
+    public VirtualMachine(Program program) {
+        this.program = program;
+    }
+
+    // runs the first shared start() with no parameters
+    public void start() {
+        for (CompiledClass c : program.classes) {
+            for (CompiledMethod m : c.methods) {
+                if (m.shared && m.name.equals("start") && m.parameterTypes.isEmpty()) {
+                    run(m, null, m.numbers.clone(), m.references.clone());
+                    return;
+                }
+            }
+        }
+        throw new RuntimeException("No shared start() method");
+    }
+
+    private void run(CompiledMethod method, VMObject self, float[] n, Object[] r) {
+        final int[] code = method.code;
+        int pc = 0;
+        while (true) {
+            switch (code[pc]) {
+                case Op.NCONST -> {
+                    n[code[pc + 1]] = Float.intBitsToFloat(code[pc + 2]);
+                    pc += 3;
+                }
+                case Op.SCONST -> {
+                    r[code[pc + 1]] = program.strings[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.NULL -> {
+                    r[code[pc + 1]] = null;
+                    pc += 2;
+                }
+                case Op.NMOV -> {
+                    n[code[pc + 1]] = n[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.RMOV -> {
+                    r[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.ADD -> {
+                    n[code[pc + 1]] = n[code[pc + 2]] + n[code[pc + 3]];
+                    pc += 4;
+                }
+                case Op.SUB -> {
+                    n[code[pc + 1]] = n[code[pc + 2]] - n[code[pc + 3]];
+                    pc += 4;
+                }
+                case Op.MUL -> {
+                    n[code[pc + 1]] = n[code[pc + 2]] * n[code[pc + 3]];
+                    pc += 4;
+                }
+                case Op.DIV -> {
+                    n[code[pc + 1]] = n[code[pc + 2]] / n[code[pc + 3]];
+                    pc += 4;
+                }
+                case Op.MOD -> {
+                    n[code[pc + 1]] = n[code[pc + 2]] % n[code[pc + 3]];
+                    pc += 4;
+                }
+                case Op.CONCAT -> {
+                    r[code[pc + 1]] = (String) r[code[pc + 2]] + r[code[pc + 3]];
+                    pc += 4;
+                }
+                case Op.NSTR -> {
+                    r[code[pc + 1]] = format(Type.NUMBER, n[code[pc + 2]]);
+                    pc += 3;
+                }
+                case Op.BSTR -> {
+                    r[code[pc + 1]] = format(Type.BOOLEAN, n[code[pc + 2]]);
+                    pc += 3;
+                }
+                case Op.CSTR -> {
+                    r[code[pc + 1]] = format(Type.CHARACTER, n[code[pc + 2]]);
+                    pc += 3;
+                }
+                case Op.RSTR -> {
+                    r[code[pc + 1]] = String.valueOf(r[code[pc + 2]]);
+                    pc += 3;
+                }
+                case Op.NOT -> {
+                    n[code[pc + 1]] = n[code[pc + 2]] != 0 ? 0 : 1;
+                    pc += 3;
+                }
+                case Op.AND -> {
+                    n[code[pc + 1]] = n[code[pc + 2]] != 0 && n[code[pc + 3]] != 0 ? 1 : 0;
+                    pc += 4;
+                }
+                case Op.OR -> {
+                    n[code[pc + 1]] = n[code[pc + 2]] != 0 || n[code[pc + 3]] != 0 ? 1 : 0;
+                    pc += 4;
+                }
+                case Op.JMP -> pc = code[pc + 1];
+                case Op.JT -> pc = n[code[pc + 1]] != 0 ? code[pc + 2] : pc + 3;
+                case Op.JF -> pc = n[code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                case Op.JLT -> pc = n[code[pc + 1]] < n[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                case Op.JLE -> pc = n[code[pc + 1]] <= n[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                case Op.JGT -> pc = n[code[pc + 1]] > n[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                case Op.JGE -> pc = n[code[pc + 1]] >= n[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                case Op.JEQ -> pc = n[code[pc + 1]] == n[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                case Op.JNE -> pc = n[code[pc + 1]] != n[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                case Op.JSEQ -> pc = Objects.equals(r[code[pc + 1]], r[code[pc + 2]]) ? code[pc + 3] : pc + 4;
+                case Op.JSNE -> pc = !Objects.equals(r[code[pc + 1]], r[code[pc + 2]]) ? code[pc + 3] : pc + 4;
+                case Op.JREQ -> pc = r[code[pc + 1]] == r[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                case Op.JRNE -> pc = r[code[pc + 1]] != r[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                case Op.GETN -> {
+                    n[code[pc + 1]] = self.numbers[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.PUTN -> {
+                    self.numbers[code[pc + 1]] = n[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.GETR -> {
+                    r[code[pc + 1]] = self.references[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.PUTR -> {
+                    self.references[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.NEW -> {
+                    CompiledClass c = program.classes.get(code[pc + 2]);
+                    VMObject object = new VMObject(c);
+                    int constructor = code[pc + 3];
+                    if (constructor >= 0) {
+                        call(c.constructors.get(constructor), object, code, pc + 4, n, r, false);
+                    }
+                    r[code[pc + 1]] = object;
+                    pc += 5 + code[pc + 4];
+                }
+                case Op.INVOKE -> {
+                    int receiver = code[pc + 1];
+                    VMObject object = receiver < 0 ? self : (VMObject) r[receiver];
+                    Program.CallSite site = program.sites[code[pc + 2]];
+                    if (object == null) {
+                        throw new RuntimeException("Calling " + site.key + " on a null reference");
+                    }
+                    pc = call(site.lookup(object.type), object, code, pc + 3, n, r, true);
+                }
+                case Op.INVOKES -> {
+                    CompiledMethod callee = program.classes.get(code[pc + 1]).methods.get(code[pc + 2]);
+                    pc = call(callee, null, code, pc + 3, n, r, true);
+                }
+                case Op.WRITE -> {
+                    int count = code[pc + 1];
+                    StringBuilder sb = new StringBuilder();
+                    for (int i = 0; i < count; i++) {
+                        Type type = TYPES[code[pc + 2 + 2 * i]];
+                        int reg = code[pc + 3 + 2 * i];
+                        sb.append(type.isReference() ? String.valueOf(r[reg]) : format(type, n[reg]));
+                    }
+                    System.out.println(sb);
+                    console.add(sb.toString());
+                    pc += 2 + 2 * count;
+                }
+                case Op.RET -> {
+                    return;
+                }
+                default -> throw new IllegalStateException("Bad opcode " + code[pc] + " at " + pc + " in " + method);
+            }
+        }
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    // calls callee with the arguments listed at code[at] (then, with results, copies its returns into the registers
+    // listed after them); returns the pc after the instruction
+    private int call(CompiledMethod callee, VMObject self, int[] code, int at, float[] n, Object[] r, boolean results) {
+        float[] cn = callee.numbers.clone();
+        Object[] cr = callee.references.clone();
+        int[] parameters = callee.parameters;
+        int count = code[at];
+        if (count != parameters.length) {
+            throw new RuntimeException(callee + " takes " + parameters.length + " parameters, not " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            move(code[at + 1 + i], n, r, parameters[i], cn, cr, callee);
+        }
+        at += 1 + count;
+        run(callee, self, cn, cr);
+        if (!results) {
+            return at;
+        }
+        int[] returns = callee.returns;
+        count = code[at];
+        if (count > returns.length) {
+            throw new RuntimeException(callee + " returns " + returns.length + " values, not " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            move(returns[i], cn, cr, code[at + 1 + i], n, r, callee);
+        }
+        return at + 1 + count;
+    }
+
+    private static void move(int from, float[] fn, Object[] fr, int to, float[] tn, Object[] tr, CompiledMethod callee) {
+        if (from >= 0 && to >= 0) {
+            tn[to] = fn[from];
+        } else if (from < 0 && to < 0) {
+            tr[~to] = fr[~from];
+        } else {
+            throw new RuntimeException("Type mismatch calling " + callee);
+        }
+    }
+
+    // how console.write shows an n register of the given type
+    static String format(Type type, float value) {
+        return switch (type) {
+            case BOOLEAN -> value != 0 ? "true" : "false";
+            case CHARACTER -> String.valueOf((char) value);
+            default -> String.valueOf(value);
+        };
+    }
+}
@@ -0,0 +1,185 @@
+import AST.MemberNode;
+import AST.TranNode;
+import VM.BytecodeCompiler;
+import VM.Disassembler;
+import VM.JvmBackend;
+import VM.Program;
+import VM.VirtualMachine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+public class VMTests {
+    private static List<String> run(TranNode tran) {
+        var vm = new VirtualMachine(BytecodeCompiler.compile(tran));
+        vm.start();
+        return vm.console;
+    }
+
+    @Test
+    public void SameAsTheTreeWalker() throws Exception {
+        for (String program : List.of(BenchmarkPrograms.deepLoops(3, 7), BenchmarkPrograms.objectAllocation(50),
+                BenchmarkPrograms.manyMethods(20, 30))) {
+            var tran = InterpreterTests.parse(program);
+            var console = InterpreterTests.interpret(tran);
+            Assertions.assertEquals(console, run(InterpreterTests.parse(program)), program);
+        }
+    }
+
+    @Test
+    public void MultipleReturnsAndLoops() throws Exception {
+        String program = """
+                class counting
+                    shared two() : number a, number b
+                        a = 3
+                        b = 4
+
+                    shared start()
+                        number x
+                        number y
+                        number n
+                        number i
+                        string t
+                        x, y = two()
+                        console.write(x, " ", y)
+                        n = 3
+                        loop i = n.times()
+                            t = t + i
+                        console.write(t)
+                        x = 0
+                        loop x < 4
+                            x = x + 1
+                        console.write(x)
+                """;
+        Assertions.assertEquals(List.of("3.0 4.0", "1.02.03.0", "4.0"), run(InterpreterTests.parse(program)));
+    }
+
+    @Test
+    public void InterfaceCalls() throws Exception {
+        String program = """
+                interface shape
+                    area() : number a
+                class square implements shape
+                    number side
+                    construct(number s)
+                        side = s
+                    area() : number a
+                        a = side * side
+                class circle implements shape
+                    area() : number a
+                        a = 3
+                    shared start()
+                        shape s
+                        number x
+                        s = new square(4)
+                        x = s.area()
+                        console.write(x)
+                        s = new circle()
+                        x = s.area()
+                        console.write(x)
+                """;
+        Assertions.assertEquals(List.of("16.0", "3.0"), run(InterpreterTests.parse(program)));
+    }
+
+    @Test
+    public void AccessorAndMutator() throws Exception {
+        // the parser doesn't keep accessor and mutator statements, so they're moved here from two methods
+        String program = """
+                class box
+                    number size
+
+                    getter() : number value
+                        value = value * 2
+
+                    setter() : number value
+                        size = value + 1
+
+                    shared start()
+                        box b
+                        number x
+                        b = new box()
+                        b.size(4)
+                        x = b.size()
+                        console.write(x)
+                """;
+        var tran = InterpreterTests.parse(program);
+        var box = tran.Classes.get(0);
+        MemberNode size = box.members.get(0);
+        size.accessor = Optional.of(box.methods.get(0).statements);
+        size.mutator = Optional.of(box.methods.get(1).statements);
+        box.methods.remove(1);
+        box.methods.remove(0);
+        Assertions.assertEquals(List.of("10.0"), run(tran));
+    }
+
+    @Test
+    public void CharactersStartAsSpaces() throws Exception {
+        String program = """
+                class letters
+                    character m
+                    number count
+
+                    construct()
+                        count = 1
+
+                    show()
+                        console.write("[", m, "]")
+
+                    shared start()
+                        string s
+                        character c
+                        letters l
+                        s = "hi"
+                        console.write(s, c)
+                        l = new letters()
+                        l.show()
+                """;
+        var tran = InterpreterTests.parse(program);
+        var console = InterpreterTests.interpret(tran);
+        Assertions.assertEquals(List.of("hi ", "[ ]"), console);
+        Assertions.assertEquals(console, run(InterpreterTests.parse(program)));
+        var backend = new JvmBackend(InterpreterTests.parse(program));
+        backend.start();
+        Assertions.assertEquals(console, backend.console());
+    }
+
+    @Test
+    public void TypeErrorsWhenCompiling() throws Exception {
+        String program = """
+                class wrong
+                    shared start()
+                        string s
+                        s = 5
+                        console.write(s)
+                """;
+        var tran = InterpreterTests.parse(program);
+        var e = Assertions.assertThrows(RuntimeException.class, () -> BytecodeCompiler.compile(tran));
+        Assertions.assertEquals("Unable to assign number to s of type string", e.getMessage());
+    }
+
+    @Test
+    public void Disassemble() throws Exception {
+        String program = """
+                class adder
+                    shared start()
+                        number x
+                        x = 6 + 1
+                        if x > 5
+                            console.write(x)
+                """;
+        Program compiled = BytecodeCompiler.compile(InterpreterTests.parse(program));
+        Assertions.assertEquals("""
+                shared adder.start () : () 4 n, 0 r
+                     0  NCONST   n1, 6.0
+                     3  NCONST   n2, 1.0
+                     6  ADD      n3, n1, n2
+                    10  NMOV     n0, n3
+                    13  NCONST   n1, 5.0
+                    16  JLE      n0, n1, -> 24
+                    20  WRITE    (number n0)
+                    24  RET      ()
+                """, Disassembler.disassemble(compiled));
+    }
+}
@@ -0,0 +1,45 @@
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+//The vector half of CharRuns, kept apart so nothing touches jdk.incubator.vector unless the module is there.
+//Characters are loaded as shorts, 16 at a time with AVX2 and 32 with AVX-512; the tail is done one at a time.
+final class VectorCharRuns {
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    private VectorCharRuns() {
+    }
+
+    static int endOfRun(char[] chars, int from, int to, int kind) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            var vector = ShortVector.fromCharArray(SPECIES, chars, i);
+            VectorMask<Short> outside = switch (kind) {
+                case CharRuns.SPACES -> vector.compare(VectorOperators.NE, (short) ' ');
+                case CharRuns.DIGITS -> vector.compare(VectorOperators.LT, (short) '0')
+                        .or(vector.compare(VectorOperators.GT, (short) '9'));
+                default -> { // setting 0x20 folds upper case onto lower case and sends nothing else into a..z
+                    var folded = vector.or((short) 0x20);
+                    yield folded.compare(VectorOperators.LT, (short) 'a').or(folded.compare(VectorOperators.GT, (short) 'z'));
+                }
+            };
+            if (outside.anyTrue()) {
+                return i + outside.firstTrue();
+            }
+        }
+        return CharRuns.scalarEndOfRun(chars, i, to, kind);
+    }
+
+    static int indexOfEither(char[] chars, int from, int to, char a, char b) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            var vector = ShortVector.fromCharArray(SPECIES, chars, i);
+            var found = vector.compare(VectorOperators.EQ, (short) a).or(vector.compare(VectorOperators.EQ, (short) b));
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        return CharRuns.scalarIndexOfEither(chars, i, to, a, b);
+    }
+}
@@ -0,0 +1,262 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Generated Tran sources used by the benchmarks. Names only use letters because the lexer ends a word at a digit.
+public class BenchmarkPrograms {
+    public static String name(int n) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return sb.toString();
+    }
+
+    public static String manyClasses(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < count; c++) {
+            sb.append("class Generated").append(name(c)).append("\n");
+            sb.append("    number total\n");
+            sb.append("    string label\n");
+            sb.append("\n");
+            sb.append("    construct()\n");
+            sb.append("        total = 0\n");
+            sb.append("        label = \"generated\"\n");
+            sb.append("\n");
+            sb.append("    add(number a, number b) : number sum\n");
+            sb.append("        sum = a + b * 2 - total\n");
+            sb.append("        total = sum\n");
+            sb.append("\n");
+            sb.append("    shared start()\n");
+            sb.append("        number n\n");
+            sb.append("        boolean keepGoing\n");
+            sb.append("        n = 0\n");
+            sb.append("        keepGoing = true\n");
+            sb.append("        loop keepGoing\n");
+            sb.append("            if n >= 15\n");
+            sb.append("                keepGoing = false\n");
+            sb.append("            else\n");
+            sb.append("                n = n + 1\n");
+            sb.append("                console.write(n, \"done\")\n");
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    //nested boolean loops, depth deep, each going round count times
+    public static String deepLoops(int depth, int count) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("class DeepLoops\n");
+        sb.append("    shared start()\n");
+        sb.append("        number total\n");
+        for (int d = 0; d < depth; d++) {
+            sb.append("        number counter").append(name(d)).append("\n");
+            sb.append("        boolean going").append(name(d)).append("\n");
+        }
+        sb.append("        total = 0\n");
+        String indent = "        ";
+        for (int d = 0; d < depth; d++) {
+            sb.append(indent).append("counter").append(name(d)).append(" = 0\n");
+            sb.append(indent).append("going").append(name(d)).append(" = true\n");
+            sb.append(indent).append("loop going").append(name(d)).append("\n");
+            indent += "    ";
+        }
+        sb.append(indent).append("total = total + 1\n");
+        for (int d = depth - 1; d >= 0; d--) {
+            sb.append(indent).append("counter").append(name(d)).append(" = counter").append(name(d)).append(" + 1\n");
+            sb.append(indent).append("if counter").append(name(d)).append(" >= ").append(count).append("\n");
+            sb.append(indent).append("    going").append(name(d)).append(" = false\n");
+            indent = indent.substring(4);
+        }
+        sb.append("        console.write(total)\n");
+        return sb.toString();
+    }
+
+    //a loop that makes count objects and calls a method on each
+    public static String objectAllocation(int count) {
+        return "class Allocate\n" +
+                "    shared start()\n" +
+                "        number n\n" +
+                "        boolean keepGoing\n" +
+                "        Counter c\n" +
+                "        n = 0\n" +
+                "        keepGoing = true\n" +
+                "        loop keepGoing\n" +
+                "            c = new Counter()\n" +
+                "            c.bump()\n" +
+                "            n = n + 1\n" +
+                "            if n >= " + count + "\n" +
+                "                keepGoing = false\n" +
+                "        console.write(n)\n" +
+                "\n" +
+                "class Counter\n" +
+                "    number count\n" +
+                "\n" +
+                "    construct()\n" +
+                "        count = 0\n" +
+                "\n" +
+                "    bump()\n" +
+                "        count = count + 1\n";
+    }
+
+    //one class with methods methods (each bumping a member), start() calling the last one declared calls times
+    public static String manyMethods(int methods, int calls) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Calls\n");
+        sb.append("    number count\n\n");
+        sb.append("    construct()\n");
+        sb.append("        count = 0\n\n");
+        for (int m = 0; m < methods; m++) {
+            sb.append("    bump").append(name(m)).append("()\n");
+            sb.append("        count = count + 1\n\n");
+        }
+        sb.append("    shared start()\n");
+        sb.append("        number n\n");
+        sb.append("        boolean keepGoing\n");
+        sb.append("        Calls c\n");
+        sb.append("        n = 0\n");
+        sb.append("        keepGoing = true\n");
+        sb.append("        c = new Calls()\n");
+        sb.append("        loop keepGoing\n");
+        sb.append("            c.bump").append(name(methods - 1)).append("()\n");
+        sb.append("            n = n + 1\n");
+        sb.append("            if n >= ").append(calls).append("\n");
+        sb.append("                keepGoing = false\n");
+        sb.append("        console.write(n)\n");
+        return sb.toString();
+    }
+
+    //count console.write calls, each with a string literal length characters long
+    public static String longStrings(int count, int length) {
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            literal.append(i % 8 == 7 ? ' ' : (char) ('a' + i % 26));
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("class LongStrings\n");
+        sb.append("    shared start()\n");
+        sb.append("        string s\n");
+        for (int i = 0; i < count; i++) {
+            sb.append("        s = \"").append(literal).append("\"\n");
+            sb.append("        console.write(s, \"").append(literal).append("\")\n");
+        }
+        return sb.toString();
+    }
+
+    //methods made of count statements each, mixing multi-assignment calls, plain calls and assignments,
+    //the statements the parser has to try more than one way. Only for parsing: the interpreter can't run
+    //a call whose results are assigned yet, so it isn't in corpus()
+    public static String statementHeavy(int methods, int count) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Statements\n");
+        sb.append("    number total\n\n");
+        sb.append("    construct()\n");
+        sb.append("        total = 0\n\n");
+        sb.append("    pair(number x, number y) : number sum, number product\n");
+        sb.append("        sum = x + y\n");
+        sb.append("        product = x * y\n\n");
+        sb.append("    add(number x) : number sum\n");
+        sb.append("        sum = x + total\n\n");
+        for (int m = 0; m < methods; m++) {
+            sb.append("    step").append(name(m)).append("()\n");
+            sb.append("        number a\n");
+            sb.append("        number b\n");
+            sb.append("        a = 1\n");
+            for (int i = 0; i < count; i++) {
+                switch (i % 4) {
+                    case 0 -> sb.append("        a, b = pair(a, ").append(i % 7 + 1).append(")\n");
+                    case 1 -> sb.append("        total = add(b)\n");
+                    case 2 -> sb.append("        a = (a + b) * 2 - total / 4\n");
+                    default -> sb.append("        b = a - ").append(i % 5).append("\n");
+                }
+            }
+            sb.append("\n");
+        }
+        sb.append("    shared start()\n");
+        sb.append("        Statements s\n");
+        sb.append("        s = new Statements()\n");
+        for (int m = 0; m < methods; m++) {
+            sb.append("        s.step").append(name(m)).append("()\n");
+        }
+        sb.append("        console.write(\"done\")\n");
+        return sb.toString();
+    }
+
+    //the programs from InterpreterTests, then generated ones big enough to time, by name
+    public static Map<String, String> corpus() {
+        var retVal = new LinkedHashMap<String, String>();
+        retVal.put("simpleAdd", "class SimpleAdd\n" +
+                "    shared start()\n" +
+                "        number x\n" +
+                "        number y\n" +
+                "        number z\n" +
+                "        x = 6\n" +
+                "        y = 6\n" +
+                "        z = x + y\n" +
+                "        console.write(z)\n");
+        retVal.put("simpleAddInstantiate", "class SimpleAdd\n" +
+                "    number x\n" +
+                "    number y\n" +
+                "\n" +
+                "    construct()\n" +
+                "        x = 6\n" +
+                "        y = 6\n" +
+                "\n" +
+                "    add()\n" +
+                "        number z\n" +
+                "        z = x + y\n" +
+                "        console.write(z)\n" +
+                "\n" +
+                "    shared start()\n" +
+                "        SimpleAdd t\n" +
+                "        t = new SimpleAdd()\n" +
+                "        t.add()\n");
+        retVal.put("loop", "class LoopOne\n" +
+                "    shared start()\n" +
+                "        boolean keepGoing\n" +
+                "        number n\n" +
+                "        n = 0\n" +
+                "        keepGoing = true\n" +
+                "        loop keepGoing\n" +
+                "            if n >= 15\n" +
+                "                keepGoing = false\n" +
+                "            else\n" +
+                "                n = n + 1\n" +
+                "                console.write(n)\n");
+        retVal.put("student", "class student\n" +
+                "    number gradea\n" +
+                "    number gradeb\n" +
+                "    number gradec\n" +
+                "    string firstname\n" +
+                "    string lastname\n" +
+                "\n" +
+                "    construct (string fname, string lname, number ga, number gb, number gc)\n" +
+                "        firstname = fname\n" +
+                "        lastname = lname\n" +
+                "        gradea = ga\n" +
+                "        gradeb = gb\n" +
+                "        gradec = gc\n" +
+                "\n" +
+                "    getAverage() : number avg\n" +
+                "        avg = (gradea + gradeb + gradec)/3\n" +
+                "\n" +
+                "    print()\n" +
+                "        console.write(firstname, \" \", lastname, \" \", getAverage())\n" +
+                "\n" +
+                "    shared start()\n" +
+                "        student sa\n" +
+                "        student sb\n" +
+                "        student sc\n" +
+                "        sa = new student(\"michael\",\"phipps\",100,99,98)\n" +
+                "        sb = new student(\"tom\",\"johnson\",80,75,83)\n" +
+                "        sc = new student(\"bart\",\"simpson\",32,25,33)\n" +
+                "        sa.print()\n" +
+                "        sb.print()\n" +
+                "        sc.print()\n");
+        retVal.put("deepLoops", deepLoops(3, 20));
+        retVal.put("manyClasses", manyClasses(500));
+        retVal.put("objectAllocation", objectAllocation(2000));
+        retVal.put("longStrings", longStrings(50, 2000));
+        return retVal;
+    }
+}
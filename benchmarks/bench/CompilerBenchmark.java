@@ -0,0 +1,72 @@
+package bench;
+
+import AST.TranNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// A directory of small scripts compiled the way a nightly job would: a cold JVM that lexes and parses one script, the
+// cost a JVM per script pays scripts times over (JVM start up not included), against a cold JVM with one Compiler for
+// the whole directory. Single shots, each in a fork of its own.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class CompilerBenchmark {
+    @Param({"1000"})
+    public int scripts;
+
+    private Path directory;
+    private Path first;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        directory = Files.createTempDirectory("scripts");
+        String program = TranPhases.manyClasses(3);
+        for (int i = 0; i < scripts; i++) {
+            Path file = directory.resolve("script" + TranPhases.name(i) + TranPhases.sourceExtension());
+            Files.writeString(file, program.replace("Generated", "Script" + TranPhases.name(i)));
+            if (i == 0) {
+                first = file;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public TranNode oneScript() throws IOException {
+        return TranPhases.parse(TranPhases.lex(Files.readString(first)));
+    }
+
+    @Benchmark
+    public TranNode oneCompiler() {
+        return TranPhases.compile(directory);
+    }
+}
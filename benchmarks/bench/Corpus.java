@@ -0,0 +1,40 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// One program from BenchmarkPrograms.corpus(): the InterpreterTests programs and the generated large ones.
+// Lexed once up front so the parse and interpret benchmarks only time their own phase.
+@State(Scope.Benchmark)
+public class Corpus {
+    @Param({"simpleAdd", "simpleAddInstantiate", "loop", "student",
+            "deepLoops", "manyClasses", "objectAllocation", "longStrings"})
+    public String program;
+
+    String source;
+    List<?> tokens;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void load() {
+        source = TranPhases.program(program);
+        tokens = new ArrayList<>(TranPhases.lex(source));
+        // console.write goes to System.out, which would swamp the benchmark output
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOut() {
+        System.setOut(out);
+    }
+}
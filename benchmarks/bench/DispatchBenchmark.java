@@ -0,0 +1,56 @@
+package bench;
+
+import AST.TranNode;
+import Interpreter.Interpreter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time per method call on an object whose class has 2, 20 and 200 methods, always calling the one declared last.
+// With the dispatch table the cost shouldn't grow with the class.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    private static final int CALLS = 100000;
+
+    @Param({"2", "20", "200"})
+    public int methods;
+
+    private List<?> tokens;
+    private TranNode tree;
+
+    @Setup(Level.Trial)
+    public void lex(Quiet quiet) {
+        tokens = new ArrayList<>(TranPhases.lex(TranPhases.manyMethods(methods, CALLS)));
+    }
+
+    @Setup(Level.Invocation)
+    public void parse() {
+        tree = TranPhases.parse(tokens);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public TranNode call() {
+        new Interpreter(tree).start();
+        return tree;
+    }
+}
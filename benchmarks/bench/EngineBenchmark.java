@@ -0,0 +1,80 @@
+package bench;
+
+import AST.TranNode;
+import Interpreter.Interpreter;
+import VM.BytecodeCompiler;
+import VM.JvmBackend;
+import VM.VirtualMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The same programs run by each engine: the tree walker, the closure engine, the specializing engine, the bytecode VM
+// and as JVM bytecode, compiling (and defining the class) included. Nested numeric loops, a loop making objects and
+// a loop of method calls.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+    @Param({"TREE_WALKER", "CLOSURES", "SPECIALIZING", "VM", "JVM"})
+    public String engine;
+
+    @Param({"deepLoops", "objectAllocation", "manyMethods"})
+    public String program;
+
+    private List<?> tokens;
+    private TranNode tree;
+
+    @Setup(Level.Trial)
+    public void lex(Quiet quiet) {
+        String source = switch (program) {
+            case "deepLoops" -> TranPhases.deepLoops(3, 60);
+            case "objectAllocation" -> TranPhases.objectAllocation(20000);
+            case "manyMethods" -> TranPhases.manyMethods(20, 20000);
+            default -> throw new IllegalArgumentException("no program named " + program);
+        };
+        tokens = new ArrayList<>(TranPhases.lex(source));
+    }
+
+    // the interpreter adds its console class to the tree it is given, so every run gets a freshly parsed one
+    @Setup(Level.Invocation)
+    public void parse() {
+        tree = TranPhases.parse(tokens);
+    }
+
+    @Benchmark
+    public Object run() {
+        switch (engine) {
+            case "VM" -> {
+                var vm = new VirtualMachine(BytecodeCompiler.compile(tree));
+                vm.start();
+                return vm.console;
+            }
+            case "JVM" -> {
+                var backend = new JvmBackend(tree);
+                backend.start();
+                return backend.console();
+            }
+            default -> {
+                new Interpreter(tree, Interpreter.Engine.valueOf(engine)).start();
+                return tree;
+            }
+        }
+    }
+}
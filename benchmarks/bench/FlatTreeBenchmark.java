@@ -0,0 +1,74 @@
+package bench;
+
+import AST.FlatTree;
+import AST.TranNode;
+import Interpreter.FlatInterpreter;
+import Interpreter.Interpreter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The parsed object graph against FlatTree. Run with -prof gc: gc.alloc.rate.norm of parse and flatten is the heap
+// each form of a 5000 class program takes. Then the same nested loops run by Interpreter over the objects and by
+// FlatInterpreter over the arrays.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatTreeBenchmark {
+    private List<?> tokens;
+    private TranNode graph;
+    private List<?> loopTokens;
+    private TranNode loops;
+    private FlatTree flatLoops;
+
+    @Setup(Level.Trial)
+    public void lex(Quiet quiet) {
+        tokens = TranPhases.lexBuffer(TranPhases.manyClasses(5000));
+        graph = TranPhases.parse(tokens);
+        loopTokens = new ArrayList<>(TranPhases.lex(TranPhases.deepLoops(3, 60)));
+    }
+
+    // the interpreter adds its console class to the tree it is given, so every run gets a freshly parsed one
+    @Setup(Level.Invocation)
+    public void parseLoops() {
+        loops = TranPhases.parse(loopTokens);
+        flatLoops = FlatTree.of(TranPhases.parse(loopTokens));
+    }
+
+    @Benchmark
+    public TranNode parse() {
+        return TranPhases.parse(tokens);
+    }
+
+    @Benchmark
+    public FlatTree flatten() {
+        return FlatTree.of(graph);
+    }
+
+    @Benchmark
+    public TranNode interpret() {
+        new Interpreter(loops).start();
+        return loops;
+    }
+
+    @Benchmark
+    public FlatTree interpretFlat() {
+        new FlatInterpreter(flatLoops).start();
+        return flatLoops;
+    }
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A single-line edit in generated files from 5k to 50k lines: IncrementalLexer relexing from the edited line until
+// it falls back in step, against lexing the whole file again. Each edit changes one letter after the next
+// "total = s" in the file.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalLexBenchmark {
+    @Param({"5000", "20000", "50000"})
+    public int lines;
+
+    private Object lexer;
+    private String text;
+    private int from;
+    private int edits;
+
+    @Setup
+    public void load() {
+        int linesPerClass = TranPhases.manyClasses(1).split("\n").length;
+        text = TranPhases.manyClasses(lines / linesPerClass);
+        lexer = TranPhases.incrementalLexer(text);
+    }
+
+    @Benchmark
+    public Object incremental() {
+        String current = TranPhases.lexedText(lexer);
+        int at = current.indexOf("total = s", from);
+        if (at < 0) {
+            at = current.indexOf("total = s");
+        }
+        from = at + 1;
+        TranPhases.relex(lexer, at + "total = s".length(), 1, edits++ % 2 == 0 ? "a" : "u");
+        return lexer;
+    }
+
+    @Benchmark
+    public List<?> full() {
+        return TranPhases.lexBuffer(text);
+    }
+}
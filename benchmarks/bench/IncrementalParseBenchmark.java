@@ -0,0 +1,58 @@
+package bench;
+
+import AST.TranNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// An edit inside one method of generated files from 5k to 50k lines: IncrementalParser reparsing just that method,
+// against lexing and parsing the whole file again. Each edit changes one letter after the next "sum = " in the file.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalParseBenchmark {
+    @Param({"5000", "20000", "50000"})
+    public int lines;
+
+    private Object parser;
+    private String text;
+    private int from;
+    private int edits;
+
+    @Setup
+    public void load() {
+        int linesPerClass = TranPhases.manyClasses(1).split("\n").length;
+        text = TranPhases.manyClasses(lines / linesPerClass);
+        parser = TranPhases.incrementalParser(text);
+    }
+
+    @Benchmark
+    public Object incremental() {
+        String current = TranPhases.text(parser);
+        int at = current.indexOf("sum = ", from);
+        if (at < 0) {
+            at = current.indexOf("sum = ");
+        }
+        from = at + 1;
+        TranPhases.edit(parser, at + "sum = ".length(), 1, edits++ % 2 == 0 ? "b" : "a");
+        return parser;
+    }
+
+    @Benchmark
+    public TranNode full() {
+        return TranPhases.parse(TranPhases.lexBuffer(text));
+    }
+}
@@ -0,0 +1,40 @@
+package bench;
+
+import AST.TranNode;
+import Interpreter.Interpreter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpretBenchmark {
+    private TranNode tree;
+
+    // the interpreter adds its console class to the tree it is given, so every run needs a freshly parsed tree.
+    // Per-invocation setup costs a few microseconds of timer noise, which only shows on the smallest programs.
+    @Setup(Level.Invocation)
+    public void parse(Corpus corpus) {
+        tree = TranPhases.parse(corpus.tokens);
+    }
+
+    @Benchmark
+    public TranNode interpret() {
+        new Interpreter(tree).start();
+        return tree;
+    }
+}
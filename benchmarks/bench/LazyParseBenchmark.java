@@ -0,0 +1,54 @@
+package bench;
+
+import AST.TranNode;
+import Interpreter.Interpreter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Startup of a big library where only start() runs: parsing every body up front against lazy mode, where only the
+// bodies that run get parsed, and then the same with Interpreter.start() included.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyParseBenchmark {
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private List<?> tokens;
+
+    @Setup
+    public void lex(Quiet quiet) {
+        tokens = TranPhases.lexBuffer(TranPhases.manyClasses(5000));
+    }
+
+    private TranNode parseTree() {
+        return lazy ? TranPhases.parseLazily(tokens) : TranPhases.parse(tokens);
+    }
+
+    @Benchmark
+    public TranNode parse() {
+        return parseTree();
+    }
+
+    @Benchmark
+    public TranNode parseAndStart() {
+        TranNode tree = parseTree();
+        new Interpreter(tree).start();
+        return tree;
+    }
+}
@@ -0,0 +1,30 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+// -jvmArgsAppend -Dtran.scalar=true compares against the scanner without the vector fast path
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class LexBenchmark {
+    @Benchmark
+    public List<?> lex(Corpus corpus) {
+        return TranPhases.lex(corpus.source);
+    }
+
+    @Benchmark
+    public List<?> lexBuffer(Corpus corpus) {
+        return TranPhases.lexBuffer(corpus.source);
+    }
+}
@@ -0,0 +1,30 @@
+package bench;
+
+import AST.TranNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    // the parser only moves a cursor over the token list, so the same list is parsed every time
+    @Benchmark
+    public TranNode parse(Corpus corpus) {
+        return TranPhases.parse(corpus.tokens);
+    }
+
+    @Benchmark
+    public TranNode parseParallel(Corpus corpus) {
+        return TranPhases.parseParallel(corpus.tokens);
+    }
+}
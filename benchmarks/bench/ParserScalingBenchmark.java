@@ -0,0 +1,53 @@
+package bench;
+
+import AST.TranNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Parser.Tran() over generated programs from about 1k up to 1M tokens, kept as the LinkedList from Lex(), the
+// ArrayList from LexSpans() or the TokenBuffer from LexBuffer(). TokenManager is a cursor, so the time per token
+// (the score over the tokens param) should stay flat for all three as the program grows.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserScalingBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int tokens;
+
+    @Param({"linked", "array", "buffer"})
+    public String list;
+
+    private List<?> lexed;
+
+    @Setup
+    public void lex() {
+        int tokensPerClass = TranPhases.lex(TranPhases.manyClasses(1)).size();
+        String source = TranPhases.manyClasses(Math.max(1, tokens / tokensPerClass));
+        lexed = switch (list) {
+            case "linked" -> TranPhases.lex(source);
+            case "array" -> TranPhases.lexSpans(source);
+            case "buffer" -> TranPhases.lexBuffer(source);
+            default -> throw new IllegalArgumentException("no token list named " + list);
+        };
+    }
+
+    @Benchmark
+    public TranNode parse() {
+        return TranPhases.parse(lexed);
+    }
+}
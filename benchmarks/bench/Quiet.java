@@ -0,0 +1,28 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// console.write goes to System.out, which would swamp the benchmark output. A benchmark that runs programs on
+// something other than the Corpus takes this in its setup to send them nowhere for the trial.
+@State(Scope.Benchmark)
+public class Quiet {
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void silence() {
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOut() {
+        System.setOut(out);
+    }
+}
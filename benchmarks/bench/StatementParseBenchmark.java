@@ -0,0 +1,43 @@
+package bench;
+
+import AST.TranNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Parser.Tran() on BenchmarkPrograms.statementHeavy(): 100 methods of multi-assignment calls, calls and
+// assignments, the statements disambiguate() has to try more than one way.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementParseBenchmark {
+    @Param({"10", "40", "160"})
+    public int statements;
+
+    private List<?> tokens;
+
+    @Setup
+    public void lex() {
+        tokens = new ArrayList<>(TranPhases.lex(TranPhases.statementHeavy(100, statements)));
+    }
+
+    @Benchmark
+    public TranNode parse() {
+        return TranPhases.parse(tokens);
+    }
+}
@@ -0,0 +1,52 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// What keeping the tokens around costs as a LinkedList<Token> (Lex()), an ArrayList of span Tokens (LexSpans()) or a
+// TokenBuffer (LexBuffer()). Run with -prof gc: gc.alloc.rate.norm over the token count of manyClasses(classes)
+// (113 tokens a class) is the bytes per token each one takes to build.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class TokenBufferBenchmark {
+    @Param({"500", "5000"})
+    public int classes;
+
+    private String source;
+
+    @Setup
+    public void generate() {
+        source = TranPhases.manyClasses(classes);
+    }
+
+    @Benchmark
+    public List<?> lex() {
+        return TranPhases.lex(source);
+    }
+
+    @Benchmark
+    public List<?> lexSpans() {
+        return TranPhases.lexSpans(source);
+    }
+
+    @Benchmark
+    public List<?> lexBuffer() {
+        return TranPhases.lexBuffer(source);
+    }
+}
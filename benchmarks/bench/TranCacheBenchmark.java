@@ -0,0 +1,79 @@
+package bench;
+
+import AST.TranNode;
+import Interpreter.Interpreter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Cold start of a large generated program: a fresh JVM loads the source and calls Interpreter.start(), once with the
+// .tranc cache removed (lex, parse and write the cache) and once with it in place (map and read). Single shots, each
+// in a fork of its own. Writing the cache for the second one runs the lexer and parser in that JVM first, but not
+// the reading side that is timed.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class TranCacheBenchmark {
+    private static final int CLASSES = 2500;
+
+    @State(Scope.Benchmark)
+    public static class Source {
+        Path source;
+
+        @Setup(Level.Trial)
+        public void write(Quiet quiet) throws IOException {
+            source = Files.createTempFile("benchmark", ".tran");
+            Files.writeString(source, TranPhases.manyClasses(CLASSES));
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            Files.deleteIfExists(TranPhases.cachePath(source));
+            Files.deleteIfExists(source);
+        }
+    }
+
+    // the same source with its cache written
+    @State(Scope.Benchmark)
+    public static class Cached {
+        Path source;
+
+        @Setup(Level.Trial)
+        public void cache(Source written) {
+            source = written.source;
+            TranPhases.loadCached(source);
+        }
+    }
+
+    private static TranNode start(Path source) {
+        TranNode tran = TranPhases.loadCached(source);
+        new Interpreter(tran).start();
+        return tran;
+    }
+
+    @Benchmark
+    public TranNode withoutCache(Source source) {
+        return start(source.source);
+    }
+
+    @Benchmark
+    public TranNode withCache(Cached cached) {
+        return start(cached.source);
+    }
+}
@@ -0,0 +1,299 @@
+package bench;
+
+import AST.TranNode;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+// JMH won't generate code for a benchmark in the default package, and a named package can't import the Lexer, the
+// Parser, BenchmarkPrograms or the other tools in it, so they are reached through method handles looked up once by class name.
+final class TranPhases {
+    private static final MethodHandle NEW_LEXER;
+    private static final MethodHandle LEX;
+    private static final MethodHandle LEX_SPANS;
+    private static final MethodHandle LEX_BUFFER;
+    private static final MethodHandle NEW_PARSER;
+    private static final MethodHandle NEW_LAZY_PARSER;
+    private static final MethodHandle TRAN;
+    private static final MethodHandle PARALLEL_PARSE;
+    private static final MethodHandle CORPUS;
+    private static final MethodHandle STATEMENT_HEAVY;
+    private static final MethodHandle NAME;
+    private static final MethodHandle MANY_CLASSES;
+    private static final MethodHandle DEEP_LOOPS;
+    private static final MethodHandle OBJECT_ALLOCATION;
+    private static final MethodHandle MANY_METHODS;
+    private static final MethodHandle NEW_INCREMENTAL_LEXER;
+    private static final MethodHandle LEXER_EDIT;
+    private static final MethodHandle LEXER_TEXT;
+    private static final MethodHandle NEW_INCREMENTAL_PARSER;
+    private static final MethodHandle EDIT;
+    private static final MethodHandle TEXT;
+    private static final MethodHandle LOAD_CACHED;
+    private static final MethodHandle CACHE_PATH;
+    private static final MethodHandle NEW_COMPILER;
+    private static final MethodHandle COMPILE;
+    private static final MethodHandle EXTENSION;
+
+    static {
+        var lookup = MethodHandles.publicLookup();
+        try {
+            Class<?> lexer = Class.forName("Lexer");
+            Class<?> parser = Class.forName("Parser");
+            NEW_LEXER = lookup.findConstructor(lexer, MethodType.methodType(void.class, String.class));
+            LEX = lookup.findVirtual(lexer, "Lex", MethodType.methodType(List.class));
+            LEX_SPANS = lookup.findVirtual(lexer, "LexSpans", MethodType.methodType(List.class));
+            LEX_BUFFER = lookup.findVirtual(lexer, "LexBuffer", MethodType.methodType(Class.forName("TokenBuffer")));
+            NEW_PARSER = lookup.findConstructor(parser, MethodType.methodType(void.class, TranNode.class, List.class));
+            NEW_LAZY_PARSER = lookup.findConstructor(parser, MethodType.methodType(void.class, TranNode.class, List.class, boolean.class));
+            TRAN = lookup.findVirtual(parser, "Tran", MethodType.methodType(void.class));
+            PARALLEL_PARSE = lookup.findStatic(Class.forName("ParallelParser"), "parse",
+                    MethodType.methodType(void.class, TranNode.class, List.class));
+            Class<?> programs = Class.forName("BenchmarkPrograms");
+            CORPUS = lookup.findStatic(programs, "corpus", MethodType.methodType(Map.class));
+            STATEMENT_HEAVY = lookup.findStatic(programs, "statementHeavy", MethodType.methodType(String.class, int.class, int.class));
+            NAME = lookup.findStatic(programs, "name", MethodType.methodType(String.class, int.class));
+            MANY_CLASSES = lookup.findStatic(programs, "manyClasses", MethodType.methodType(String.class, int.class));
+            DEEP_LOOPS = lookup.findStatic(programs, "deepLoops", MethodType.methodType(String.class, int.class, int.class));
+            OBJECT_ALLOCATION = lookup.findStatic(programs, "objectAllocation", MethodType.methodType(String.class, int.class));
+            MANY_METHODS = lookup.findStatic(programs, "manyMethods", MethodType.methodType(String.class, int.class, int.class));
+            Class<?> incrementalLexer = Class.forName("IncrementalLexer");
+            NEW_INCREMENTAL_LEXER = lookup.findConstructor(incrementalLexer, MethodType.methodType(void.class, String.class));
+            LEXER_EDIT = lookup.findVirtual(incrementalLexer, "edit", MethodType.methodType(void.class, int.class, int.class, String.class));
+            LEXER_TEXT = lookup.findVirtual(incrementalLexer, "getText", MethodType.methodType(String.class));
+            Class<?> incremental = Class.forName("IncrementalParser");
+            NEW_INCREMENTAL_PARSER = lookup.findConstructor(incremental, MethodType.methodType(void.class, String.class));
+            EDIT = lookup.findVirtual(incremental, "edit", MethodType.methodType(void.class, int.class, int.class, String.class));
+            TEXT = lookup.findVirtual(incremental, "getText", MethodType.methodType(String.class));
+            Class<?> cache = Class.forName("TranCache");
+            LOAD_CACHED = lookup.findStatic(cache, "load", MethodType.methodType(TranNode.class, Path.class));
+            CACHE_PATH = lookup.findStatic(cache, "cachePath", MethodType.methodType(Path.class, Path.class));
+            Class<?> compiler = Class.forName("Compiler");
+            NEW_COMPILER = lookup.findConstructor(compiler, MethodType.methodType(void.class));
+            COMPILE = lookup.findVirtual(compiler, "compile", MethodType.methodType(TranNode.class, Path.class));
+            EXTENSION = lookup.findStaticGetter(compiler, "EXTENSION", String.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private TranPhases() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static String program(String name) {
+        try {
+            String retVal = ((Map<String, String>) CORPUS.invoke()).get(name);
+            if (retVal == null) {
+                throw new IllegalArgumentException("no program named " + name);
+            }
+            return retVal;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String statementHeavy(int methods, int count) {
+        try {
+            return (String) STATEMENT_HEAVY.invoke(methods, count);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String name(int n) {
+        try {
+            return (String) NAME.invoke(n);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String manyClasses(int count) {
+        try {
+            return (String) MANY_CLASSES.invoke(count);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String deepLoops(int depth, int count) {
+        try {
+            return (String) DEEP_LOOPS.invoke(depth, count);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String objectAllocation(int count) {
+        try {
+            return (String) OBJECT_ALLOCATION.invoke(count);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String manyMethods(int methods, int calls) {
+        try {
+            return (String) MANY_METHODS.invoke(methods, calls);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static List<?> lex(String source) {
+        try {
+            return (List<?>) LEX.invoke(NEW_LEXER.invoke(source));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // an ArrayList of Tokens that only keep their span of the source
+    static List<?> lexSpans(String source) {
+        try {
+            return (List<?>) LEX_SPANS.invoke(NEW_LEXER.invoke(source));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // the span scanner, which doesn't make a Token per token
+    static List<?> lexBuffer(String source) {
+        try {
+            return (List<?>) LEX_BUFFER.invoke(NEW_LEXER.invoke(source));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static TranNode parse(List<?> tokens) {
+        try {
+            var retVal = new TranNode();
+            TRAN.invoke(NEW_PARSER.invoke(retVal, tokens));
+            return retVal;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // bodies left as tokens until they first run
+    static TranNode parseLazily(List<?> tokens) {
+        try {
+            var retVal = new TranNode();
+            TRAN.invoke(NEW_LAZY_PARSER.invoke(retVal, tokens, true));
+            return retVal;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // top level declarations parsed on the common pool
+    static TranNode parseParallel(List<?> tokens) {
+        try {
+            var retVal = new TranNode();
+            PARALLEL_PARSE.invoke(retVal, tokens);
+            return retVal;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // an IncrementalLexer, kept as an Object since its class can't be named here
+    static Object incrementalLexer(String text) {
+        try {
+            return NEW_INCREMENTAL_LEXER.invoke(text);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void relex(Object incrementalLexer, int offset, int removedLength, String inserted) {
+        try {
+            LEXER_EDIT.invoke(incrementalLexer, offset, removedLength, inserted);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String lexedText(Object incrementalLexer) {
+        try {
+            return (String) LEXER_TEXT.invoke(incrementalLexer);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // an IncrementalParser, kept as an Object since its class can't be named here
+    static Object incrementalParser(String text) {
+        try {
+            return NEW_INCREMENTAL_PARSER.invoke(text);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void edit(Object incrementalParser, int offset, int removedLength, String inserted) {
+        try {
+            EDIT.invoke(incrementalParser, offset, removedLength, inserted);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String text(Object incrementalParser) {
+        try {
+            return (String) TEXT.invoke(incrementalParser);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // TranCache.load(): the .tranc next to the source if it is current, otherwise lexed, parsed and written
+    static TranNode loadCached(Path source) {
+        try {
+            return (TranNode) LOAD_CACHED.invoke(source);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Path cachePath(Path source) {
+        try {
+            return (Path) CACHE_PATH.invoke(source);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // a new Compiler over a file or a directory of them
+    static TranNode compile(Path path) {
+        try {
+            return (TranNode) COMPILE.invoke(NEW_COMPILER.invoke(), path);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String sourceExtension() {
+        try {
+            return (String) EXTENSION.invoke();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(e);
+    }
+}